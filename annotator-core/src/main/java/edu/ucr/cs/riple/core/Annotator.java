@@ -24,7 +24,11 @@
 
 package edu.ucr.cs.riple.core;
 
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
 import edu.ucr.cs.riple.core.cache.TargetModuleCache;
 import edu.ucr.cs.riple.core.cache.downstream.DownstreamImpactCache;
 import edu.ucr.cs.riple.core.cache.downstream.DownstreamImpactCacheImpl;
@@ -37,11 +41,30 @@ import edu.ucr.cs.riple.core.evaluators.suppliers.Supplier;
 import edu.ucr.cs.riple.core.evaluators.suppliers.TargetModuleSupplier;
 import edu.ucr.cs.riple.core.injectors.AnnotationInjector;
 import edu.ucr.cs.riple.core.injectors.PhysicalInjector;
+import edu.ucr.cs.riple.core.registries.index.Error;
 import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.registries.region.RegionRegistry;
 import edu.ucr.cs.riple.core.util.Utility;
+import edu.ucr.cs.riple.injector.location.Location;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 /**
  * The main class of the core module. Responsible for analyzing the target module and injecting the
@@ -49,6 +72,16 @@ import java.util.stream.Stream;
  */
 public class Annotator {
 
+  /**
+   * Maximum number of fixes evaluated at each step when the run is time budgeted. Reports are
+   * written and the remaining budget is checked after each batch.
+   */
+  private static final int TIME_BUDGET_BATCH_SIZE = 50;
+  /**
+   * Number of fixes evaluated at the first step of a time budgeted run, before the duration of
+   * evaluating a fix can be estimated.
+   */
+  private static final int TIME_BUDGET_FIRST_BATCH_SIZE = 10;
   /** Injector instance. */
   private final AnnotationInjector injector;
   /** Annotator context. */
@@ -57,23 +90,209 @@ public class Annotator {
   public final ReportCache cache;
   /** Annotator configuration. */
   public final Config config;
+  /** Impact cache of fixes on target module, kept through all iterations and runs. */
+  private final TargetModuleCache targetModuleCache;
+  /**
+   * The downstream impact cache stores the impact of making each public API @Nullable on downstream
+   * dependencies.
+   */
+  private final DownstreamImpactCache downstreamImpactCache;
+  /**
+   * Store of reports of finished shards, non-null if sharding by package is activated, see {@link
+   * Config#shardByPackage}.
+   */
+  @Nullable public final ShardStore shardStore;
 
   public Annotator(Config config) {
+    this(config, new Context(config));
+  }
+
+  /**
+   * Creates an annotator for the target module of the given context.
+   *
+   * @param config Annotator configuration.
+   * @param context Annotator context of the target module.
+   */
+  private Annotator(Config config, Context context) {
     this.config = config;
-    this.context = new Context(config);
+    this.context = context;
     this.cache = new ReportCache(config);
     this.injector = new PhysicalInjector(context);
+    this.targetModuleCache = new TargetModuleCache();
+    this.downstreamImpactCache =
+        config.downStreamDependenciesAnalysisActivated
+            ? new DownstreamImpactCacheImpl(context)
+            : new VoidDownstreamImpactCache();
+    this.shardStore =
+        config.shardByPackage
+            ? new ShardStore(config, context.outputDir, config.resumeShards)
+            : null;
+    if (shardStore != null) {
+      // Fixes of shards finished by a previous run are not evaluated again.
+      cache.markReleased(shardStore.getPersistedLocations());
+    }
   }
 
-  /** Starts the annotating process consist of preprocess followed by the "annotate" phase. */
+  /**
+   * Starts the annotating process on the target module and all additional target modules. Each
+   * additional target module is annotated on its own thread with its own context, and builds of all
+   * target modules are scheduled on the shared {@link BuildScheduler}. Target modules share the
+   * source tree, therefore a target module which uses classes of another target module is
+   * annotated after that module is annotated, so that its builds do not observe intermediate
+   * changes of that module. Independent target modules are annotated concurrently. Returns once
+   * all target modules are annotated.
+   */
   public void start() {
-    preprocess();
+    try {
+      if (config.additionalTargets.isEmpty()) {
+        run();
+        return;
+      }
+      ExecutorService executor = Executors.newFixedThreadPool(config.additionalTargets.size() + 1);
+      try {
+        // Contexts run the scanner on the base state of target modules, create them concurrently.
+        List<Future<Annotator>> creations = new ArrayList<>();
+        config.additionalTargets.forEach(
+            (target, buildCommand) ->
+                creations.add(
+                    executor.submit(
+                        () ->
+                            new Annotator(
+                                config,
+                                new Context(
+                                    config,
+                                    target,
+                                    buildCommand,
+                                    target.dir,
+                                    context.buildScheduler)))));
+        List<Annotator> annotators = new ArrayList<>();
+        annotators.add(this);
+        for (Future<Annotator> creation : creations) {
+          annotators.add(await(creation));
+        }
+        ImmutableMap<Annotator, ImmutableSet<Annotator>> ordered =
+            BuildScheduler.orderByDependencies(
+                annotators,
+                (annotator, other) ->
+                    annotator.context.targetModuleInfo.dependsOn(other.context.targetModuleInfo));
+        // Targets are submitted in dependency order, dependencies of each target are already
+        // submitted and running on their own thread.
+        Map<Annotator, Future<?>> runs = new ConcurrentHashMap<>();
+        ordered.forEach(
+            (annotator, dependencies) ->
+                runs.put(
+                    annotator,
+                    executor.submit(
+                        () -> {
+                          dependencies.forEach(dependency -> await(runs.get(dependency)));
+                          if (annotator == this) {
+                            run();
+                          } else {
+                            annotator.runAndClose();
+                          }
+                        })));
+        runs.values().forEach(Annotator::await);
+      } finally {
+        executor.shutdown();
+      }
+    } finally {
+      context.injector.close();
+    }
+  }
+
+  /**
+   * Waits for the given task of annotating target modules to complete.
+   *
+   * @param task Task to wait for.
+   * @return Result of the task.
+   * @param <T> Type of the result.
+   */
+  private static <T> T await(Future<T> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while annotating target modules", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Exception while annotating target modules", e.getCause());
+    }
+  }
+
+  /** Runs the annotating process and releases the resources of the context afterwards. */
+  private void runAndClose() {
+    try {
+      run();
+    } finally {
+      context.injector.close();
+    }
+  }
+
+  /**
+   * Runs the annotating process on the target module of this annotator, consist of preprocess
+   * followed by the "annotate" phase. Analysis of downstream dependencies is started once
+   * preprocessing is completed, as builds of downstream dependencies compile the sources of the
+   * target module. It runs concurrently with the first build of the target module and collection of
+   * its fixes, and is awaited before the sources of the target module are modified again.
+   */
+  void run() {
+    preprocess(path -> true);
+    // downstreamImpactCache analyzes effects of all public APIs on downstream dependencies.
+    // Through iterations, since the source code for downstream dependencies does not change and the
+    // computation does not depend on the changes in the target module, it will compute the same
+    // result in each iteration, therefore we perform the analysis only once and reuse it in each
+    // iteration.
+    downstreamImpactCache.analyzeDownstreamDependencies();
     long timer = context.log.startTimer();
     annotate();
     context.log.stopTimerAndCapture(timer);
     Utility.writeLog(context);
   }
 
+  /**
+   * Re-annotates the target module after its source files are edited outside the annotator. The
+   * scanner is rerun to refresh the registries, the base state of the target module is reset to
+   * the edited sources and preprocessing is rerun on the edited files. Cached impacts and reports
+   * of fixes affected by the edits are dropped, and impacts on downstream dependencies of the
+   * affected fixes are computed again. Fixes of errors which are already processed and not affected
+   * by the edits are not evaluated again. Must be called after {@link #run()}.
+   *
+   * @param editedFiles Source files of the target module edited since the last run.
+   */
+  void reannotate(ImmutableSet<Path> editedFiles) {
+    // Registries must not be refreshed while the downstream analysis is still reading them.
+    downstreamImpactCache.awaitAnalysis();
+    context.targetModuleInfo.refresh(context.buildCommand);
+    context.resetBaseState();
+    preprocess(editedFiles::contains);
+    Predicate<Location> affected = location -> isAffectedByEdits(location, editedFiles);
+    targetModuleCache.invalidate(affected);
+    cache.invalidate(affected);
+    downstreamImpactCache.invalidate(affected);
+    downstreamImpactCache.analyzeDownstreamDependencies();
+    context.timeBudget.restart();
+    long timer = context.log.startTimer();
+    annotate();
+    context.log.stopTimerAndCapture(timer);
+    Utility.writeLog(context);
+  }
+
+  /**
+   * Checks if the impact of a fix on the given location might be changed by edits on the given
+   * files, that is if the location or any of its impacted regions is declared in an edited file.
+   *
+   * @param location Location of the fix.
+   * @param editedFiles Edited source files.
+   * @return true, if the impact of the fix might be changed.
+   */
+  private boolean isAffectedByEdits(Location location, ImmutableSet<Path> editedFiles) {
+    if (editedFiles.contains(location.path)) {
+      return true;
+    }
+    return context.targetModuleInfo.getRegionRegistry().getImpactedRegions(location).stream()
+        .map(region -> context.targetModuleInfo.getFieldRegistry().getLocationOnClass(region.clazz))
+        .anyMatch(clazz -> clazz != null && editedFiles.contains(clazz.path));
+  }
+
   /**
    * Performs all the preprocessing tasks.
    *
@@ -83,51 +302,70 @@ public class Annotator {
    *   <li>Detects initializer method candidates.
    *   <li>Marks selected initializer methods with {@code @Initializer} annotation.
    * </ul>
+   *
+   * @param scope Predicate on source files, only elements declared in matching files are
+   *     pre-processed.
    */
-  private void preprocess() {
+  private void preprocess(Predicate<Path> scope) {
     System.out.println("Preprocessing...");
-    context.checker.preprocess(injector);
+    context.checker.preprocess(injector, scope);
   }
 
-  /** Performs iterations of inference/injection until no unseen fix is suggested. */
+  /**
+   * Performs iterations of inference/injection until no unseen fix is suggested or the time budget
+   * is about to run out. Analysis of downstream dependencies might still be running in background
+   * and is awaited before the first modification of the sources of the target module.
+   */
   private void annotate() {
-    // The downstream impact cache stores the impact of making each public API @Nullable on
-    // downstream dependencies.
-    // downstreamImpactCache analyzes effects of all public APIs on downstream dependencies.
-    // Through iterations, since the source code for downstream dependencies does not change and the
-    // computation does not depend on the changes in the target module, it will compute the same
-    // result in each iteration, therefore we perform the analysis only once and reuse it in each
-    // iteration.
-    DownstreamImpactCache downstreamImpactCache =
-        config.downStreamDependenciesAnalysisActivated
-            ? new DownstreamImpactCacheImpl(context)
-            : new VoidDownstreamImpactCache();
-    downstreamImpactCache.analyzeDownstreamDependencies();
-    TargetModuleCache targetModuleCache = new TargetModuleCache();
     if (config.inferenceActivated) {
       // Outer loop starts.
-      while (cache.isUpdated()) {
+      while (cache.isUpdated() && context.timeBudget.canAffordNextStep()) {
         executeNextIteration(targetModuleCache, downstreamImpactCache);
         if (config.disableOuterLoop) {
           break;
         }
       }
       // Perform once last iteration including all fixes.
-      if (!config.disableOuterLoop) {
+      if (!config.disableOuterLoop && context.timeBudget.canAffordNextStep()) {
         cache.disable();
         executeNextIteration(targetModuleCache, downstreamImpactCache);
         cache.enable();
       }
     }
-    if (config.suppressRemainingErrors) {
+    if (!context.timeBudget.canAffordNextStep()) {
+      System.out.println("\nTime budget is exhausted, stopping with the results so far.");
+    } else if (config.suppressRemainingErrors) {
+      downstreamImpactCache.awaitAnalysis();
       context.checker.suppressRemainingErrors(injector);
     }
     System.out.println("\nFinished annotating.");
-    Utility.writeReports(context, cache.reports().stream().collect(ImmutableSet.toImmutableSet()));
+    writeReports();
+  }
+
+  /**
+   * Writes the reports of all processed fixes in the output directory, including the reports of
+   * finished shards persisted in {@link #shardStore}.
+   */
+  private void writeReports() {
+    if (shardStore == null) {
+      Utility.writeReports(context, cache.reports());
+    } else {
+      shardStore.writeReports(cache.reports());
+    }
   }
 
   /**
-   * Performs single iteration of inference/injection.
+   * Performs single iteration of inference/injection. If sharding by package is activated,
+   * suggested fixes are partitioned by package, see {@link #partitionByPackage(ImmutableSet,
+   * RegionRegistry)}. If the run is time budgeted, fixes of each shard are evaluated in batches.
+   * Each batch is sized to fit in the remaining budget, see {@link
+   * TimeBudget#getAffordableStepSize(int, int)}, and is selected by ranking the remaining fixes of
+   * the shard by their expected payoff. Approved fixes of each shard or batch are injected and
+   * reports are written before the next one, and the iteration stops when the remaining budget is
+   * not enough for the next step. The target module is rebuilt before every shard or batch
+   * following another, so that it is evaluated on the current state of the target module with the
+   * approved fixes injected, and fixes no longer suggested on that state are dropped. Reports of
+   * each finished shard are persisted in {@link #shardStore} and released from memory.
    *
    * @param targetModuleCache Target impact cache instance.
    * @param downstreamImpactCache Downstream impact cache instance to retrieve impact of fixes on
@@ -135,8 +373,161 @@ public class Annotator {
    */
   private void executeNextIteration(
       TargetModuleCache targetModuleCache, DownstreamImpactCache downstreamImpactCache) {
-    ImmutableSet<Report> latestReports =
-        processTriggeredFixes(targetModuleCache, downstreamImpactCache);
+    Utility.buildTargetWithCache(context);
+    Set<? extends Error> errors = context.checker.deserializeErrors(context.targetModuleInfo);
+    // Suggested fixes of target at the current state.
+    ImmutableSet<Fix> fixes = getUnprocessedFixes(errors);
+    boolean stepped = context.timeBudget.isLimited() || config.shardByPackage;
+    if (!stepped || fixes.isEmpty()) {
+      processTriggeredFixes(fixes, targetModuleCache, downstreamImpactCache);
+      return;
+    }
+    // True if fixes are evaluated or injected since errors are last deserialized, output of the
+    // checker is then left by the builds of the evaluation.
+    boolean stale = false;
+    for (ImmutableSet<Fix> shard :
+        config.shardByPackage
+            ? partitionByPackage(fixes, context.targetModuleInfo.getRegionRegistry())
+            : ImmutableList.of(fixes)) {
+      Set<Fix> remaining = new LinkedHashSet<>(shard);
+      Set<Report> shardReports = new HashSet<>();
+      while (!remaining.isEmpty()) {
+        if (stale) {
+          // Errors of the current state are the root of the next evaluation.
+          Utility.buildTargetWithCache(context);
+          errors = context.checker.deserializeErrors(context.targetModuleInfo);
+          // Fixes no longer suggested on the current state are dropped.
+          remaining.retainAll(getUnprocessedFixes(errors));
+          stale = false;
+          if (remaining.isEmpty()) {
+            break;
+          }
+        }
+        ImmutableSet<Fix> step = ImmutableSet.copyOf(remaining);
+        if (context.timeBudget.isLimited()) {
+          int size =
+              context.timeBudget.getAffordableStepSize(
+                  TIME_BUDGET_FIRST_BATCH_SIZE, TIME_BUDGET_BATCH_SIZE);
+          if (size == 0) {
+            System.out.println("Time budget is about to run out, skipping the remaining fixes.");
+            releaseShard(shardReports, targetModuleCache);
+            return;
+          }
+          ImmutableList<Fix> ranked = rankByExpectedPayoff(step, errors);
+          step = ImmutableSet.copyOf(ranked.subList(0, Math.min(size, ranked.size())));
+        }
+        long start = context.timeBudget.startStep();
+        ImmutableSet<Report> reports =
+            processTriggeredFixes(step, targetModuleCache, downstreamImpactCache);
+        shardReports.addAll(reports);
+        writeReports();
+        context.timeBudget.finishStep(start, step.size());
+        remaining.removeAll(step);
+        stale = true;
+      }
+      releaseShard(shardReports, targetModuleCache);
+    }
+  }
+
+  /**
+   * Persists the reports of a finished shard in {@link #shardStore} and releases them from memory
+   * along with the cached impacts of their fixes. Does nothing if sharding by package is not
+   * activated.
+   *
+   * @param reports Reports of the shard.
+   * @param targetModuleCache Target impact cache instance.
+   */
+  private void releaseShard(Set<Report> reports, TargetModuleCache targetModuleCache) {
+    if (shardStore == null || reports.isEmpty()) {
+      return;
+    }
+    shardStore.persist(reports);
+    cache.release(reports);
+    Set<Location> locations =
+        reports.stream().map(report -> report.root.toLocation()).collect(Collectors.toSet());
+    targetModuleCache.invalidate(locations::contains);
+  }
+
+  /**
+   * Returns the fixes resolving the given errors which are not processed yet.
+   *
+   * @param errors Errors reported on the current state of target module.
+   * @return Unprocessed fixes resolving the given errors.
+   */
+  private ImmutableSet<Fix> getUnprocessedFixes(Set<? extends Error> errors) {
+    return Error.getResolvingFixesOfErrors(errors).stream()
+        .filter(fix -> !cache.processedFix(fix))
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /**
+   * Partitions fixes into shards by the package of their target class. A fix impacting regions
+   * outside the package of its target class is moved to a final merge shard, which is processed
+   * after all package shards are injected, so that its impact is computed on the reconciled state
+   * of all packages it touches.
+   *
+   * @param fixes Fixes to partition.
+   * @param regionRegistry Registry locating the regions impacted by each fix.
+   * @return Shards ordered by package name, followed by the merge shard if not empty.
+   */
+  static ImmutableList<ImmutableSet<Fix>> partitionByPackage(
+      ImmutableSet<Fix> fixes, RegionRegistry regionRegistry) {
+    Map<String, ImmutableSet.Builder<Fix>> shards = new TreeMap<>();
+    ImmutableSet.Builder<Fix> mergeShard = ImmutableSet.builder();
+    for (Fix fix : fixes) {
+      Location location = fix.toLocation();
+      String packageName = packageOf(location.clazz);
+      boolean crossesPackages =
+          regionRegistry.getImpactedRegions(location).stream()
+              .anyMatch(region -> !packageOf(region.clazz).equals(packageName));
+      if (crossesPackages) {
+        mergeShard.add(fix);
+      } else {
+        shards.computeIfAbsent(packageName, k -> ImmutableSet.builder()).add(fix);
+      }
+    }
+    ImmutableList.Builder<ImmutableSet<Fix>> partitions = ImmutableList.builder();
+    shards.values().forEach(shard -> partitions.add(shard.build()));
+    ImmutableSet<Fix> merge = mergeShard.build();
+    if (!merge.isEmpty()) {
+      partitions.add(merge);
+    }
+    return partitions.build();
+  }
+
+  /**
+   * Returns the package name of the given flat class name.
+   *
+   * @param clazz Flat name of the class.
+   * @return Package name, empty for the default package.
+   */
+  private static String packageOf(String clazz) {
+    int index = clazz.lastIndexOf('.');
+    return index < 0 ? "" : clazz.substring(0, index);
+  }
+
+  /**
+   * Processes triggered fixes and injects the approved ones.
+   *
+   * @param fixes Triggered fixes to process.
+   * @param targetModuleCache Target impact cache instance.
+   * @param downstreamImpactCache Downstream impact cache instance to retrieve impact of fixes on
+   *     downstream dependencies.
+   * @return Reports of the processed fixes.
+   */
+  private ImmutableSet<Report> processTriggeredFixes(
+      ImmutableSet<Fix> fixes,
+      TargetModuleCache targetModuleCache,
+      DownstreamImpactCache downstreamImpactCache) {
+    // Fixes are injected on the sources of the target module from here on, which must not be
+    // observed by the builds of downstream dependencies.
+    downstreamImpactCache.awaitAnalysis();
+    // Initializing required evaluator instances.
+    TargetModuleSupplier supplier =
+        new TargetModuleSupplier(context, targetModuleCache, downstreamImpactCache);
+    Evaluator evaluator = getEvaluator(supplier);
+    // Result of the iteration analysis.
+    ImmutableSet<Report> latestReports = evaluator.evaluate(fixes);
     // Compute boundaries of effects on downstream dependencies.
     latestReports.forEach(
         report -> {
@@ -148,6 +539,10 @@ public class Annotator {
     cache.update(latestReports);
     // Tag reports according to selected analysis mode.
     config.mode.tag(downstreamImpactCache, latestReports);
+    // Quarantined reports have unknown impact.
+    latestReports.stream()
+        .filter(report -> report.quarantined)
+        .forEach(report -> report.tag(Report.Tag.REJECT));
     // Inject approved fixes.
     Set<Fix> selectedFixes =
         latestReports.stream()
@@ -161,29 +556,39 @@ public class Annotator {
     // Update impact saved state.
     downstreamImpactCache.updateImpactsAfterInjection(selectedFixes);
     targetModuleCache.updateImpactsAfterInjection(selectedFixes);
+    return latestReports;
   }
 
   /**
-   * Processes triggered fixes.
+   * Ranks fixes by their expected payoff, fixes resolving more errors on their own come first and
+   * among those, fixes impacting fewer regions (cheaper to evaluate and less likely to trigger new
+   * errors) come first.
    *
-   * @param downstreamImpactCache Downstream impact cache instance.
-   * @param targetModuleCache Target impact cache instance.
-   * @return Immutable set of reports from the triggered fixes.
+   * @param fixes Fixes to rank.
+   * @param errors Errors reported on the current state of target module.
+   * @return List of fixes ordered by their expected payoff in descending order.
    */
-  private ImmutableSet<Report> processTriggeredFixes(
-      TargetModuleCache targetModuleCache, DownstreamImpactCache downstreamImpactCache) {
-    Utility.buildTarget(context);
-    // Suggested fixes of target at the current state.
-    ImmutableSet<Fix> fixes =
-        Utility.readFixesFromOutputDirectory(context, context.targetModuleInfo).stream()
-            .filter(fix -> !cache.processedFix(fix))
-            .collect(ImmutableSet.toImmutableSet());
-    // Initializing required evaluator instances.
-    TargetModuleSupplier supplier =
-        new TargetModuleSupplier(context, targetModuleCache, downstreamImpactCache);
-    Evaluator evaluator = getEvaluator(supplier);
-    // Result of the iteration analysis.
-    return evaluator.evaluate(fixes);
+  private ImmutableList<Fix> rankByExpectedPayoff(
+      ImmutableSet<Fix> fixes, Set<? extends Error> errors) {
+    Multiset<Fix> resolvedErrors = HashMultiset.create();
+    errors.stream()
+        .filter(Error::isSingleFix)
+        .forEach(error -> resolvedErrors.addAll(error.getResolvingFixes()));
+    Map<Fix, Integer> impactedRegions = new HashMap<>();
+    fixes.forEach(
+        fix ->
+            impactedRegions.put(
+                fix,
+                context
+                    .targetModuleInfo
+                    .getRegionRegistry()
+                    .getImpactedRegions(fix.toLocation())
+                    .size()));
+    return ImmutableList.sortedCopyOf(
+        Comparator.comparingInt((Fix fix) -> resolvedErrors.count(fix))
+            .reversed()
+            .thenComparingInt(impactedRegions::get),
+        fixes);
   }
 
   /**
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import edu.ucr.cs.riple.core.registries.field.FieldRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Long-lived annotator, keeps the context, module info, impact caches and reports of the target
+ * module resident after the first run and re-annotates the target module on request. Source trees
+ * of the target module, including directories created later, are watched for edits, on each
+ * {@link #ANNOTATE} request received on the local port, edited files are detected and only fixes
+ * of new errors or errors affected by the edits are evaluated, see {@link
+ * Annotator#reannotate(ImmutableSet)}. Requests are single lines and served one at a time, source
+ * files must not be edited while a request is being served, as edits made meanwhile cannot be told
+ * apart from the annotations injected by the annotator.
+ */
+public class AnnotatorDaemon {
+
+  /** Request to re-annotate the target module with the edits made since the last run. */
+  public static final String ANNOTATE = "annotate";
+  /** Request to shut down the daemon. */
+  public static final String STOP = "stop";
+
+  /** Annotator configuration. */
+  private final Config config;
+  /** Annotator of the target module, its state is kept through all requests. */
+  private final Annotator annotator;
+  /** Hash of the content of each source file at the end of the last run. */
+  private final Map<Path, HashCode> fingerprints;
+
+  /**
+   * Creates a daemon for the target module of the given configuration.
+   *
+   * @param config Annotator configuration, daemon port must be set.
+   */
+  public AnnotatorDaemon(Config config) {
+    Preconditions.checkArgument(config.daemonPort > 0, "Daemon port must be positive.");
+    this.config = config;
+    this.annotator = new Annotator(config);
+    this.fingerprints = new HashMap<>();
+  }
+
+  /**
+   * Annotates the target module and serves requests on the daemon port until a {@link #STOP}
+   * request is received.
+   */
+  public void start() {
+    annotator.run();
+    try (SourceWatcher watcher = new SourceWatcher(sourceRoots());
+        ServerSocket server =
+            new ServerSocket(config.daemonPort, 0, InetAddress.getLoopbackAddress())) {
+      watcher.start();
+      recordFingerprints(watcher);
+      System.out.println("Annotator daemon listening on port: " + server.getLocalPort());
+      boolean running = true;
+      while (running) {
+        try (Socket socket = server.accept()) {
+          running = handle(socket, watcher);
+        } catch (IOException e) {
+          // A broken connection only affects its own request.
+          System.err.println("Connection failed: " + e.getMessage());
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not serve on port: " + config.daemonPort, e);
+    }
+  }
+
+  /**
+   * Reads a request from the given connection, serves it and writes back a single line response.
+   *
+   * @param socket Connection to the client.
+   * @param watcher Watcher of the source trees.
+   * @return false, if the daemon must be shut down.
+   * @throws IOException if the request could not be read or the response could not be written.
+   */
+  private boolean handle(Socket socket, SourceWatcher watcher) throws IOException {
+    BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    String request = String.valueOf(reader.readLine()).trim();
+    switch (request) {
+      case ANNOTATE:
+        writer.println(annotate(watcher));
+        return true;
+      case STOP:
+        writer.println("Stopped.");
+        return false;
+      default:
+        writer.println("Unknown request: " + request);
+        return true;
+    }
+  }
+
+  /**
+   * Re-annotates the target module if any source file is edited since the last run.
+   *
+   * @param watcher Watcher of the source trees.
+   * @return Summary of the run.
+   */
+  private String annotate(SourceWatcher watcher) {
+    ImmutableSet<Path> editedFiles = collectEditedFiles(watcher);
+    if (editedFiles.isEmpty()) {
+      return "No edited source files.";
+    }
+    try {
+      annotator.reannotate(editedFiles);
+      return "Re-annotated after edits on " + editedFiles.size() + " source files.";
+    } catch (RuntimeException e) {
+      return "Failed: " + e.getMessage();
+    } finally {
+      recordFingerprints(watcher);
+    }
+  }
+
+  /**
+   * Returns the touched files whose content differs from their content at the end of the last
+   * run. Files touched only by the annotator itself are therefore not reported.
+   *
+   * @param watcher Watcher of the source trees.
+   * @return Edited source files.
+   */
+  private ImmutableSet<Path> collectEditedFiles(SourceWatcher watcher) {
+    Set<Path> candidates = new HashSet<>(watcher.getTouchedFiles());
+    if (watcher.isOverflowed()) {
+      candidates.addAll(fingerprints.keySet());
+    }
+    return candidates.stream()
+        .filter(path -> !Objects.equals(fingerprints.get(path), hash(path)))
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /**
+   * Records the hash of all source files of the target module, and forgets the files touched
+   * during the last run.
+   *
+   * @param watcher Watcher of the source trees.
+   */
+  private void recordFingerprints(SourceWatcher watcher) {
+    // Cleared first, files touched meanwhile are reported and checked against their hash.
+    watcher.clear();
+    fingerprints.clear();
+    for (Path path : annotator.context.targetModuleInfo.getFieldRegistry().getSourceFiles()) {
+      HashCode hash = hash(path);
+      if (hash != null) {
+        fingerprints.put(path, hash);
+      }
+    }
+  }
+
+  /**
+   * Returns the source roots of the target module, computed by removing the package directories
+   * from the path of the source file of each declared class. New packages created under these
+   * roots are therefore watched as well.
+   *
+   * @return Set of source roots.
+   */
+  private ImmutableSet<Path> sourceRoots() {
+    FieldRegistry registry = annotator.context.targetModuleInfo.getFieldRegistry();
+    return registry.getDeclaredClasses().stream()
+        .map(clazz -> SourceWatcher.sourceRoot(clazz, registry.getLocationOnClass(clazz)))
+        .filter(Objects::nonNull)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /**
+   * Computes the hash of the content of the given file.
+   *
+   * @param path Path to the file.
+   * @return Hash of the content, {@code null} if the file does not exist.
+   */
+  @Nullable
+  private static HashCode hash(Path path) {
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try {
+      return Hashing.sha256().hashBytes(Files.readAllBytes(path));
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read source file: " + path, e);
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.module.ModuleInfo;
+import edu.ucr.cs.riple.injector.location.Location;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Schedules builds of all target modules annotated in the same run on a shared pool of build
+ * workers. Each target module is annotated on its own thread and only waits for a worker when it
+ * needs to build, therefore a target module can evaluate and inject fixes while others are
+ * building. Downstream dependencies are shared among all target modules: the scanner build on them
+ * runs once, their analyses are run one at a time, as they share the library model loader files,
+ * and the computed impact of each fix on them is reused by all target modules.
+ */
+public class BuildScheduler {
+
+  /** Permits of build workers, a permit is held during each build. */
+  private final Semaphore workers;
+  /** Lock held during the analysis of downstream dependencies for a target module. */
+  private final ReentrantLock downstreamLock;
+  /** True once the scanner is run on downstream dependencies. */
+  private boolean downstreamScanned;
+  /** Reports of the impact of fixes on downstream dependencies, keyed by the location of fix. */
+  private final Map<Location, Report> downstreamReports;
+
+  /**
+   * Creates a scheduler with the configured number of build workers.
+   *
+   * @param config Annotator configuration.
+   */
+  public BuildScheduler(Config config) {
+    Preconditions.checkArgument(
+        config.buildWorkers > 0, "Number of build workers must be positive.");
+    this.workers = new Semaphore(config.buildWorkers, true);
+    this.downstreamLock = new ReentrantLock();
+    this.downstreamReports = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Runs the given build on a build worker, blocks until a worker is available. Workers are handed
+   * out in the order of requests.
+   *
+   * @param build Build to run.
+   * @param <T> Type of the result of the build.
+   * @return Result of the build, e.g. the exit code of the build command.
+   */
+  public <T> T build(Supplier<T> build) {
+    try {
+      workers.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for a build worker", e);
+    }
+    try {
+      return build.get();
+    } finally {
+      workers.release();
+    }
+  }
+
+  /**
+   * Runs the given analysis of downstream dependencies, blocks until analyses requested by other
+   * target modules are completed.
+   *
+   * @param analysis Analysis of downstream dependencies.
+   */
+  public void analyzeDownstreamDependencies(Runnable analysis) {
+    downstreamLock.lock();
+    try {
+      analysis.run();
+    } finally {
+      downstreamLock.unlock();
+    }
+  }
+
+  /**
+   * Creates the module info of downstream dependencies for the given target module. Registries of
+   * downstream dependencies only depend on the configuration of downstream dependencies, the
+   * scanner is run on them for the first request and later requests load the outputs of that run.
+   * Each target module gets its own instance, bound to its own context.
+   *
+   * @param context Annotator context of the requesting target module.
+   * @return Module info of downstream dependencies.
+   */
+  public synchronized ModuleInfo createDownstreamModuleInfo(Context context) {
+    ModuleInfo moduleInfo =
+        new ModuleInfo(
+            context,
+            context.config.downstreamConfigurations,
+            context.config.downstreamDependenciesBuildCommand,
+            !downstreamScanned);
+    downstreamScanned = true;
+    return moduleInfo;
+  }
+
+  /**
+   * Returns the report of the impact of the fix on the given location on downstream dependencies,
+   * computed for any target module.
+   *
+   * @param location Location of the fix.
+   * @return The report, or {@code null} if not computed yet.
+   */
+  @Nullable
+  public Report getDownstreamReport(Location location) {
+    return downstreamReports.get(location);
+  }
+
+  /**
+   * Stores the reports of the impact of fixes on downstream dependencies, to be reused by all
+   * target modules.
+   *
+   * @param reports Reports to store.
+   */
+  public void putDownstreamReports(ImmutableSet<Report> reports) {
+    reports.forEach(report -> downstreamReports.put(report.root.toLocation(), report));
+  }
+
+  /**
+   * Removes the reports of the impact of fixes on the matching locations on downstream
+   * dependencies, so that they are computed again.
+   *
+   * @param predicate Predicate matching locations of reports to remove.
+   */
+  public void removeDownstreamReports(Predicate<Location> predicate) {
+    downstreamReports.keySet().removeIf(predicate);
+  }
+
+  /**
+   * Orders the given target modules so that each one comes after all target modules it depends
+   * on. Targets which do not depend on each other keep their relative order.
+   *
+   * @param targets Target modules.
+   * @param dependsOn Predicate returning true if the first target depends on the second one.
+   * @return Targets in dependency order, mapped to the targets they depend on.
+   * @param <T> Type of target modules.
+   * @throws IllegalArgumentException if dependencies of targets are cyclic.
+   */
+  static <T> ImmutableMap<T, ImmutableSet<T>> orderByDependencies(
+      List<T> targets, BiPredicate<T, T> dependsOn) {
+    Map<T, ImmutableSet<T>> dependencies = new LinkedHashMap<>();
+    for (T target : targets) {
+      ImmutableSet.Builder<T> builder = ImmutableSet.builder();
+      targets.stream()
+          .filter(other -> other != target && dependsOn.test(target, other))
+          .forEach(builder::add);
+      dependencies.put(target, builder.build());
+    }
+    ImmutableMap.Builder<T, ImmutableSet<T>> ordered = ImmutableMap.builder();
+    List<T> remaining = new ArrayList<>(targets);
+    List<T> done = new ArrayList<>();
+    while (!remaining.isEmpty()) {
+      T next =
+          remaining.stream()
+              .filter(target -> done.containsAll(dependencies.get(target)))
+              .findFirst()
+              .orElseThrow(
+                  () ->
+                      new IllegalArgumentException(
+                          "Target modules have cyclic dependencies: " + remaining));
+      ordered.put(next, dependencies.get(next));
+      remaining.remove(next);
+      done.add(next);
+    }
+    return ordered.build();
+  }
+}
@@ -25,6 +25,8 @@
 package edu.ucr.cs.riple.core;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import edu.ucr.cs.riple.core.module.ModuleConfiguration;
@@ -40,7 +42,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -69,8 +73,113 @@ public class Config {
   public final boolean bailout;
   /** If activated, impact of fixes will be computed in parallel. */
   public final boolean useParallelGraphProcessor;
+  /**
+   * If activated along with {@link #useParallelGraphProcessor}, injections for the next group of
+   * fixes are prepared while the current group is being built.
+   */
+  public final boolean usePipelinedGraphProcessor;
+  /**
+   * If activated along with {@link #useParallelGraphProcessor}, nodes sharing potentially impacted
+   * regions are packed in the same group, and nodes which impact cannot be attributed after the
+   * build are re-evaluated in follow-up builds.
+   */
+  public final boolean useOptimisticGrouping;
   /** If activated, impact of fixes will be cached. */
   public final boolean useImpactCache;
+  /**
+   * If activated, checker outputs of target module builds will be memoized and restored on builds
+   * of an already built source state.
+   */
+  public final boolean useBuildResultCache;
+  /**
+   * Time budget of the whole run in seconds. If positive, fixes are evaluated in batches ordered by
+   * their expected payoff and the run stops cleanly before the budget is exhausted. A non-positive
+   * value disables the budget.
+   */
+  public final long timeBudgetInSeconds;
+  /** Number of threads used to inject annotations on source files in parallel. */
+  public final int injectorThreads;
+  /**
+   * If activated, last modified time of source files is restored when removal of injected
+   * annotations returns them to their exact previous content. Should only be activated if the build
+   * system detects changes by content, as timestamp based build tools may reuse outputs of the
+   * build with the injected annotations.
+   */
+  public final boolean preserveModificationTime;
+  /**
+   * If activated, each scanner instance writes its outputs to a separate shard directory, which
+   * makes the outputs safe under concurrent compilation of a module. Shards are merged while
+   * loading the outputs.
+   */
+  public final boolean shardedScannerOutput;
+  /**
+   * If activated, scanner outputs are written per compilation unit and outputs of compilation units
+   * which are not recompiled are kept, so that registries can be refreshed with only the rows of
+   * the recompiled source files.
+   */
+  public final boolean incrementalScannerOutput;
+  /**
+   * If activated, scanner outputs are written in a compact binary encoding which is loaded
+   * considerably faster than tab separated rows. Tab separated rows remain the default as they are
+   * human-readable.
+   */
+  public final boolean binaryScannerOutput;
+  /**
+   * If activated, loaded registries of each module are stored in a snapshot file, which is loaded
+   * on the next run instead of running the scanner if the build configuration and source files of
+   * the module are unchanged.
+   */
+  public final boolean useRegistrySnapshot;
+  /**
+   * If activated, suggested fixes of each iteration are partitioned by the package of their target
+   * class and each partition is evaluated and injected separately, reports are written after each
+   * partition. Fixes impacting regions in other packages are evaluated in a final merge partition.
+   * Reports of each finished partition are persisted and released from memory, see {@link
+   * ShardStore}.
+   */
+  public final boolean shardByPackage;
+  /**
+   * If activated along with {@link #shardByPackage}, reports of shards persisted by a previous run
+   * in the output directory are loaded and their fixes are not evaluated again, see {@link
+   * ShardStore}. Otherwise, persisted shards are deleted at the start of the run.
+   */
+  public final boolean resumeShards;
+  /**
+   * Target modules annotated with {@link #target} in the same run, mapped to the command building
+   * each of them. Each target module is annotated in its own {@link Context}, concurrently with
+   * target modules it does not depend on.
+   */
+  public final ImmutableMap<ModuleConfiguration, String> additionalTargets;
+  /** Maximum number of builds running at the same time, shared among all target modules. */
+  public final int buildWorkers;
+  /**
+   * Addresses of remote build workers in {@code host:port} format. If not empty, conflict groups
+   * of the target module are built on remote workers instead of the local checkout, see {@link
+   * edu.ucr.cs.riple.core.distributed.BuildWorker}.
+   */
+  public final ImmutableList<String> remoteWorkers;
+  /**
+   * Root directory of the checkout of the target module, paths under this directory are mapped to
+   * the checkout of each remote build worker. Required if remote workers are set.
+   */
+  public final Path sourceRoot;
+  /**
+   * Path to the file holding the token shared with remote build workers, sent before each request.
+   * Required if remote workers are set.
+   */
+  public final Path remoteWorkerTokenFile;
+  /**
+   * Port of the local socket the annotator daemon listens on. If positive, the annotator keeps its
+   * state resident after the first run and re-annotates the target module on request, see {@link
+   * AnnotatorDaemon}. Non-positive values disable the daemon mode.
+   */
+  public final int daemonPort;
+  /**
+   * Maximum estimated build time of a conflict group in seconds. Once enough builds are observed,
+   * groups estimated to take longer are split and small non-conflicting groups are merged up to
+   * this limit. Non-positive values disable splitting and merging of groups.
+   */
+  public final long maxGroupBuildTimeInSeconds;
   /**
    * If activated, all suggested fixes from the checker will be applied to the source code
    * regardless of their effectiveness.
@@ -88,6 +197,11 @@ public class Config {
   public final boolean useCache;
   /** If true, build outputs will be redirected to STD Err. */
   public final boolean redirectBuildOutputToStdErr;
+  /**
+   * If true, reports are written in newline-delimited json format to {@code reports.ndjson}, one
+   * report per line, otherwise they are written to {@code reports.json} as a single json object.
+   */
+  public final boolean writeNdjsonReports;
   /** If activated, it will disable the outer loop. */
   public final boolean disableOuterLoop;
   /** Info of target module. */
@@ -245,12 +359,198 @@ public class Config {
     disableParallelProcessingOption.setRequired(false);
     options.addOption(disableParallelProcessingOption);
 
+    // Pipelined Processing
+    Option enablePipelinedProcessingOption =
+        new Option(
+            "epp",
+            "enable-pipelined-processing",
+            false,
+            "Prepares injections of the next group of fixes while the current group is being built");
+    enablePipelinedProcessingOption.setRequired(false);
+    options.addOption(enablePipelinedProcessingOption);
+
+    // Optimistic Grouping
+    Option enableOptimisticGroupingOption =
+        new Option(
+            "eog",
+            "enable-optimistic-grouping",
+            false,
+            "Packs fixes sharing impacted regions in the same group and re-evaluates fixes which impact is ambiguous");
+    enableOptimisticGroupingOption.setRequired(false);
+    options.addOption(enableOptimisticGroupingOption);
+
     // Fix impact cache
     Option enableFixImpactCacheOption =
         new Option("eic", "enable-impact-cache", false, "Enables fix impact cache");
     enableFixImpactCacheOption.setRequired(false);
     options.addOption(enableFixImpactCacheOption);
 
+    // Build result cache
+    Option enableBuildResultCacheOption =
+        new Option("ebrc", "enable-build-result-cache", false, "Enables build result cache");
+    enableBuildResultCacheOption.setRequired(false);
+    options.addOption(enableBuildResultCacheOption);
+
+    // Time budget
+    Option timeBudgetOption =
+        new Option(
+            "tb",
+            "time-budget",
+            true,
+            "Time budget of the run in seconds, the run stops with the best results so far before the budget is exhausted");
+    timeBudgetOption.setRequired(false);
+    options.addOption(timeBudgetOption);
+
+    // Injector threads
+    Option injectorThreadsOption =
+        new Option(
+            "it",
+            "injector-threads",
+            true,
+            "Number of threads used to inject annotations on source files in parallel");
+    injectorThreadsOption.setRequired(false);
+    options.addOption(injectorThreadsOption);
+
+    // Preserve modification time
+    Option preserveModificationTimeOption =
+        new Option(
+            "pmt",
+            "preserve-modification-time",
+            false,
+            "Restores last modified time of source files rolled back to their previous content");
+    preserveModificationTimeOption.setRequired(false);
+    options.addOption(preserveModificationTimeOption);
+
+    // Sharded scanner output
+    Option shardedScannerOutputOption =
+        new Option(
+            "sso",
+            "sharded-scanner-output",
+            false,
+            "Writes outputs of each scanner instance to a separate shard directory");
+    shardedScannerOutputOption.setRequired(false);
+    options.addOption(shardedScannerOutputOption);
+
+    // Incremental scanner output
+    Option incrementalScannerOutputOption =
+        new Option(
+            "iso",
+            "incremental-scanner-output",
+            false,
+            "Writes scanner outputs per compilation unit and keeps outputs of unchanged files");
+    incrementalScannerOutputOption.setRequired(false);
+    options.addOption(incrementalScannerOutputOption);
+
+    // Binary scanner output
+    Option binaryScannerOutputOption =
+        new Option(
+            "bso",
+            "binary-scanner-output",
+            false,
+            "Writes scanner outputs in a compact binary encoding instead of tab separated rows");
+    binaryScannerOutputOption.setRequired(false);
+    options.addOption(binaryScannerOutputOption);
+
+    // Registry snapshot
+    Option registrySnapshotOption =
+        new Option(
+            "rs",
+            "registry-snapshot",
+            false,
+            "Stores loaded registries in a snapshot reused while module sources are unchanged");
+    registrySnapshotOption.setRequired(false);
+    options.addOption(registrySnapshotOption);
+
+    // Shard by package
+    Option shardByPackageOption =
+        new Option(
+            "sbp",
+            "shard-by-package",
+            false,
+            "Evaluates, injects and reports suggested fixes of each package separately");
+    shardByPackageOption.setRequired(false);
+    options.addOption(shardByPackageOption);
+
+    // Resume shards
+    Option resumeShardsOption =
+        new Option(
+            "rsh",
+            "resume-shards",
+            false,
+            "Loads reports of shards persisted by a previous sharded run and skips their fixes");
+    resumeShardsOption.setRequired(false);
+    options.addOption(resumeShardsOption);
+
+    // Additional targets
+    Option additionalTargetsOption =
+        new Option(
+            "at",
+            "additional-targets",
+            true,
+            "Path to tsv file containing path to checker and scanner config files and the build command of each additional target module");
+    additionalTargetsOption.setRequired(false);
+    options.addOption(additionalTargetsOption);
+
+    // Build workers
+    Option buildWorkersOption =
+        new Option(
+            "bw",
+            "build-workers",
+            true,
+            "Maximum number of builds running at the same time across all target modules");
+    buildWorkersOption.setRequired(false);
+    options.addOption(buildWorkersOption);
+
+    // Remote workers
+    Option remoteWorkersOption =
+        new Option(
+            "rw",
+            "remote-workers",
+            true,
+            "Comma separated addresses of remote build workers in host:port format");
+    remoteWorkersOption.setRequired(false);
+    options.addOption(remoteWorkersOption);
+
+    // Source root
+    Option sourceRootOption =
+        new Option(
+            "sr",
+            "source-root",
+            true,
+            "Root directory of the target module checkout, mapped to the checkout of each remote build worker");
+    sourceRootOption.setRequired(false);
+    options.addOption(sourceRootOption);
+
+    // Remote worker token file
+    Option remoteWorkerTokenFileOption =
+        new Option(
+            "rwt",
+            "remote-worker-token-file",
+            true,
+            "Path to the file holding the token shared with remote build workers");
+    remoteWorkerTokenFileOption.setRequired(false);
+    options.addOption(remoteWorkerTokenFileOption);
+
+    // Daemon port
+    Option daemonPortOption =
+        new Option(
+            "dp",
+            "daemon-port",
+            true,
+            "Keeps the annotator running after the first run and re-annotates edited sources on requests received on the given local port");
+    daemonPortOption.setRequired(false);
+    options.addOption(daemonPortOption);
+
+    // Max group build time
+    Option maxGroupBuildTimeOption =
+        new Option(
+            "mgbt",
+            "max-group-build-time",
+            true,
+            "Maximum estimated build time of a conflict group in seconds, larger groups are split");
+    maxGroupBuildTimeOption.setRequired(false);
+    options.addOption(maxGroupBuildTimeOption);
+
     // Exhaustive
     Option exhaustiveSearchOption =
         new Option("exs", "exhaustive-search", false, "Performs Exhaustive Search");
@@ -264,6 +564,16 @@ public class Config {
     redirectBuildOutputToStdErrOption.setRequired(false);
     options.addOption(redirectBuildOutputToStdErrOption);
 
+    // Newline-delimited json reports
+    Option ndjsonReportsOption =
+        new Option(
+            "ndr",
+            "ndjson-reports",
+            false,
+            "Writes reports to reports.ndjson in newline-delimited json format, one report per line");
+    ndjsonReportsOption.setRequired(false);
+    options.addOption(ndjsonReportsOption);
+
     // Outer Loop
     Option disableOuterLoopOption =
         new Option("dol", "disable-outer-loop", false, "Disables Outer Loop");
@@ -411,11 +721,67 @@ public class Config {
     this.chain = cmd.hasOption(chainOption.getLongOpt());
     this.redirectBuildOutputToStdErr =
         cmd.hasOption(redirectBuildOutputToStdErrOption.getLongOpt());
+    this.writeNdjsonReports = cmd.hasOption(ndjsonReportsOption.getLongOpt());
     this.bailout = !cmd.hasOption(disableBailoutOption.getLongOpt());
     this.useCache = !cmd.hasOption(disableCacheOption.getLongOpt());
     this.disableOuterLoop = cmd.hasOption(disableOuterLoopOption.getLongOpt());
     this.useParallelGraphProcessor = !cmd.hasOption(disableParallelProcessingOption.getLongOpt());
+    this.usePipelinedGraphProcessor = cmd.hasOption(enablePipelinedProcessingOption.getLongOpt());
+    this.useOptimisticGrouping = cmd.hasOption(enableOptimisticGroupingOption.getLongOpt());
     this.useImpactCache = cmd.hasOption(enableFixImpactCacheOption.getLongOpt());
+    this.useBuildResultCache = cmd.hasOption(enableBuildResultCacheOption.getLongOpt());
+    this.timeBudgetInSeconds =
+        Long.parseLong(
+            cmd.hasOption(timeBudgetOption.getLongOpt())
+                ? cmd.getOptionValue(timeBudgetOption.getLongOpt())
+                : "-1");
+    this.injectorThreads =
+        cmd.hasOption(injectorThreadsOption.getLongOpt())
+            ? Integer.parseInt(cmd.getOptionValue(injectorThreadsOption.getLongOpt()))
+            : Runtime.getRuntime().availableProcessors();
+    this.preserveModificationTime = cmd.hasOption(preserveModificationTimeOption.getLongOpt());
+    this.shardedScannerOutput = cmd.hasOption(shardedScannerOutputOption.getLongOpt());
+    this.incrementalScannerOutput = cmd.hasOption(incrementalScannerOutputOption.getLongOpt());
+    this.binaryScannerOutput = cmd.hasOption(binaryScannerOutputOption.getLongOpt());
+    this.useRegistrySnapshot = cmd.hasOption(registrySnapshotOption.getLongOpt());
+    this.shardByPackage = cmd.hasOption(shardByPackageOption.getLongOpt());
+    this.resumeShards = cmd.hasOption(resumeShardsOption.getLongOpt());
+    this.additionalTargets =
+        cmd.hasOption(additionalTargetsOption.getLongOpt())
+            ? readAdditionalTargets(
+                Paths.get(cmd.getOptionValue(additionalTargetsOption.getLongOpt())))
+            : ImmutableMap.of();
+    this.buildWorkers =
+        cmd.hasOption(buildWorkersOption.getLongOpt())
+            ? Integer.parseInt(cmd.getOptionValue(buildWorkersOption.getLongOpt()))
+            : 1;
+    this.remoteWorkers =
+        cmd.hasOption(remoteWorkersOption.getLongOpt())
+            ? ImmutableList.copyOf(cmd.getOptionValue(remoteWorkersOption.getLongOpt()).split(","))
+            : ImmutableList.of();
+    this.sourceRoot =
+        cmd.hasOption(sourceRootOption.getLongOpt())
+            ? Paths.get(cmd.getOptionValue(sourceRootOption.getLongOpt()))
+            : null;
+    Preconditions.checkArgument(
+        remoteWorkers.isEmpty() || sourceRoot != null,
+        "Source root must be set to build on remote workers.");
+    this.remoteWorkerTokenFile =
+        cmd.hasOption(remoteWorkerTokenFileOption.getLongOpt())
+            ? Paths.get(cmd.getOptionValue(remoteWorkerTokenFileOption.getLongOpt()))
+            : null;
+    Preconditions.checkArgument(
+        remoteWorkers.isEmpty() || remoteWorkerTokenFile != null,
+        "Token file must be set to build on remote workers.");
+    this.daemonPort =
+        cmd.hasOption(daemonPortOption.getLongOpt())
+            ? Integer.parseInt(cmd.getOptionValue(daemonPortOption.getLongOpt()))
+            : 0;
+    this.maxGroupBuildTimeInSeconds =
+        cmd.hasOption(maxGroupBuildTimeOption.getLongOpt())
+            ? Long.parseLong(cmd.getOptionValue(maxGroupBuildTimeOption.getLongOpt()))
+            : -1;
+    checkDaemonCompatibility();
     this.exhaustiveSearch = cmd.hasOption(exhaustiveSearchOption.getLongOpt());
     this.downStreamDependenciesAnalysisActivated =
         cmd.hasOption(downstreamDependenciesActivationOption.getLongOpt());
@@ -474,11 +840,38 @@ public class Config {
     this.chain = getValueFromKey(jsonObject, "CHAIN", Boolean.class).orElse(false);
     this.redirectBuildOutputToStdErr =
         getValueFromKey(jsonObject, "REDIRECT_BUILD_OUTPUT_TO_STDERR", Boolean.class).orElse(false);
+    this.writeNdjsonReports =
+        getValueFromKey(jsonObject, "NDJSON_REPORTS", Boolean.class).orElse(false);
     this.useCache = getValueFromKey(jsonObject, "CACHE", Boolean.class).orElse(true);
     this.useParallelGraphProcessor =
         getValueFromKey(jsonObject, "PARALLEL_PROCESSING", Boolean.class).orElse(true);
+    this.usePipelinedGraphProcessor =
+        getValueFromKey(jsonObject, "PIPELINED_PROCESSING", Boolean.class).orElse(false);
+    this.useOptimisticGrouping =
+        getValueFromKey(jsonObject, "OPTIMISTIC_GROUPING", Boolean.class).orElse(false);
     this.useImpactCache =
         getValueFromKey(jsonObject, "CACHE_IMPACT_ACTIVATION", Boolean.class).orElse(false);
+    this.useBuildResultCache =
+        getValueFromKey(jsonObject, "BUILD_RESULT_CACHE_ACTIVATION", Boolean.class).orElse(false);
+    this.timeBudgetInSeconds =
+        getValueFromKey(jsonObject, "TIME_BUDGET", Long.class).orElse((long) -1);
+    this.injectorThreads =
+        getValueFromKey(jsonObject, "INJECTOR_THREADS", Long.class)
+            .orElse((long) Runtime.getRuntime().availableProcessors())
+            .intValue();
+    this.preserveModificationTime =
+        getValueFromKey(jsonObject, "PRESERVE_MODIFICATION_TIME", Boolean.class).orElse(false);
+    this.shardedScannerOutput =
+        getValueFromKey(jsonObject, "SHARDED_SCANNER_OUTPUT", Boolean.class).orElse(false);
+    this.incrementalScannerOutput =
+        getValueFromKey(jsonObject, "INCREMENTAL_SCANNER_OUTPUT", Boolean.class).orElse(false);
+    this.binaryScannerOutput =
+        getValueFromKey(jsonObject, "BINARY_SCANNER_OUTPUT", Boolean.class).orElse(false);
+    this.useRegistrySnapshot =
+        getValueFromKey(jsonObject, "REGISTRY_SNAPSHOT", Boolean.class).orElse(false);
+    this.shardByPackage =
+        getValueFromKey(jsonObject, "SHARD_BY_PACKAGE", Boolean.class).orElse(false);
+    this.resumeShards = getValueFromKey(jsonObject, "RESUME_SHARDS", Boolean.class).orElse(false);
     this.exhaustiveSearch =
         getValueFromKey(jsonObject, "EXHAUSTIVE_SEARCH", Boolean.class).orElse(true);
     this.disableOuterLoop = !getValueFromKey(jsonObject, "OUTER_LOOP", Boolean.class).orElse(false);
@@ -501,6 +894,45 @@ public class Config {
             .orElse(Collections.emptyList());
     this.target = moduleConfigurationList.get(0);
     this.buildCommand = getValueFromKey(jsonObject, "BUILD_COMMAND", String.class).orElse(null);
+    this.additionalTargets =
+        getArrayValueFromKey(
+                jsonObject, "ADDITIONAL_TARGETS", instance -> instance, JSONObject.class)
+            .orElse(Collections.emptyList())
+            .stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    instance ->
+                        ModuleConfiguration.buildFromJson(
+                            getNextModuleUniqueID(), globalDir, instance),
+                    instance ->
+                        Preconditions.checkNotNull(
+                            (String) instance.get("BUILD_COMMAND"),
+                            "Build command of additional target must be set with BUILD_COMMAND key.")));
+    this.buildWorkers =
+        getValueFromKey(jsonObject, "BUILD_WORKERS", Long.class).orElse((long) 1).intValue();
+    String remoteWorkersString =
+        getValueFromKey(jsonObject, "REMOTE_BUILD:WORKERS", String.class).orElse("");
+    this.remoteWorkers =
+        remoteWorkersString.isEmpty()
+            ? ImmutableList.of()
+            : ImmutableList.copyOf(remoteWorkersString.split(","));
+    String sourceRootString =
+        getValueFromKey(jsonObject, "REMOTE_BUILD:SOURCE_ROOT", String.class).orElse(null);
+    this.sourceRoot = sourceRootString == null ? null : Paths.get(sourceRootString);
+    Preconditions.checkArgument(
+        remoteWorkers.isEmpty() || sourceRoot != null,
+        "Source root must be set to build on remote workers.");
+    String tokenFileString =
+        getValueFromKey(jsonObject, "REMOTE_BUILD:TOKEN_FILE", String.class).orElse(null);
+    this.remoteWorkerTokenFile = tokenFileString == null ? null : Paths.get(tokenFileString);
+    Preconditions.checkArgument(
+        remoteWorkers.isEmpty() || remoteWorkerTokenFile != null,
+        "Token file must be set to build on remote workers.");
+    this.daemonPort =
+        getValueFromKey(jsonObject, "DAEMON_PORT", Long.class).orElse((long) 0).intValue();
+    this.maxGroupBuildTimeInSeconds =
+        getValueFromKey(jsonObject, "MAX_GROUP_BUILD_TIME", Long.class).orElse((long) -1);
+    checkDaemonCompatibility();
     this.downStreamDependenciesAnalysisActivated =
         getValueFromKey(jsonObject, "DOWNSTREAM_DEPENDENCY_ANALYSIS:ACTIVATION", Boolean.class)
             .orElse(false);
@@ -559,6 +991,43 @@ public class Config {
     return nonnullAnnotations;
   }
 
+  /**
+   * Reads additional target modules from the given tsv file, each line contains path to checker
+   * and scanner config files and the build command of a target module.
+   *
+   * @param path Path to the tsv file.
+   * @return Map of additional target modules to their build commands, in the order of lines.
+   */
+  private ImmutableMap<ModuleConfiguration, String> readAdditionalTargets(Path path) {
+    ImmutableMap.Builder<ModuleConfiguration, String> targets = ImmutableMap.builder();
+    for (String line : Utility.readFileLines(path)) {
+      String[] info = line.split("\\t");
+      Preconditions.checkArgument(
+          info.length == 3,
+          "Expected checker config, scanner config and build command in line: " + line);
+      targets.put(
+          new ModuleConfiguration(
+              getNextModuleUniqueID(), this.globalDir, Paths.get(info[0]), Paths.get(info[1])),
+          info[2]);
+    }
+    return targets.build();
+  }
+
+  /**
+   * Checks that the daemon mode, if activated, is not combined with features it does not support.
+   * The daemon resets the base state of the target module after source edits, which cannot be
+   * reproduced on remote build workers, and it serves a single target module.
+   */
+  private void checkDaemonCompatibility() {
+    if (daemonPort <= 0) {
+      return;
+    }
+    Preconditions.checkArgument(
+        remoteWorkers.isEmpty(), "Daemon mode cannot be used with remote build workers.");
+    Preconditions.checkArgument(
+        additionalTargets.isEmpty(), "Daemon mode cannot be used with additional targets.");
+  }
+
   /**
    * Returns the latest id associated to a module, used to create unique ids for each module and
    * increments it.
@@ -659,10 +1128,13 @@ public class Config {
 
     public boolean chain = false;
     public boolean useParallelProcessor = true;
+    public boolean usePipelinedProcessor = false;
+    public boolean useOptimisticGrouping = false;
     public boolean exhaustiveSearch = false;
     public boolean cache = true;
     public boolean bailout = true;
     public boolean redirectBuildOutputToStdErr = false;
+    public boolean writeNdjsonReports = false;
     public boolean outerLoopActivation = true;
     public boolean downStreamDependenciesAnalysisActivated = false;
     public Path nullawayLibraryModelLoaderPath;
@@ -672,6 +1144,24 @@ public class Config {
     public String nullUnmarkedAnnotation = "org.jspecify.annotations.NullUnmarked";
     public boolean inferenceActivated = true;
     public boolean useCacheImpact = false;
+    public boolean useBuildResultCache = false;
+    public long timeBudgetInSeconds = -1;
+    public int injectorThreads = Runtime.getRuntime().availableProcessors();
+    public boolean preserveModificationTime = false;
+    public boolean shardedScannerOutput = false;
+    public boolean incrementalScannerOutput = false;
+    public boolean binaryScannerOutput = false;
+    public boolean useRegistrySnapshot = false;
+    public boolean shardByPackage = false;
+    public boolean resumeShards = false;
+    /** Additional target modules mapped to their build commands, in insertion order. */
+    public Map<ModuleConfiguration, String> additionalTargets = new LinkedHashMap<>();
+    public int buildWorkers = 1;
+    public List<String> remoteWorkers = new ArrayList<>();
+    public Path sourceRoot;
+    public Path remoteWorkerTokenFile;
+    public int daemonPort = 0;
+    public long maxGroupBuildTimeInSeconds = -1;
     public Set<SourceType> sourceTypes = new HashSet<>();
     public int depth = 1;
     public String checker;
@@ -699,12 +1189,25 @@ public class Config {
       json.put("OUTPUT_DIR", outputDir);
       json.put("CHAIN", chain);
       json.put("PARALLEL_PROCESSING", useParallelProcessor);
+      json.put("PIPELINED_PROCESSING", usePipelinedProcessor);
+      json.put("OPTIMISTIC_GROUPING", useOptimisticGrouping);
       json.put("CACHE_IMPACT_ACTIVATION", useCacheImpact);
+      json.put("BUILD_RESULT_CACHE_ACTIVATION", useBuildResultCache);
+      json.put("TIME_BUDGET", timeBudgetInSeconds);
+      json.put("INJECTOR_THREADS", injectorThreads);
+      json.put("PRESERVE_MODIFICATION_TIME", preserveModificationTime);
+      json.put("SHARDED_SCANNER_OUTPUT", shardedScannerOutput);
+      json.put("INCREMENTAL_SCANNER_OUTPUT", incrementalScannerOutput);
+      json.put("BINARY_SCANNER_OUTPUT", binaryScannerOutput);
+      json.put("REGISTRY_SNAPSHOT", useRegistrySnapshot);
+      json.put("SHARD_BY_PACKAGE", shardByPackage);
+      json.put("RESUME_SHARDS", resumeShards);
       json.put("CACHE", cache);
       json.put("BAILOUT", bailout);
       json.put("DEPTH", depth);
       json.put("EXHAUSTIVE_SEARCH", exhaustiveSearch);
       json.put("REDIRECT_BUILD_OUTPUT_TO_STDERR", redirectBuildOutputToStdErr);
+      json.put("NDJSON_REPORTS", writeNdjsonReports);
       json.put("SUPPRESS_REMAINING_ERRORS", suppressRemainingErrors);
       json.put("INFERENCE_ACTIVATION", inferenceActivated);
       JSONArray configPathsJson = new JSONArray();
@@ -719,6 +1222,25 @@ public class Config {
                   })
               .collect(Collectors.toList()));
       json.put("CONFIG_PATHS", configPathsJson);
+      JSONArray additionalTargetsJson = new JSONArray();
+      additionalTargets.forEach(
+          (info, command) -> {
+            JSONObject res = new JSONObject();
+            res.put("CHECKER", info.checkerConfig.toString());
+            res.put("SCANNER", info.scannerConfig.toString());
+            res.put("BUILD_COMMAND", command);
+            additionalTargetsJson.add(res);
+          });
+      json.put("ADDITIONAL_TARGETS", additionalTargetsJson);
+      json.put("BUILD_WORKERS", buildWorkers);
+      JSONObject remoteBuild = new JSONObject();
+      remoteBuild.put("WORKERS", String.join(",", remoteWorkers));
+      remoteBuild.put("SOURCE_ROOT", sourceRoot == null ? null : sourceRoot.toString());
+      remoteBuild.put(
+          "TOKEN_FILE", remoteWorkerTokenFile == null ? null : remoteWorkerTokenFile.toString());
+      json.put("REMOTE_BUILD", remoteBuild);
+      json.put("DAEMON_PORT", daemonPort);
+      json.put("MAX_GROUP_BUILD_TIME", maxGroupBuildTimeInSeconds);
       JSONObject downstreamDependency = new JSONObject();
       downstreamDependency.put("ACTIVATION", downStreamDependenciesAnalysisActivated);
       if (downStreamDependenciesAnalysisActivated) {
@@ -25,16 +25,29 @@
 package edu.ucr.cs.riple.core;
 
 import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.cache.BuildResultCache;
 import edu.ucr.cs.riple.core.checkers.Checker;
 import edu.ucr.cs.riple.core.checkers.CheckerBaseClass;
 import edu.ucr.cs.riple.core.log.Log;
 import edu.ucr.cs.riple.core.module.ModuleConfiguration;
 import edu.ucr.cs.riple.core.module.ModuleInfo;
 import edu.ucr.cs.riple.core.registries.index.Error;
+import edu.ucr.cs.riple.injector.Injector;
+import edu.ucr.cs.riple.injector.changes.ASTChange;
+import edu.ucr.cs.riple.injector.changes.AddAnnotation;
+import edu.ucr.cs.riple.injector.changes.AddTypeUseMarkerAnnotation;
+import edu.ucr.cs.riple.injector.changes.AnnotationChange;
+import edu.ucr.cs.riple.injector.changes.Name;
+import edu.ucr.cs.riple.injector.changes.RemoveAnnotation;
+import edu.ucr.cs.riple.injector.changes.RemoveTypeUseMarkerAnnotation;
 import edu.ucr.cs.riple.injector.offsets.FileOffsetStore;
 import edu.ucr.cs.riple.injector.offsets.OffsetChange;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -51,6 +64,8 @@ public class Context {
   public final Log log;
   /** Handler for computing the original offset of reported errors with existing changes. */
   public final OffsetHandler offsetHandler;
+  /** Annotations currently injected on the source code of the target module. */
+  public final AppliedAnnotations appliedAnnotations;
   /** The moduleInfo of target module. */
   public final ModuleInfo targetModuleInfo;
   /**
@@ -62,6 +77,21 @@ public class Context {
   public final ImmutableSet<ModuleConfiguration> downstreamConfigurations;
   /** Checker instance. Used to execute checker specific tasks. */
   public final Checker<? extends Error> checker;
+  /** Memoized checker outputs of target module builds. */
+  public final BuildResultCache buildResultCache;
+  /** Time budget of the run, starts when the context is created. */
+  public final TimeBudget timeBudget;
+  /** Command to build the target module. */
+  public final String buildCommand;
+  /** Directory where reports and logs of the target module are written. */
+  public final Path outputDir;
+  /** Scheduler of builds, shared among all target modules annotated in the same run. */
+  public final BuildScheduler buildScheduler;
+  /**
+   * Injector of changes on the source code of the target module, shared by all physical injectors
+   * of this context so that its thread pool is reused.
+   */
+  public final Injector injector;
 
   /**
    * Builds context from command line arguments.
@@ -69,17 +99,119 @@ public class Context {
    * @param config Annotator config.
    */
   public Context(Config config) {
+    this(config, config.target, config.buildCommand, config.globalDir, new BuildScheduler(config));
+  }
+
+  /**
+   * Builds context for the given target module.
+   *
+   * @param config Annotator config.
+   * @param target Configuration of the target module.
+   * @param buildCommand Command to build the target module.
+   * @param outputDir Directory where reports and logs of the target module are written.
+   * @param buildScheduler Scheduler of builds, shared among all target modules.
+   */
+  public Context(
+      Config config,
+      ModuleConfiguration target,
+      String buildCommand,
+      Path outputDir,
+      BuildScheduler buildScheduler) {
     this.config = config;
+    this.buildCommand = buildCommand;
+    this.outputDir = outputDir;
+    this.buildScheduler = buildScheduler;
+    this.injector = new Injector(config.injectorThreads, config.preserveModificationTime);
+    this.timeBudget = new TimeBudget(config);
     this.offsetHandler = new OffsetHandler();
+    this.appliedAnnotations = new AppliedAnnotations();
     this.downstreamConfigurations = config.downstreamConfigurations;
     this.log = new Log();
-    this.targetConfiguration = config.target;
+    this.targetConfiguration = target;
     this.checker = CheckerBaseClass.getCheckerByName(config.checkerName, this);
-    this.targetModuleInfo = new ModuleInfo(this, config.target, config.buildCommand);
+    this.targetModuleInfo = new ModuleInfo(this, target, buildCommand);
+    // Must be created before any change is made to the source code.
+    this.buildResultCache =
+        new BuildResultCache(
+            config,
+            buildCommand,
+            targetModuleInfo.getModuleConfigurations(),
+            targetModuleInfo.getFieldRegistry().getSourceFiles());
     // Checker compatibility check must be after target module info is initialized.
     this.checker.verifyCheckerCompatibility();
   }
 
+  /**
+   * Resets the base state of the target module to the current content of its source files. Must be
+   * called once the source files are edited outside the annotator, as offsets and build results
+   * recorded so far refer to the previous content.
+   */
+  public void resetBaseState() {
+    offsetHandler.clear();
+    buildResultCache.rebase(targetModuleInfo.getFieldRegistry().getSourceFiles());
+  }
+
+  /**
+   * Keeps record of annotations currently injected on the source code by physical injectors. Used
+   * to reproduce the current state of the source code on remote build workers.
+   */
+  public static class AppliedAnnotations {
+
+    /**
+     * Applied annotations keyed by their kind, location and name, which are identical for an
+     * injection and the removal reverting it, in injection order.
+     */
+    private final Map<List<Object>, AddAnnotation> annotations;
+
+    public AppliedAnnotations() {
+      this.annotations = new LinkedHashMap<>();
+    }
+
+    /**
+     * Records injected annotations.
+     *
+     * @param changes Injected annotations.
+     */
+    public synchronized void onInjected(Collection<? extends AddAnnotation> changes) {
+      changes.forEach(change -> annotations.put(keyOf(change), change));
+    }
+
+    /**
+     * Records removed annotations.
+     *
+     * @param changes Removed annotations.
+     */
+    public synchronized void onRemoved(Collection<? extends RemoveAnnotation> changes) {
+      changes.forEach(change -> annotations.remove(keyOf(change)));
+    }
+
+    /**
+     * Returns the key of the given change, identical for an injection and the removal reverting it.
+     *
+     * @param change Change to compute its key.
+     * @return Key of the change.
+     */
+    private static List<Object> keyOf(ASTChange change) {
+      boolean isTypeUse =
+          change instanceof AddTypeUseMarkerAnnotation
+              || change instanceof RemoveTypeUseMarkerAnnotation;
+      Name name =
+          change instanceof AnnotationChange
+              ? ((AnnotationChange) change).getAnnotationName()
+              : null;
+      return Arrays.asList(isTypeUse, change.getLocation(), name);
+    }
+
+    /**
+     * Returns the annotations currently applied.
+     *
+     * @return Immutable set of applied annotations in injection order.
+     */
+    public synchronized ImmutableSet<AddAnnotation> get() {
+      return ImmutableSet.copyOf(annotations.values());
+    }
+  }
+
   /** Responsible for handling offset changes in source file. */
   public static class OffsetHandler {
 
@@ -104,6 +236,14 @@ public class Context {
       return OffsetChange.getOriginalOffset(offset, contents.get(path).getOffsetChanges());
     }
 
+    /**
+     * Discards all recorded offset changes, current offsets of source files become their original
+     * offsets.
+     */
+    public void clear() {
+      contents.clear();
+    }
+
     /**
      * Updates given offsets with given new offset changes.
      *
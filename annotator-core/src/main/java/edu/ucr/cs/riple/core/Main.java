@@ -42,6 +42,10 @@ public class Main {
     } else {
       config = new Config(args);
     }
+    if (config.daemonPort > 0) {
+      new AnnotatorDaemon(config).start();
+      return;
+    }
     Annotator annotator = new Annotator(config);
     annotator.start();
   }
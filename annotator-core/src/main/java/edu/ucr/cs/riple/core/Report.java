@@ -60,6 +60,11 @@ public class Report {
   public ImmutableSet<Fix> triggeredFixesFromDownstreamErrors;
   /** If true, this report's tree has been processed for at least one iteration */
   public boolean hasBeenProcessedOnce;
+  /**
+   * If true, the build did not complete with a fix in this report's tree applied. Impact of the
+   * tree is unknown, the report is not processed further and is never approved.
+   */
+  public boolean quarantined;
   /**
    * Lower bound of number of errors in downstream dependencies if fix tree is applied to the target
    * module.
@@ -87,6 +92,7 @@ public class Report {
     this.root = root;
     this.tree = Sets.newHashSet(root);
     this.hasBeenProcessedOnce = false;
+    this.quarantined = false;
     this.triggeredFixesFromDownstreamErrors = ImmutableSet.of();
     this.triggeredErrors = ImmutableSet.of();
     this.lowerBoundEffectOnDownstreamDependencies = 0;
@@ -268,6 +274,10 @@ public class Report {
    * @return true, if report needs further investigation.
    */
   public boolean requiresFurtherProcess(Config config) {
+    if (quarantined) {
+      // impact of the tree cannot be computed.
+      return false;
+    }
     if (!hasBeenProcessedOnce) {
       // report has not been processed.
       return true;
@@ -24,10 +24,17 @@
 
 package edu.ucr.cs.riple.core;
 
+import static java.util.stream.Collectors.toSet;
+
 import com.google.common.collect.ImmutableSet;
 import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.injector.location.Location;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /** Reports cache. Used to detect fixes that has already been processed. */
 public class ReportCache {
@@ -38,6 +45,11 @@ public class ReportCache {
    * efficiently.
    */
   private final Map<Fix, Report> store;
+  /**
+   * Locations of processed fixes which reports are released from memory, see {@link
+   * #release(Collection)}. Disjoint from the fixes in {@link #store}.
+   */
+  private final Set<Location> released;
   /** Cache activation switch. */
   private boolean enabled;
 
@@ -49,6 +61,7 @@ public class ReportCache {
 
   public ReportCache(Config config) {
     this.store = new HashMap<>();
+    this.released = new HashSet<>();
     this.enabled = config.useCache;
     this.stateUpdated = true;
   }
@@ -63,7 +76,7 @@ public class ReportCache {
     if (!enabled) {
       return false;
     }
-    return store.containsKey(fix);
+    return store.containsKey(fix) || released.contains(fix.toLocation());
   }
 
   /**
@@ -72,9 +85,13 @@ public class ReportCache {
    * @param reports Set of the latest processed reports.
    */
   public void update(ImmutableSet<Report> reports) {
-    int size = store.keySet().size();
-    reports.forEach(report -> store.put(report.root, report));
-    if (size == store.keySet().size()) {
+    int size = store.size() + released.size();
+    reports.forEach(
+        report -> {
+          released.remove(report.root.toLocation());
+          store.put(report.root, report);
+        });
+    if (size == store.size() + released.size()) {
       stateUpdated = false;
     }
   }
@@ -88,6 +105,39 @@ public class ReportCache {
     return stateUpdated;
   }
 
+  /**
+   * Removes reports of the matching fixes, so that they are processed again if suggested. Marks the
+   * cache as updated to allow another iteration of analysis.
+   *
+   * @param predicate Predicate matching locations of fixes of reports to remove.
+   */
+  public void invalidate(Predicate<Location> predicate) {
+    store.keySet().removeIf(fix -> predicate.test(fix.toLocation()));
+    released.removeIf(predicate);
+    stateUpdated = true;
+  }
+
+  /**
+   * Releases the given reports from memory once they are persisted elsewhere. Only the locations of
+   * their fixes are kept, and the fixes are still considered processed.
+   *
+   * @param reports Reports to release.
+   */
+  public void release(Collection<Report> reports) {
+    reports.forEach(report -> store.remove(report.root));
+    markReleased(reports.stream().map(report -> report.root.toLocation()).collect(toSet()));
+  }
+
+  /**
+   * Marks fixes on the given locations as processed without holding their reports, used for fixes
+   * which reports are persisted by a previous run.
+   *
+   * @param locations Locations of processed fixes.
+   */
+  public void markReleased(Collection<Location> locations) {
+    released.addAll(locations);
+  }
+
   /** Enables cache. */
   public void enable() {
     this.enabled = true;
@@ -99,7 +149,7 @@ public class ReportCache {
   }
 
   /**
-   * Getter for all stored reports.
+   * Getter for all stored reports, released reports are not included.
    *
    * @return Immutable set of stored reports.
    */
@@ -0,0 +1,409 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.util.ReportWriter;
+import edu.ucr.cs.riple.core.util.Utility;
+import edu.ucr.cs.riple.injector.location.Location;
+import edu.ucr.cs.riple.injector.location.LocationToPortableJsonVisitor;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Persists reports of finished shards of a run sharded by package, see {@link
+ * Config#shardByPackage}. Reports of each finished shard are written to their own file under {@link
+ * #DIRECTORY_NAME} in the output directory, after which they can be released from memory. Each line
+ * of a shard file holds the location of the fix, the overall effect and the serialized report
+ * separated by tabs, sorted by the overall effect in descending order. If a fix is reported in
+ * multiple shards, the report of the latest shard is kept. The reports file is produced by merging
+ * the shard files with the reports still held in memory, holding a single line of each shard file
+ * at a time. Shards written by a previous run on the same output directory are loaded if {@link
+ * Config#resumeShards} is activated, otherwise they are deleted.
+ */
+public class ShardStore {
+
+  /** Name of the directory containing shard files in the output directory. */
+  public static final String DIRECTORY_NAME = "shards";
+  /** Suffix of shard files. */
+  private static final String SHARD_FILE_SUFFIX = ".tsv";
+
+  /** Annotator configuration. */
+  private final Config config;
+  /** Directory containing shard files. */
+  private final Path dir;
+  /** Writer of the reports file, also used to serialize reports in shard files. */
+  private final ReportWriter writer;
+  /** Shard files in the order they are written. */
+  private final List<Path> files;
+  /** Index of the latest shard file reporting the fix on each location. */
+  private final Map<Location, Integer> latest;
+
+  /**
+   * Creates a store for the shards of a run writing its reports in the given output directory.
+   *
+   * @param config Annotator configuration.
+   * @param outputDir Directory where reports of the run are written.
+   * @param resume If true, shards of a previous run in the output directory are loaded, otherwise
+   *     they are deleted.
+   */
+  public ShardStore(Config config, Path outputDir, boolean resume) {
+    this.config = config;
+    this.dir = outputDir.resolve(DIRECTORY_NAME);
+    this.writer = new ReportWriter(config, outputDir.resolve(ReportWriter.getFileName(config)));
+    this.files = new ArrayList<>();
+    this.latest = new HashMap<>();
+    if (!resume) {
+      Utility.deleteDirectory(dir);
+    }
+    try {
+      Files.createDirectories(dir);
+      // Shard files are numbered in the order they are written, temporary files of an interrupted
+      // run are ignored.
+      try (Stream<Path> paths = Files.list(dir)) {
+        paths
+            .filter(path -> path.getFileName().toString().endsWith(SHARD_FILE_SUFFIX))
+            .sorted()
+            .forEach(files::add);
+      }
+      for (int i = 0; i < files.size(); i++) {
+        try (BufferedReader reader =
+            Files.newBufferedReader(files.get(i), Charset.defaultCharset())) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            latest.put(parseLocation(line), i);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not load shards at: " + dir, e);
+    }
+  }
+
+  /**
+   * Returns the locations of fixes which reports are persisted.
+   *
+   * @return Immutable set of locations.
+   */
+  public ImmutableSet<Location> getPersistedLocations() {
+    return ImmutableSet.copyOf(latest.keySet());
+  }
+
+  /**
+   * Persists the reports of a finished shard in a new shard file. The file is written under a
+   * temporary name and then renamed, therefore an interrupted run never leaves a partial shard.
+   *
+   * @param reports Reports of the shard.
+   */
+  public void persist(Set<Report> reports) {
+    if (reports.isEmpty()) {
+      return;
+    }
+    int index = files.size();
+    Path file = dir.resolve(String.format("shard-%06d%s", index, SHARD_FILE_SUFFIX));
+    Path temporary = dir.resolve(file.getFileName() + ".tmp");
+    try (BufferedWriter output = Files.newBufferedWriter(temporary, Charset.defaultCharset())) {
+      for (Report report : sortByOverallEffect(reports)) {
+        JSONObject location =
+            report.root.toLocation().accept(new LocationToPortableJsonVisitor(), null);
+        output.write(
+            location.toJSONString()
+                + "\t"
+                + report.getOverallEffect(config)
+                + "\t"
+                + writer.serialize(report));
+        output.newLine();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not write shard at: " + temporary, e);
+    }
+    try {
+      Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not write shard at: " + file, e);
+    }
+    files.add(file);
+    reports.forEach(report -> latest.put(report.root.toLocation(), index));
+  }
+
+  /**
+   * Writes the reports file in the output directory. It contains the latest report of each fix from
+   * the persisted shards and the given reports, sorted by their overall effect in descending order.
+   * Given reports take precedence over persisted reports of the same fix.
+   *
+   * @param reports Reports held in memory.
+   */
+  public void writeReports(Set<Report> reports) {
+    Set<Location> inMemory =
+        reports.stream().map(report -> report.root.toLocation()).collect(Collectors.toSet());
+    List<ShardSource> shards = new ArrayList<>();
+    try {
+      for (int i = 0; i < files.size(); i++) {
+        int index = i;
+        shards.add(
+            new ShardSource(
+                files.get(i),
+                index,
+                location -> !inMemory.contains(location) && isLatest(location, index)));
+      }
+      // Among reports with equal effects, earlier sources come first.
+      PriorityQueue<Source> queue =
+          new PriorityQueue<>(
+              Comparator.comparingInt((Source source) -> source.effect)
+                  .reversed()
+                  .thenComparingInt(source -> source.order));
+      shards.stream().filter(source -> source.report != null).forEach(queue::add);
+      Source memory = new MemorySource(sortByOverallEffect(reports).iterator(), files.size());
+      if (memory.report != null) {
+        queue.add(memory);
+      }
+      writer.writeSerialized(
+          new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return !queue.isEmpty();
+            }
+
+            @Override
+            public String next() {
+              Source source = queue.poll();
+              if (source == null) {
+                throw new NoSuchElementException();
+              }
+              String report = source.report;
+              source.advance();
+              if (source.report != null) {
+                queue.add(source);
+              }
+              return report;
+            }
+          });
+    } finally {
+      shards.forEach(ShardSource::close);
+    }
+  }
+
+  /**
+   * Reads the overall effect of the latest persisted report of each fix.
+   *
+   * @return Immutable map of locations of fixes to their overall effect.
+   */
+  public ImmutableMap<Location, Integer> readPersistedEffects() {
+    Map<Location, Integer> effects = new HashMap<>();
+    for (int i = 0; i < files.size(); i++) {
+      int index = i;
+      ShardSource source =
+          new ShardSource(files.get(i), index, location -> isLatest(location, index));
+      try {
+        while (source.report != null) {
+          effects.put(source.location, source.effect);
+          source.advance();
+        }
+      } finally {
+        source.close();
+      }
+    }
+    return ImmutableMap.copyOf(effects);
+  }
+
+  /**
+   * Checks if the shard file at the given index holds the latest report of the fix on the given
+   * location.
+   *
+   * @param location Location of the fix.
+   * @param index Index of the shard file.
+   * @return true, if the shard file holds the latest report.
+   */
+  private boolean isLatest(Location location, int index) {
+    Integer shard = latest.get(location);
+    return shard != null && shard == index;
+  }
+
+  /**
+   * Sorts the given reports by their overall effect in descending order.
+   *
+   * @param reports Reports to sort.
+   * @return Sorted list of reports.
+   */
+  private ImmutableList<Report> sortByOverallEffect(Set<Report> reports) {
+    return ImmutableList.sortedCopyOf(
+        Comparator.comparingInt((Report report) -> report.getOverallEffect(config)).reversed(),
+        reports);
+  }
+
+  /**
+   * Parses the location of the fix in a line of a shard file.
+   *
+   * @param line Line of a shard file.
+   * @return Location of the fix.
+   */
+  private static Location parseLocation(String line) {
+    try {
+      return Location.createLocationFromJson(
+          (JSONObject) new JSONParser().parse(line.substring(0, line.indexOf('\t'))));
+    } catch (ParseException e) {
+      throw new RuntimeException("Could not parse shard line: " + line, e);
+    }
+  }
+
+  /** Source of serialized reports sorted by their overall effect, consumed one at a time. */
+  private abstract static class Source {
+
+    /** Order of the source among all merged sources. */
+    final int order;
+    /** Current serialized report, null if the source is consumed. */
+    @Nullable String report;
+    /** Overall effect of the current report. */
+    int effect;
+
+    /**
+     * Creates a source with the given order.
+     *
+     * @param order Order of the source among all merged sources.
+     */
+    Source(int order) {
+      this.order = order;
+    }
+
+    /** Moves to the next report of the source. */
+    abstract void advance();
+  }
+
+  /** Source of reports persisted in a shard file, reading a single line at a time. */
+  private static class ShardSource extends Source {
+
+    /** Path to the shard file. */
+    private final Path file;
+    /** Reader of the shard file. */
+    private final BufferedReader reader;
+    /** Predicate on locations of fixes which reports are read from this shard file. */
+    private final Predicate<Location> included;
+    /** Location of the fix of the current report. */
+    @Nullable private Location location;
+
+    /**
+     * Creates a source reading the given shard file.
+     *
+     * @param file Path to the shard file.
+     * @param order Order of the source among all merged sources.
+     * @param included Predicate on locations of fixes which reports are read from this file.
+     */
+    private ShardSource(Path file, int order, Predicate<Location> included) {
+      super(order);
+      this.file = file;
+      this.included = included;
+      try {
+        this.reader = Files.newBufferedReader(file, Charset.defaultCharset());
+      } catch (IOException e) {
+        throw new RuntimeException("Could not read shard at: " + file, e);
+      }
+      advance();
+    }
+
+    @Override
+    void advance() {
+      try {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          Location next = parseLocation(line);
+          if (included.test(next)) {
+            int start = line.indexOf('\t') + 1;
+            int end = line.indexOf('\t', start);
+            location = next;
+            effect = Integer.parseInt(line.substring(start, end));
+            report = line.substring(end + 1);
+            return;
+          }
+        }
+        location = null;
+        report = null;
+      } catch (IOException e) {
+        throw new RuntimeException("Could not read shard at: " + file, e);
+      }
+    }
+
+    /** Closes the reader of the shard file. */
+    private void close() {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Could not close shard at: " + file, e);
+      }
+    }
+  }
+
+  /** Source of reports held in memory, serialized one at a time. */
+  private class MemorySource extends Source {
+
+    /** Iterator over reports sorted by their overall effect in descending order. */
+    private final Iterator<Report> reports;
+
+    /**
+     * Creates a source of the given reports.
+     *
+     * @param reports Iterator over reports sorted by their overall effect in descending order.
+     * @param order Order of the source among all merged sources.
+     */
+    private MemorySource(Iterator<Report> reports, int order) {
+      super(order);
+      this.reports = reports;
+      advance();
+    }
+
+    @Override
+    void advance() {
+      if (!reports.hasNext()) {
+        report = null;
+        return;
+      }
+      Report next = reports.next();
+      effect = next.getOverallEffect(config);
+      report = writer.serialize(next);
+    }
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.injector.location.OnClass;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * Watches source roots and all directories beneath them, including directories created while
+ * watching, and records the java files touched in them. Java files already present in a directory
+ * when it is created are recorded as well, as they might be written before the directory is
+ * registered.
+ */
+class SourceWatcher implements Closeable {
+
+  /** Roots of the watched source trees. */
+  private final ImmutableSet<Path> roots;
+  /** Underlying watch service, all watched directories are registered on it. */
+  private final WatchService service;
+  /** Java files touched since the last call to {@link #clear()}, guarded by its own lock. */
+  private final Set<Path> touchedFiles;
+  /** If true, events are lost by the watch service since the last call to {@link #clear()}. */
+  private boolean overflowed;
+
+  /**
+   * Creates a watcher for the given source roots and registers all directories beneath them.
+   *
+   * @param roots Roots of the source trees, e.g. {@code src/main/java}.
+   * @throws IOException if the watch service could not be created or a directory not registered.
+   */
+  SourceWatcher(ImmutableSet<Path> roots) throws IOException {
+    this.roots = roots;
+    this.service = FileSystems.getDefault().newWatchService();
+    this.touchedFiles = new HashSet<>();
+    this.overflowed = false;
+    for (Path root : roots) {
+      register(root);
+    }
+  }
+
+  /**
+   * Returns the source root of the given class, the directory its package directories start in.
+   *
+   * @param clazz Flat name of the class.
+   * @param location Location of the class, {@code null} if not observed in source code.
+   * @return Source root, {@code null} if the class is not observed in source code or the path of
+   *     its source file is shorter than its package.
+   */
+  @Nullable
+  static Path sourceRoot(String clazz, @Nullable OnClass location) {
+    if (location == null) {
+      return null;
+    }
+    int packageSegments = clazz.split("\\.").length - 1;
+    Path root = location.path.toAbsolutePath().getParent();
+    for (int i = 0; i < packageSegments && root != null; i++) {
+      root = root.getParent();
+    }
+    return root;
+  }
+
+  /** Starts recording touched files on a daemon thread, until this watcher is closed. */
+  void start() {
+    Thread thread = new Thread(this::watch, "annotator-daemon-watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Returns the java files touched since the last call to {@link #clear()}.
+   *
+   * @return Touched java files.
+   */
+  ImmutableSet<Path> getTouchedFiles() {
+    synchronized (touchedFiles) {
+      return ImmutableSet.copyOf(touchedFiles);
+    }
+  }
+
+  /**
+   * Checks if events are lost since the last call to {@link #clear()}. Java files found under the
+   * roots are recorded as touched once events are lost, but deletions might be missed, therefore
+   * all known source files must be checked for edits as well.
+   *
+   * @return true, if events are lost.
+   */
+  boolean isOverflowed() {
+    synchronized (touchedFiles) {
+      return overflowed;
+    }
+  }
+
+  /** Forgets the recorded touched files and lost events. */
+  void clear() {
+    synchronized (touchedFiles) {
+      touchedFiles.clear();
+      overflowed = false;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    service.close();
+  }
+
+  /** Records touched java files and registers created directories until this watcher is closed. */
+  private void watch() {
+    try {
+      while (true) {
+        WatchKey key = service.take();
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            recover();
+            continue;
+          }
+          Path path = directory.resolve((Path) event.context());
+          if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+            record(registerOrRecover(path));
+          } else if (isJavaFile(path)) {
+            record(ImmutableSet.of(path));
+          }
+        }
+        key.reset();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Watcher is closed.
+    }
+  }
+
+  /**
+   * Recovers from lost events, registers directories created meanwhile and records all java files
+   * under the roots.
+   */
+  private void recover() {
+    synchronized (touchedFiles) {
+      overflowed = true;
+    }
+    for (Path root : roots) {
+      record(registerOrRecover(root));
+    }
+  }
+
+  /**
+   * Registers the given directory and all directories beneath it while watching. If it fails, e.g.
+   * the directory is deleted meanwhile, the failure is treated as lost events, so that all source
+   * files are checked for edits.
+   *
+   * @param directory Directory to register.
+   * @return Java files found beneath the directory.
+   */
+  private ImmutableSet<Path> registerOrRecover(Path directory) {
+    try {
+      return register(directory);
+    } catch (IOException | UncheckedIOException e) {
+      synchronized (touchedFiles) {
+        overflowed = true;
+      }
+      return ImmutableSet.of();
+    }
+  }
+
+  /**
+   * Registers the given directory and all directories beneath it. Registering an already watched
+   * directory has no effect.
+   *
+   * @param directory Directory to register.
+   * @return Java files found beneath the directory.
+   * @throws IOException if a directory could not be registered.
+   */
+  private ImmutableSet<Path> register(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return ImmutableSet.of();
+    }
+    Set<Path> directories;
+    ImmutableSet<Path> javaFiles;
+    try (Stream<Path> paths = Files.walk(directory)) {
+      Set<Path> all = paths.collect(Collectors.toSet());
+      directories = all.stream().filter(Files::isDirectory).collect(Collectors.toSet());
+      javaFiles =
+          all.stream().filter(SourceWatcher::isJavaFile).collect(ImmutableSet.toImmutableSet());
+    }
+    for (Path path : directories) {
+      path.register(
+          service,
+          StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY,
+          StandardWatchEventKinds.ENTRY_DELETE);
+    }
+    return javaFiles;
+  }
+
+  /**
+   * Records the given files as touched.
+   *
+   * @param files Touched java files.
+   */
+  private void record(ImmutableSet<Path> files) {
+    synchronized (touchedFiles) {
+      touchedFiles.addAll(files);
+    }
+  }
+
+  /**
+   * Checks if the given path is a java source file, the file might not exist anymore.
+   *
+   * @param path Path to check.
+   * @return true, if the path has the java extension.
+   */
+  private static boolean isJavaFile(Path path) {
+    return path.toString().endsWith(".java");
+  }
+}
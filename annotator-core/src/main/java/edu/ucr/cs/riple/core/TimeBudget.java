@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+/**
+ * Tracks the time budget of a run. The run is divided into steps (e.g. evaluation of a batch of
+ * fixes) and the budget can afford the next step if the remaining time is more than the duration
+ * of the longest step observed so far. Steps consist of units (e.g. fixes), and the size of the
+ * next step is bounded by the number of units the remaining time can afford, estimated by the
+ * slowest unit observed so far. If the configured budget is not positive, the budget is unlimited
+ * and can afford any step.
+ */
+public class TimeBudget {
+
+  /** Budget of the run in milliseconds, non-positive values indicate an unlimited budget. */
+  private final long budget;
+  /** Start time of the run in milliseconds. */
+  private long start;
+  /** Duration of the longest step observed so far in milliseconds. */
+  private long longestStep;
+  /**
+   * Longest duration of a unit of work observed so far in milliseconds, {@code 0} if no step is
+   * finished yet.
+   */
+  private double longestUnit;
+
+  public TimeBudget(Config config) {
+    this.budget = Math.max(config.timeBudgetInSeconds, 0) * 1000;
+    this.start = System.currentTimeMillis();
+    this.longestStep = 0;
+    this.longestUnit = 0;
+  }
+
+  /**
+   * Restarts the budget for a new run, e.g. a request served by {@link AnnotatorDaemon}. Durations
+   * of steps observed in previous runs are kept as the estimate of the next step.
+   */
+  public synchronized void restart() {
+    this.start = System.currentTimeMillis();
+  }
+
+  /**
+   * Checks if the run is time budgeted.
+   *
+   * @return true, if a positive time budget is configured.
+   */
+  public boolean isLimited() {
+    return budget > 0;
+  }
+
+  /**
+   * Returns the remaining time of the budget in milliseconds.
+   *
+   * @return Remaining time, {@link Long#MAX_VALUE} if the budget is unlimited.
+   */
+  public long remaining() {
+    if (!isLimited()) {
+      return Long.MAX_VALUE;
+    }
+    return budget - (System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Checks if the budget is exhausted. Ongoing work which can be interrupted should stop once the
+   * budget is exhausted.
+   *
+   * @return true, if the run is time budgeted and no time is remaining.
+   */
+  public boolean isExhausted() {
+    return remaining() <= 0;
+  }
+
+  /**
+   * Starts a step and returns its start time which should be passed to {@link #finishStep(long)}.
+   *
+   * @return Start time of the step.
+   */
+  public long startStep() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Finishes a step and updates the estimated duration of the next step.
+   *
+   * @param stepStart Start time of the step returned by {@link #startStep()}.
+   */
+  public synchronized void finishStep(long stepStart) {
+    this.longestStep = Math.max(this.longestStep, System.currentTimeMillis() - stepStart);
+  }
+
+  /**
+   * Finishes a step consisting of the given number of units and updates the estimated duration of
+   * the next step and of each unit.
+   *
+   * @param stepStart Start time of the step returned by {@link #startStep()}.
+   * @param units Number of units in the step.
+   */
+  public synchronized void finishStep(long stepStart, int units) {
+    long duration = System.currentTimeMillis() - stepStart;
+    this.longestStep = Math.max(this.longestStep, duration);
+    if (units > 0) {
+      this.longestUnit = Math.max(this.longestUnit, (double) duration / units);
+    }
+  }
+
+  /**
+   * Returns the number of units the next step can contain to finish before the budget is
+   * exhausted. Before any step is finished, the duration of a unit is unknown and the first step is
+   * bounded by {@code firstStepSize}.
+   *
+   * @param firstStepSize Size of the first step.
+   * @param maxStepSize Maximum size of a step.
+   * @return Size of the next step, {@code 0} if no unit can be afforded.
+   */
+  public synchronized int getAffordableStepSize(int firstStepSize, int maxStepSize) {
+    if (!isLimited()) {
+      return maxStepSize;
+    }
+    long remaining = remaining();
+    if (remaining <= 0) {
+      return 0;
+    }
+    if (longestUnit == 0) {
+      return Math.min(firstStepSize, maxStepSize);
+    }
+    return (int) Math.min(maxStepSize, Math.floor(remaining / longestUnit));
+  }
+
+  /**
+   * Checks if the remaining budget is enough to run the next step, the duration of the next step
+   * is estimated by the duration of the longest step observed so far.
+   *
+   * @return true, if the next step is expected to finish before the budget is exhausted.
+   */
+  public synchronized boolean canAffordNextStep() {
+    return remaining() > longestStep;
+  }
+}
@@ -29,8 +29,10 @@ import edu.ucr.cs.riple.core.registries.index.Error;
 import edu.ucr.cs.riple.core.registries.index.Fix;
 import edu.ucr.cs.riple.injector.location.Location;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 /**
@@ -62,12 +64,14 @@ public abstract class BaseCache<T extends Impact, S extends Map<Location, T>>
 
   @Override
   public ImmutableSet<Error> getTriggeredErrorsForCollection(Collection<Fix> fixes) {
-    return fixes.stream()
+    // Resolvability is checked with hash lookups of resolving fixes in the collection.
+    Set<Fix> fixSet = fixes instanceof Set ? (Set<Fix>) fixes : new HashSet<>(fixes);
+    return fixSet.stream()
         .map(fix -> store.get(fix.toLocation()))
         .filter(Objects::nonNull)
         .flatMap(impact -> impact.triggeredErrors.stream())
         // filter errors that will be resolved with the existing collection of fixes.
-        .filter(error -> !error.isResolvableWith(fixes))
+        .filter(error -> !error.isResolvableWith(fixSet))
         .collect(ImmutableSet.toImmutableSet());
   }
 
@@ -0,0 +1,341 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.cache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import edu.ucr.cs.riple.core.Config;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
+import edu.ucr.cs.riple.core.registries.field.FieldInitializationStore;
+import edu.ucr.cs.riple.core.util.Utility;
+import edu.ucr.cs.riple.injector.changes.ASTChange;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Memoizes checker outputs of building the target module. Each build is identified by a
+ * fingerprint of the source state it is performed on and the configuration it is performed with.
+ * The source state consists of the hash of the original source files of the target module and the
+ * current content of every source file which differs from its original content, hence two builds
+ * share an entry only if they are performed on identical sources. The configuration consists of
+ * the build command, the checker, its configuration files and serialization version, and the
+ * version of the annotator. If the same source state is built again (e.g. the final iteration with
+ * disabled cache, or the same group of fixes evaluated over the same base), all stored checker
+ * outputs are restored and the build is skipped. Entries are stored in the output directory under
+ * a directory named after {@link #FORMAT_VERSION}, hence reruns on the same sources benefit from
+ * them as well, and entries of other format versions are deleted once the cache is created.
+ */
+public class BuildResultCache {
+
+  /** Name of the directory in the output directory where entries are stored. */
+  public static final String BUILD_RESULT_CACHE_DIR_NAME = "build-result-cache";
+  /**
+   * Version of the layout of entries and their fingerprints, must be incremented on any change on
+   * either of them.
+   */
+  public static final int FORMAT_VERSION = 2;
+  /** Name of the checker errors file, an entry is complete only if it contains this file. */
+  private static final String ERRORS_FILE_NAME = "errors.tsv";
+  /** Names of the checker output files of a build that are memoized. */
+  private static final ImmutableList<String> OUTPUT_FILE_NAMES =
+      ImmutableList.of(ERRORS_FILE_NAME, FieldInitializationStore.FILE_NAME);
+  /** Name of the file where the checker writes its serialization version. */
+  private static final String SERIALIZATION_VERSION_FILE_NAME = "serialization_version.txt";
+
+  /** If false, this cache does not store or restore any entry. */
+  private final boolean enabled;
+  /** Root directory of stored entries. */
+  private final Path root;
+  /** Configurations of the target module, their checker outputs are memoized. */
+  private final ImmutableSet<ModuleConfiguration> configurations;
+  /** Hash of the configuration builds are performed with. Part of the fingerprint. */
+  private final String configurationHash;
+  /** Hash of the original source files of the target module. */
+  private String baseStateHash;
+  /** Hashes of the content of each original source file of the target module. */
+  private final Map<Path, HashCode> baseFileHashes;
+  /**
+   * Source files modified since the base state, their current content is part of the state if it
+   * differs from their original content.
+   */
+  private final Set<Path> modifiedFiles;
+
+  /**
+   * Creates a build result cache. The given source files must be at their original state, as their
+   * hash is used as the base state of all fingerprints.
+   *
+   * @param config Annotator configuration.
+   * @param buildCommand Build command of the target module.
+   * @param configurations Configurations of the target module.
+   * @param sourceFiles Source files of the target module.
+   */
+  public BuildResultCache(
+      Config config,
+      String buildCommand,
+      ImmutableSet<ModuleConfiguration> configurations,
+      ImmutableSet<Path> sourceFiles) {
+    this.enabled = config.useBuildResultCache;
+    this.root =
+        config.globalDir.resolve(BUILD_RESULT_CACHE_DIR_NAME).resolve("v" + FORMAT_VERSION);
+    this.configurations = configurations;
+    this.modifiedFiles = new HashSet<>();
+    this.baseFileHashes = new HashMap<>();
+    this.configurationHash = enabled ? computeConfigurationHash(config, buildCommand) : "";
+    this.baseStateHash = "";
+    if (enabled) {
+      computeBaseState(sourceFiles);
+      deleteEntriesOfOtherVersions();
+    }
+  }
+
+  /**
+   * Resets the base state to the current content of the given source files, used once the source
+   * files are edited outside the annotator. Changes applied so far become part of the new base
+   * state. Entries of the previous base state are kept on disk and are reused if the sources are
+   * reverted.
+   *
+   * @param sourceFiles Source files of the target module.
+   */
+  public synchronized void rebase(ImmutableSet<Path> sourceFiles) {
+    if (enabled) {
+      computeBaseState(sourceFiles);
+    }
+  }
+
+  /**
+   * Sets the base state to the current content of the given source files.
+   *
+   * @param sourceFiles Source files of the target module.
+   */
+  private void computeBaseState(ImmutableSet<Path> sourceFiles) {
+    modifiedFiles.clear();
+    baseFileHashes.clear();
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (Path path : sourceFiles.stream().sorted().collect(Collectors.toList())) {
+      HashCode hash = hashFile(path);
+      baseFileHashes.put(path, hash);
+      hasher.putString(path.toString(), StandardCharsets.UTF_8);
+      hasher.putBytes(hash.asBytes());
+    }
+    baseStateHash = hasher.hash().toString();
+  }
+
+  /**
+   * Records changes injected to the source code.
+   *
+   * @param changes Injected changes.
+   */
+  public synchronized void onChangesInjected(Collection<? extends ASTChange> changes) {
+    recordModifiedFiles(changes);
+  }
+
+  /**
+   * Records changes removed from the source code. Removals are recorded the same way as injections,
+   * the state is computed from the current content of modified files, hence removing an annotation
+   * present in the original sources leads to a different state, while removing an injected
+   * annotation leads back to the state before the injection.
+   *
+   * @param changes Removed changes.
+   */
+  public synchronized void onChangesRemoved(Collection<? extends ASTChange> changes) {
+    recordModifiedFiles(changes);
+  }
+
+  /**
+   * Records the files modified by the given changes.
+   *
+   * @param changes Applied changes.
+   */
+  private void recordModifiedFiles(Collection<? extends ASTChange> changes) {
+    if (enabled) {
+      changes.forEach(change -> modifiedFiles.add(change.getLocation().path));
+    }
+  }
+
+  /**
+   * Restores the checker outputs of the current source state if it has been built before. Outputs
+   * which were not produced by the stored build are deleted.
+   *
+   * @return true, if outputs are restored and the build can be skipped.
+   */
+  public synchronized boolean restore() {
+    if (!enabled) {
+      return false;
+    }
+    Path entry = root.resolve(fingerprint());
+    if (!configurations.stream()
+        .allMatch(module -> Files.exists(entryFileFor(entry, module, ERRORS_FILE_NAME)))) {
+      return false;
+    }
+    try {
+      for (ModuleConfiguration module : configurations) {
+        for (String name : OUTPUT_FILE_NAMES) {
+          Path stored = entryFileFor(entry, module, name);
+          if (Files.exists(stored)) {
+            Files.copy(stored, module.dir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+          } else {
+            Files.deleteIfExists(module.dir.resolve(name));
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not restore build result from: " + entry, e);
+    }
+    return true;
+  }
+
+  /**
+   * Stores the checker outputs of the most recent build for the current source state. Nothing is
+   * stored if the errors file of any module is missing.
+   */
+  public synchronized void store() {
+    if (!enabled) {
+      return;
+    }
+    if (!configurations.stream()
+        .allMatch(module -> Files.exists(module.dir.resolve(ERRORS_FILE_NAME)))) {
+      return;
+    }
+    Path entry = root.resolve(fingerprint());
+    try {
+      for (ModuleConfiguration module : configurations) {
+        for (String name : OUTPUT_FILE_NAMES) {
+          Path output = module.dir.resolve(name);
+          if (!Files.exists(output)) {
+            continue;
+          }
+          Path destination = entryFileFor(entry, module, name);
+          Files.createDirectories(destination.getParent());
+          Files.copy(output, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not store build result at: " + entry, e);
+    }
+  }
+
+  /**
+   * Returns the path to the stored checker output of the given module within an entry.
+   *
+   * @param entry Path to the entry.
+   * @param module Module configuration.
+   * @param name Name of the checker output file.
+   * @return Path to the stored checker output.
+   */
+  private static Path entryFileFor(Path entry, ModuleConfiguration module, String name) {
+    // Output directory of each module is named after its unique id.
+    return entry.resolve(module.dir.getFileName().toString()).resolve(name);
+  }
+
+  /**
+   * Computes the fingerprint of the current source state and configuration.
+   *
+   * @return Fingerprint of the current source state and configuration.
+   */
+  private String fingerprint() {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(configurationHash, StandardCharsets.UTF_8);
+    hasher.putString(baseStateHash, StandardCharsets.UTF_8);
+    for (Path path : modifiedFiles.stream().sorted().collect(Collectors.toList())) {
+      HashCode hash = hashFile(path);
+      // Files reverted to their original content are part of the base state.
+      if (!hash.equals(baseFileHashes.get(path))) {
+        hasher.putString(path.toString(), StandardCharsets.UTF_8);
+        hasher.putBytes(hash.asBytes());
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Computes the hash of the configuration builds are performed with. Checker versions sharing the
+   * same serialization version are not distinguished.
+   *
+   * @param config Annotator configuration.
+   * @param buildCommand Build command of the target module.
+   * @return Hash of the configuration.
+   */
+  private String computeConfigurationHash(Config config, String buildCommand) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FORMAT_VERSION);
+    String annotatorVersion = BuildResultCache.class.getPackage().getImplementationVersion();
+    hasher.putString(String.valueOf(annotatorVersion), StandardCharsets.UTF_8);
+    hasher.putString(buildCommand, StandardCharsets.UTF_8);
+    hasher.putString(String.valueOf(config.checkerName), StandardCharsets.UTF_8);
+    hasher.putString(config.nullableAnnot, StandardCharsets.UTF_8);
+    hasher.putString(config.initializerAnnot, StandardCharsets.UTF_8);
+    for (ModuleConfiguration module : configurations) {
+      hasher.putString(module.dir.toString(), StandardCharsets.UTF_8);
+      hasher.putBytes(hashFile(module.checkerConfig).asBytes());
+      hasher.putBytes(hashFile(module.dir.resolve(SERIALIZATION_VERSION_FILE_NAME)).asBytes());
+    }
+    return hasher.hash().toString();
+  }
+
+  /** Deletes entries stored by other format versions, they can never be restored. */
+  private void deleteEntriesOfOtherVersions() {
+    Path parent = root.getParent();
+    if (!Files.isDirectory(parent)) {
+      return;
+    }
+    try (Stream<Path> entries = Files.list(parent)) {
+      entries.filter(path -> !path.equals(root)).forEach(Utility::deleteDirectory);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not list build result cache at: " + parent, e);
+    }
+  }
+
+  /**
+   * Computes the hash of the content of the given file. Missing files have a fixed hash distinct
+   * from the hash of any content.
+   *
+   * @param path Path to the file.
+   * @return Hash of the file.
+   */
+  private static HashCode hashFile(Path path) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    if (!Files.exists(path)) {
+      return hasher.putBoolean(false).hash();
+    }
+    try {
+      return hasher.putBoolean(true).putBytes(Files.readAllBytes(path)).hash();
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read file: " + path, e);
+    }
+  }
+}
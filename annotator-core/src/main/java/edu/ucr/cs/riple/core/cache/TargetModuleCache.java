@@ -27,6 +27,7 @@ package edu.ucr.cs.riple.core.cache;
 import edu.ucr.cs.riple.injector.location.Location;
 import java.util.HashMap;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Cache for storing impacts of fixes on target module. This cache's state is not immutable and can
@@ -46,4 +47,14 @@ public class TargetModuleCache extends BaseCache<Impact, HashMap<Location, Impac
   public void updateCacheState(Set<Impact> newData) {
     newData.forEach(t -> store.put(t.toLocation(), t));
   }
+
+  /**
+   * Removes impacts of fixes on the matching locations, their impacts are computed again once
+   * queried.
+   *
+   * @param predicate Predicate matching locations of impacts to remove.
+   */
+  public void invalidate(Predicate<Location> predicate) {
+    store.keySet().removeIf(predicate);
+  }
 }
@@ -26,7 +26,9 @@ package edu.ucr.cs.riple.core.cache.downstream;
 
 import edu.ucr.cs.riple.core.cache.ImpactCache;
 import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.injector.location.Location;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Analyzer for downstream dependencies.
@@ -39,9 +41,29 @@ import java.util.Set;
  */
 public interface DownstreamImpactCache extends ImpactCache<DownstreamImpact> {
 
-  /** Analyzes effects of changes in public methods in downstream dependencies. */
+  /**
+   * Analyzes effects of changes in public methods in downstream dependencies. Implementations may
+   * perform the analysis asynchronously, in that case, queries on this cache must block until the
+   * analysis is completed.
+   */
   void analyzeDownstreamDependencies();
 
+  /**
+   * Blocks until the analysis of downstream dependencies started by {@link
+   * #analyzeDownstreamDependencies()} is completed. Must be called before the sources of the target
+   * module are modified, as builds of downstream dependencies compile them.
+   */
+  void awaitAnalysis();
+
+  /**
+   * Removes impacts of fixes on the matching locations, e.g. locations declared in source files
+   * edited since the analysis. Removed impacts are computed again by the next call to {@link
+   * #analyzeDownstreamDependencies()}, impacts of other locations are kept.
+   *
+   * @param predicate Predicate matching locations of impacts to remove.
+   */
+  void invalidate(Predicate<Location> predicate);
+
   /**
    * Returns the lower bound of number of errors of applying a fix and its associated chain of fixes
    * on the target on downstream dependencies.
@@ -25,6 +25,7 @@
 package edu.ucr.cs.riple.core.cache.downstream;
 
 import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.BuildScheduler;
 import edu.ucr.cs.riple.core.Context;
 import edu.ucr.cs.riple.core.Report;
 import edu.ucr.cs.riple.core.cache.BaseCache;
@@ -42,13 +43,20 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 
 /**
- * Implementation for {@link DownstreamImpactCache} interface. This cache state is immutable and
- * once created, cannot be updated.
+ * Implementation for {@link DownstreamImpactCache} interface. Once computed, impacts are only
+ * removed by {@link #invalidate(Predicate)} and computed again by the next analysis. The analysis
+ * of downstream dependencies runs on a dedicated daemon thread and all queries on this cache block
+ * until the analysis is completed.
  */
 public class DownstreamImpactCacheImpl
     extends BaseCache<DownstreamImpact, Map<Location, DownstreamImpact>>
@@ -56,6 +64,13 @@ public class DownstreamImpactCacheImpl
 
   /** Annotator context instance. */
   private final Context context;
+  /** Scheduler sharing the analysis of downstream dependencies among target modules. */
+  private final BuildScheduler buildScheduler;
+  /**
+   * Pending result of the analysis of downstream dependencies, {@code null} if analysis is not
+   * started yet.
+   */
+  @Nullable private Future<?> analysis;
 
   /**
    * Constructor for creating downstream impact cache. It populates the registry with a downstream
@@ -66,8 +81,20 @@ public class DownstreamImpactCacheImpl
    * @param context Annotator context.
    */
   public DownstreamImpactCacheImpl(Context context) {
+    this(context, context.buildScheduler);
+  }
+
+  /**
+   * Constructor for creating downstream impact cache with the given scheduler. Package-private for
+   * testing.
+   *
+   * @param context Annotator context.
+   * @param buildScheduler Scheduler sharing the analysis of downstream dependencies.
+   */
+  DownstreamImpactCacheImpl(Context context, BuildScheduler buildScheduler) {
     super(new HashMap<>());
     this.context = context;
+    this.buildScheduler = buildScheduler;
   }
 
   /**
@@ -83,9 +110,11 @@ public class DownstreamImpactCacheImpl
   private ImmutableSet<Location> retrieveLocationsToCacheImpactsOnDownstreamDependencies(
       Context context, ModuleInfo moduleInfo) {
     ImmutableSet.Builder<Location> locationsToCache = ImmutableSet.builder();
-    // Used to collect callers of each method.
-    MethodRegionRegistry methodRegionRegistry = new MethodRegionRegistry(moduleInfo);
-    FieldRegionRegistry fieldRegionRegistry = new FieldRegionRegistry(moduleInfo);
+    // Used to collect callers of each method, already loaded with the module info.
+    MethodRegionRegistry methodRegionRegistry =
+        moduleInfo.getRegionRegistry().getMethodRegionRegistry();
+    FieldRegionRegistry fieldRegionRegistry =
+        moduleInfo.getRegionRegistry().getFieldRegionRegistry();
     // Collect public methods with non-primitive return types.
     locationsToCache.addAll(
         context
@@ -112,14 +141,104 @@ public class DownstreamImpactCacheImpl
     return locationsToCache.build();
   }
 
+  /**
+   * Starts the analysis of downstream dependencies on a separate daemon thread and returns
+   * immediately. Builds of downstream dependencies compile the sources of the target module,
+   * therefore this method must be called once the sources of the target module are in their base
+   * state (after preprocessing), and {@link #awaitAnalysis()} must be called before the sources of
+   * the target module are modified again. The result is also awaited on every query on this cache.
+   */
   @Override
   public void analyzeDownstreamDependencies() {
+    // Downstream dependencies are shared among all target modules, analyses of other target modules
+    // are awaited before this one starts.
+    startAnalysis(
+        () ->
+            buildScheduler.analyzeDownstreamDependencies(
+                this::computeImpactsOnDownstreamDependencies));
+  }
+
+  /**
+   * Runs the given analysis on a separate daemon thread, so that a pending analysis does not keep
+   * the JVM alive. Does nothing if an analysis is already started. Package-private for testing.
+   *
+   * @param task Analysis to run.
+   */
+  void startAnalysis(Runnable task) {
+    if (analysis != null) {
+      return;
+    }
+    ExecutorService executor =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "downstream-analysis");
+              thread.setDaemon(true);
+              return thread;
+            });
+    analysis = executor.submit(task);
+    // No other task will be submitted, the thread is released once the analysis is completed.
+    executor.shutdown();
+  }
+
+  /**
+   * Blocks until the analysis of downstream dependencies is completed. Does nothing if the analysis
+   * is not started.
+   */
+  @Override
+  public void awaitAnalysis() {
+    if (analysis == null) {
+      return;
+    }
+    try {
+      analysis.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while analyzing downstream dependencies", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Exception while analyzing downstream dependencies", e.getCause());
+    }
+  }
+
+  /**
+   * Removes impacts of fixes on the matching locations, from this cache and from the reports shared
+   * by the scheduler, and allows a new analysis to be started. Waits for a pending analysis first.
+   *
+   * @param predicate Predicate matching locations of impacts to remove.
+   */
+  @Override
+  public void invalidate(Predicate<Location> predicate) {
+    awaitAnalysis();
+    store.keySet().removeIf(predicate);
+    buildScheduler.removeDownstreamReports(predicate);
+    analysis = null;
+  }
+
+  /**
+   * Computes the impact of making each public API {@code @Nullable} on downstream dependencies and
+   * stores them in this cache. Locations already in this cache are skipped, and impacts already
+   * computed for any target module annotated in the same run are reused, see {@link
+   * BuildScheduler#getDownstreamReport(Location)}.
+   */
+  private void computeImpactsOnDownstreamDependencies() {
     System.out.println("Analyzing downstream dependencies...");
     DownstreamDependencySupplier supplier = new DownstreamDependencySupplier(context);
+    ImmutableSet<Location> locations =
+        retrieveLocationsToCacheImpactsOnDownstreamDependencies(context, supplier.getModuleInfo());
+    ImmutableSet.Builder<Location> unknown = ImmutableSet.builder();
+    for (Location location : locations) {
+      if (store.containsKey(location)) {
+        continue;
+      }
+      Report report = buildScheduler.getDownstreamReport(location);
+      if (report == null) {
+        unknown.add(location);
+      } else {
+        store.put(location, new DownstreamImpact(report));
+      }
+    }
     // Generate fixes corresponding methods.
     ImmutableSet<Fix> fixes =
-        retrieveLocationsToCacheImpactsOnDownstreamDependencies(context, supplier.getModuleInfo())
-            .stream()
+        unknown.build().stream()
             .map(
                 location ->
                     new Fix(
@@ -128,14 +247,24 @@ public class DownstreamImpactCacheImpl
                         false))
             .collect(ImmutableSet.toImmutableSet());
     DownstreamImpactEvaluator evaluator = new DownstreamImpactEvaluator(supplier);
-    ImmutableSet<Report> reports = evaluator.evaluate(fixes);
-    // Update method status based on the results.
+    ImmutableSet<Report> reports =
+        fixes.isEmpty() ? ImmutableSet.of() : evaluator.evaluate(fixes);
+    buildScheduler.putDownstreamReports(reports);
+    storeReports(reports);
+    System.out.println("Analyzing downstream dependencies completed!");
+  }
+
+  /**
+   * Stores the impacts of the given reports in this cache. Package-private for testing.
+   *
+   * @param reports Reports of the impact of fixes on downstream dependencies.
+   */
+  void storeReports(ImmutableSet<Report> reports) {
     reports.forEach(
         report -> {
           DownstreamImpact impact = new DownstreamImpact(report);
           store.put(report.root.toLocation(), impact);
         });
-    System.out.println("Analyzing downstream dependencies completed!");
   }
 
   /**
@@ -152,9 +281,34 @@ public class DownstreamImpactCacheImpl
       // we currently store only impacts of fixes for methods / fields on downstream dependencies.
       return null;
     }
+    awaitAnalysis();
     return super.fetchImpact(fix);
   }
 
+  @Override
+  public boolean isUnknown(Fix fix) {
+    awaitAnalysis();
+    return super.isUnknown(fix);
+  }
+
+  @Override
+  public ImmutableSet<Fix> getTriggeredFixesFromDownstreamForCollection(Collection<Fix> fixTree) {
+    awaitAnalysis();
+    return super.getTriggeredFixesFromDownstreamForCollection(fixTree);
+  }
+
+  @Override
+  public void updateImpactsAfterInjection(Collection<Fix> fixes) {
+    awaitAnalysis();
+    super.updateImpactsAfterInjection(fixes);
+  }
+
+  @Override
+  public int size() {
+    awaitAnalysis();
+    return super.size();
+  }
+
   /**
    * Returns the effect of applying a fix on the target on downstream dependencies.
    *
@@ -177,6 +331,7 @@ public class DownstreamImpactCacheImpl
 
   @Override
   public int computeLowerBoundOfNumberOfErrors(Set<Fix> tree) {
+    awaitAnalysis();
     OptionalInt lowerBoundEffectOfChainOptional =
         tree.stream().mapToInt(fix -> effectOnDownstreamDependencies(fix, tree)).max();
     if (lowerBoundEffectOfChainOptional.isEmpty()) {
@@ -187,16 +342,19 @@ public class DownstreamImpactCacheImpl
 
   @Override
   public int computeUpperBoundOfNumberOfErrors(Set<Fix> tree) {
+    awaitAnalysis();
     return tree.stream().mapToInt(fix -> effectOnDownstreamDependencies(fix, tree)).sum();
   }
 
   @Override
   public boolean triggersUnresolvableErrorsOnDownstream(Fix fix) {
+    awaitAnalysis();
     return getTriggeredErrors(fix).stream().anyMatch(error -> !error.isFixableOnTarget(context));
   }
 
   @Override
   public ImmutableSet<Error> getTriggeredErrorsForCollection(Collection<Fix> fixTree) {
+    awaitAnalysis();
     return fixTree.stream()
         .flatMap(
             fix -> {
@@ -212,6 +370,7 @@ public class DownstreamImpactCacheImpl
     if (!(fix.isOnMethod() || fix.isOnField())) {
       return ImmutableSet.of();
     }
+    awaitAnalysis();
     DownstreamImpact impact = fetchImpact(fix);
     if (impact == null) {
       return ImmutableSet.of();
@@ -45,11 +45,12 @@ class DownstreamImpactEvaluator extends BasicEvaluator {
   }
 
   @Override
-  protected void collectGraphResults(ImmutableSet<Report> reports) {
-    super.collectGraphResults(reports);
+  protected ImmutableSet<Report> collectGraphResults(ImmutableSet<Report> reports) {
+    ImmutableSet<Report> collected = super.collectGraphResults(reports);
     // Collect impacted parameters in target module by downstream dependencies.
     this.graph
         .getNodes()
+        .filter(node -> !graph.isDeferred(node))
         .forEach(
             node -> {
               // Impacted locations.
@@ -73,5 +74,6 @@ class DownstreamImpactEvaluator extends BasicEvaluator {
                             context.targetModuleInfo.getLocationOnClass(location.clazz).path);
               }
             });
+    return collected;
   }
 }
@@ -27,8 +27,10 @@ package edu.ucr.cs.riple.core.cache.downstream;
 import com.google.common.collect.ImmutableSet;
 import edu.ucr.cs.riple.core.registries.index.Error;
 import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.injector.location.Location;
 import java.util.Collection;
 import java.util.Set;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 
 /**
@@ -43,6 +45,16 @@ public class VoidDownstreamImpactCache implements DownstreamImpactCache {
     // No operation needed.
   }
 
+  @Override
+  public void awaitAnalysis() {
+    // No operation needed.
+  }
+
+  @Override
+  public void invalidate(Predicate<Location> predicate) {
+    // No operation needed.
+  }
+
   @Override
   public int computeLowerBoundOfNumberOfErrors(Set<Fix> tree) {
     return 0;
@@ -31,7 +31,9 @@ import edu.ucr.cs.riple.core.module.ModuleInfo;
 import edu.ucr.cs.riple.core.registries.index.Error;
 import edu.ucr.cs.riple.core.registries.index.Fix;
 import edu.ucr.cs.riple.core.registries.region.Region;
+import java.nio.file.Path;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Represents a checker that is running on the target module.
@@ -60,8 +62,10 @@ public interface Checker<T extends Error> {
    *
    * @param injector Annotation injector, can be used to inject any annotations during the
    *     pre-processing phase.
+   * @param scope Predicate on source files, only elements declared in source files matching it are
+   *     pre-processed.
    */
-  void preprocess(AnnotationInjector injector);
+  void preprocess(AnnotationInjector injector, Predicate<Path> scope);
 
   /**
    * Creates an {@link Error} instance from the given parameters.
@@ -34,6 +34,7 @@ import edu.ucr.cs.riple.core.module.ModuleInfo;
 import edu.ucr.cs.riple.core.registries.field.FieldInitializationStore;
 import edu.ucr.cs.riple.core.registries.index.Fix;
 import edu.ucr.cs.riple.core.registries.region.Region;
+import edu.ucr.cs.riple.core.util.MappedTSVReader;
 import edu.ucr.cs.riple.core.util.Utility;
 import edu.ucr.cs.riple.injector.Helper;
 import edu.ucr.cs.riple.injector.changes.AddAnnotation;
@@ -42,15 +43,19 @@ import edu.ucr.cs.riple.injector.changes.AddSingleElementAnnotation;
 import edu.ucr.cs.riple.injector.location.Location;
 import edu.ucr.cs.riple.injector.location.OnField;
 import edu.ucr.cs.riple.injector.location.OnParameter;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /** Represents <a href="https://github.com/uber/NullAway">NullAway</a> checker in Annotator. */
@@ -69,50 +74,66 @@ public class NullAway extends CheckerBaseClass<NullAwayError> {
 
   @Override
   public Set<NullAwayError> deserializeErrors(ModuleInfo module) {
-    ImmutableSet<Path> paths =
-        module.getModuleConfiguration().stream()
-            .map(configuration -> configuration.dir.resolve("errors.tsv"))
-            .collect(ImmutableSet.toImmutableSet());
-    Set<NullAwayError> errors = new HashSet<>();
-    paths.forEach(
-        path -> {
-          try {
-            try (BufferedReader br = Files.newBufferedReader(path, Charset.defaultCharset())) {
-              String line;
-              // Skip header.
-              br.readLine();
-              while ((line = br.readLine()) != null) {
-                errors.add(deserializeErrorFromTSVLine(module, line));
-              }
-            }
-          } catch (IOException e) {
-            throw new RuntimeException("Exception happened in reading errors at: " + path, e);
-          }
-        });
+    // Errors of each module configuration are parsed in parallel, registries are only read here.
+    return module.getModuleConfiguration().parallelStream()
+        .flatMap(
+            configuration ->
+                deserializeErrors(module, configuration.dir.resolve("errors.tsv")).stream())
+        .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  /**
+   * Deserializes all errors in the given file.
+   *
+   * @param module Module info.
+   * @param path Path to the errors file.
+   * @return List of deserialized errors.
+   */
+  private List<NullAwayError> deserializeErrors(ModuleInfo module, Path path) {
+    List<NullAwayError> errors = new ArrayList<>();
+    // Serialized paths are repeated for all errors in the same file, deserialize them once.
+    Map<String, Path> deserializedPaths = new HashMap<>();
+    try {
+      MappedTSVReader.forEachRow(
+          path,
+          true,
+          row -> errors.add(deserializeErrorFromTSVRow(module, row, deserializedPaths)));
+    } catch (IOException e) {
+      throw new RuntimeException("Exception happened in reading errors at: " + path, e);
+    }
     return errors;
   }
 
   /**
-   * Deserializes an error from a TSV line.
+   * Deserializes an error from a TSV row.
    *
    * @param moduleInfo Module info.
-   * @param line Given TSV line.
-   * @return the deserialized error corresponding to the values in the given tsv line.
+   * @param row Given TSV row.
+   * @param deserializedPaths Deserialized paths, keyed by their serialized value.
+   * @return the deserialized error corresponding to the values in the given tsv row.
    */
-  private NullAwayError deserializeErrorFromTSVLine(ModuleInfo moduleInfo, String line) {
+  private NullAwayError deserializeErrorFromTSVRow(
+      ModuleInfo moduleInfo, MappedTSVReader.Row row, Map<String, Path> deserializedPaths) {
     Context context = moduleInfo.getContext();
-    String[] values = line.split("\t");
     Preconditions.checkArgument(
-        values.length == 12,
+        row.size() == 12,
         "Expected 12 values to create Error instance in NullAway serialization version 2 but found: "
-            + values.length);
-    int offset = Integer.parseInt(values[4]);
-    Path path = Helper.deserializePath(values[5]);
-    String errorMessage = values[1];
-    String errorType = values[0];
-    Region region = new Region(values[2], values[3]);
+            + row.size());
+    int offset = row.getInt(4);
+    Path path = deserializedPaths.computeIfAbsent(row.get(5), Helper::deserializePath);
+    String errorMessage = row.get(1);
+    String errorType = row.get(0);
+    Region region = new Region(row.get(2), row.get(3));
     Location nonnullTarget =
-        Location.createLocationFromArrayInfo(Arrays.copyOfRange(values, 6, 12));
+        row.fieldEquals(6, "null")
+            ? null
+            : Location.createLocation(
+                row.get(6),
+                deserializedPaths.computeIfAbsent(row.get(11), Helper::deserializePath),
+                row.get(7),
+                row.get(8),
+                row.get(9),
+                row.get(10));
     if (nonnullTarget == null && errorType.equals(NullAwayError.METHOD_INITIALIZER_ERROR)) {
       ImmutableSet<Fix> resolvingFixes =
           generateFixesForUninitializedFields(errorMessage, region, moduleInfo);
@@ -353,7 +374,7 @@ public class NullAway extends CheckerBaseClass<NullAwayError> {
   }
 
   @Override
-  public void preprocess(AnnotationInjector injector) {
+  public void preprocess(AnnotationInjector injector, Predicate<Path> scope) {
     // Collect @Initializer annotations. Heuristically, we add @Initializer on methods which writes
     // a @Nonnull value to more than one uninitialized field, and guarantees initialized fields are
     // nonnull at all exit paths.
@@ -362,6 +383,7 @@ public class NullAway extends CheckerBaseClass<NullAwayError> {
         Utility.readFixesFromOutputDirectory(context, context.targetModuleInfo).stream()
             .filter(fix -> fix.isOnField() && fix.reasons.contains("FIELD_NO_INIT"))
             .map(Fix::toField)
+            .filter(onField -> scope.test(onField.path))
             .collect(Collectors.toSet());
     FieldInitializationStore fieldInitializationStore = new FieldInitializationStore(context);
     // Collect selected initializers methods.
@@ -392,7 +414,7 @@ public class NullAway extends CheckerBaseClass<NullAwayError> {
   @Override
   public void verifyCheckerCompatibility() {
     Path pathToSerializationVersion =
-        config.globalDir.resolve("0").resolve("serialization_version.txt");
+        context.targetConfiguration.dir.resolve("serialization_version.txt");
     if (!Files.exists(pathToSerializationVersion)) {
       throw new RuntimeException(
           "This version of Annotator does not support the using NullAway version, please upgrade NullAway to version >= 0.10.10");
@@ -0,0 +1,358 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.distributed;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+import org.json.simple.JSONObject;
+
+/**
+ * Dispatches build requests to remote build workers, see {@link BuildWorker}. Each worker builds
+ * one request at a time. A failed build is retried on the next available worker up to {@link
+ * #MAX_ATTEMPTS} times. A worker which cannot be reached or does not respond in time is retired
+ * for the rest of the dispatch and its request is retried on another worker without counting as a
+ * failed attempt. Once all requests are started, a request running considerably longer than the
+ * completed ones is re-dispatched to an idle worker and the first response is used. Each request is
+ * preceded by the token shared with the workers.
+ */
+public class BuildCoordinator {
+
+  /** Maximum number of failed attempts of a request before the dispatch fails. */
+  private static final int MAX_ATTEMPTS = 3;
+  /**
+   * A running request is a straggler, if it runs longer than this factor of the median duration of
+   * completed requests.
+   */
+  private static final int STRAGGLER_FACTOR = 2;
+  /** Minimum running time in milliseconds before a request can be considered a straggler. */
+  private static final long MIN_STRAGGLER_MILLIS = 10_000;
+  /** Interval in milliseconds to check for stragglers while waiting for responses. */
+  private static final long POLL_MILLIS = 1_000;
+  /** Timeout in milliseconds to connect to a worker. */
+  private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+  /** Default timeout in milliseconds to wait for the response of a worker. */
+  private static final int DEFAULT_RESPONSE_TIMEOUT_MILLIS = 60 * 60 * 1_000;
+
+  /** Addresses of workers. */
+  private final ImmutableList<InetSocketAddress> workers;
+  /** Timeout in milliseconds to wait for the response of a worker, including its build. */
+  private final int responseTimeoutMillis;
+  /** Token shared with the workers. */
+  private final String token;
+
+  /**
+   * Creates a coordinator for the given workers.
+   *
+   * @param addresses Addresses of workers in {@code host:port} format.
+   * @param token Token shared with the workers.
+   */
+  public BuildCoordinator(ImmutableList<String> addresses, String token) {
+    this(addresses, token, DEFAULT_RESPONSE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Creates a coordinator for the given workers.
+   *
+   * @param addresses Addresses of workers in {@code host:port} format.
+   * @param token Token shared with the workers.
+   * @param responseTimeoutMillis Timeout in milliseconds to wait for the response of a worker.
+   */
+  public BuildCoordinator(
+      ImmutableList<String> addresses, String token, int responseTimeoutMillis) {
+    Preconditions.checkArgument(!addresses.isEmpty(), "At least one worker must be set.");
+    Preconditions.checkArgument(!token.isEmpty(), "Token must not be empty.");
+    Preconditions.checkArgument(responseTimeoutMillis > 0, "Response timeout must be positive.");
+    this.responseTimeoutMillis = responseTimeoutMillis;
+    this.token = token;
+    this.workers =
+        addresses.stream()
+            .map(
+                address -> {
+                  int separator = address.lastIndexOf(':');
+                  Preconditions.checkArgument(
+                      separator > 0, "Expected host:port for worker address: " + address);
+                  return InetSocketAddress.createUnresolved(
+                      address.substring(0, separator),
+                      Integer.parseInt(address.substring(separator + 1)));
+                })
+            .collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * Dispatches the given requests to workers and blocks until all are completed. Responses are
+   * passed to the handler on the calling thread in the order of completion, exactly once per
+   * request.
+   *
+   * @param requests Requests to dispatch.
+   * @param handler Handler of responses, receives the index of the request and its response.
+   */
+  public void dispatch(List<JSONObject> requests, BiConsumer<Integer, JSONObject> handler) {
+    new Dispatch(requests).run(handler);
+  }
+
+  /**
+   * Sends a request to the given worker and waits for its response.
+   *
+   * @param worker Address of the worker.
+   * @param request Request to send.
+   * @return Response of the worker.
+   * @throws IOException if the connection failed or the worker did not respond in time.
+   */
+  private JSONObject send(InetSocketAddress worker, JSONObject request) throws IOException {
+    try (Socket socket = new Socket()) {
+      socket.connect(
+          new InetSocketAddress(worker.getHostString(), worker.getPort()), CONNECT_TIMEOUT_MILLIS);
+      socket.setSoTimeout(responseTimeoutMillis);
+      BufferedWriter writer =
+          new BufferedWriter(
+              new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+      BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      WorkerProtocol.writeToken(writer, token);
+      WorkerProtocol.write(writer, request);
+      return WorkerProtocol.read(reader);
+    }
+  }
+
+  /** Outcome of a single attempt of a request. */
+  private static class Attempt {
+
+    /** Index of the request. */
+    private final int index;
+    /** Response of the worker, {@code null} if the connection failed. */
+    @Nullable private final JSONObject response;
+    /** Failure message if the connection or the build failed. */
+    @Nullable private final String failure;
+    /** True if the worker could not be reached or did not respond, and is retired. */
+    private final boolean unreachable;
+    /** Duration of the attempt in milliseconds. */
+    private final long duration;
+
+    private Attempt(
+        int index,
+        @Nullable JSONObject response,
+        @Nullable String failure,
+        boolean unreachable,
+        long duration) {
+      this.index = index;
+      this.response = response;
+      this.failure = failure;
+      this.unreachable = unreachable;
+      this.duration = duration;
+    }
+  }
+
+  /** State of dispatching a list of requests. */
+  private class Dispatch {
+
+    /** Requests to dispatch. */
+    private final List<JSONObject> requests;
+    /** Workers not running any attempt. */
+    private final BlockingQueue<InetSocketAddress> idle;
+    /** Finished attempts, consumed on the dispatching thread. */
+    private final BlockingQueue<Attempt> finished;
+    /** Start time of the latest attempt of each request, used to detect stragglers. */
+    private final Map<Integer, Long> started;
+    /** Number of submitted attempts which are not started yet. */
+    private final AtomicInteger queued;
+    /** Number of retired workers, which are not returned to {@link #idle}. */
+    private final AtomicInteger retired;
+    /** Executor running attempts, one thread per worker. */
+    private final ExecutorService executor;
+
+    private Dispatch(List<JSONObject> requests) {
+      this.requests = requests;
+      this.idle = new LinkedBlockingQueue<>(workers);
+      this.finished = new LinkedBlockingQueue<>();
+      this.started = new ConcurrentHashMap<>();
+      this.queued = new AtomicInteger();
+      this.retired = new AtomicInteger();
+      this.executor =
+          Executors.newFixedThreadPool(
+              workers.size(),
+              runnable -> {
+                // Re-dispatched stragglers may still be running once all requests are completed.
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+
+    /**
+     * Runs the dispatch.
+     *
+     * @param handler Handler of responses.
+     */
+    private void run(BiConsumer<Integer, JSONObject> handler) {
+      int size = requests.size();
+      boolean[] completed = new boolean[size];
+      boolean[] duplicated = new boolean[size];
+      int[] running = new int[size];
+      int[] failures = new int[size];
+      List<Long> durations = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        submit(i);
+        running[i]++;
+      }
+      int remaining = size;
+      try {
+        while (remaining > 0) {
+          Attempt attempt = finished.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          if (attempt == null) {
+            if (queued.get() == 0 && !idle.isEmpty() && !durations.isEmpty()) {
+              long threshold =
+                  Math.max(MIN_STRAGGLER_MILLIS, STRAGGLER_FACTOR * median(durations));
+              long now = System.currentTimeMillis();
+              for (int i = 0; i < size; i++) {
+                Long start = started.get(i);
+                if (!completed[i] && !duplicated[i] && start != null && now - start > threshold) {
+                  duplicated[i] = true;
+                  running[i]++;
+                  submit(i);
+                }
+              }
+            }
+            continue;
+          }
+          int index = attempt.index;
+          running[index]--;
+          if (retired.get() == workers.size()) {
+            throw new RuntimeException("All build workers are unreachable: " + attempt.failure);
+          }
+          if (completed[index]) {
+            continue;
+          }
+          if (attempt.failure == null) {
+            completed[index] = true;
+            remaining--;
+            durations.add(attempt.duration);
+            handler.accept(index, attempt.response);
+            continue;
+          }
+          if (!attempt.unreachable) {
+            failures[index]++;
+          }
+          if (failures[index] >= MAX_ATTEMPTS) {
+            throw new RuntimeException(
+                "Build request failed after " + MAX_ATTEMPTS + " attempts: " + attempt.failure);
+          }
+          if (running[index] == 0) {
+            System.err.println("Retrying build request after failure: " + attempt.failure);
+            running[index]++;
+            submit(index);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for build workers", e);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    /**
+     * Submits an attempt of the request at the given index, the attempt starts once a worker is
+     * idle.
+     *
+     * @param index Index of the request.
+     */
+    private void submit(int index) {
+      queued.incrementAndGet();
+      executor.submit(
+          () -> {
+            InetSocketAddress worker;
+            try {
+              worker = idle.take();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              return;
+            }
+            queued.decrementAndGet();
+            long start = System.currentTimeMillis();
+            started.put(index, start);
+            JSONObject response;
+            try {
+              response = send(worker, requests.get(index));
+            } catch (IOException e) {
+              // The worker is down or stuck, it is not handed out again.
+              retired.incrementAndGet();
+              String failure = worker + " is retired: " + e.getMessage();
+              finished.add(
+                  new Attempt(index, null, failure, true, System.currentTimeMillis() - start));
+              return;
+            } catch (RuntimeException e) {
+              idle.add(worker);
+              String failure = worker + ": " + e.getMessage();
+              finished.add(
+                  new Attempt(index, null, failure, false, System.currentTimeMillis() - start));
+              return;
+            }
+            idle.add(worker);
+            String failure = WorkerProtocol.getFailure(response);
+            finished.add(
+                new Attempt(
+                    index,
+                    response,
+                    failure == null ? null : worker + ": " + failure,
+                    false,
+                    System.currentTimeMillis() - start));
+          });
+    }
+  }
+
+  /**
+   * Returns the median of the given durations.
+   *
+   * @param durations Durations, must not be empty.
+   * @return Median of durations.
+   */
+  private static long median(List<Long> durations) {
+    List<Long> sorted = new ArrayList<>(durations);
+    Collections.sort(sorted);
+    return sorted.get(sorted.size() / 2);
+  }
+}
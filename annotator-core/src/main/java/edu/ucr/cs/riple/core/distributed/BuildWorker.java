@@ -0,0 +1,271 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.distributed;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.Config;
+import edu.ucr.cs.riple.core.Context;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
+import edu.ucr.cs.riple.core.util.Utility;
+import edu.ucr.cs.riple.injector.Injector;
+import edu.ucr.cs.riple.injector.changes.AddAnnotation;
+import edu.ucr.cs.riple.injector.changes.RemoveAnnotation;
+import edu.ucr.cs.riple.injector.offsets.FileOffsetStore;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.json.simple.JSONObject;
+
+/**
+ * Remote build worker, builds conflict groups requested by a coordinator on its own checkout of
+ * the target module, see {@link WorkerProtocol}. Before each build, the checkout is brought to the
+ * state of the checkout of the coordinator by injecting and removing annotations, then the
+ * annotations of the group are injected, the target module is built and the annotations of the
+ * group are removed. Requests are served one at a time. The worker listens on the loopback
+ * interface unless a bind address is given, and serves only requests preceded by its token.
+ */
+public class BuildWorker {
+
+  /** Options accepted by {@link #main(String[])}. */
+  private static final ImmutableSet<String> OPTIONS =
+      ImmutableSet.of("--path", "--port", "--source-root", "--token-file", "--bind");
+  /** Options required by {@link #main(String[])}. */
+  private static final ImmutableSet<String> REQUIRED_OPTIONS =
+      ImmutableSet.of("--path", "--port", "--source-root", "--token-file");
+  /** Maximum number of pending connections. */
+  private static final int BACKLOG = 50;
+
+  /** Annotator context of the checkout of this worker. */
+  private final Context context;
+  /** Source root of the checkout of this worker. */
+  private final Path root;
+  /** Injector used to apply annotations on the checkout of this worker. */
+  private final Injector injector;
+  /** Annotations currently applied on the checkout of this worker in addition to its source. */
+  private final Set<AddAnnotation> applied;
+  /** Token shared with the coordinator, requests preceded by another token are rejected. */
+  private final String token;
+
+  /**
+   * Creates a worker for the checkout described by the given configuration.
+   *
+   * @param config Annotator configuration of the checkout of this worker.
+   * @param root Source root of the checkout of this worker.
+   * @param token Token shared with the coordinator.
+   */
+  public BuildWorker(Config config, Path root, String token) {
+    this.context = new Context(config);
+    this.root = root;
+    this.token = token;
+    this.injector = new Injector(config.injectorThreads, config.preserveModificationTime);
+    this.applied = new LinkedHashSet<>();
+  }
+
+  /**
+   * Starting point of a worker process.
+   *
+   * @param args Expects {@code --path <config> --port <port> --source-root <root> --token-file
+   *     <token>} and optionally {@code --bind <address>}, where config is the json configuration of
+   *     the checkout of this worker, token is a file holding the token shared with the coordinator
+   *     and address is the address to listen on, loopback by default.
+   */
+  public static void main(String[] args) {
+    String usage =
+        "Usage: --path <config> --port <port> --source-root <root> --token-file <token>"
+            + " [--bind <address>]";
+    Preconditions.checkArgument(args.length % 2 == 0, usage);
+    Map<String, String> options = new HashMap<>();
+    for (int i = 0; i < args.length; i += 2) {
+      Preconditions.checkArgument(OPTIONS.contains(args[i]), usage);
+      options.put(args[i], args[i + 1]);
+    }
+    Preconditions.checkArgument(
+        options.keySet().containsAll(REQUIRED_OPTIONS) && options.size() == args.length / 2, usage);
+    InetAddress address;
+    try {
+      address =
+          options.containsKey("--bind")
+              ? InetAddress.getByName(options.get("--bind"))
+              : InetAddress.getLoopbackAddress();
+    } catch (UnknownHostException e) {
+      throw new IllegalArgumentException("Unknown bind address: " + options.get("--bind"), e);
+    }
+    BuildWorker worker =
+        new BuildWorker(
+            new Config(Paths.get(options.get("--path"))),
+            Paths.get(options.get("--source-root")),
+            WorkerProtocol.readToken(Paths.get(options.get("--token-file"))));
+    worker.serve(address, Integer.parseInt(options.get("--port")));
+  }
+
+  /**
+   * Serves requests on the given address and port until the process is terminated.
+   *
+   * @param address Address to listen on.
+   * @param port Port to listen on.
+   */
+  public void serve(InetAddress address, int port) {
+    try (ServerSocket server = new ServerSocket(port, BACKLOG, address)) {
+      System.out.println(
+          "Build worker listening on: " + address.getHostAddress() + ":" + server.getLocalPort());
+      while (!server.isClosed()) {
+        try (Socket socket = server.accept()) {
+          handle(socket);
+        } catch (IOException e) {
+          // A broken connection only affects its own request, which is retried by the coordinator.
+          System.err.println("Connection failed: " + e.getMessage());
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not listen on port: " + port, e);
+    } finally {
+      injector.close();
+    }
+  }
+
+  /**
+   * Reads a request from the given connection, builds it and writes back the response.
+   *
+   * @param socket Connection to the coordinator.
+   * @throws IOException if the request could not be read or the response could not be written.
+   */
+  private void handle(Socket socket) throws IOException {
+    BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    BufferedWriter writer =
+        new BufferedWriter(
+            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    if (!WorkerProtocol.authenticate(reader, token)) {
+      // The request is consumed without being parsed.
+      WorkerProtocol.skip(reader);
+      WorkerProtocol.write(writer, WorkerProtocol.createFailure(WorkerProtocol.UNAUTHORIZED));
+      return;
+    }
+    JSONObject request = WorkerProtocol.read(reader);
+    JSONObject response;
+    try {
+      response = build(request);
+    } catch (RuntimeException e) {
+      response = WorkerProtocol.createFailure(String.valueOf(e.getMessage()));
+    }
+    WorkerProtocol.write(writer, response);
+  }
+
+  /**
+   * Builds the conflict group of the given request on top of the state of the coordinator.
+   *
+   * @param request Request json object.
+   * @return Response json object.
+   */
+  private JSONObject build(JSONObject request) {
+    synchronize(WorkerProtocol.getAnnotations(request, WorkerProtocol.BASE, root));
+    ImmutableSet<AddAnnotation> changes =
+        WorkerProtocol.getAnnotations(request, WorkerProtocol.CHANGES, root);
+    Set<FileOffsetStore> injected = injector.addAnnotations(changes);
+    Set<FileOffsetStore> removed;
+    boolean completed;
+    List<String> errors;
+    long buildTime;
+    try {
+      context.log.takeLastBuildTime();
+      completed = Utility.buildTarget(context);
+      buildTime = context.log.takeLastBuildTime();
+      errors = readErrors();
+    } finally {
+      removed = injector.removeAnnotations(reverse(changes));
+    }
+    return WorkerProtocol.createResponse(
+        request, root, completed, buildTime, errors, injected, removed);
+  }
+
+  /**
+   * Reads the content of the errors file of each module of the target module.
+   *
+   * @return Content of the errors file of each module, empty if the file does not exist.
+   */
+  private List<String> readErrors() {
+    List<String> errors = new ArrayList<>();
+    for (ModuleConfiguration module : context.targetModuleInfo.getModuleConfigurations()) {
+      Path path = module.dir.resolve(WorkerProtocol.ERRORS_FILE_NAME);
+      try {
+        errors.add(Files.exists(path) ? Files.readString(path, Charset.defaultCharset()) : "");
+      } catch (IOException e) {
+        throw new RuntimeException("Could not read errors at: " + path, e);
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Injects and removes annotations on the checkout of this worker until exactly the given
+   * annotations are applied.
+   *
+   * @param base Annotations applied on the checkout of the coordinator.
+   */
+  private void synchronize(ImmutableSet<AddAnnotation> base) {
+    Set<AddAnnotation> toRemove =
+        applied.stream().filter(change -> !base.contains(change)).collect(Collectors.toSet());
+    Set<AddAnnotation> toAdd =
+        base.stream().filter(change -> !applied.contains(change)).collect(Collectors.toSet());
+    if (!toRemove.isEmpty()) {
+      injector.removeAnnotations(reverse(toRemove));
+      applied.removeAll(toRemove);
+    }
+    if (!toAdd.isEmpty()) {
+      injector.addAnnotations(toAdd);
+      applied.addAll(toAdd);
+    }
+  }
+
+  /**
+   * Returns the removals reverting the given annotations.
+   *
+   * @param changes Annotations to revert.
+   * @return Set of removals.
+   */
+  private static Set<RemoveAnnotation> reverse(Set<AddAnnotation> changes) {
+    return changes.stream().map(AddAnnotation::getReverse).collect(Collectors.toSet());
+  }
+}
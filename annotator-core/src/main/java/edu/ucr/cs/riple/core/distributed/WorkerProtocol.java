@@ -0,0 +1,489 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.distributed;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import edu.ucr.cs.riple.injector.Helper;
+import edu.ucr.cs.riple.injector.changes.AddAnnotation;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.changes.AddSingleElementAnnotation;
+import edu.ucr.cs.riple.injector.changes.AddTypeUseMarkerAnnotation;
+import edu.ucr.cs.riple.injector.changes.AnnotationChange;
+import edu.ucr.cs.riple.injector.location.Location;
+import edu.ucr.cs.riple.injector.location.LocationToPortableJsonVisitor;
+import edu.ucr.cs.riple.injector.offsets.FileOffsetStore;
+import edu.ucr.cs.riple.injector.offsets.OffsetChange;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Messages exchanged between the coordinator and remote build workers. Each message is a json
+ * object written in a single line. A request contains the annotations currently applied on the
+ * checkout of the coordinator and the annotations of a conflict group, and the response contains
+ * the raw content of the errors file of each module after building with the group applied, and the
+ * offset changes of injecting and removing the group. Paths are written relative to the checkout
+ * of the sender and mapped to the checkout of the receiver with the source root of each side.
+ * Paths outside the source root of the sender are rejected. Each request is preceded by a line
+ * holding the token shared by the coordinator and the worker, and is not read by the worker unless
+ * the token matches, see {@link #authenticate(BufferedReader, String)}.
+ */
+public final class WorkerProtocol {
+
+  /** Name of the checker output file of each module. */
+  public static final String ERRORS_FILE_NAME = "errors.tsv";
+  /** Key of the source root of the coordinator in requests. */
+  static final String ROOT = "ROOT";
+  /** Key of the annotations applied on the checkout of the coordinator in requests. */
+  static final String BASE = "BASE";
+  /** Key of the annotations of the conflict group in requests. */
+  static final String CHANGES = "CHANGES";
+  /** Key of the content of the errors file of each module in responses. */
+  static final String ERRORS = "ERRORS";
+  /** Key of the offset changes of injecting the conflict group in responses. */
+  static final String INJECTED = "INJECTED";
+  /** Key of the offset changes of removing the conflict group in responses. */
+  static final String REMOVED = "REMOVED";
+  /** Key of the failure message in responses, present only if the build failed. */
+  static final String FAILURE = "FAILURE";
+  /**
+   * Key of the completion status of the build in responses, false if the build ran but did not
+   * complete, e.g. the group produced uncompilable code.
+   */
+  static final String COMPLETED = "COMPLETED";
+  /** Key of the duration of the build in milliseconds in responses, negative if not built. */
+  static final String BUILD_TIME = "BUILD_TIME";
+  /** Failure message of requests which are not preceded by the token of the worker. */
+  static final String UNAUTHORIZED = "Unauthorized request.";
+  /** Indices of columns holding paths in rows of the errors file. */
+  private static final int[] ERRORS_PATH_COLUMNS = {5, 11};
+  /** Number of columns in rows of the errors file. */
+  private static final int ERRORS_COLUMNS = 12;
+
+  private WorkerProtocol() {}
+
+  /**
+   * Creates a request to build the given annotations on top of the given applied annotations.
+   *
+   * @param root Source root of the coordinator.
+   * @param base Annotations applied on the checkout of the coordinator.
+   * @param changes Annotations of the conflict group.
+   * @return Request json object.
+   */
+  @SuppressWarnings("unchecked")
+  public static JSONObject createRequest(
+      Path root, Collection<AddAnnotation> base, Collection<AddAnnotation> changes) {
+    JSONObject request = new JSONObject();
+    request.put(ROOT, root.toString());
+    request.put(BASE, serializeAnnotations(base));
+    request.put(CHANGES, serializeAnnotations(changes));
+    return request;
+  }
+
+  /**
+   * Creates a response of a failed build.
+   *
+   * @param message Failure message.
+   * @return Response json object.
+   */
+  @SuppressWarnings("unchecked")
+  static JSONObject createFailure(String message) {
+    JSONObject response = new JSONObject();
+    response.put(FAILURE, message);
+    return response;
+  }
+
+  /**
+   * Returns the failure message of the given response.
+   *
+   * @param response Response json object.
+   * @return Failure message, {@code null} if the build succeeded.
+   */
+  static String getFailure(JSONObject response) {
+    return (String) response.get(FAILURE);
+  }
+
+  /**
+   * Checks if the build of the given response completed, see {@link
+   * edu.ucr.cs.riple.core.util.Utility#buildTarget}. Errors of an incomplete build must not be
+   * used.
+   *
+   * @param response Response json object.
+   * @return true, if the build completed.
+   */
+  public static boolean isCompleted(JSONObject response) {
+    return (Boolean) response.get(COMPLETED);
+  }
+
+  /**
+   * Returns the duration of the build of the given response.
+   *
+   * @param response Response json object.
+   * @return Duration of the build in milliseconds, negative if the build outputs were restored.
+   */
+  public static long getBuildTime(JSONObject response) {
+    return (Long) response.get(BUILD_TIME);
+  }
+
+  /**
+   * Returns the content of the errors file of each module in the given response, in the order of
+   * module configurations.
+   *
+   * @param response Response json object.
+   * @return Content of the errors file of each module.
+   */
+  @SuppressWarnings("unchecked")
+  public static Collection<String> getErrors(JSONObject response) {
+    return (Collection<String>) response.get(ERRORS);
+  }
+
+  /**
+   * Returns the offset changes of injecting the conflict group in the given response.
+   *
+   * @param response Response json object.
+   * @return Offset changes per file.
+   */
+  public static Set<FileOffsetStore> getInjectedOffsets(JSONObject response) {
+    return deserializeOffsets((JSONArray) response.get(INJECTED));
+  }
+
+  /**
+   * Returns the offset changes of removing the conflict group in the given response.
+   *
+   * @param response Response json object.
+   * @return Offset changes per file.
+   */
+  public static Set<FileOffsetStore> getRemovedOffsets(JSONObject response) {
+    return deserializeOffsets((JSONArray) response.get(REMOVED));
+  }
+
+  /**
+   * Serializes the given annotations.
+   *
+   * @param annotations Annotations to serialize.
+   * @return Json array of serialized annotations.
+   */
+  @SuppressWarnings("unchecked")
+  private static JSONArray serializeAnnotations(Collection<AddAnnotation> annotations) {
+    JSONArray array = new JSONArray();
+    for (AddAnnotation annotation : annotations) {
+      if (!(annotation instanceof AddMarkerAnnotation
+          || annotation instanceof AddSingleElementAnnotation)) {
+        throw new IllegalArgumentException("Cannot serialize annotation: " + annotation);
+      }
+      JSONObject json = annotation.getLocation().accept(new LocationToPortableJsonVisitor(), null);
+      json.put("ANNOTATION", ((AnnotationChange) annotation).getAnnotationName().fullName);
+      json.put("TYPE_USE", annotation instanceof AddTypeUseMarkerAnnotation);
+      if (annotation instanceof AddSingleElementAnnotation) {
+        json.put("ARGUMENT", ((AddSingleElementAnnotation) annotation).getArgument());
+        json.put("REPEATABLE", ((AddSingleElementAnnotation) annotation).isRepeatable());
+      }
+      array.add(json);
+    }
+    return array;
+  }
+
+  /**
+   * Deserializes annotations of the given key in the given request and maps their paths from the
+   * source root of the coordinator to the given source root.
+   *
+   * @param request Request json object.
+   * @param key Key of annotations, either {@link #BASE} or {@link #CHANGES}.
+   * @param root Source root of the receiver.
+   * @return Set of deserialized annotations.
+   */
+  static ImmutableSet<AddAnnotation> getAnnotations(JSONObject request, String key, Path root) {
+    Path from = Paths.get((String) request.get(ROOT));
+    ImmutableSet.Builder<AddAnnotation> annotations = ImmutableSet.builder();
+    for (Object element : (JSONArray) request.get(key)) {
+      JSONObject json = (JSONObject) element;
+      Location location = Location.createLocationFromJson(json);
+      location.path = rebase(location.path, from, root);
+      String name = (String) json.get("ANNOTATION");
+      if (json.containsKey("ARGUMENT")) {
+        annotations.add(
+            new AddSingleElementAnnotation(
+                location, name, (String) json.get("ARGUMENT"), (Boolean) json.get("REPEATABLE")));
+      } else if ((Boolean) json.get("TYPE_USE")) {
+        annotations.add(new AddTypeUseMarkerAnnotation(location, name));
+      } else {
+        annotations.add(new AddMarkerAnnotation(location, name));
+      }
+    }
+    return annotations.build();
+  }
+
+  /**
+   * Creates a response of a successful build, paths are mapped from the source root of the worker
+   * to the source root of the coordinator.
+   *
+   * @param request Request json object the response is created for.
+   * @param root Source root of the worker.
+   * @param completed If false, the build did not complete.
+   * @param buildTime Duration of the build in milliseconds.
+   * @param errors Content of the errors file of each module.
+   * @param injected Offset changes of injecting the conflict group.
+   * @param removed Offset changes of removing the conflict group.
+   * @return Response json object.
+   */
+  @SuppressWarnings("unchecked")
+  static JSONObject createResponse(
+      JSONObject request,
+      Path root,
+      boolean completed,
+      long buildTime,
+      Collection<String> errors,
+      Set<FileOffsetStore> injected,
+      Set<FileOffsetStore> removed) {
+    Path to = Paths.get((String) request.get(ROOT));
+    JSONObject response = new JSONObject();
+    response.put(COMPLETED, completed);
+    response.put(BUILD_TIME, buildTime);
+    JSONArray errorsJson = new JSONArray();
+    errors.forEach(content -> errorsJson.add(rebaseErrors(content, root, to)));
+    response.put(ERRORS, errorsJson);
+    response.put(INJECTED, serializeOffsets(injected, root, to));
+    response.put(REMOVED, serializeOffsets(removed, root, to));
+    return response;
+  }
+
+  /**
+   * Serializes the given offset changes and maps their paths between source roots.
+   *
+   * @param stores Offset changes per file.
+   * @param from Source root of the sender.
+   * @param to Source root of the receiver.
+   * @return Json array of serialized offset changes.
+   */
+  @SuppressWarnings("unchecked")
+  private static JSONArray serializeOffsets(Set<FileOffsetStore> stores, Path from, Path to) {
+    JSONArray array = new JSONArray();
+    for (FileOffsetStore store : stores) {
+      JSONObject json = new JSONObject();
+      json.put("PATH", rebase(store.getPath(), from, to).toString());
+      JSONArray changes = new JSONArray();
+      for (OffsetChange change : store.getOffsetChanges()) {
+        JSONArray pair = new JSONArray();
+        pair.add(change.position);
+        pair.add(change.numChars);
+        changes.add(pair);
+      }
+      json.put("CHANGES", changes);
+      array.add(json);
+    }
+    return array;
+  }
+
+  /**
+   * Deserializes offset changes.
+   *
+   * @param array Json array of serialized offset changes.
+   * @return Offset changes per file.
+   */
+  private static Set<FileOffsetStore> deserializeOffsets(JSONArray array) {
+    Set<FileOffsetStore> stores = new HashSet<>();
+    for (Object element : array) {
+      JSONObject json = (JSONObject) element;
+      ImmutableSortedSet.Builder<OffsetChange> changes = ImmutableSortedSet.naturalOrder();
+      for (Object change : (JSONArray) json.get("CHANGES")) {
+        JSONArray pair = (JSONArray) change;
+        changes.add(
+            new OffsetChange(((Number) pair.get(0)).intValue(), ((Number) pair.get(1)).intValue()));
+      }
+      // Store of a file without contents, changes are only used to compute original offsets.
+      FileOffsetStore store =
+          new FileOffsetStore(Collections.emptyList(), Paths.get((String) json.get("PATH")));
+      store.updateStateWithNewOffsetChanges(changes.build());
+      stores.add(store);
+    }
+    return stores;
+  }
+
+  /**
+   * Maps the paths of the given errors file content from one source root to another. Only the path
+   * columns of each row are mapped, paths outside the source root and all other columns are kept
+   * unchanged. The header and rows which are not errors rows are kept unchanged.
+   *
+   * @param content Content of the errors file.
+   * @param from Source root the paths are located in.
+   * @param to Source root to map the paths to.
+   * @return Content of the errors file with mapped paths.
+   */
+  static String rebaseErrors(String content, Path from, Path to) {
+    if (content.isEmpty()) {
+      return content;
+    }
+    String[] lines = content.split("\n", -1);
+    // First line is the header.
+    for (int i = 1; i < lines.length; i++) {
+      String[] columns = lines[i].split("\t", -1);
+      if (columns.length != ERRORS_COLUMNS) {
+        continue;
+      }
+      for (int column : ERRORS_PATH_COLUMNS) {
+        if (columns[column].equals("null")) {
+          continue;
+        }
+        Path path = Helper.deserializePath(columns[column]).normalize();
+        if (path.startsWith(from.normalize())) {
+          columns[column] = rebase(path, from, to).toString();
+        }
+      }
+      lines[i] = String.join("\t", columns);
+    }
+    return String.join("\n", lines);
+  }
+
+  /**
+   * Maps the given path from one source root to another.
+   *
+   * @param path Path to map.
+   * @param from Source root the path is located in.
+   * @param to Source root to map the path to.
+   * @return Mapped path, {@code null} if the given path is {@code null}.
+   * @throws IllegalArgumentException if the normalized path is not located under the source root,
+   *     e.g. a path escaping the source root with {@code ..} elements.
+   */
+  static Path rebase(Path path, Path from, Path to) {
+    if (path == null) {
+      return null;
+    }
+    Path normalized = path.normalize();
+    Path root = from.normalize();
+    if (!normalized.startsWith(root)) {
+      throw new IllegalArgumentException("Path is outside of source root " + from + ": " + path);
+    }
+    return to.resolve(root.relativize(normalized));
+  }
+
+  /**
+   * Reads the token shared by the coordinator and the workers from the given file. The token is the
+   * first line of the file.
+   *
+   * @param path Path to the token file.
+   * @return Token read.
+   */
+  public static String readToken(Path path) {
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line = reader.readLine();
+      String token = line == null ? "" : line.trim();
+      Preconditions.checkArgument(!token.isEmpty(), "Token file is empty: " + path);
+      return token;
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read token at: " + path, e);
+    }
+  }
+
+  /**
+   * Writes the token preceding a request.
+   *
+   * @param writer Writer of the connection.
+   * @param token Token shared with the worker.
+   * @throws IOException if the token could not be written.
+   */
+  static void writeToken(BufferedWriter writer, String token) throws IOException {
+    writer.write(token);
+    writer.newLine();
+  }
+
+  /**
+   * Reads the token preceding a request and checks it against the token of the worker. Tokens are
+   * compared in constant time.
+   *
+   * @param reader Reader of the connection.
+   * @param token Token of the worker.
+   * @return true, if the received token matches.
+   * @throws IOException if the token could not be read.
+   */
+  static boolean authenticate(BufferedReader reader, String token) throws IOException {
+    String received = reader.readLine();
+    if (received == null) {
+      throw new IOException("Connection closed before a token was received.");
+    }
+    return MessageDigest.isEqual(
+        received.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Skips a message without parsing it, used to consume requests which are not authenticated
+   * before the connection is closed. Characters are discarded as they are read.
+   *
+   * @param reader Reader of the connection.
+   * @throws IOException if the message could not be read.
+   */
+  static void skip(BufferedReader reader) throws IOException {
+    int c = reader.read();
+    while (c != -1 && c != '\n') {
+      c = reader.read();
+    }
+  }
+
+  /**
+   * Writes a message in a single line.
+   *
+   * @param writer Writer of the connection.
+   * @param message Message to write.
+   * @throws IOException if the message could not be written.
+   */
+  static void write(BufferedWriter writer, JSONObject message) throws IOException {
+    writer.write(message.toJSONString());
+    writer.newLine();
+    writer.flush();
+  }
+
+  /**
+   * Reads a message written in a single line.
+   *
+   * @param reader Reader of the connection.
+   * @return Message read.
+   * @throws IOException if the message could not be read or parsed.
+   */
+  static JSONObject read(BufferedReader reader) throws IOException {
+    String line = reader.readLine();
+    if (line == null) {
+      throw new IOException("Connection closed before a message was received.");
+    }
+    try {
+      return (JSONObject) new JSONParser().parse(line);
+    } catch (ParseException e) {
+      throw new IOException("Could not parse message: " + line, e);
+    }
+  }
+}
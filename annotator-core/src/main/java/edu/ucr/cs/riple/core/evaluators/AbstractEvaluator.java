@@ -31,6 +31,8 @@ import edu.ucr.cs.riple.core.evaluators.graph.ConflictGraph;
 import edu.ucr.cs.riple.core.evaluators.graph.processors.ConflictGraphProcessor;
 import edu.ucr.cs.riple.core.evaluators.suppliers.Supplier;
 import edu.ucr.cs.riple.core.registries.index.Fix;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Abstract class for evaluators. Subclasses of this evaluator, computes the effectiveness of fix
@@ -43,6 +45,16 @@ import edu.ucr.cs.riple.core.registries.index.Fix;
  * AbstractEvaluator#processor} which computes the set of triggered errors for each node. Finally
  * {@link AbstractEvaluator#collectGraphResults} is called which reads the result from the graph and
  * creates the corresponding reports.
+ *
+ * <p>Depth levels are not evaluated as barriers. Each report keeps its own level and iterations
+ * work on batches of ready reports, which may be at different levels. The processor may defer
+ * nodes of a batch, see {@link ConflictGraph#defer}, their reports stay at their level and are
+ * evaluated in the next batch along with reports which advanced to the next level. Each report is
+ * deferred at most {@link ConflictGraph#MAX_DEFERRALS} times.
+ *
+ * <p>If the supplier is {@link Supplier#isInterruptible() interruptible}, the evaluation stops
+ * before the next batch once the time budget of the run is exhausted, and only reports which are
+ * completely evaluated are returned.
  */
 public abstract class AbstractEvaluator implements Evaluator {
 
@@ -75,11 +87,13 @@ public abstract class AbstractEvaluator implements Evaluator {
   }
 
   /**
-   * Collects results created by the processors working on the conflict graph.
+   * Collects results created by the processors working on the conflict graph. Reports with a
+   * deferred node in the graph are not updated.
    *
    * @param reports The latest created reports from previous iteration.
+   * @return Reports which results are collected.
    */
-  protected abstract void collectGraphResults(ImmutableSet<Report> reports);
+  protected abstract ImmutableSet<Report> collectGraphResults(ImmutableSet<Report> reports);
 
   @Override
   public ImmutableSet<Report> evaluate(ImmutableSet<Fix> fixes) {
@@ -91,15 +105,47 @@ public abstract class AbstractEvaluator implements Evaluator {
                     report.reflectAnnotationProcessorChangesOnSourceCode(supplier.getModuleInfo()))
             .collect(ImmutableSet.toImmutableSet());
     System.out.println("Max Depth level: " + this.depth);
-    for (int i = 0; i < this.depth; i++) {
-      initializeFixGraph(reports);
-      context.log.updateNodeNumber(graph.getNodes().count());
+    // Number of levels each report is evaluated at.
+    Map<Report, Integer> levels = new HashMap<>();
+    reports.forEach(report -> levels.put(report, 0));
+    graph.resetDeferrals();
+    ImmutableSet<Report> ready = getReadyReports(reports, levels);
+    int batch = 0;
+    while (!ready.isEmpty()) {
+      if (supplier.isInterruptible() && context.timeBudget.isExhausted()) {
+        System.out.println("Time budget is exhausted, dropping unfinished reports.");
+        ImmutableSet<Report> unfinished = ready;
+        return reports.stream()
+            .filter(report -> !unfinished.contains(report))
+            .collect(ImmutableSet.toImmutableSet());
+      }
+      initializeFixGraph(ready);
+      // Deferred nodes are worth it only if the next batch will have reports at a deeper level.
+      graph.setDeferralAllowed(ready.stream().anyMatch(report -> levels.get(report) + 1 < depth));
       if (!graph.isEmpty()) {
-        System.out.print("Analyzing at level " + (i + 1) + ", ");
+        batch++;
+        System.out.print("Analyzing batch " + batch + ", ");
         processor.process(graph);
       }
-      collectGraphResults(reports);
+      context.log.updateNodeNumber(graph.getNodes().count() - graph.getNumberOfDeferredNodes());
+      collectGraphResults(ready).forEach(report -> levels.merge(report, 1, Integer::sum));
+      ready = getReadyReports(reports, levels);
     }
     return reports;
   }
+
+  /**
+   * Returns reports which require evaluation at their next level.
+   *
+   * @param reports All reports under evaluation.
+   * @param levels Number of levels each report is evaluated at.
+   * @return Reports which have not reached the depth and require further process.
+   */
+  private ImmutableSet<Report> getReadyReports(
+      ImmutableSet<Report> reports, Map<Report, Integer> levels) {
+    return reports.stream()
+        .filter(report -> levels.get(report) < depth)
+        .filter(report -> report.requiresFurtherProcess(context.config))
+        .collect(ImmutableSet.toImmutableSet());
+  }
 }
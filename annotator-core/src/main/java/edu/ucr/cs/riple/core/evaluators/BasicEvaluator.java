@@ -70,10 +70,11 @@ public class BasicEvaluator extends AbstractEvaluator {
   }
 
   @Override
-  protected void collectGraphResults(ImmutableSet<Report> reports) {
-    graph
+  protected ImmutableSet<Report> collectGraphResults(ImmutableSet<Report> reports) {
+    return graph
         .getNodes()
-        .forEach(
+        .filter(node -> !graph.isDeferred(node))
+        .map(
             node -> {
               Report report = node.report;
               report.localEffect = node.effect;
@@ -82,6 +83,9 @@ public class BasicEvaluator extends AbstractEvaluator {
                   ImmutableSet.copyOf(node.triggeredFixesFromDownstreamErrors);
               report.triggeredErrors = ImmutableSet.copyOf(node.triggeredErrors);
               report.hasBeenProcessedOnce = true;
-            });
+              report.quarantined = node.quarantined;
+              return report;
+            })
+        .collect(ImmutableSet.toImmutableSet());
   }
 }
@@ -35,8 +35,10 @@ import edu.ucr.cs.riple.core.cache.TargetModuleCache;
 import edu.ucr.cs.riple.core.evaluators.suppliers.Supplier;
 import edu.ucr.cs.riple.core.registries.index.Error;
 import edu.ucr.cs.riple.core.registries.index.Fix;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -44,16 +46,20 @@ import java.util.stream.Collectors;
  * To prepare the conflict graph, each report that requires further investigation is selected and
  * only fixes that are not stored in the cache will be selected. Each selected fix will be processed
  * individually. Once the impact of each node is computed, all processed nodes will be added to the
- * using cache for later retrievals and their corresponding reports are created.
+ * using cache for later retrievals and their corresponding reports are created. Impacts of
+ * quarantined nodes are not cached and reports containing a quarantined fix are quarantined.
  */
 public class CachedEvaluator extends AbstractEvaluator {
 
   /** Cache to retrieve impacts. */
   private final TargetModuleCache cache;
+  /** Fixes which builds did not complete, their impacts are unknown. */
+  private final Set<Fix> quarantined;
 
   public CachedEvaluator(Supplier supplier) {
     super(supplier);
     this.cache = supplier.getTargetModuleCache();
+    this.quarantined = new HashSet<>();
   }
 
   /**
@@ -73,6 +79,7 @@ public class CachedEvaluator extends AbstractEvaluator {
             .filter(report -> report.requiresFurtherProcess(context.config))
             .flatMap(report -> report.getFixesForNextIteration().stream())
             .filter(cache::isUnknown)
+            .filter(fix -> !quarantined.contains(fix))
             .collect(Collectors.toSet());
     fixes.forEach(graph::addNodeToVertices);
     System.out.println(
@@ -88,16 +95,26 @@ public class CachedEvaluator extends AbstractEvaluator {
    * updates cache with the new data containing the impact of fixes that has been processed. Then it
    * collects the set of fixes each report requested to be processed in the conflict graph, and use
    * those fixes impacts to construct the new tree (including the triggered fixes) and set of
-   * triggered errors to create the corresponding reports.
+   * triggered errors to create the corresponding reports. Impacts of deferred nodes are not known
+   * yet, reports requesting a deferred fix are not updated.
    *
    * @param reports The latest created reports from the fixes.
+   * @return Reports which results are collected.
    */
   @Override
-  protected void collectGraphResults(ImmutableSet<Report> reports) {
+  protected ImmutableSet<Report> collectGraphResults(ImmutableSet<Report> reports) {
+    graph.getNodes().filter(node -> node.quarantined).forEach(node -> quarantined.add(node.root));
+    Set<Fix> deferred =
+        graph
+            .getNodes()
+            .filter(graph::isDeferred)
+            .map(node -> node.root)
+            .collect(Collectors.toSet());
     // update cache with new data.
     cache.updateCacheState(
         graph
             .getNodes()
+            .filter(node -> !node.quarantined && !graph.isDeferred(node))
             .map(
                 node ->
                     new Impact(
@@ -109,27 +126,72 @@ public class CachedEvaluator extends AbstractEvaluator {
         reports.stream()
             .filter(report -> report.requiresFurtherProcess(context.config))
             .collect(toMap(identity(), Report::getFixesForNextIteration));
+    reportFixMap
+        .values()
+        .removeIf(processedFixes -> processedFixes.stream().anyMatch(deferred::contains));
 
     // update reports state.
-    reportFixMap.forEach(
-        (report, processedFixes) -> {
-          // update the tree with the new triggered fixes.
-          Set<Fix> newTree = Sets.newHashSet(report.tree);
-          newTree.addAll(processedFixes);
-          // compute the set of triggered errors for the entire tree.
-          Set<Error> triggeredErrors = cache.getTriggeredErrorsForCollection(newTree);
-          report.localEffect =
-              triggeredErrors.size()
-                  - supplier
-                      .getErrorStore()
-                      .getNumberOfErrorsResolvedByAllFixesWithinCollection(newTree);
-          report.triggeredErrors = ImmutableSet.copyOf(triggeredErrors);
-          // get fixes triggered from downstream.
-          report.triggeredFixesFromDownstreamErrors =
-              cache.getTriggeredFixesFromDownstreamForCollection(newTree);
-          // replace the old tree with new tree that contains triggered fixes from this iteration.
-          report.tree = newTree;
-          report.hasBeenProcessedOnce = true;
-        });
+    aggregateReports(
+        reportFixMap,
+        cache,
+        supplier.getErrorStore()::getNumberOfErrorsResolvedByAllFixesWithinCollection,
+        quarantined);
+    return ImmutableSet.copyOf(reportFixMap.keySet());
+  }
+
+  /**
+   * Updates the state of the given reports with the impacts of their requested fixes. Each report
+   * is aggregated independently and the cache is not modified, therefore reports are aggregated in
+   * parallel. Package-private for testing.
+   *
+   * @param reportFixMap Requested fixes of each report.
+   * @param cache Cache to retrieve impacts.
+   * @param resolvedErrors Computes the number of base errors resolved by a collection of fixes.
+   * @param quarantined Fixes which builds did not complete.
+   */
+  static void aggregateReports(
+      Map<Report, Set<Fix>> reportFixMap,
+      TargetModuleCache cache,
+      ToIntFunction<Set<Fix>> resolvedErrors,
+      Set<Fix> quarantined) {
+    reportFixMap
+        .entrySet()
+        .parallelStream()
+        .forEach(
+            entry ->
+                aggregateReport(
+                    entry.getKey(), entry.getValue(), cache, resolvedErrors, quarantined));
+  }
+
+  /**
+   * Updates the state of the given report with the impacts of its requested fixes, see {@link
+   * #aggregateReports(Map, TargetModuleCache, ToIntFunction, Set)}. Package-private for testing.
+   *
+   * @param report Report to update.
+   * @param processedFixes Requested fixes of the report.
+   * @param cache Cache to retrieve impacts.
+   * @param resolvedErrors Computes the number of base errors resolved by a collection of fixes.
+   * @param quarantined Fixes which builds did not complete.
+   */
+  static void aggregateReport(
+      Report report,
+      Set<Fix> processedFixes,
+      TargetModuleCache cache,
+      ToIntFunction<Set<Fix>> resolvedErrors,
+      Set<Fix> quarantined) {
+    // update the tree with the new triggered fixes.
+    Set<Fix> newTree = Sets.newHashSet(report.tree);
+    newTree.addAll(processedFixes);
+    report.quarantined = newTree.stream().anyMatch(quarantined::contains);
+    // compute the set of triggered errors for the entire tree.
+    Set<Error> triggeredErrors = cache.getTriggeredErrorsForCollection(newTree);
+    report.localEffect = triggeredErrors.size() - resolvedErrors.applyAsInt(newTree);
+    report.triggeredErrors = ImmutableSet.copyOf(triggeredErrors);
+    // get fixes triggered from downstream.
+    report.triggeredFixesFromDownstreamErrors =
+        cache.getTriggeredFixesFromDownstreamForCollection(newTree);
+    // replace the old tree with new tree that contains triggered fixes from this iteration.
+    report.tree = newTree;
+    report.hasBeenProcessedOnce = true;
   }
 }
@@ -31,6 +31,9 @@ import edu.ucr.cs.riple.core.registries.index.Fix;
 /** Interface for evaluators. Evaluators create reports from the impacts of fixes. */
 public interface Evaluator {
 
-  /** Makes an Immutable Set of reports from impacts of the given fixes. */
+  /**
+   * Makes an Immutable Set of reports from impacts of the given fixes. Interrupted evaluations
+   * return reports only for fixes which are completely evaluated.
+   */
   ImmutableSet<Report> evaluate(ImmutableSet<Fix> fixes);
 }
@@ -24,9 +24,11 @@
 
 package edu.ucr.cs.riple.core.evaluators.graph;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
 import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.registries.region.Region;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,7 +36,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -43,6 +47,12 @@ import java.util.stream.Stream;
  */
 public class ConflictGraph {
 
+  /**
+   * Maximum number of times processing of nodes with the same root fix may be deferred during an
+   * evaluation. Bounds the delay of a report which keeps falling into small groups.
+   */
+  public static final int MAX_DEFERRALS = 2;
+
   /** Nodes in this graph */
   public final Multimap<Integer, Node> nodes;
   /**
@@ -51,10 +61,25 @@ public class ConflictGraph {
    * algorithm can may not be optimal.
    */
   private final HashMap<Integer, Set<Node>> groups;
+  /**
+   * Nodes which processing is deferred by the processor to a later batch, their computed status is
+   * not valid.
+   */
+  private final Set<Node> deferred;
+  /** If true, the processor may defer processing of some nodes, see {@link #defer(Collection)}. */
+  private boolean deferralAllowed;
+  /**
+   * Number of times processing of nodes with each root fix is deferred, kept through batches until
+   * {@link #resetDeferrals()} is called.
+   */
+  private final Map<Fix, Integer> deferrals;
 
   public ConflictGraph() {
     nodes = MultimapBuilder.hashKeys().arrayListValues().build();
     groups = new HashMap<>();
+    deferred = new HashSet<>();
+    deferralAllowed = false;
+    deferrals = new HashMap<>();
   }
 
   /**
@@ -100,6 +125,87 @@ public class ConflictGraph {
     colorGraph(adj, allNodes);
   }
 
+  /**
+   * Packs nodes into groups optimistically. Unlike {@link #findGroups()}, a node may share a group
+   * with a single node it has a conflict with, as long as that node has no other conflict in the
+   * group. Most shared regions do not interact in practice, impact of nodes in a shared region is
+   * attributed after the build and nodes which impact is ambiguous are re-evaluated. Pairing each
+   * node with at most one conflicting node keeps the attribution local to the pair. A first-fit
+   * greedy algorithm is used to find the solution.
+   */
+  public void findOptimisticGroups() {
+    this.groups.clear();
+    List<Set<Node>> packed = new ArrayList<>();
+    // Nodes which already have a conflicting node in their group.
+    Set<Node> paired = new HashSet<>();
+    for (Node node : nodes.values()) {
+      Set<Node> target = null;
+      for (Set<Node> group : packed) {
+        List<Node> conflicting =
+            group.stream().filter(node::hasConflictInRegions).limit(2).collect(Collectors.toList());
+        if (conflicting.isEmpty()) {
+          target = group;
+          break;
+        }
+        if (conflicting.size() == 1 && !paired.contains(conflicting.get(0))) {
+          paired.add(node);
+          paired.add(conflicting.get(0));
+          target = group;
+          break;
+        }
+      }
+      if (target == null) {
+        target = new HashSet<>();
+        packed.add(target);
+      }
+      target.add(node);
+    }
+    for (int i = 0; i < packed.size(); i++) {
+      groups.put(i, packed.get(i));
+    }
+  }
+
+  /**
+   * Computes groups of non-conflicting nodes among the given nodes using a first-fit greedy
+   * algorithm. Unlike {@link #findGroups()}, groups of this graph are not modified.
+   *
+   * @param nodes Nodes to group.
+   * @return List of non-conflicting groups.
+   */
+  public static List<Set<Node>> findNonConflictingGroups(Collection<Node> nodes) {
+    List<Set<Node>> groups = new ArrayList<>();
+    for (Node node : nodes) {
+      Set<Node> target =
+          groups.stream()
+              .filter(group -> group.stream().noneMatch(node::hasConflictInRegions))
+              .findFirst()
+              .orElse(null);
+      if (target == null) {
+        target = new HashSet<>();
+        groups.add(target);
+      }
+      target.add(node);
+    }
+    return groups;
+  }
+
+  /**
+   * Returns the regions of the given group which are shared by more than one node, with the nodes
+   * sharing each of them. Empty for groups computed by {@link #findGroups()}.
+   *
+   * @param group Group of nodes.
+   * @return Map of shared regions to the nodes sharing them.
+   */
+  public static Map<Region, Set<Node>> getSharedRegions(Set<Node> group) {
+    Map<Region, Set<Node>> owners = new HashMap<>();
+    group.forEach(
+        node ->
+            node.regions.forEach(
+                region -> owners.computeIfAbsent(region, k -> new HashSet<>()).add(node)));
+    owners.values().removeIf(sharing -> sharing.size() < 2);
+    return owners;
+  }
+
   /**
    * Performs the actual coloring.
    *
@@ -158,10 +264,82 @@ public class ConflictGraph {
     return nodes.values().stream();
   }
 
-  /** Clears all nodes and groups. */
+  /**
+   * Allows or disallows the processor to defer processing of nodes of this graph to a later batch.
+   * Should be allowed only if nodes of a later batch will be processed with deferred nodes.
+   *
+   * @param deferralAllowed If true, deferral is allowed.
+   */
+  public void setDeferralAllowed(boolean deferralAllowed) {
+    this.deferralAllowed = deferralAllowed;
+  }
+
+  /**
+   * Checks if the processor may defer processing of nodes of this graph.
+   *
+   * @return true, if deferral is allowed.
+   */
+  public boolean isDeferralAllowed() {
+    return deferralAllowed;
+  }
+
+  /**
+   * Checks if processing of the given node can be deferred, that is if nodes with its root fix are
+   * deferred less than {@link #MAX_DEFERRALS} times.
+   *
+   * @param node Node in this graph.
+   * @return true, if the node can be deferred.
+   */
+  public boolean canDefer(Node node) {
+    return deferrals.getOrDefault(node.root, 0) < MAX_DEFERRALS;
+  }
+
+  /**
+   * Marks the given nodes as deferred. Deferred nodes are not processed in this batch and should be
+   * added again to the graph of the next batch.
+   *
+   * @param nodes Nodes to defer, each must be deferrable, see {@link #canDefer(Node)}.
+   */
+  public void defer(Collection<Node> nodes) {
+    Preconditions.checkState(deferralAllowed, "Deferral is not allowed for this graph.");
+    Preconditions.checkArgument(
+        nodes.stream().allMatch(this::canDefer), "Node is deferred too many times.");
+    deferred.addAll(nodes);
+    nodes.forEach(node -> deferrals.merge(node.root, 1, Integer::sum));
+  }
+
+  /** Forgets the number of deferrals of all root fixes, called when a new evaluation starts. */
+  public void resetDeferrals() {
+    deferrals.clear();
+  }
+
+  /**
+   * Checks if processing of the given node is deferred.
+   *
+   * @param node Node in this graph.
+   * @return true, if processing of the node is deferred.
+   */
+  public boolean isDeferred(Node node) {
+    return deferred.contains(node);
+  }
+
+  /**
+   * Returns the number of nodes which processing is deferred.
+   *
+   * @return Number of deferred nodes.
+   */
+  public int getNumberOfDeferredNodes() {
+    return deferred.size();
+  }
+
+  /**
+   * Clears all nodes, groups and deferred nodes. Number of deferrals of root fixes are kept, see
+   * {@link #resetDeferrals()}.
+   */
   public void clear() {
     nodes.clear();
     groups.clear();
+    deferred.clear();
   }
 
   /**
@@ -31,6 +31,7 @@ import edu.ucr.cs.riple.core.module.ModuleInfo;
 import edu.ucr.cs.riple.core.registries.index.Error;
 import edu.ucr.cs.riple.core.registries.index.ErrorStore;
 import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.registries.method.MethodRecord;
 import edu.ucr.cs.riple.core.registries.region.Region;
 import edu.ucr.cs.riple.core.registries.region.RegionRegistry;
 import edu.ucr.cs.riple.injector.location.OnMethod;
@@ -65,6 +66,11 @@ public class Node {
   public int effect;
   /** Corresponding report of processing root. */
   public Report report;
+  /**
+   * If true, the build with this node's tree applied did not complete even without other nodes, and
+   * the computed status of this node is not valid.
+   */
+  public boolean quarantined;
   /** Regions where original errors reported and NullAway suggested root for that. */
   private ImmutableSet<Region> origins;
 
@@ -76,6 +82,7 @@ public class Node {
     this.effect = 0;
     this.tree = Sets.newHashSet(root);
     this.origins = ImmutableSet.of();
+    this.quarantined = false;
   }
 
   /**
@@ -131,14 +138,16 @@ public class Node {
    * code and the target project has been rebuilt.
    *
    * @param localEffect Local effect calculated based on the number of errors in impacted regions.
-   * @param fixesInOneRound All fixes applied simultaneously to the source code.
+   * @param methodsAnnotatedInOneRound Methods targeted by all fixes applied simultaneously to the
+   *     source code, see {@link #getAnnotatedMethods(Collection)}. Should be computed once for all
+   *     nodes applied together.
    * @param triggeredFixesFromDownstreamErrors Triggered fixes from downstream dependencies.
    * @param triggeredErrors Triggered Errors collected from impacted regions.
    * @param moduleInfo {@link ModuleInfo} instance.
    */
   public void updateStatus(
       int localEffect,
-      Set<Fix> fixesInOneRound,
+      Set<OnMethod> methodsAnnotatedInOneRound,
       Collection<Fix> triggeredFixesFromDownstreamErrors,
       Collection<Error> triggeredErrors,
       ModuleInfo moduleInfo) {
@@ -150,36 +159,44 @@ public class Node {
     // A fix in a tree, can have a super method that is not part of this node's tree but be present
     // in another node's tree. In this case since both are applied, an error due to inheritance
     // violation will not be reported. This calculation below will fix that.
-    final int[] numberOfSuperMethodsAnnotatedOutsideTree = {0};
-    this.tree.stream()
-        .filter(Fix::isOnMethod)
-        .map(
-            fix -> {
-              OnMethod onMethod = fix.toMethod();
-              return moduleInfo.getMethodRegistry().getImmediateSuperMethod(onMethod);
-            }) // Collection of super methods of all fixes in tree.
-        .filter(
-            node ->
-                node != null
-                    && !node.hasNullableAnnotation()) // If node is already annotated, ignore it.
-        .forEach(
-            superMethodNode -> {
-              if (this.tree.stream()
-                  .anyMatch(
-                      fix -> fix.isOnMethod() && fix.toMethod().equals(superMethodNode.location))) {
-                // Super method is already inside tree, ignore it.
-                return;
-              }
-              if (fixesInOneRound.stream()
-                  .anyMatch(
-                      fix -> fix.isOnMethod() && fix.toMethod().equals(superMethodNode.location))) {
-                // Super method is not in this tree and is present in source code due to injection
-                // for another node, count it.
-                numberOfSuperMethodsAnnotatedOutsideTree[0]++;
-              }
-            });
+    Set<OnMethod> methodsInTree = getAnnotatedMethods(this.tree);
+    int numberOfSuperMethodsAnnotatedOutsideTree = 0;
+    for (Fix fix : this.tree) {
+      if (!fix.isOnMethod()) {
+        continue;
+      }
+      MethodRecord superMethod =
+          moduleInfo.getMethodRegistry().getImmediateSuperMethod(fix.toMethod());
+      if (superMethod == null || superMethod.hasNullableAnnotation()) {
+        // No super method or super method is already annotated, ignore it.
+        continue;
+      }
+      if (methodsInTree.contains(superMethod.location)) {
+        // Super method is already inside tree, ignore it.
+        continue;
+      }
+      if (methodsAnnotatedInOneRound.contains(superMethod.location)) {
+        // Super method is not in this tree and is present in source code due to injection for
+        // another node, count it.
+        numberOfSuperMethodsAnnotatedOutsideTree++;
+      }
+    }
     // Fix the actual error below.
-    this.effect = localEffect + numberOfSuperMethodsAnnotatedOutsideTree[0];
+    this.effect = localEffect + numberOfSuperMethodsAnnotatedOutsideTree;
+  }
+
+  /**
+   * Returns the set of methods targeted by the given fixes. Used to check membership of super
+   * methods in constant time in {@link #updateStatus}.
+   *
+   * @param fixes Collection of fixes.
+   * @return Immutable set of locations of methods targeted by fixes on methods.
+   */
+  public static ImmutableSet<OnMethod> getAnnotatedMethods(Collection<Fix> fixes) {
+    return fixes.stream()
+        .filter(Fix::isOnMethod)
+        .map(Fix::toMethod)
+        .collect(ImmutableSet.toImmutableSet());
   }
 
   /** Merges triggered fixes to the tree, to prepare the analysis for the next depth. */
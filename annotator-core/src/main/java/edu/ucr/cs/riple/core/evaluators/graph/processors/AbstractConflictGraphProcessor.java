@@ -62,6 +62,17 @@ public abstract class AbstractConflictGraphProcessor implements ConflictGraphPro
     this.compilerRunner = runner;
   }
 
+  /**
+   * Quarantines the given node, as the build with its fix tree applied did not complete. Its
+   * impact is unknown and its report is not approved.
+   *
+   * @param node Node to quarantine.
+   */
+  protected void quarantine(Node node) {
+    System.out.println("Build did not complete with fix tree of: " + node.root + ", quarantined.");
+    node.quarantined = true;
+  }
+
   /**
    * Gets the set of triggered fixes on target module from downstream errors.
    *
@@ -27,6 +27,11 @@ package edu.ucr.cs.riple.core.evaluators.graph.processors;
 /** Interface for rerunning the analysis/compiler. */
 public interface CompilerRunner {
 
-  /** Runs the analysis/compiler. */
-  void run();
+  /**
+   * Runs the analysis/compiler.
+   *
+   * @return false, if the run did not complete and its outputs must not be used, e.g. the build
+   *     failed on uncompilable code or ran out of memory.
+   */
+  boolean run();
 }
@@ -0,0 +1,274 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.evaluators.graph.processors;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import edu.ucr.cs.riple.core.evaluators.graph.Node;
+import edu.ucr.cs.riple.core.log.BuildCostModel;
+import edu.ucr.cs.riple.core.registries.region.Region;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sizes and orders non-conflicting groups according to their estimated build time, see {@link
+ * BuildCostModel}. If a maximum build time is set and estimates are available, groups estimated to
+ * take longer are split by moving nodes into other groups they do not conflict with, and small
+ * groups which do not conflict with each other are merged as long as the merged group stays within
+ * the limit. If groups are built concurrently on multiple workers, groups are ordered longest
+ * first, which minimizes the total time.
+ */
+public class GroupScheduler {
+
+  /** Model estimating build time of groups. */
+  private final BuildCostModel model;
+  /** Maximum estimated build time of a group in milliseconds, non-positive values disable it. */
+  private final long maxBuildTime;
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param model Model estimating build time of groups of the built modules.
+   * @param maxBuildTime Maximum estimated build time of a group in milliseconds, non-positive
+   *     values disable splitting and merging of groups.
+   */
+  public GroupScheduler(BuildCostModel model, long maxBuildTime) {
+    this.model = model;
+    this.maxBuildTime = maxBuildTime;
+  }
+
+  /**
+   * Splits, merges and orders the given non-conflicting groups.
+   *
+   * @param groups Non-conflicting groups of nodes.
+   * @param longestFirst If true, groups are ordered by their estimated build time in descending
+   *     order. Only useful if groups are built concurrently, otherwise the order of groups does not
+   *     change the total time.
+   * @return Non-conflicting groups covering the same nodes.
+   */
+  public List<Set<Node>> schedule(Collection<Set<Node>> groups, boolean longestFirst) {
+    List<Group> scheduled = groups.stream().map(Group::new).collect(Collectors.toList());
+    if (maxBuildTime > 0 && model.estimate(new BuildCostModel.Features(0, 0)) >= 0) {
+      split(scheduled);
+      merge(scheduled);
+    }
+    if (longestFirst) {
+      Map<Group, Long> costs = new IdentityHashMap<>();
+      scheduled.forEach(group -> costs.put(group, cost(group)));
+      scheduled.sort(Comparator.comparingLong(costs::get).reversed());
+    }
+    return scheduled.stream().map(group -> group.nodes).collect(Collectors.toList());
+  }
+
+  /**
+   * Splits groups estimated to take longer than the maximum build time. Nodes with the most
+   * impacted regions are moved out of such groups first, each into the first group it does not
+   * conflict with and which stays within the limit, or into a new group.
+   *
+   * @param groups Groups to split, updated in place.
+   */
+  private void split(List<Group> groups) {
+    List<Node> overflow = new ArrayList<>();
+    for (Group group : groups) {
+      if (group.nodes.size() < 2 || estimate(group.features()) <= maxBuildTime) {
+        continue;
+      }
+      List<Node> nodes = new ArrayList<>(group.nodes);
+      nodes.sort(Comparator.comparingInt((Node node) -> node.regions.size()).reversed());
+      for (Node node : nodes) {
+        if (group.nodes.size() < 2 || estimate(group.features()) <= maxBuildTime) {
+          break;
+        }
+        group.remove(node);
+        overflow.add(node);
+      }
+    }
+    for (Node node : overflow) {
+      Group single = new Group(Set.of(node));
+      Group target =
+          groups.stream()
+              .filter(group -> !group.conflicts(single))
+              .filter(group -> estimate(group.featuresOfUnion(single)) <= maxBuildTime)
+              .findFirst()
+              .orElse(null);
+      if (target == null) {
+        groups.add(single);
+      } else {
+        target.addAll(single);
+      }
+    }
+  }
+
+  /**
+   * Merges groups which do not conflict with each other, as long as the estimated build time of the
+   * merged group stays within the limit. Smaller groups are merged first. Features of merged groups
+   * are updated incrementally, therefore nodes are not visited again for each pair of groups.
+   *
+   * @param groups Groups to merge, updated in place.
+   */
+  private void merge(List<Group> groups) {
+    Map<Group, Long> estimates = new IdentityHashMap<>();
+    groups.forEach(group -> estimates.put(group, estimate(group.features())));
+    groups.sort(Comparator.comparingLong(estimates::get));
+    for (int i = 0; i < groups.size(); i++) {
+      Group group = groups.get(i);
+      for (int j = i + 1; j < groups.size(); j++) {
+        Group other = groups.get(j);
+        if (!group.conflicts(other) && estimate(group.featuresOfUnion(other)) <= maxBuildTime) {
+          group.addAll(other);
+          groups.remove(j--);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the cost used to order groups, the estimated build time if available, otherwise the
+   * number of impacted regions.
+   *
+   * @param group Group of nodes.
+   * @return Cost of the group.
+   */
+  private long cost(Group group) {
+    BuildCostModel.Features features = group.features();
+    long estimate = model.estimate(features);
+    return estimate >= 0 ? estimate : features.impactedRegions;
+  }
+
+  /**
+   * Returns the estimated build time of a group with the given features.
+   *
+   * @param features Features of the group.
+   * @return Estimated build time in milliseconds, or -1 if not available.
+   */
+  private long estimate(BuildCostModel.Features features) {
+    return model.estimate(features);
+  }
+
+  /**
+   * Nodes of a group along with the touched files and impacted regions of its nodes, which are
+   * updated as nodes are added or removed.
+   */
+  private static class Group {
+
+    /** Nodes of the group. */
+    private final Set<Node> nodes;
+    /** Source files touched by the nodes, counted once per node touching them. */
+    private final Multiset<Path> files;
+    /** Regions potentially impacted by the nodes, counted once per node impacting them. */
+    private final Multiset<Region> regions;
+
+    /**
+     * Creates a group of the given nodes.
+     *
+     * @param nodes Nodes of the group.
+     */
+    private Group(Set<Node> nodes) {
+      this.nodes = new HashSet<>();
+      this.files = HashMultiset.create();
+      this.regions = HashMultiset.create();
+      nodes.forEach(this::add);
+    }
+
+    /**
+     * Adds the given node to this group.
+     *
+     * @param node Node to add.
+     */
+    private void add(Node node) {
+      if (nodes.add(node)) {
+        files.addAll(BuildCostModel.Features.touchedFiles(node));
+        regions.addAll(node.regions);
+      }
+    }
+
+    /**
+     * Adds all nodes of the given group to this group.
+     *
+     * @param other Group to add.
+     */
+    private void addAll(Group other) {
+      other.nodes.forEach(this::add);
+    }
+
+    /**
+     * Removes the given node from this group.
+     *
+     * @param node Node to remove.
+     */
+    private void remove(Node node) {
+      if (nodes.remove(node)) {
+        BuildCostModel.Features.touchedFiles(node).forEach(files::remove);
+        node.regions.forEach(regions::remove);
+      }
+    }
+
+    /**
+     * Returns the features of this group, equal to {@link BuildCostModel.Features#of(Collection)}
+     * of its nodes.
+     *
+     * @return Features of this group.
+     */
+    private BuildCostModel.Features features() {
+      return new BuildCostModel.Features(files.elementSet().size(), regions.size());
+    }
+
+    /**
+     * Returns the features of the union of this group and the given group, without computing the
+     * union.
+     *
+     * @param other Other group, disjoint from this group.
+     * @return Features of the union.
+     */
+    private BuildCostModel.Features featuresOfUnion(Group other) {
+      int newFiles =
+          (int) other.files.elementSet().stream().filter(file -> !files.contains(file)).count();
+      return new BuildCostModel.Features(
+          files.elementSet().size() + newFiles, regions.size() + other.regions.size());
+    }
+
+    /**
+     * Checks if any node of this group conflicts with any node of the given group, that is if they
+     * share an impacted region, see {@link Node#hasConflictInRegions(Node)}.
+     *
+     * @param other Other group.
+     * @return true, if the groups cannot be built together.
+     */
+    private boolean conflicts(Group other) {
+      if (regions.elementSet().size() > other.regions.elementSet().size()) {
+        return other.conflicts(this);
+      }
+      return regions.elementSet().stream().anyMatch(other.regions::contains);
+    }
+  }
+}
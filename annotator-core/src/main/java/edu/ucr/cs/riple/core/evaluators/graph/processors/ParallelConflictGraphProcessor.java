@@ -24,18 +24,25 @@
 
 package edu.ucr.cs.riple.core.evaluators.graph.processors;
 
+import com.google.common.collect.ImmutableSet;
 import edu.ucr.cs.riple.core.Context;
 import edu.ucr.cs.riple.core.evaluators.graph.ConflictGraph;
 import edu.ucr.cs.riple.core.evaluators.graph.Node;
 import edu.ucr.cs.riple.core.evaluators.suppliers.Supplier;
+import edu.ucr.cs.riple.core.log.BuildCostModel;
 import edu.ucr.cs.riple.core.registries.index.Error;
 import edu.ucr.cs.riple.core.registries.index.Fix;
 import edu.ucr.cs.riple.core.registries.index.Result;
 import edu.ucr.cs.riple.core.registries.region.Region;
 import edu.ucr.cs.riple.core.registries.region.RegionRegistry;
 import edu.ucr.cs.riple.core.util.Utility;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.stream.Collectors;
 import me.tongfei.progressbar.ProgressBar;
@@ -43,7 +50,12 @@ import me.tongfei.progressbar.ProgressBar;
 /**
  * Parallel processor which computes the impact of nodes in parallel. In this processor,
  * non-conflicting nodes are processed simultaneously. The conflict graph will be used to determine
- * the minimum number of non-conflicting groups using graph coloring techniques.
+ * the minimum number of non-conflicting groups using graph coloring techniques. If the build of a
+ * group does not complete, the group is bisected until the nodes causing the failure are isolated
+ * and quarantined, see {@link #bisect(Set)}. Durations of builds are recorded in the build cost
+ * model of the log, which is used to size groups, see {@link GroupScheduler}. If optimistic
+ * grouping is enabled, nodes sharing regions may be packed in the same group and nodes which
+ * impact cannot be attributed are re-evaluated afterwards, see {@link #repair(Set)}.
  */
 public class ParallelConflictGraphProcessor extends AbstractConflictGraphProcessor {
 
@@ -52,50 +64,329 @@ public class ParallelConflictGraphProcessor extends AbstractConflictGraphProcess
    * trees.
    */
   private final RegionRegistry regionRegistry;
+  /** Scheduler sizing groups by their estimated build time. */
+  private final GroupScheduler scheduler;
 
   public ParallelConflictGraphProcessor(Context context, CompilerRunner runner, Supplier supplier) {
+    this(
+        context,
+        runner,
+        supplier,
+        supplier.getModuleInfo().getRegionRegistry(),
+        new GroupScheduler(
+            context.log.getBuildCostModel(supplier.getModuleInfo().getModuleConfigurations()),
+            context.config.maxGroupBuildTimeInSeconds * 1000));
+  }
+
+  /**
+   * Creates a processor with the given region registry and group scheduler. Visible for testing.
+   *
+   * @param context Annotator context.
+   * @param runner Handler to re-run compiler.
+   * @param supplier Supplier of the module being processed.
+   * @param regionRegistry Region registry of the module being processed.
+   * @param scheduler Scheduler sizing and ordering groups.
+   */
+  protected ParallelConflictGraphProcessor(
+      Context context,
+      CompilerRunner runner,
+      Supplier supplier,
+      RegionRegistry regionRegistry,
+      GroupScheduler scheduler) {
     super(context, runner, supplier);
-    this.regionRegistry = supplier.getModuleInfo().getRegionRegistry();
+    this.regionRegistry = regionRegistry;
+    this.scheduler = scheduler;
   }
 
   @Override
   public void process(ConflictGraph graph) {
+    Collection<Set<Node>> nonConflictingGroups = computeNonConflictingGroups(graph);
+    ProgressBar pb = Utility.createProgressBar("Processing", nonConflictingGroups.size());
+    Set<Node> ambiguous = new HashSet<>();
+    for (Set<Node> group : nonConflictingGroups) {
+      pb.step();
+      ambiguous.addAll(processGroup(group));
+    }
+    pb.close();
+    repair(ambiguous);
+  }
+
+  /**
+   * Builds the given group and updates the status of its nodes. If the build does not complete,
+   * the group is bisected.
+   *
+   * @param group Group of nodes.
+   * @return Set of nodes which status could not be attributed, see {@link #updateNodesStatus(Set,
+   *     Set)}.
+   */
+  protected Set<Node> processGroup(Set<Node> group) {
+    Set<Fix> fixes = getFixesOfGroup(group);
+    injector.injectFixes(fixes);
+    boolean completed = build(group);
+    Set<Node> ambiguous = Set.of();
+    if (completed) {
+      errorStore.saveState();
+      ambiguous = updateNodesStatus(group, fixes);
+    }
+    injector.removeFixes(fixes);
+    if (!completed) {
+      ambiguous = bisect(group);
+    }
+    return ambiguous;
+  }
+
+  /**
+   * Re-evaluates the given nodes which status could not be attributed in their optimistic group.
+   * The nodes are regrouped in non-conflicting groups, which are sized as the groups of the graph,
+   * see {@link #scheduleGroups(Collection)}, therefore each follow-up build attributes the status
+   * of all its nodes.
+   *
+   * @param ambiguous Nodes which status could not be attributed.
+   */
+  protected void repair(Set<Node> ambiguous) {
+    if (ambiguous.isEmpty()) {
+      return;
+    }
+    List<Set<Node>> groups = scheduleGroups(ConflictGraph.findNonConflictingGroups(ambiguous));
+    System.out.println(
+        "Re-evaluating: "
+            + ambiguous.size()
+            + " fixes with ambiguous impact in: "
+            + groups.size()
+            + " builds");
+    groups.forEach(this::processGroup);
+  }
+
+  /**
+   * Builds the module with the fixes of the given group applied, and records the duration of a
+   * completed build in the build cost model. Builds restored from the build result cache are not
+   * recorded.
+   *
+   * @param group Group of nodes which fixes are applied.
+   * @return true, if the build completed.
+   */
+  protected boolean build(Set<Node> group) {
+    // Discard any build captured earlier on this thread.
+    context.log.takeLastBuildTime();
+    boolean completed = compilerRunner.run();
+    recordBuildTime(group, completed, context.log.takeLastBuildTime());
+    return completed;
+  }
+
+  /**
+   * Records the duration of the build of the given group in the build cost model.
+   *
+   * @param group Group of nodes which fixes were applied.
+   * @param completed If false, the build did not complete and is not recorded.
+   * @param millis Duration of the build in milliseconds, negative if no build was run.
+   */
+  protected void recordBuildTime(Set<Node> group, boolean completed, long millis) {
+    if (completed && millis >= 0) {
+      context
+          .log
+          .getBuildCostModel(moduleInfo.getModuleConfigurations())
+          .record(BuildCostModel.Features.of(group), millis);
+    }
+  }
+
+  /**
+   * Handles a group which build did not complete. Any subset of a non-conflicting group is
+   * non-conflicting, therefore the group is split in halves and each half is built on its own.
+   * Halves failing again are split further until a single node is left, which is quarantined. This
+   * way, k nodes causing the failure among n nodes are isolated in O(k log n) builds and other
+   * nodes of the group are not affected by the failure.
+   *
+   * @param group Group of nodes which build did not complete.
+   * @return Set of nodes in the halves which status could not be attributed.
+   */
+  protected Set<Node> bisect(Set<Node> group) {
+    if (group.size() == 1) {
+      quarantine(group.iterator().next());
+      return Set.of();
+    }
+    List<Node> nodes = new ArrayList<>(group);
+    int middle = nodes.size() / 2;
+    Set<Node> ambiguous = new HashSet<>(processGroup(new HashSet<>(nodes.subList(0, middle))));
+    ambiguous.addAll(processGroup(new HashSet<>(nodes.subList(middle, nodes.size()))));
+    return ambiguous;
+  }
+
+  /**
+   * Computes the non-conflicting groups of nodes in the given graph, sized by their estimated build
+   * time. Groups are ordered longest estimated build first only if they are built concurrently,
+   * see {@link #buildsGroupsConcurrently()}. If the graph allows deferral, small groups are
+   * deferred, see {@link #deferSmallGroups(ConflictGraph, Collection)}.
+   *
+   * @param graph Conflict graph.
+   * @return Collection of non-conflicting groups.
+   */
+  protected Collection<Set<Node>> computeNonConflictingGroups(ConflictGraph graph) {
     graph.getNodes().forEach(node -> node.reCollectPotentiallyImpactedRegions(regionRegistry));
     // find non-conflicting groups.
-    graph.findGroups();
-    Collection<Set<Node>> nonConflictingGroups = graph.getGroups();
+    if (context.config.useOptimisticGrouping) {
+      graph.findOptimisticGroups();
+    } else {
+      graph.findGroups();
+    }
+    Collection<Set<Node>> nonConflictingGroups = scheduleGroups(graph.getGroups());
+    if (graph.isDeferralAllowed()) {
+      nonConflictingGroups = deferSmallGroups(graph, nonConflictingGroups);
+    }
     System.out.println(
         "Scheduling for: "
             + nonConflictingGroups.size()
             + " builds for: "
-            + graph.getNodes().count()
+            + (graph.getNodes().count() - graph.getNumberOfDeferredNodes())
             + " fixes");
-    ProgressBar pb = Utility.createProgressBar("Processing", nonConflictingGroups.size());
-    for (Set<Node> group : nonConflictingGroups) {
-      pb.step();
-      Set<Fix> fixes =
-          group.stream().flatMap(node -> node.tree.stream()).collect(Collectors.toSet());
-      injector.injectFixes(fixes);
-      compilerRunner.run();
-      errorStore.saveState();
-      group.forEach(
-          node -> {
-            int localEffect = 0;
-            Set<Error> triggeredErrors = new HashSet<>();
-            for (Region region : node.regions) {
-              Result errorComparisonResult = errorStore.compareByRegion(region);
-              localEffect += errorComparisonResult.size;
-              triggeredErrors.addAll(errorComparisonResult.dif);
-            }
-            node.updateStatus(
-                localEffect,
-                fixes,
-                getTriggeredFixesFromDownstreamErrors(node),
-                triggeredErrors,
-                moduleInfo);
-          });
-      injector.removeFixes(fixes);
+    return nonConflictingGroups;
+  }
+
+  /**
+   * Sizes the given non-conflicting groups by their estimated build time, and orders them longest
+   * first if groups are built concurrently, see {@link GroupScheduler}.
+   *
+   * @param groups Non-conflicting groups of nodes.
+   * @return Non-conflicting groups covering the same nodes.
+   */
+  protected List<Set<Node>> scheduleGroups(Collection<Set<Node>> groups) {
+    return scheduler.schedule(groups, buildsGroupsConcurrently());
+  }
+
+  /**
+   * Checks if the groups are built concurrently. Groups are built one after another on the local
+   * checkout, therefore their order does not change the total time.
+   *
+   * @return true, if the groups are built concurrently.
+   */
+  protected boolean buildsGroupsConcurrently() {
+    return false;
+  }
+
+  /**
+   * Defers nodes of groups smaller than half of the largest group to the next batch. Greedy
+   * coloring leaves a tail of small groups, building them along with the nodes of the next batch
+   * fills the groups of the next batch instead of spending a build on a few nodes. The first group
+   * is never deferred, therefore each batch makes progress. Groups with a node which reached the
+   * maximum number of deferrals are not deferred, see {@link ConflictGraph#canDefer(Node)}.
+   * Package-private for testing.
+   *
+   * @param graph Conflict graph which allows deferral.
+   * @param groups Non-conflicting groups of the graph.
+   * @return Groups which are not deferred, in the given order.
+   */
+  static List<Set<Node>> deferSmallGroups(ConflictGraph graph, Collection<Set<Node>> groups) {
+    int largest = groups.stream().mapToInt(Set::size).max().orElse(0);
+    List<Set<Node>> kept = new ArrayList<>();
+    List<Node> deferred = new ArrayList<>();
+    for (Set<Node> group : groups) {
+      if (kept.isEmpty()
+          || group.size() * 2 >= largest
+          || !group.stream().allMatch(graph::canDefer)) {
+        kept.add(group);
+      } else {
+        deferred.addAll(group);
+      }
     }
-    pb.close();
+    graph.defer(deferred);
+    return kept;
+  }
+
+  /**
+   * Returns the union of fix trees of all nodes in the given group.
+   *
+   * @param group Group of nodes.
+   * @return Set of all fixes in the group.
+   */
+  protected static Set<Fix> getFixesOfGroup(Set<Node> group) {
+    return group.stream().flatMap(node -> node.tree.stream()).collect(Collectors.toSet());
+  }
+
+  /**
+   * Updates the status of each node in the group according to the latest saved state of errors.
+   * Must be called after the build with all fixes of the group is completed and its state is saved.
+   * Changes in a region shared by several nodes of the group are attributed by {@link
+   * #attributeSharedRegion(Node, Set, Collection, Collection)}, nodes with a shared region which
+   * changes cannot be attributed are not updated and are returned.
+   *
+   * @param group Group of nodes.
+   * @param fixes Set of all fixes applied in the build.
+   * @return Set of nodes which status could not be attributed, empty if no region is shared.
+   */
+  protected Set<Node> updateNodesStatus(Set<Node> group, Set<Fix> fixes) {
+    Map<Region, Set<Node>> sharedRegions = ConflictGraph.getSharedRegions(group);
+    // Computed once for the group, instead of scanning all fixes of the group for each node.
+    ImmutableSet<OnMethod> annotatedMethods = Node.getAnnotatedMethods(fixes);
+    Set<Node> ambiguous = new HashSet<>();
+    for (Node node : group) {
+      int localEffect = 0;
+      Set<Error> triggeredErrors = new HashSet<>();
+      boolean attributed = true;
+      for (Region region : node.regions) {
+        if (sharedRegions.containsKey(region)) {
+          OptionalInt share =
+              attributeSharedRegion(
+                  node,
+                  sharedRegions.get(region),
+                  errorStore.compareByRegion(region).dif,
+                  errorStore.getResolvedErrorsInRegion(region));
+          if (!share.isPresent()) {
+            attributed = false;
+            break;
+          }
+          localEffect += share.getAsInt();
+          continue;
+        }
+        Result errorComparisonResult = errorStore.compareByRegion(region);
+        localEffect += errorComparisonResult.size;
+        triggeredErrors.addAll(errorComparisonResult.dif);
+      }
+      if (!attributed) {
+        ambiguous.add(node);
+        continue;
+      }
+      node.updateStatus(
+          localEffect,
+          annotatedMethods,
+          getTriggeredFixesFromDownstreamErrors(node),
+          triggeredErrors,
+          moduleInfo);
+    }
+    return ambiguous;
+  }
+
+  /**
+   * Attributes the changes of errors in a region shared by several nodes of a group to the given
+   * node. Errors resolved in the region are attributed through their resolving fixes to the single
+   * sharing node which tree resolves them. Errors triggered in the region cannot be traced back to
+   * the fix which triggered them, therefore any triggered error makes the region ambiguous.
+   *
+   * Package-private for testing.
+   *
+   * @param node Node to attribute the changes to.
+   * @param sharing Nodes sharing the region, including the given node.
+   * @param triggered Errors triggered in the region by the build of the group.
+   * @param resolved Errors resolved in the region by the build of the group.
+   * @return Number of errors in the region attributed to the node, empty if ambiguous.
+   */
+  static OptionalInt attributeSharedRegion(
+      Node node, Set<Node> sharing, Collection<Error> triggered, Collection<Error> resolved) {
+    if (!triggered.isEmpty()) {
+      return OptionalInt.empty();
+    }
+    int share = 0;
+    for (Error error : resolved) {
+      List<Node> resolvers =
+          sharing.stream()
+              .filter(other -> error.isResolvableWith(other.tree))
+              .limit(2)
+              .collect(Collectors.toList());
+      if (resolvers.size() != 1) {
+        return OptionalInt.empty();
+      }
+      if (resolvers.get(0).equals(node)) {
+        share--;
+      }
+    }
+    return OptionalInt.of(share);
   }
 }
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.evaluators.graph.processors;
+
+import edu.ucr.cs.riple.core.Context;
+import edu.ucr.cs.riple.core.evaluators.graph.ConflictGraph;
+import edu.ucr.cs.riple.core.evaluators.graph.Node;
+import edu.ucr.cs.riple.core.evaluators.suppliers.Supplier;
+import edu.ucr.cs.riple.core.injectors.PreparedAnnotations;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.util.Utility;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import me.tongfei.progressbar.ProgressBar;
+
+/**
+ * Parallel processor which overlaps the preparation of injections with builds. While the build for
+ * a group is running, text modifications and import declarations for the next group are computed
+ * on a background thread and are applied right after the state of errors for the running group is
+ * saved. Preparation of a source file which is modified by the running group is recomputed at
+ * application, therefore the results are identical to {@link ParallelConflictGraphProcessor}.
+ * Preparation may read a source file while annotations of the running group are removed from it,
+ * such a file is prepared at application, see {@link edu.ucr.cs.riple.injector.Injector#prepare}.
+ * Groups which builds do not complete are bisected and nodes which status could not be attributed
+ * are re-evaluated once the pipeline is drained.
+ */
+public class PipelinedConflictGraphProcessor extends ParallelConflictGraphProcessor {
+
+  public PipelinedConflictGraphProcessor(
+      Context context, CompilerRunner runner, Supplier supplier) {
+    super(context, runner, supplier);
+  }
+
+  @Override
+  public void process(ConflictGraph graph) {
+    List<Set<Node>> groups = new ArrayList<>(computeNonConflictingGroups(graph));
+    if (groups.isEmpty()) {
+      return;
+    }
+    ProgressBar pb = Utility.createProgressBar("Processing", groups.size());
+    List<Set<Node>> failedGroups = new ArrayList<>();
+    Set<Node> ambiguous = new HashSet<>();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      injector.injectPreparedAnnotations(
+          injector.prepareAnnotations(getFixesOfGroup(groups.get(0))));
+      for (int i = 0; i < groups.size(); i++) {
+        pb.step();
+        Set<Node> group = groups.get(i);
+        Set<Fix> fixes = getFixesOfGroup(group);
+        Future<PreparedAnnotations> next = null;
+        if (i + 1 < groups.size()) {
+          Set<Fix> nextFixes = getFixesOfGroup(groups.get(i + 1));
+          next = executor.submit(() -> injector.prepareAnnotations(nextFixes));
+        }
+        boolean completed = build(group);
+        if (completed) {
+          errorStore.saveState();
+        }
+        injector.removeFixes(fixes);
+        if (next != null) {
+          injector.injectPreparedAnnotations(await(next));
+        }
+        if (completed) {
+          ambiguous.addAll(updateNodesStatus(group, fixes));
+        } else {
+          failedGroups.add(group);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      pb.close();
+    }
+    failedGroups.forEach(group -> ambiguous.addAll(bisect(group)));
+    repair(ambiguous);
+  }
+
+  /**
+   * Waits for the preparation of annotations to complete.
+   *
+   * @param prepared Pending preparation.
+   * @return Prepared annotations.
+   */
+  private static PreparedAnnotations await(Future<PreparedAnnotations> prepared) {
+    try {
+      return prepared.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while preparing annotations for injection", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(
+          "Exception while preparing annotations for injection", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package edu.ucr.cs.riple.core.evaluators.graph.processors;
+
+import edu.ucr.cs.riple.core.Context;
+import edu.ucr.cs.riple.core.distributed.BuildCoordinator;
+import edu.ucr.cs.riple.core.distributed.WorkerProtocol;
+import edu.ucr.cs.riple.core.evaluators.graph.ConflictGraph;
+import edu.ucr.cs.riple.core.evaluators.graph.Node;
+import edu.ucr.cs.riple.core.evaluators.suppliers.Supplier;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.util.Utility;
+import edu.ucr.cs.riple.injector.changes.AddAnnotation;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import me.tongfei.progressbar.ProgressBar;
+import org.json.simple.JSONObject;
+
+/**
+ * Processor which builds non-conflicting groups on remote build workers, see {@link
+ * edu.ucr.cs.riple.core.distributed.BuildWorker}. Groups are computed as in {@link
+ * ParallelConflictGraphProcessor} and all groups are built concurrently, each on top of the
+ * annotations currently applied on the local checkout. Responses are processed one at a time on
+ * the local checkout: errors files returned by the worker are written in place of the local build
+ * outputs and the offset changes of the group are replayed, so that the state of errors is
+ * computed exactly as if the group had been built locally. Groups which builds did not complete on
+ * the worker are bisected on the local checkout once all responses are processed.
+ */
+public class RemoteConflictGraphProcessor extends ParallelConflictGraphProcessor {
+
+  /** Coordinator dispatching builds to remote workers. */
+  private final BuildCoordinator coordinator;
+
+  public RemoteConflictGraphProcessor(Context context, CompilerRunner runner, Supplier supplier) {
+    super(context, runner, supplier);
+    this.coordinator =
+        new BuildCoordinator(
+            context.config.remoteWorkers,
+            WorkerProtocol.readToken(context.config.remoteWorkerTokenFile));
+  }
+
+  @Override
+  public void process(ConflictGraph graph) {
+    List<Set<Node>> groups = new ArrayList<>(computeNonConflictingGroups(graph));
+    List<Set<Fix>> fixesOfGroups =
+        groups.stream()
+            .map(ParallelConflictGraphProcessor::getFixesOfGroup)
+            .collect(Collectors.toList());
+    Set<AddAnnotation> base = context.appliedAnnotations.get();
+    List<JSONObject> requests =
+        fixesOfGroups.stream()
+            .map(
+                fixes ->
+                    WorkerProtocol.createRequest(
+                        context.config.sourceRoot,
+                        base,
+                        fixes.stream().map(fix -> fix.change).collect(Collectors.toSet())))
+            .collect(Collectors.toList());
+    ProgressBar pb = Utility.createProgressBar("Processing", groups.size());
+    List<Set<Node>> failedGroups = new ArrayList<>();
+    Set<Node> ambiguous = new HashSet<>();
+    coordinator.dispatch(
+        requests,
+        (index, response) -> {
+          pb.step();
+          context.log.incrementBuildRequest();
+          context.offsetHandler.updateStateWithRecentChanges(
+              WorkerProtocol.getInjectedOffsets(response));
+          boolean completed = WorkerProtocol.isCompleted(response);
+          recordBuildTime(groups.get(index), completed, WorkerProtocol.getBuildTime(response));
+          if (completed) {
+            writeErrors(response);
+            errorStore.saveState();
+            ambiguous.addAll(updateNodesStatus(groups.get(index), fixesOfGroups.get(index)));
+          } else {
+            failedGroups.add(groups.get(index));
+          }
+          context.offsetHandler.updateStateWithRecentChanges(
+              WorkerProtocol.getRemovedOffsets(response));
+        });
+    pb.close();
+    failedGroups.forEach(group -> ambiguous.addAll(bisect(group)));
+    repair(ambiguous);
+  }
+
+  /**
+   * Groups are built concurrently on the remote workers, therefore they are ordered longest first.
+   *
+   * @return true.
+   */
+  @Override
+  protected boolean buildsGroupsConcurrently() {
+    return true;
+  }
+
+  /**
+   * Writes the errors files in the given response in place of the local build outputs of each
+   * module.
+   *
+   * @param response Response of a remote worker.
+   */
+  private void writeErrors(JSONObject response) {
+    Iterator<String> errors = WorkerProtocol.getErrors(response).iterator();
+    for (ModuleConfiguration module : moduleInfo.getModuleConfigurations()) {
+      Path path = module.dir.resolve(WorkerProtocol.ERRORS_FILE_NAME);
+      try {
+        Files.writeString(path, errors.next(), Charset.defaultCharset());
+      } catch (IOException e) {
+        throw new RuntimeException("Could not write errors at: " + path, e);
+      }
+    }
+  }
+}
@@ -26,6 +26,7 @@ package edu.ucr.cs.riple.core.evaluators.graph.processors;
 
 import edu.ucr.cs.riple.core.Context;
 import edu.ucr.cs.riple.core.evaluators.graph.ConflictGraph;
+import edu.ucr.cs.riple.core.evaluators.graph.Node;
 import edu.ucr.cs.riple.core.evaluators.suppliers.Supplier;
 import edu.ucr.cs.riple.core.registries.index.Fix;
 import edu.ucr.cs.riple.core.registries.index.Result;
@@ -33,7 +34,10 @@ import edu.ucr.cs.riple.core.util.Utility;
 import java.util.Set;
 import me.tongfei.progressbar.ProgressBar;
 
-/** Basic processor which processes the impact of each node sequentially. */
+/**
+ * Basic processor which processes the impact of each node sequentially. Nodes which builds do not
+ * complete are quarantined.
+ */
 public class SequentialConflictGraphProcessor extends AbstractConflictGraphProcessor {
 
   public SequentialConflictGraphProcessor(
@@ -53,13 +57,17 @@ public class SequentialConflictGraphProcessor extends AbstractConflictGraphProce
               pb.step();
               Set<Fix> fixes = node.tree;
               injector.injectFixes(fixes);
-              compilerRunner.run();
+              if (!compilerRunner.run()) {
+                injector.removeFixes(fixes);
+                quarantine(node);
+                return;
+              }
               errorStore.saveState();
               Result errorComparisonResult = errorStore.compare();
               node.effect = errorComparisonResult.size;
               node.updateStatus(
                   errorComparisonResult.size,
-                  fixes,
+                  Node.getAnnotatedMethods(fixes),
                   getTriggeredFixesFromDownstreamErrors(node),
                   errorComparisonResult.dif,
                   moduleInfo);
@@ -49,12 +49,7 @@ import edu.ucr.cs.riple.core.util.Utility;
 public class DownstreamDependencySupplier extends AbstractSupplier {
 
   public DownstreamDependencySupplier(Context context) {
-    super(
-        context,
-        new ModuleInfo(
-            context,
-            context.downstreamConfigurations,
-            context.config.downstreamDependenciesBuildCommand));
+    super(context, context.buildScheduler.createDownstreamModuleInfo(context));
   }
 
   @Override
@@ -90,4 +85,10 @@ public class DownstreamDependencySupplier extends AbstractSupplier {
   public ModuleInfo getModuleInfo() {
     return moduleInfo;
   }
+
+  @Override
+  public boolean isInterruptible() {
+    // Impacts on downstream dependencies are computed once and reused in all iterations.
+    return false;
+  }
 }
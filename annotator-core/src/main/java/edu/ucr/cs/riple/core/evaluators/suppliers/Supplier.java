@@ -92,4 +92,12 @@ public interface Supplier {
    * @return ModuleInfo instance.
    */
   ModuleInfo getModuleInfo();
+
+  /**
+   * Checks if evaluations initialized by this supplier can be interrupted once the time budget of
+   * the run is exhausted.
+   *
+   * @return true, if evaluations can be interrupted.
+   */
+  boolean isInterruptible();
 }
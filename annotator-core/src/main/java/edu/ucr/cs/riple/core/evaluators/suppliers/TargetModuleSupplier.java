@@ -30,6 +30,8 @@ import edu.ucr.cs.riple.core.cache.downstream.DownstreamImpactCache;
 import edu.ucr.cs.riple.core.evaluators.graph.processors.CompilerRunner;
 import edu.ucr.cs.riple.core.evaluators.graph.processors.ConflictGraphProcessor;
 import edu.ucr.cs.riple.core.evaluators.graph.processors.ParallelConflictGraphProcessor;
+import edu.ucr.cs.riple.core.evaluators.graph.processors.PipelinedConflictGraphProcessor;
+import edu.ucr.cs.riple.core.evaluators.graph.processors.RemoteConflictGraphProcessor;
 import edu.ucr.cs.riple.core.evaluators.graph.processors.SequentialConflictGraphProcessor;
 import edu.ucr.cs.riple.core.injectors.AnnotationInjector;
 import edu.ucr.cs.riple.core.injectors.PhysicalInjector;
@@ -83,8 +85,14 @@ public class TargetModuleSupplier extends AbstractSupplier {
 
   @Override
   public ConflictGraphProcessor getGraphProcessor() {
-    CompilerRunner runner = () -> Utility.buildTarget(context);
+    CompilerRunner runner = () -> Utility.buildTargetWithCache(context);
+    if (!context.config.remoteWorkers.isEmpty()) {
+      return new RemoteConflictGraphProcessor(context, runner, this);
+    }
     if (context.config.useParallelGraphProcessor) {
+      if (context.config.usePipelinedGraphProcessor) {
+        return new PipelinedConflictGraphProcessor(context, runner, this);
+      }
       return new ParallelConflictGraphProcessor(context, runner, this);
     }
     return new SequentialConflictGraphProcessor(context, runner, this);
@@ -99,4 +107,10 @@ public class TargetModuleSupplier extends AbstractSupplier {
   public ModuleInfo getModuleInfo() {
     return moduleInfo;
   }
+
+  @Override
+  public boolean isInterruptible() {
+    // Unfinished fixes of the target module are suggested again in the next run.
+    return true;
+  }
 }
@@ -24,6 +24,7 @@
 
 package edu.ucr.cs.riple.core.injectors;
 
+import com.google.common.collect.ImmutableSet;
 import edu.ucr.cs.riple.core.Context;
 import edu.ucr.cs.riple.core.registries.index.Fix;
 import edu.ucr.cs.riple.injector.changes.AddAnnotation;
@@ -66,6 +67,32 @@ public abstract class AnnotationInjector {
     injectAnnotations(fixes.stream().map(fix -> fix.change).collect(Collectors.toSet()));
   }
 
+  /**
+   * Prepares injection of fixes without modifying the source code. This method does not touch any
+   * state of the injector and can be called on a thread other than the one injecting annotations.
+   * Injectors which can not benefit from preparation, defer all the work to {@link
+   * #injectPreparedAnnotations}.
+   *
+   * @param fixes Set of fixes to prepare.
+   * @return Prepared annotations.
+   */
+  public PreparedAnnotations prepareAnnotations(Set<Fix> fixes) {
+    return new PreparedAnnotations(
+        fixes.stream().map(fix -> fix.change).collect(ImmutableSet.toImmutableSet()), null);
+  }
+
+  /**
+   * Injects annotations prepared by {@link #prepareAnnotations}.
+   *
+   * @param prepared Prepared annotations.
+   */
+  public void injectPreparedAnnotations(PreparedAnnotations prepared) {
+    if (prepared.annotations.size() == 0) {
+      return;
+    }
+    injectAnnotations(prepared.annotations);
+  }
+
   /**
    * Removes annotation from the source code.
    *
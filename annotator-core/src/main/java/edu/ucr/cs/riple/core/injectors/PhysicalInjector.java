@@ -24,7 +24,9 @@
 
 package edu.ucr.cs.riple.core.injectors;
 
+import com.google.common.collect.ImmutableSet;
 import edu.ucr.cs.riple.core.Context;
+import edu.ucr.cs.riple.core.registries.index.Fix;
 import edu.ucr.cs.riple.injector.Injector;
 import edu.ucr.cs.riple.injector.changes.AddAnnotation;
 import edu.ucr.cs.riple.injector.changes.RemoveAnnotation;
@@ -44,18 +46,41 @@ public class PhysicalInjector extends AnnotationInjector {
    */
   public PhysicalInjector(Context context) {
     super(context);
-    this.injector = new Injector();
+    this.injector = context.injector;
   }
 
   @Override
   public void removeAnnotations(Set<RemoveAnnotation> changes) {
     Set<FileOffsetStore> offsetStores = injector.removeAnnotations(changes);
     context.offsetHandler.updateStateWithRecentChanges(offsetStores);
+    context.buildResultCache.onChangesRemoved(changes);
+    context.appliedAnnotations.onRemoved(changes);
+  }
+
+  @Override
+  public PreparedAnnotations prepareAnnotations(Set<Fix> fixes) {
+    ImmutableSet<AddAnnotation> annotations =
+        fixes.stream().map(fix -> fix.change).collect(ImmutableSet.toImmutableSet());
+    return new PreparedAnnotations(annotations, injector.prepare(annotations));
+  }
+
+  @Override
+  public void injectPreparedAnnotations(PreparedAnnotations prepared) {
+    if (prepared.changes == null) {
+      super.injectPreparedAnnotations(prepared);
+      return;
+    }
+    Set<FileOffsetStore> offsetStores = injector.apply(prepared.changes);
+    context.offsetHandler.updateStateWithRecentChanges(offsetStores);
+    context.buildResultCache.onChangesInjected(prepared.annotations);
+    context.appliedAnnotations.onInjected(prepared.annotations);
   }
 
   @Override
   public void injectAnnotations(Set<AddAnnotation> changes) {
     Set<FileOffsetStore> offsetStores = injector.addAnnotations(changes);
     context.offsetHandler.updateStateWithRecentChanges(offsetStores);
+    context.buildResultCache.onChangesInjected(changes);
+    context.appliedAnnotations.onInjected(changes);
   }
 }
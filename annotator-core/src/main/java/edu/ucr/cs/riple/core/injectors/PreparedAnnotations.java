@@ -0,0 +1,49 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.injectors;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.injector.PreparedChanges;
+import edu.ucr.cs.riple.injector.changes.AddAnnotation;
+import javax.annotation.Nullable;
+
+/**
+ * Set of annotations prepared for injection by {@link AnnotationInjector#prepareAnnotations}. Must
+ * be injected via {@link AnnotationInjector#injectPreparedAnnotations}.
+ */
+public class PreparedAnnotations {
+
+  /** Annotations to be injected. */
+  public final ImmutableSet<AddAnnotation> annotations;
+  /**
+   * Precomputed changes on source files, {@code null} if the injector does not support preparation.
+   */
+  @Nullable final PreparedChanges changes;
+
+  PreparedAnnotations(ImmutableSet<AddAnnotation> annotations, @Nullable PreparedChanges changes) {
+    this.annotations = annotations;
+    this.changes = changes;
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.log;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.evaluators.graph.Node;
+import edu.ucr.cs.riple.injector.location.Location;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Online linear regression of build durations of conflict groups on features of the group, see
+ * {@link Features}. Each completed build is recorded with its features and the weights are
+ * recomputed lazily with ridge regularized least squares from the accumulated normal equations,
+ * therefore memory and time per recorded build are constant. Builds of different sets of modules
+ * are not comparable, each set of modules has its own model, see {@link
+ * Log#getBuildCostModel(ImmutableSet)}.
+ */
+public class BuildCostModel {
+
+  /** Number of weights, features followed by the intercept. */
+  private static final int DIMENSION = 3;
+  /** Minimum number of recorded builds before durations are estimated. */
+  private static final int MIN_SAMPLES = DIMENSION;
+  /** Regularization factor, keeps the normal equations solvable with few or collinear samples. */
+  private static final double RIDGE = 1e-3;
+
+  /** Accumulated products of feature vectors, left side of the normal equations. */
+  private final double[][] gram;
+  /** Accumulated products of feature vectors and durations, right side of the normal equations. */
+  private final double[] moments;
+  /** Number of recorded builds. */
+  private int samples;
+  /** Weights of the latest solution, {@code null} if a build is recorded since then. */
+  private double[] weights;
+
+  public BuildCostModel() {
+    this.gram = new double[DIMENSION][DIMENSION];
+    this.moments = new double[DIMENSION];
+    this.samples = 0;
+    this.weights = null;
+  }
+
+  /**
+   * Records the duration of a completed build.
+   *
+   * @param features Features of the built group.
+   * @param millis Duration of the build in milliseconds.
+   */
+  public synchronized void record(Features features, long millis) {
+    double[] x = features.toVector();
+    for (int i = 0; i < DIMENSION; i++) {
+      for (int j = 0; j < DIMENSION; j++) {
+        gram[i][j] += x[i] * x[j];
+      }
+      moments[i] += x[i] * millis;
+    }
+    samples++;
+    weights = null;
+  }
+
+  /**
+   * Estimates the duration of building a group with the given features.
+   *
+   * @param features Features of the group.
+   * @return Estimated duration in milliseconds, or -1 if not enough builds are recorded yet.
+   */
+  public synchronized long estimate(Features features) {
+    if (samples < MIN_SAMPLES) {
+      return -1;
+    }
+    if (weights == null) {
+      weights = solve();
+    }
+    double[] x = features.toVector();
+    double estimate = 0;
+    for (int i = 0; i < DIMENSION; i++) {
+      estimate += weights[i] * x[i];
+    }
+    return Math.max(0, Math.round(estimate));
+  }
+
+  /**
+   * Returns the number of recorded builds.
+   *
+   * @return Number of recorded builds.
+   */
+  public synchronized int getSamples() {
+    return samples;
+  }
+
+  /**
+   * Solves the regularized normal equations with Gaussian elimination and partial pivoting.
+   *
+   * @return Weights of the regression.
+   */
+  private double[] solve() {
+    double[][] a = new double[DIMENSION][DIMENSION + 1];
+    for (int i = 0; i < DIMENSION; i++) {
+      System.arraycopy(gram[i], 0, a[i], 0, DIMENSION);
+      a[i][i] += RIDGE;
+      a[i][DIMENSION] = moments[i];
+    }
+    for (int col = 0; col < DIMENSION; col++) {
+      int pivot = col;
+      for (int row = col + 1; row < DIMENSION; row++) {
+        if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+          pivot = row;
+        }
+      }
+      double[] swap = a[col];
+      a[col] = a[pivot];
+      a[pivot] = swap;
+      for (int row = col + 1; row < DIMENSION; row++) {
+        double factor = a[row][col] / a[col][col];
+        for (int k = col; k <= DIMENSION; k++) {
+          a[row][k] -= factor * a[col][k];
+        }
+      }
+    }
+    double[] solution = new double[DIMENSION];
+    for (int row = DIMENSION - 1; row >= 0; row--) {
+      double sum = a[row][DIMENSION];
+      for (int k = row + 1; k < DIMENSION; k++) {
+        sum -= a[row][k] * solution[k];
+      }
+      solution[row] = sum / a[row][row];
+    }
+    return solution;
+  }
+
+  /** Features of a conflict group which the duration of its build is regressed on. */
+  public static class Features {
+
+    /** Number of source files touched by the fixes of the group. */
+    public final int touchedFiles;
+    /** Number of regions potentially impacted by the nodes of the group. */
+    public final int impactedRegions;
+
+    public Features(int touchedFiles, int impactedRegions) {
+      this.touchedFiles = touchedFiles;
+      this.impactedRegions = impactedRegions;
+    }
+
+    /**
+     * Computes the features of the given group.
+     *
+     * @param group Nodes of the group.
+     * @return Features of the group.
+     */
+    public static Features of(Collection<Node> group) {
+      Set<Path> files = new HashSet<>();
+      int regions = 0;
+      for (Node node : group) {
+        files.addAll(touchedFiles(node));
+        regions += node.regions.size();
+      }
+      return new Features(files.size(), regions);
+    }
+
+    /**
+     * Returns the source files touched by the fix tree of the given node.
+     *
+     * @param node Node of a group.
+     * @return Set of touched source files.
+     */
+    public static Set<Path> touchedFiles(Node node) {
+      Set<Path> files = new HashSet<>();
+      node.tree.forEach(
+          fix -> {
+            Location location = fix.toLocation();
+            if (location.path != null) {
+              files.add(location.path);
+            }
+          });
+      return files;
+    }
+
+    /**
+     * Returns the feature vector followed by the intercept.
+     *
+     * @return Feature vector.
+     */
+    private double[] toVector() {
+      return new double[] {touchedFiles, impactedRegions, 1};
+    }
+  }
+}
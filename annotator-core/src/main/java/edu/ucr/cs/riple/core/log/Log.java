@@ -24,13 +24,20 @@
 
 package edu.ucr.cs.riple.core.log;
 
+import com.google.common.collect.ImmutableSet;
 import edu.ucr.cs.riple.core.evaluators.graph.ConflictGraph;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
 import edu.ucr.cs.riple.injector.changes.AddAnnotation;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-/** Log information for Annotator. */
+/**
+ * Log information for Annotator. Counters are updated under synchronization as builds for target
+ * and downstream dependencies may run concurrently.
+ */
 public class Log {
 
   /** Sum of number of nodes constructed in each {@link ConflictGraph}. */
@@ -46,6 +53,14 @@ public class Log {
    * not get removed from the source code.
    */
   private final List<AddAnnotation> injectedAnnotations = new ArrayList<>();
+  /** Duration of the last build captured on each thread, see {@link #takeLastBuildTime()}. */
+  private final ThreadLocal<Long> lastBuildTime = new ThreadLocal<>();
+  /**
+   * Models of build durations of conflict groups for each set of built modules, trained on builds
+   * observed through the run.
+   */
+  private final Map<ImmutableSet<ModuleConfiguration>, BuildCostModel> buildCostModels =
+      new ConcurrentHashMap<>();
 
   public Log() {
     this.reset();
@@ -87,7 +102,7 @@ public class Log {
    *
    * @param timer The return result of calling {@link Log#startTimer()}.
    */
-  public void stopTimerAndCapture(long timer) {
+  public synchronized void stopTimerAndCapture(long timer) {
     this.totalTime += System.currentTimeMillis() - timer;
   }
 
@@ -97,12 +112,38 @@ public class Log {
    *
    * @param timer The return result of calling {@link Log#startTimer()}.
    */
-  public void stopTimerAndCaptureBuildTime(long timer) {
-    this.buildTime += System.currentTimeMillis() - timer;
+  public synchronized void stopTimerAndCaptureBuildTime(long timer) {
+    long elapsed = System.currentTimeMillis() - timer;
+    this.buildTime += elapsed;
+    this.lastBuildTime.set(elapsed);
+  }
+
+  /**
+   * Returns the duration of the last build captured on the calling thread and clears it. Used to
+   * relate the duration of a build to its input, a build restored from the build result cache is
+   * not captured.
+   *
+   * @return Duration of the last build in milliseconds, or -1 if no build is captured on the
+   *     calling thread since the last call.
+   */
+  public long takeLastBuildTime() {
+    Long elapsed = lastBuildTime.get();
+    lastBuildTime.remove();
+    return elapsed == null ? -1 : elapsed;
+  }
+
+  /**
+   * Returns the model of build durations of conflict groups built with the given modules.
+   *
+   * @param modules Modules built for each group.
+   * @return Build cost model of the modules.
+   */
+  public BuildCostModel getBuildCostModel(ImmutableSet<ModuleConfiguration> modules) {
+    return buildCostModels.computeIfAbsent(modules, key -> new BuildCostModel());
   }
 
   /** Increments the number of build requests. */
-  public void incrementBuildRequest() {
+  public synchronized void incrementBuildRequest() {
     this.requested += 1;
   }
 
@@ -111,7 +152,7 @@ public class Log {
    *
    * @param numberOfNewNodesCreated Number of new nodes created in {@link ConflictGraph}.
    */
-  public void updateNodeNumber(long numberOfNewNodesCreated) {
+  public synchronized void updateNodeNumber(long numberOfNewNodesCreated) {
     this.nodes += numberOfNewNodesCreated;
   }
 
@@ -24,8 +24,11 @@
 
 package edu.ucr.cs.riple.core.module;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import edu.ucr.cs.riple.core.Context;
+import edu.ucr.cs.riple.core.registries.Registry;
+import edu.ucr.cs.riple.core.registries.RegistrySnapshot;
 import edu.ucr.cs.riple.core.registries.field.FieldRegistry;
 import edu.ucr.cs.riple.core.registries.index.NonnullStore;
 import edu.ucr.cs.riple.core.registries.method.MethodRegistry;
@@ -37,6 +40,10 @@ import edu.ucr.cs.riple.core.util.Utility;
 import edu.ucr.cs.riple.injector.location.Location;
 import edu.ucr.cs.riple.injector.location.OnClass;
 import edu.ucr.cs.riple.scanner.generatedcode.SourceType;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /** This class is used to store the code structural information about the module. */
 public class ModuleInfo {
@@ -82,15 +89,71 @@ public class ModuleInfo {
    */
   public ModuleInfo(
       Context context, ImmutableSet<ModuleConfiguration> configurations, String buildCommand) {
+    this(context, configurations, buildCommand, true);
+  }
+
+  /**
+   * This constructor is used to create a moduleInfo for a set of modules, optionally reusing the
+   * outputs of a previous scanner run on the same modules.
+   *
+   * @param context Annotator context.
+   * @param configurations The set of modules.
+   * @param buildCommand The command to build the passed modules.
+   * @param runScanner If false, registries are loaded from the outputs of a previous scanner run on
+   *     the passed modules.
+   */
+  public ModuleInfo(
+      Context context,
+      ImmutableSet<ModuleConfiguration> configurations,
+      String buildCommand,
+      boolean runScanner) {
     this.context = context;
     this.configurations = configurations;
-    // Build with scanner checker activated to generate required files to create the moduleInfo.
     context.checker.prepareConfigFilesForBuild(configurations);
-    Utility.runScannerChecker(context, configurations, buildCommand);
-    this.nonnullStore = new NonnullStore(configurations);
-    this.fieldRegistry = new FieldRegistry(configurations);
-    this.methodRegistry = new MethodRegistry(context);
-    this.regionRegistry = new CompoundRegionRegistry(this);
+    Path snapshotPath = getSnapshotPath();
+    String snapshotConfiguration = getSnapshotConfiguration(buildCommand);
+    RegistrySnapshot snapshot =
+        context.config.useRegistrySnapshot
+            ? RegistrySnapshot.load(snapshotPath, snapshotConfiguration)
+            : null;
+    if (snapshot == null && runScanner) {
+      // Build with scanner checker activated to generate required files to create the moduleInfo.
+      Utility.runScannerChecker(context, configurations, buildCommand);
+    }
+    // Method records are loaded from the target module, see MethodRegistry(Context). Modules
+    // created after the target module share its registry.
+    boolean isTargetModule = context.targetModuleInfo == null;
+    MethodRegistry sharedMethodRegistry =
+        isTargetModule ? null : context.targetModuleInfo.getMethodRegistry();
+    ModuleRegistries loaded =
+        new ModuleRegistries(
+            configurations,
+            () ->
+                sharedMethodRegistry == null
+                    ? new MethodRegistry(context, snapshot)
+                    : sharedMethodRegistry,
+            snapshot);
+    this.nonnullStore = loaded.nonnullStore;
+    this.fieldRegistry = loaded.fieldRegistry;
+    this.methodRegistry = loaded.methodRegistry;
+    this.regionRegistry =
+        new CompoundRegionRegistry(this, loaded.methodRegionRegistry, loaded.fieldRegionRegistry);
+    if (context.config.useRegistrySnapshot && snapshot == null) {
+      ImmutableList.Builder<Registry<?>> registries = ImmutableList.builder();
+      registries.add(
+          this.nonnullStore,
+          this.fieldRegistry,
+          regionRegistry.getMethodRegionRegistry(),
+          regionRegistry.getFieldRegionRegistry());
+      if (isTargetModule) {
+        registries.add(this.methodRegistry);
+      }
+      RegistrySnapshot.write(
+          snapshotPath,
+          snapshotConfiguration,
+          this.fieldRegistry.getSourceFiles(),
+          registries.build());
+    }
     ImmutableSet.Builder<AnnotationProcessorHandler> builder = new ImmutableSet.Builder<>();
     if (context.config.generatedCodeDetectors.contains(SourceType.LOMBOK)) {
       builder.add(new LombokHandler(this));
@@ -98,6 +161,61 @@ public class ModuleInfo {
     this.annotationProcessorHandlers = builder.build();
   }
 
+  /**
+   * Returns the path to the registry snapshot of the modules of this instance. Snapshots are stored
+   * outside module directories, as module directories are recreated on every run.
+   *
+   * @return Path to the registry snapshot.
+   */
+  private Path getSnapshotPath() {
+    String name =
+        configurations.stream()
+            .map(configuration -> configuration.dir.getFileName().toString())
+            .sorted()
+            .collect(Collectors.joining("-"));
+    return context
+        .config
+        .globalDir
+        .resolve(RegistrySnapshot.DIRECTORY_NAME)
+        .resolve(name + ".bin");
+  }
+
+  /**
+   * Returns the configuration of the scanner build the registries of this instance are loaded
+   * from, used to stamp the registry snapshot. Source files are stamped separately by the snapshot.
+   *
+   * @param buildCommand The command to build the modules.
+   * @return Configuration of the scanner build.
+   */
+  private String getSnapshotConfiguration(String buildCommand) {
+    List<String> values = new ArrayList<>();
+    values.add(String.valueOf(ModuleInfo.class.getPackage().getImplementationVersion()));
+    values.add(buildCommand);
+    values.add(String.valueOf(context.config.checkerName));
+    context.config.generatedCodeDetectors.stream().map(Enum::name).sorted().forEach(values::add);
+    configurations.stream()
+        .map(configuration -> configuration.dir.toString())
+        .sorted()
+        .forEach(values::add);
+    return String.join("\n", values);
+  }
+
+  /**
+   * Reruns the scanner checker on the modules and refreshes all registries with its outputs. If
+   * scanner outputs are incremental, only the outputs of the recompiled source files are read
+   * again, see {@link edu.ucr.cs.riple.core.registries.Registry#refresh()}.
+   *
+   * @param buildCommand The command to build the modules.
+   */
+  public void refresh(String buildCommand) {
+    context.checker.prepareConfigFilesForBuild(configurations);
+    Utility.runScannerChecker(context, configurations, buildCommand);
+    nonnullStore.refresh();
+    fieldRegistry.refresh();
+    methodRegistry.refresh();
+    regionRegistry.refresh();
+  }
+
   /**
    * Getter for the created {@link FieldRegistry} instance.
    *
@@ -171,6 +289,18 @@ public class ModuleInfo {
     return methodRegistry.declaredInModule(location);
   }
 
+  /**
+   * Checks if the modules of this moduleInfo depend on the modules of the passed moduleInfo, that
+   * is if any region of these modules uses a member of a class declared in the other modules.
+   *
+   * @param other The other moduleInfo.
+   * @return True if these modules use a class declared in the other modules.
+   */
+  public boolean dependsOn(ModuleInfo other) {
+    return other.fieldRegistry.getDeclaredClasses().stream()
+        .anyMatch(regionRegistry::usesMembersOf);
+  }
+
   /**
    * Creates a {@link edu.ucr.cs.riple.injector.location.OnClass} instance targeting the passed
    * classes flat name.
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.module;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.registries.RegistrySnapshot;
+import edu.ucr.cs.riple.core.registries.field.FieldRegistry;
+import edu.ucr.cs.riple.core.registries.index.NonnullStore;
+import edu.ucr.cs.riple.core.registries.method.MethodRegistry;
+import edu.ucr.cs.riple.core.registries.region.FieldRegionRegistry;
+import edu.ucr.cs.riple.core.registries.region.MethodRegionRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Registries of a set of modules, loaded concurrently. Registries are loaded from independent
+ * scanner outputs with blocking file reads and parsing of source files, therefore they are loaded
+ * on a dedicated bounded thread pool rather than the common pool used by parallel streams. Region
+ * registries receive the registries they query as suppliers which wait for those registries to be
+ * loaded, and never reference the module info being created.
+ */
+class ModuleRegistries {
+
+  /** Maximum number of threads loading registries of a set of modules. */
+  static final int MAX_THREADS = 4;
+
+  /** Nonnull store of the modules. */
+  final NonnullStore nonnullStore;
+  /** Field registry of the modules. */
+  final FieldRegistry fieldRegistry;
+  /** Method registry of the modules. */
+  final MethodRegistry methodRegistry;
+  /** Method region registry of the modules. */
+  final MethodRegionRegistry methodRegionRegistry;
+  /** Field region registry of the modules. */
+  final FieldRegionRegistry fieldRegionRegistry;
+
+  /**
+   * Loads registries of the given modules, returns once all registries are loaded. Failures while
+   * loading are rethrown as is.
+   *
+   * @param configurations The set of modules.
+   * @param methodRegistryLoader Loads the method registry of the modules, e.g. returns an already
+   *     loaded registry shared by the modules.
+   * @param snapshot Snapshot of registries, or null if no snapshot is available.
+   */
+  ModuleRegistries(
+      ImmutableSet<ModuleConfiguration> configurations,
+      Supplier<MethodRegistry> methodRegistryLoader,
+      @Nullable RegistrySnapshot snapshot) {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()),
+            runnable -> {
+              Thread thread = new Thread(runnable, "registry-loader");
+              thread.setDaemon(true);
+              return thread;
+            });
+    try {
+      CompletableFuture<NonnullStore> nonnullStore =
+          CompletableFuture.supplyAsync(() -> new NonnullStore(configurations, snapshot), executor);
+      CompletableFuture<FieldRegistry> fieldRegistry =
+          CompletableFuture.supplyAsync(
+              () -> new FieldRegistry(configurations, snapshot), executor);
+      CompletableFuture<MethodRegistry> methodRegistry =
+          CompletableFuture.supplyAsync(methodRegistryLoader, executor);
+      CompletableFuture<MethodRegionRegistry> methodRegionRegistry =
+          CompletableFuture.supplyAsync(
+              () ->
+                  new MethodRegionRegistry(configurations, () -> join(methodRegistry), snapshot),
+              executor);
+      CompletableFuture<FieldRegionRegistry> fieldRegionRegistry =
+          CompletableFuture.supplyAsync(
+              () ->
+                  new FieldRegionRegistry(
+                      configurations,
+                      () -> join(fieldRegistry),
+                      () -> join(methodRegistry),
+                      snapshot),
+              executor);
+      this.nonnullStore = join(nonnullStore);
+      this.fieldRegistry = join(fieldRegistry);
+      this.methodRegistry = join(methodRegistry);
+      this.methodRegionRegistry = join(methodRegionRegistry);
+      this.fieldRegionRegistry = join(fieldRegionRegistry);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for the given registry to be loaded and returns it. Failures while loading are rethrown
+   * as is.
+   *
+   * @param registry Registry being loaded.
+   * @return The loaded registry.
+   * @param <T> Type of the registry.
+   */
+  private static <T> T join(CompletableFuture<T> registry) {
+    try {
+      return registry.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.registries;
+
+import edu.ucr.cs.riple.scanner.BinaryTableWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reader of binary tables written by {@link BinaryTableWriter}. The file is memory mapped and rows
+ * are decoded directly from the mapped buffer. Each string is decoded once per writer and shared by
+ * all rows referring to it.
+ */
+final class BinaryTableReader {
+
+  private BinaryTableReader() {}
+
+  /**
+   * Reads all rows of the binary table at the given path. A trailing incomplete frame, left by a
+   * writer which has not finished writing, is ignored.
+   *
+   * @param path Path to the binary table.
+   * @param consumer Consumer of the rows.
+   * @throws IOException if the file cannot be read.
+   */
+  static void read(Path path, Consumer<String[]> consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Binary table is too large to be mapped: " + path);
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (buffer.remaining() < 2 * Integer.BYTES
+          || buffer.getInt() != BinaryTableWriter.MAGIC
+          || buffer.getInt() != BinaryTableWriter.VERSION) {
+        throw new IOException("Unsupported binary table format at: " + path);
+      }
+      // String tables of each writer, string ids are assigned sequentially per writer.
+      Map<Long, List<String>> stringTables = new HashMap<>();
+      while (buffer.remaining() >= Integer.BYTES) {
+        int frameLength = buffer.getInt();
+        if (frameLength > buffer.remaining()) {
+          break;
+        }
+        ByteBuffer frame = buffer.slice();
+        frame.limit(frameLength);
+        buffer.position(buffer.position() + frameLength);
+        List<String> strings =
+            stringTables.computeIfAbsent(frame.getLong(), writer -> new ArrayList<>());
+        int definitions = frame.getInt();
+        for (int i = 0; i < definitions; i++) {
+          int id = frame.getInt();
+          byte[] bytes = new byte[frame.getInt()];
+          frame.get(bytes);
+          if (id != strings.size()) {
+            throw new IOException("Corrupted string table in binary table at: " + path);
+          }
+          strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        String[] row = new String[frame.getInt()];
+        for (int i = 0; i < row.length; i++) {
+          row[i] = strings.get(frame.getInt());
+        }
+        consumer.accept(row);
+      }
+    }
+  }
+}
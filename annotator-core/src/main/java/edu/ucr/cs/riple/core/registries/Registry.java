@@ -24,14 +24,27 @@
 
 package edu.ucr.cs.riple.core.registries;
 
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import edu.ucr.cs.riple.scanner.BinaryTableWriter;
+import edu.ucr.cs.riple.scanner.Serializer;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 
@@ -44,6 +57,19 @@ import javax.annotation.Nullable;
  * must call {@link Registry#setup()}. Please note that this class anticipates that the file exits
  * at the given paths and does not attempt to create it. Before creating an instance, please make
  * sure that the file exists.
+ *
+ * <p>If the scanner outputs are sharded, files with the same name as the given file in all shard
+ * directories next to it are loaded instead, see {@link Serializer#SHARDS_DIRECTORY_NAME}.
+ * Similarly, if the scanner outputs are incremental, files in all unit directories are loaded, see
+ * {@link Serializer#UNITS_DIRECTORY_NAME}. Rows of unit files are retained, so that {@link
+ * Registry#refresh()} only reads the units rewritten by a later scanner run. The same record can be
+ * written by several compiler instances (e.g. a class compiled in two shards), hence equal records
+ * are stored once.
+ *
+ * <p>Registries can be queried concurrently (e.g. by the downstream dependency analysis running in
+ * background), {@link Registry#refresh()} waits for running queries and blocks new queries until
+ * all records and the state derived by subclasses are rebuilt. Subclass queries reading derived
+ * state must run through {@link Registry#read(Supplier)}.
  */
 public abstract class Registry<T> {
 
@@ -52,7 +78,13 @@ public abstract class Registry<T> {
    * an identical hash, therefore it is of type {@link ImmutableMultimap} ({@link
    * java.util.HashMap}) to hold both items.
    */
-  protected final ImmutableMultimap<Integer, T> contents;
+  protected ImmutableMultimap<Integer, T> contents;
+  /** Paths to all files containing data. */
+  private final ImmutableSet<Path> paths;
+  /** Rows of the loaded unit files with their last modified time at loading, keyed by path. */
+  private final Map<Path, UnitRows> unitRows;
+  /** Lock guarding contents and derived state, held for writing while refreshing. */
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
   /**
    * Constructor for this container. Once this constructor is invoked, all data will be loaded from
@@ -61,14 +93,7 @@ public abstract class Registry<T> {
    * @param path Path to the file containing the data.
    */
   public Registry(Path path) {
-    ImmutableMultimap.Builder<Integer, T> builder = ImmutableMultimap.builder();
-    setup();
-    try {
-      populateContent(path, builder);
-    } catch (IOException e) {
-      throw new RuntimeException("Error happened while loading content of file: " + path, e);
-    }
-    this.contents = builder.build();
+    this(ImmutableSet.of(path));
   }
 
   /**
@@ -78,19 +103,170 @@ public abstract class Registry<T> {
    * @param paths Paths to all files containing data.
    */
   public Registry(ImmutableSet<Path> paths) {
-    ImmutableMultimap.Builder<Integer, T> builder = ImmutableMultimap.builder();
+    this(paths, null);
+  }
+
+  /**
+   * Constructor for this container. If the given snapshot contains the records of this registry,
+   * contents are restored from the snapshot, otherwise, all data will be loaded from the files.
+   *
+   * @param paths Paths to all files containing data.
+   * @param snapshot Snapshot of registries, or null if no snapshot is available.
+   */
+  public Registry(ImmutableSet<Path> paths, @Nullable RegistrySnapshot snapshot) {
+    this.paths = paths;
+    this.unitRows = new HashMap<>();
+    ImmutableList<String[]> rows = snapshot == null ? null : snapshot.getRows(getClass());
+    if (rows == null) {
+      refresh();
+      return;
+    }
+    ImmutableMultimap.Builder<Integer, T> builder = ImmutableSetMultimap.builder();
+    setup();
+    Builder<T> recordBuilder = getBuilder();
+    rows.forEach(row -> addRecord(recordBuilder.build(row), builder));
+    this.contents = builder.build();
+  }
+
+  /**
+   * Reloads the contents after a new scanner run. Files of units which are not rewritten since the
+   * last load are not read again, rows of units which are removed are dropped and rows of new or
+   * rewritten units are read. All records are then rebuilt, so that subclasses can recompute their
+   * derived state in {@link Registry#setup()} and {@link Registry#getBuilder()}. Concurrent
+   * queries are blocked until the refresh is finished.
+   */
+  public void refresh() {
+    lock.writeLock().lock();
+    try {
+      reload();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Reloads the contents, see {@link Registry#refresh()}. Must hold the write lock. */
+  private void reload() {
+    ImmutableMultimap.Builder<Integer, T> builder = ImmutableSetMultimap.builder();
     setup();
-    paths.forEach(
-        path -> {
-          try {
-            populateContent(path, builder);
-          } catch (IOException e) {
-            throw new RuntimeException("Error happened while loading content of file: " + path, e);
-          }
-        });
+    Builder<T> recordBuilder = getBuilder();
+    Set<Path> loaded = new HashSet<>();
+    paths.stream()
+        .flatMap(path -> resolveFiles(path).stream())
+        .forEach(
+            path -> {
+              try {
+                if (isUnitFile(path)) {
+                  loaded.add(path);
+                  for (String[] row : loadUnitRows(path)) {
+                    addRecord(recordBuilder.build(row), builder);
+                  }
+                } else {
+                  populateContent(path, builder);
+                }
+              } catch (IOException e) {
+                throw new RuntimeException(
+                    "Error happened while loading content of file: " + path, e);
+              }
+            });
+    unitRows.keySet().retainAll(loaded);
     this.contents = builder.build();
   }
 
+  /**
+   * Returns rows of the given unit file, reading the file only if it is new or rewritten since the
+   * last load.
+   *
+   * @param path Path to the unit file.
+   * @return Rows of the unit file.
+   * @throws IOException if file not is found.
+   */
+  private ImmutableList<String[]> loadUnitRows(Path path) throws IOException {
+    FileTime modificationTime = Files.getLastModifiedTime(path);
+    Path binary = BinaryTableWriter.binaryPathOf(path);
+    if (Files.exists(binary)) {
+      FileTime binaryModificationTime = Files.getLastModifiedTime(binary);
+      if (binaryModificationTime.compareTo(modificationTime) > 0) {
+        modificationTime = binaryModificationTime;
+      }
+    }
+    UnitRows cached = unitRows.get(path);
+    if (cached != null && cached.modificationTime.equals(modificationTime)) {
+      return cached.rows;
+    }
+    ImmutableList.Builder<String[]> rows = ImmutableList.builder();
+    readRows(path, rows::add);
+    UnitRows loaded = new UnitRows(modificationTime, rows.build());
+    unitRows.put(path, loaded);
+    return loaded.rows;
+  }
+
+  /**
+   * Checks if the given file is located in a unit directory of incremental scanner outputs.
+   *
+   * @param path Path to the file.
+   * @return true, if the file is a unit file.
+   */
+  private static boolean isUnitFile(Path path) {
+    Path unit = path.getParent();
+    Path units = unit == null ? null : unit.getParent();
+    return units != null && units.endsWith(Serializer.UNITS_DIRECTORY_NAME);
+  }
+
+  /**
+   * Returns the rows of all records in this registry, see {@link Registry#toRow(Object)}.
+   *
+   * @return Rows of all records.
+   */
+  public ImmutableList<String[]> toRows() {
+    return read(
+        () ->
+            contents.values().stream()
+                .map(this::toRow)
+                .collect(ImmutableList.toImmutableList()));
+  }
+
+  /**
+   * Converts the given record to a row which the {@link Builder} of this registry can build an
+   * equal record from, without any expensive processing (e.g. parsing source files). Used to store
+   * registries in a {@link RegistrySnapshot}.
+   *
+   * @param record Record of this registry.
+   * @return Row of the record.
+   */
+  protected abstract String[] toRow(T record);
+
+  /**
+   * Returns paths to all files containing the data of the given file. If the scanner outputs are
+   * incremental or sharded, returns files with the same name in all unit or shard directories next
+   * to the given file, otherwise, returns the given file.
+   *
+   * @param path Path to the file.
+   * @return Paths to all files containing the data of the given file.
+   */
+  private static ImmutableList<Path> resolveFiles(Path path) {
+    for (String name :
+        ImmutableList.of(Serializer.UNITS_DIRECTORY_NAME, Serializer.SHARDS_DIRECTORY_NAME)) {
+      Path directory = path.resolveSibling(name);
+      if (!Files.isDirectory(directory)) {
+        continue;
+      }
+      try (Stream<Path> subDirectories = Files.list(directory)) {
+        ImmutableList<Path> files =
+            subDirectories
+                .sorted()
+                .map(subDirectory -> subDirectory.resolve(path.getFileName()))
+                .filter(Files::exists)
+                .collect(ImmutableList.toImmutableList());
+        if (!files.isEmpty()) {
+          return files;
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Error happened while listing files at: " + directory, e);
+      }
+    }
+    return ImmutableList.of(path);
+  }
+
   /**
    * Subclasses can override this method to perform any initialization before loading data from the
    * file.
@@ -105,22 +281,47 @@ public abstract class Registry<T> {
    */
   protected void populateContent(Path path, ImmutableMultimap.Builder<Integer, T> builder)
       throws IOException {
-    try (BufferedReader reader =
-        Files.newBufferedReader(path.toFile().toPath(), Charset.defaultCharset())) {
-      Builder<T> recordBuilder = getBuilder();
+    Builder<T> recordBuilder = getBuilder();
+    readRows(path, row -> addRecord(recordBuilder.build(row), builder));
+  }
+
+  /**
+   * Reads all rows of the given file excluding the header. If the scanner outputs are binary, rows
+   * are read from the corresponding binary table as well, see {@link BinaryTableWriter}.
+   *
+   * @param path Path to the file containing data.
+   * @param consumer Consumer of the rows.
+   * @throws IOException if file not is found.
+   */
+  private static void readRows(Path path, Consumer<String[]> consumer) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(path, Charset.defaultCharset())) {
       String line = reader.readLine();
       if (line != null) {
         // Skip header
         line = reader.readLine();
       }
       while (line != null) {
-        T record = recordBuilder.build(line.split("\t"));
-        if (record != null) {
-          builder.put(record.hashCode(), record);
-        }
+        consumer.accept(line.split("\t"));
         line = reader.readLine();
       }
     }
+    Path binary = BinaryTableWriter.binaryPathOf(path);
+    if (Files.exists(binary)) {
+      BinaryTableReader.read(binary, consumer);
+    }
+  }
+
+  /**
+   * Adds the given record to the given builder if not null. Builders of contents are set multimap
+   * builders, hence records equal to an already added record are dropped.
+   *
+   * @param record Record to add.
+   * @param builder Builder of the contents.
+   */
+  private void addRecord(@Nullable T record, ImmutableMultimap.Builder<Integer, T> builder) {
+    if (record != null) {
+      builder.put(record.hashCode(), record);
+    }
   }
 
   /**
@@ -152,10 +353,9 @@ public abstract class Registry<T> {
    * @return Corresponding stream of {@code T}.
    */
   protected Stream<T> findRecordsWithHashHint(Predicate<T> c, int hash) {
-    if (!contents.containsKey(hash)) {
-      return Stream.of();
-    }
-    return contents.get(hash).stream().filter(c);
+    // Contents are immutable, the retrieved records are not affected by a later refresh.
+    ImmutableCollection<T> candidates = read(() -> contents.get(hash));
+    return candidates.stream().filter(c);
   }
 
   /**
@@ -167,7 +367,39 @@ public abstract class Registry<T> {
    * @return Corresponding stream of {@code T}.
    */
   protected Stream<T> findRecords(Predicate<T> c) {
-    return contents.values().stream().filter(c);
+    ImmutableCollection<T> candidates = read(() -> contents.values());
+    return candidates.stream().filter(c);
+  }
+
+  /**
+   * Runs the given query while no refresh is in progress. Refreshes started while the query is
+   * running wait for the query to finish.
+   *
+   * @param query Query on contents or state derived by subclasses.
+   * @return Result of the query.
+   * @param <R> Type of the result.
+   */
+  protected <R> R read(Supplier<R> query) {
+    lock.readLock().lock();
+    try {
+      return query.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Rows of a unit file with its last modified time at loading. */
+  private static class UnitRows {
+
+    /** Last modified time of the file at loading. */
+    private final FileTime modificationTime;
+    /** Rows of the file excluding the header. */
+    private final ImmutableList<String[]> rows;
+
+    private UnitRows(FileTime modificationTime, ImmutableList<String[]> rows) {
+      this.modificationTime = modificationTime;
+      this.rows = rows;
+    }
   }
 
   /**
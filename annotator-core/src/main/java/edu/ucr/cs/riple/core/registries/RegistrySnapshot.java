@@ -0,0 +1,328 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.registries;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * Snapshot of the records of fully loaded registries, stored in a versioned binary file. The
+ * snapshot is stamped with a digest of the inputs of the scanner build the registries are loaded
+ * from: the build configuration, the source files of the module and the listings of the directories
+ * containing them. The snapshot is only used if the digest matches on the next run, in which case
+ * the scanner build is skipped. Registries restored from a snapshot rebuild their indexes from the
+ * stored records without reading scanner outputs or parsing source files, see {@link
+ * Registry#toRow}.
+ */
+public class RegistrySnapshot {
+
+  /** Name of the directory in the output directory containing snapshots of all modules. */
+  public static final String DIRECTORY_NAME = "registry-snapshots";
+  /** Magic number at the beginning of every snapshot. */
+  private static final int MAGIC = 0x4e415253;
+  /**
+   * Version of the snapshot encoding, must be updated whenever the encoding or the rows of any
+   * registry change.
+   */
+  private static final int VERSION = 2;
+  /** Rows of each registry keyed by the registry class name. */
+  private final ImmutableMap<String, ImmutableList<String[]>> sections;
+
+  private RegistrySnapshot(ImmutableMap<String, ImmutableList<String[]>> sections) {
+    this.sections = sections;
+  }
+
+  /**
+   * Returns the stored rows of the given registry.
+   *
+   * @param registry Class of the registry.
+   * @return Stored rows, or null if the registry is not stored in this snapshot.
+   */
+  @Nullable
+  ImmutableList<String[]> getRows(Class<?> registry) {
+    return sections.get(registry.getName());
+  }
+
+  /**
+   * Loads the snapshot at the given path if it is compatible with this version and its digest
+   * matches the given configuration and the current state of the stored source files.
+   *
+   * @param path Path to the snapshot.
+   * @param configuration Configuration of the scanner build the registries are loaded from.
+   * @return The loaded snapshot, or null if the snapshot does not exist, is outdated or corrupted.
+   */
+  @Nullable
+  public static RegistrySnapshot load(Path path, String configuration) {
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return null;
+      }
+      byte[] digest = new byte[in.readInt()];
+      in.readFully(digest);
+      ImmutableSet.Builder<Path> sources = ImmutableSet.builder();
+      int sourcesCount = in.readInt();
+      for (int i = 0; i < sourcesCount; i++) {
+        sources.add(Paths.get(readString(in)));
+      }
+      if (!Arrays.equals(digest, digest(configuration, sources.build()))) {
+        return null;
+      }
+      ImmutableMap.Builder<String, ImmutableList<String[]>> sections = ImmutableMap.builder();
+      int sectionsCount = in.readInt();
+      for (int i = 0; i < sectionsCount; i++) {
+        String name = readString(in);
+        int rowsCount = in.readInt();
+        ImmutableList.Builder<String[]> rows = ImmutableList.builderWithExpectedSize(rowsCount);
+        for (int j = 0; j < rowsCount; j++) {
+          String[] row = new String[in.readInt()];
+          for (int k = 0; k < row.length; k++) {
+            row[k] = readString(in);
+          }
+          rows.add(row);
+        }
+        sections.put(name, rows.build());
+      }
+      return new RegistrySnapshot(sections.build());
+    } catch (IOException | RuntimeException e) {
+      // Corrupted snapshot, registries are loaded from scanner outputs and the snapshot is
+      // rewritten.
+      return null;
+    }
+  }
+
+  /**
+   * Writes a snapshot of the given registries at the given path. The snapshot is written to a
+   * temporary file first and then moved, so that a partially written snapshot is never loaded.
+   *
+   * @param path Path to the snapshot.
+   * @param configuration Configuration of the scanner build the registries are loaded from.
+   * @param sources Paths to all source files of the module.
+   * @param registries Registries to store.
+   */
+  public static void write(
+      Path path,
+      String configuration,
+      ImmutableSet<Path> sources,
+      ImmutableList<? extends Registry<?>> registries) {
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(path.getParent());
+    } catch (IOException e) {
+      throw new RuntimeException("Could not create directory for registry snapshot at: " + path, e);
+    }
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      byte[] digest = digest(configuration, sources);
+      out.writeInt(digest.length);
+      out.write(digest);
+      out.writeInt(sources.size());
+      for (Path source : sources) {
+        writeString(out, source.toString());
+      }
+      out.writeInt(registries.size());
+      for (Registry<?> registry : registries) {
+        writeString(out, registry.getClass().getName());
+        ImmutableList<String[]> rows = registry.toRows();
+        out.writeInt(rows.size());
+        for (String[] row : rows) {
+          out.writeInt(row.length);
+          for (String value : row) {
+            writeString(out, value);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not write registry snapshot at: " + temp, e);
+    }
+    try {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not move registry snapshot to: " + path, e);
+    }
+  }
+
+  /**
+   * Computes the digest of the given configuration, the paths and contents of the given source
+   * files and the listings of the directories containing them up to their closest common ancestor.
+   * Missing files are included with a marker, and listings are included so that creation of a
+   * source file next to the known ones invalidates the digest.
+   *
+   * @param configuration Configuration of the scanner build.
+   * @param sources Paths to source files.
+   * @return SHA-256 digest of the given inputs.
+   * @throws IOException if a file cannot be read.
+   */
+  private static byte[] digest(String configuration, ImmutableSet<Path> sources)
+      throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("SHA-256 is not supported", e);
+    }
+    writeString(digest, configuration);
+    byte[] buffer = new byte[1 << 16];
+    for (Path file : sorted(sources)) {
+      writeString(digest, file.toString());
+      if (!Files.exists(file)) {
+        digest.update((byte) 0);
+        continue;
+      }
+      digest.update((byte) 1);
+      try (InputStream in = Files.newInputStream(file)) {
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+          digest.update(buffer, 0, read);
+        }
+      }
+    }
+    for (Path directory : sorted(getSourceDirectories(sources))) {
+      writeString(digest, directory.toString());
+      if (!Files.isDirectory(directory)) {
+        digest.update((byte) 0);
+        continue;
+      }
+      digest.update((byte) 1);
+      try (Stream<Path> entries = Files.list(directory)) {
+        for (Path entry : sorted(entries.collect(Collectors.toSet()))) {
+          writeString(digest, entry.getFileName().toString());
+        }
+      }
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Returns the directories containing the given source files and all their ancestors up to the
+   * closest common ancestor of all source files.
+   *
+   * @param sources Paths to source files.
+   * @return Directories containing the source files.
+   */
+  private static ImmutableSet<Path> getSourceDirectories(ImmutableSet<Path> sources) {
+    Path root = null;
+    boolean first = true;
+    for (Path source : sources) {
+      Path parent = source.toAbsolutePath().getParent();
+      if (parent == null) {
+        continue;
+      }
+      if (first) {
+        root = parent;
+        first = false;
+      }
+      while (root != null && !parent.startsWith(root)) {
+        root = root.getParent();
+      }
+    }
+    ImmutableSet.Builder<Path> directories = ImmutableSet.builder();
+    for (Path source : sources) {
+      for (Path directory = source.toAbsolutePath().getParent();
+          directory != null && root != null && directory.startsWith(root);
+          directory = directory.getParent()) {
+        directories.add(directory);
+      }
+    }
+    return directories.build();
+  }
+
+  /**
+   * Returns the given paths sorted by their string representation.
+   *
+   * @param paths Paths to sort.
+   * @return Sorted paths.
+   */
+  private static List<Path> sorted(Set<Path> paths) {
+    return paths.stream()
+        .sorted(Comparator.comparing(Path::toString))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Updates the given digest with the given string and its length.
+   *
+   * @param digest Digest to update.
+   * @param value String to add.
+   */
+  private static void writeString(MessageDigest digest, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+    digest.update(bytes);
+  }
+
+  /**
+   * Writes the given string as its length followed by its UTF-8 bytes.
+   *
+   * @param out Output stream.
+   * @param value String to write.
+   * @throws IOException if writing fails.
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+   *
+   * @param in Input stream.
+   * @return The read string.
+   * @throws IOException if reading fails.
+   */
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
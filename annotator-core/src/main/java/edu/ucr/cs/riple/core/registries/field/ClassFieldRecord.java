@@ -93,7 +93,16 @@ public class ClassFieldRecord {
    * @param fieldDeclaration Field declaration to add.
    */
   public void addFieldDeclaration(FieldDeclaration fieldDeclaration) {
-    this.fields.add(new FieldDeclarationRecord(fieldDeclaration));
+    addFieldDeclaration(new FieldDeclarationRecord(fieldDeclaration));
+  }
+
+  /**
+   * Adds a field declaration record to this record.
+   *
+   * @param fieldDeclarationRecord Field declaration record to add.
+   */
+  public void addFieldDeclaration(FieldDeclarationRecord fieldDeclarationRecord) {
+    this.fields.add(fieldDeclarationRecord);
   }
 
   /**
@@ -120,10 +129,11 @@ public class ClassFieldRecord {
 
     /** Name of all fields declared within the same statement. */
     public final ImmutableSet<String> names;
-    /** Type of the field. */
-    public final Type type;
-    /** Field declaration node. */
-    public final FieldDeclaration fieldDeclaration;
+    /**
+     * True if the field declaration is public and has non-primitive type. Computed at creation, so
+     * that the parsed field declaration does not need to be retained.
+     */
+    private final boolean isPublicFieldWithNonPrimitiveType;
 
     public FieldDeclarationRecord(FieldDeclaration fieldDeclaration) {
       this.names =
@@ -131,8 +141,15 @@ public class ClassFieldRecord {
               .map(NodeWithSimpleName::getNameAsString)
               .collect(ImmutableSet.toImmutableSet());
       Preconditions.checkArgument(fieldDeclaration.getVariables().getFirst().isPresent());
-      this.type = fieldDeclaration.getVariables().getFirst().get().getType();
-      this.fieldDeclaration = fieldDeclaration;
+      Type type = fieldDeclaration.getVariables().getFirst().get().getType();
+      this.isPublicFieldWithNonPrimitiveType =
+          fieldDeclaration.isPublic() && !type.isPrimitiveType();
+    }
+
+    public FieldDeclarationRecord(
+        ImmutableSet<String> names, boolean isPublicFieldWithNonPrimitiveType) {
+      this.names = names;
+      this.isPublicFieldWithNonPrimitiveType = isPublicFieldWithNonPrimitiveType;
     }
 
     /**
@@ -141,7 +158,7 @@ public class ClassFieldRecord {
      * @return true, if the field declaration is public and has non-primitive type.
      */
     public boolean isPublicFieldWithNonPrimitiveType() {
-      return fieldDeclaration.isPublic() && !type.isPrimitiveType();
+      return isPublicFieldWithNonPrimitiveType;
     }
   }
 }
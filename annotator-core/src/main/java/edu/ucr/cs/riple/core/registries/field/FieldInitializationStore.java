@@ -28,6 +28,7 @@ import com.google.common.base.Preconditions;
 import edu.ucr.cs.riple.core.Context;
 import edu.ucr.cs.riple.core.registries.Registry;
 import edu.ucr.cs.riple.injector.location.Location;
+import edu.ucr.cs.riple.injector.location.LocationKind;
 import edu.ucr.cs.riple.injector.location.OnField;
 import edu.ucr.cs.riple.injector.location.OnMethod;
 import java.nio.file.Path;
@@ -112,6 +113,19 @@ public class FieldInitializationStore extends Registry<FieldInitializationNode>
     };
   }
 
+  @Override
+  protected String[] toRow(FieldInitializationNode node) {
+    return new String[] {
+      LocationKind.METHOD.name(),
+      node.getClassName(),
+      node.getInitializerMethod(),
+      "null",
+      "null",
+      node.getPath().toString(),
+      node.getFieldName()
+    };
+  }
+
   /** Stores class field / method initialization status. */
   @SuppressWarnings("JavaLangClash")
   private static class Class {
@@ -34,6 +34,7 @@ import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Sets;
 import edu.ucr.cs.riple.core.module.ModuleConfiguration;
 import edu.ucr.cs.riple.core.registries.Registry;
+import edu.ucr.cs.riple.core.registries.RegistrySnapshot;
 import edu.ucr.cs.riple.injector.Helper;
 import edu.ucr.cs.riple.injector.Injector;
 import edu.ucr.cs.riple.injector.exceptions.TargetClassNotFound;
@@ -42,9 +43,14 @@ import edu.ucr.cs.riple.injector.location.OnClass;
 import edu.ucr.cs.riple.injector.location.OnField;
 import edu.ucr.cs.riple.scanner.Serializer;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 /**
@@ -78,10 +84,23 @@ public class FieldRegistry extends Registry<ClassFieldRecord> {
    * @param modules Information of set of modules.
    */
   public FieldRegistry(ImmutableSet<ModuleConfiguration> modules) {
+    this(modules, null);
+  }
+
+  /**
+   * Constructor for {@link FieldRegistry}. Contents are restored from the given snapshot if it
+   * contains this registry, otherwise, they are accumulated from multiple sources.
+   *
+   * @param modules Information of set of modules.
+   * @param snapshot Snapshot of registries, or null if no snapshot is available.
+   */
+  public FieldRegistry(
+      ImmutableSet<ModuleConfiguration> modules, @Nullable RegistrySnapshot snapshot) {
     super(
         modules.stream()
             .map(info -> info.dir.resolve(Serializer.CLASS_RECORD_FILE_NAME))
-            .collect(ImmutableSet.toImmutableSet()));
+            .collect(ImmutableSet.toImmutableSet()),
+        snapshot);
   }
 
   @Override
@@ -97,6 +116,10 @@ public class FieldRegistry extends Registry<ClassFieldRecord> {
       String clazz = values[0];
       // Path to class.
       Path path = Helper.deserializePath(values[1]);
+      if (values.length > 2) {
+        // Row is restored from a snapshot and already contains the field declarations.
+        return restoreRecord(clazz, path, values);
+      }
       CompilationUnit tree = Injector.parse(path);
       if (tree == null) {
         return null;
@@ -135,6 +158,66 @@ public class FieldRegistry extends Registry<ClassFieldRecord> {
     };
   }
 
+  /**
+   * Restores a record from a row created by {@link #toRow(ClassFieldRecord)} without parsing the
+   * source file.
+   *
+   * @param clazz Flat name of the class.
+   * @param path Path to the source file containing the class.
+   * @param values Row of the record.
+   * @return The restored record.
+   */
+  private ClassFieldRecord restoreRecord(String clazz, Path path, String[] values) {
+    ClassFieldRecord record = new ClassFieldRecord(path, clazz);
+    int count = Integer.parseInt(values[2]);
+    for (int i = 0; i < count; i++) {
+      int index = 3 + 3 * i;
+      record.addFieldDeclaration(
+          new ClassFieldRecord.FieldDeclarationRecord(
+              splitNames(values[index]), Boolean.parseBoolean(values[index + 1])));
+      uninitializedFields.putAll(clazz, splitNames(values[index + 2]));
+    }
+    return record;
+  }
+
+  /**
+   * Converts the record to a row containing its field declarations, each as a triple of declared
+   * names, whether the declaration is public with non-primitive type, and names not initialized at
+   * declaration.
+   *
+   * @param record Record of this registry.
+   * @return Row of the record.
+   */
+  @Override
+  protected String[] toRow(ClassFieldRecord record) {
+    List<String> row = new ArrayList<>();
+    row.add(record.clazz);
+    row.add(record.pathToSourceFile.toString());
+    row.add(String.valueOf(record.fields.size()));
+    Collection<String> uninitialized = uninitializedFields.get(record.clazz);
+    for (ClassFieldRecord.FieldDeclarationRecord declaration : record.fields) {
+      row.add(String.join(",", declaration.names));
+      row.add(String.valueOf(declaration.isPublicFieldWithNonPrimitiveType()));
+      row.add(
+          declaration.names.stream()
+              .filter(uninitialized::contains)
+              .collect(Collectors.joining(",")));
+    }
+    return row.toArray(new String[0]);
+  }
+
+  /**
+   * Splits comma separated field names.
+   *
+   * @param names Comma separated field names.
+   * @return Set of field names.
+   */
+  private static ImmutableSet<String> splitNames(String names) {
+    return Arrays.stream(names.split(","))
+        .filter(name -> !name.isEmpty())
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
   /**
    * Returns all field names declared within the same declaration statement for any field given in
    * the parameter.
@@ -172,7 +255,8 @@ public class FieldRegistry extends Registry<ClassFieldRecord> {
   public boolean isUninitializedField(OnField field) {
     // According to javadoc, Multimap.get() returns an empty collection if key is not found,
     // therefore we do not need to check for key existence.
-    return !Collections.disjoint(uninitializedFields.get(field.clazz), field.variables);
+    return read(
+        () -> !Collections.disjoint(uninitializedFields.get(field.clazz), field.variables));
   }
 
   /**
@@ -218,8 +302,7 @@ public class FieldRegistry extends Registry<ClassFieldRecord> {
    */
   public ImmutableSet<OnField> getPublicFieldWithNonPrimitiveType() {
     ImmutableSet.Builder<OnField> builder = ImmutableSet.builder();
-    contents
-        .values()
+    findRecords(record -> true)
         .forEach(
             record ->
                 record.fields.forEach(
@@ -235,6 +318,28 @@ public class FieldRegistry extends Registry<ClassFieldRecord> {
     return builder.build();
   }
 
+  /**
+   * Returns flat names of all classes declared in the module.
+   *
+   * @return ImmutableSet of flat names of classes.
+   */
+  public ImmutableSet<String> getDeclaredClasses() {
+    return findRecords(record -> true)
+        .map(record -> record.clazz)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /**
+   * Returns paths to all source files containing a class declared in the module.
+   *
+   * @return ImmutableSet of paths to source files.
+   */
+  public ImmutableSet<Path> getSourceFiles() {
+    return findRecords(record -> true)
+        .map(record -> record.pathToSourceFile)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
   /**
    * Checks if the given location is a field and declared in the module this registry is created
    * for.
@@ -29,7 +29,10 @@ import edu.ucr.cs.riple.core.module.ModuleInfo;
 import edu.ucr.cs.riple.core.registries.region.Region;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -47,12 +50,38 @@ public class ErrorStore {
   private final ModuleInfo moduleInfo;
   /** Annotator context. */
   private final Context context;
+  /**
+   * Errors of the initial state which are resolvable with fixes, indexed by one of their resolving
+   * fixes. Each error is indexed under a single fix, therefore is visited at most once when looking
+   * up the fixes of a collection.
+   */
+  private final Map<Fix, List<Error>> rootErrorsByResolvingFix;
 
   public ErrorStore(Context context, ModuleInfo moduleInfo) {
     this.moduleInfo = moduleInfo;
     this.context = context;
     root = new Index(context, moduleInfo);
     root.index();
+    rootErrorsByResolvingFix = indexByResolvingFix(root.values());
+  }
+
+  /**
+   * Indexes the given errors which are resolvable with fixes by their first resolving fix.
+   * Package-private for testing.
+   *
+   * @param errors Errors to index.
+   * @return Errors indexed by their first resolving fix.
+   */
+  static Map<Fix, List<Error>> indexByResolvingFix(Collection<Error> errors) {
+    Map<Fix, List<Error>> index = new HashMap<>();
+    for (Error error : errors) {
+      if (error.hasFix()) {
+        index
+            .computeIfAbsent(error.getResolvingFixes().iterator().next(), k -> new ArrayList<>())
+            .add(error);
+      }
+    }
+    return index;
   }
 
   /** Overwrites the current state with the new generated output, */
@@ -86,6 +115,17 @@ public class ErrorStore {
     return compareByList(root.get(region), current.get(region));
   }
 
+  /**
+   * Computes the errors enclosed by the given region in root state which are not present in current
+   * state.
+   *
+   * @param region Enclosing region
+   * @return Errors resolved in the given region.
+   */
+  public Collection<Error> getResolvedErrorsInRegion(Region region) {
+    return compareByList(current.get(region), root.get(region)).dif;
+  }
+
   /**
    * Computes the difference in current state and root state.
    *
@@ -107,11 +147,34 @@ public class ErrorStore {
 
   /**
    * Returns the number of resolved errors from base (initial set of errors) by the given fixes.
+   * Only errors indexed under a fix of the collection are checked, instead of all errors of the
+   * base. This method only reads the base state and is safe to be called concurrently.
    *
    * @param fixes The given fixes.
    * @return Number of resolved errors.
    */
   public int getNumberOfErrorsResolvedByAllFixesWithinCollection(Collection<Fix> fixes) {
-    return (int) root.values().stream().filter(error -> error.isResolvableWith(fixes)).count();
+    return countResolvedErrors(rootErrorsByResolvingFix, fixes);
+  }
+
+  /**
+   * Returns the number of indexed errors resolved by the given fixes, see {@link
+   * #indexByResolvingFix(Collection)}. Package-private for testing.
+   *
+   * @param index Errors indexed by their first resolving fix.
+   * @param fixes The given fixes.
+   * @return Number of resolved errors.
+   */
+  static int countResolvedErrors(Map<Fix, List<Error>> index, Collection<Fix> fixes) {
+    Set<Fix> fixSet = fixes instanceof Set ? (Set<Fix>) fixes : new HashSet<>(fixes);
+    int count = 0;
+    for (Fix fix : fixSet) {
+      for (Error error : index.getOrDefault(fix, List.of())) {
+        if (error.isResolvableWith(fixSet)) {
+          count++;
+        }
+      }
+    }
+    return count;
   }
 }
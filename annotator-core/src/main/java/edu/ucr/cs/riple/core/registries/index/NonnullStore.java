@@ -25,10 +25,14 @@
 package edu.ucr.cs.riple.core.registries.index;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import edu.ucr.cs.riple.core.module.ModuleConfiguration;
 import edu.ucr.cs.riple.core.registries.Registry;
+import edu.ucr.cs.riple.core.registries.RegistrySnapshot;
 import edu.ucr.cs.riple.injector.location.Location;
+import edu.ucr.cs.riple.injector.location.OnParameter;
 import edu.ucr.cs.riple.scanner.Serializer;
+import javax.annotation.Nullable;
 
 /**
  * Structure for storing location of elements with explicit {@code @Nonnull} annotations. Used to
@@ -38,10 +42,16 @@ import edu.ucr.cs.riple.scanner.Serializer;
 public class NonnullStore extends Registry<Location> {
 
   public NonnullStore(ImmutableSet<ModuleConfiguration> modules) {
+    this(modules, null);
+  }
+
+  public NonnullStore(
+      ImmutableSet<ModuleConfiguration> modules, @Nullable RegistrySnapshot snapshot) {
     super(
         modules.stream()
             .map(moduleInfo -> moduleInfo.dir.resolve(Serializer.NON_NULL_ELEMENTS_FILE_NAME))
-            .collect(ImmutableSet.toImmutableSet()));
+            .collect(ImmutableSet.toImmutableSet()),
+        snapshot);
   }
 
   @Override
@@ -49,6 +59,25 @@ public class NonnullStore extends Registry<Location> {
     return Location::createLocationFromArrayInfo;
   }
 
+  @Override
+  protected String[] toRow(Location location) {
+    String method = "null";
+    String variable = "null";
+    String index = "null";
+    if (location.isOnMethod()) {
+      method = location.toMethod().method;
+    } else if (location.isOnParameter()) {
+      OnParameter parameter = location.toParameter();
+      method = parameter.enclosingMethod.method;
+      index = String.valueOf(parameter.index);
+    } else if (location.isOnField()) {
+      variable = Iterables.getOnlyElement(location.toField().variables);
+    }
+    return new String[] {
+      location.kind.name(), location.clazz, method, variable, index, location.path.toString()
+    };
+  }
+
   /**
    * Returns true if the element at the given location has an explicit {@code @Nonnull} annotation.
    *
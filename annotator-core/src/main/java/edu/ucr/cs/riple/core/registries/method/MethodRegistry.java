@@ -32,14 +32,19 @@ import com.google.common.collect.MultimapBuilder;
 import edu.ucr.cs.riple.core.Context;
 import edu.ucr.cs.riple.core.module.ModuleConfiguration;
 import edu.ucr.cs.riple.core.registries.Registry;
+import edu.ucr.cs.riple.core.registries.RegistrySnapshot;
 import edu.ucr.cs.riple.injector.Helper;
 import edu.ucr.cs.riple.injector.location.Location;
 import edu.ucr.cs.riple.injector.location.OnMethod;
 import edu.ucr.cs.riple.scanner.Serializer;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nullable;
 
 /**
@@ -54,16 +59,42 @@ public class MethodRegistry extends Registry<MethodRecord> {
   private Multimap<String, MethodRecord> classConstructorMap;
   /** Set of all classes flat name declared in module. */
   private Set<String> declaredClasses;
+  /**
+   * Ids of methods loaded from sharded scanner outputs. Ids in sharded outputs are only unique
+   * within their shard, hence methods are renumbered by their enclosing class and signature.
+   */
+  private HashMap<String, Integer> shardedMethodIds;
+  /**
+   * Deserialized paths to source files, all methods declared in a source file share the same
+   * serialized path, hence each path is deserialized once.
+   */
+  private HashMap<String, Path> deserializedPaths;
+  /**
+   * Memoized immediate super methods of methods, see {@link #getImmediateSuperMethod(OnMethod)}.
+   * The tree is not modified after it is loaded, hence lookups can be memoized. Concurrent map as
+   * the registry may be queried by several evaluations concurrently.
+   */
+  private ConcurrentHashMap<OnMethod, Optional<MethodRecord>> immediateSuperMethods;
 
   public MethodRegistry(Context context) {
-    this(ImmutableSet.of(context.targetConfiguration));
+    this(context, null);
+  }
+
+  public MethodRegistry(Context context, @Nullable RegistrySnapshot snapshot) {
+    this(ImmutableSet.of(context.targetConfiguration), snapshot);
   }
 
   public MethodRegistry(ImmutableSet<ModuleConfiguration> modules) {
+    this(modules, null);
+  }
+
+  public MethodRegistry(
+      ImmutableSet<ModuleConfiguration> modules, @Nullable RegistrySnapshot snapshot) {
     super(
         modules.stream()
             .map(moduleInfo -> moduleInfo.dir.resolve(Serializer.METHOD_RECORD_FILE_NAME))
-            .collect(ImmutableSet.toImmutableSet()));
+            .collect(ImmutableSet.toImmutableSet()),
+        snapshot);
   }
 
   @Override
@@ -72,6 +103,9 @@ public class MethodRegistry extends Registry<MethodRecord> {
     this.declaredClasses = new HashSet<>();
     this.classConstructorMap = MultimapBuilder.hashKeys().hashSetValues().build();
     this.nodes = new HashMap<>();
+    this.shardedMethodIds = new HashMap<>();
+    this.deserializedPaths = new HashMap<>();
+    this.immediateSuperMethods = new ConcurrentHashMap<>();
     // The root node of this tree with id: 0.
     nodes.put(MethodRecord.TOP.id, MethodRecord.TOP);
   }
@@ -79,8 +113,10 @@ public class MethodRegistry extends Registry<MethodRecord> {
   @Override
   protected Builder<MethodRecord> getBuilder() {
     return values -> {
+      // Sharded and incremental outputs carry the parent's class and signature, see Serializer.
+      boolean sharded = values.length > 9;
       // Nodes unique id.
-      Integer id = Integer.parseInt(values[0]);
+      Integer id = sharded ? getShardedMethodId(values[1], values[2]) : Integer.parseInt(values[0]);
       MethodRecord node;
       if (nodes.containsKey(id)) {
         node = nodes.get(id);
@@ -89,12 +125,21 @@ public class MethodRegistry extends Registry<MethodRecord> {
         nodes.put(id, node);
       }
       // Fill nodes information.
-      Integer parentId = Integer.parseInt(values[3]);
-      OnMethod location = new OnMethod(Helper.deserializePath(values[8]), values[1], values[2]);
+      Integer parentId =
+          !sharded
+              ? Integer.parseInt(values[3])
+              : values[3].equals(String.valueOf(MethodRecord.TOP.id))
+                  ? MethodRecord.TOP.id
+                  : getShardedMethodId(values[9], values[10]);
+      OnMethod location =
+          new OnMethod(
+              deserializedPaths.computeIfAbsent(values[8], Helper::deserializePath),
+              values[1],
+              values[2]);
       boolean isConstructor =
           Helper.extractCallableName(location.method).equals(Helper.simpleName(location.clazz));
       node.fillInformation(
-          new OnMethod(Helper.deserializePath(values[8]), values[1], values[2]),
+          location,
           parentId,
           ImmutableSet.copyOf(values[5].split(ANNOTATION_DELIMITER)),
           values[6],
@@ -121,14 +166,59 @@ public class MethodRegistry extends Registry<MethodRecord> {
     };
   }
 
+  @Override
+  protected String[] toRow(MethodRecord record) {
+    // Ids are already unique, rows are stored in the format of non-sharded outputs.
+    return new String[] {
+      String.valueOf(record.id),
+      record.location.clazz,
+      record.location.method,
+      String.valueOf(record.parent),
+      "null",
+      String.join(ANNOTATION_DELIMITER, record.annotations),
+      record.visibility.name().toLowerCase(Locale.ROOT),
+      String.valueOf(record.hasNonPrimitiveReturn),
+      record.location.path.toString()
+    };
+  }
+
+  /**
+   * Returns the unique id of the method loaded from sharded scanner outputs, assigning a new one on
+   * the first lookup.
+   *
+   * @param clazz Flat name of the enclosing class.
+   * @param method Method signature.
+   * @return Unique id of the method.
+   */
+  private Integer getShardedMethodId(String clazz, String method) {
+    return shardedMethodIds.computeIfAbsent(
+        clazz + "\t" + method, key -> shardedMethodIds.size() + MethodRecord.TOP.id + 1);
+  }
+
   /**
-   * Returns the immediate super method of the given method.
+   * Returns the immediate super method of the given method. Lookups are memoized.
    *
    * @param onMethod Method to find its super method.
    * @return Immediate super method of the given method, null if method has no super method.
    */
   @Nullable
   public MethodRecord getImmediateSuperMethod(OnMethod onMethod) {
+    return read(
+        () ->
+            immediateSuperMethods
+                .computeIfAbsent(
+                    onMethod, key -> Optional.ofNullable(findImmediateSuperMethod(key)))
+                .orElse(null));
+  }
+
+  /**
+   * Finds the immediate super method of the given method in the tree.
+   *
+   * @param onMethod Method to find its super method.
+   * @return Immediate super method of the given method, null if method has no super method.
+   */
+  @Nullable
+  private MethodRecord findImmediateSuperMethod(OnMethod onMethod) {
     MethodRecord node = findMethodByName(onMethod.clazz, onMethod.method);
     if (node == null) {
       return null;
@@ -144,17 +234,20 @@ public class MethodRegistry extends Registry<MethodRecord> {
    * @return Immediate sub methods of the given method.
    */
   public ImmutableSet<MethodRecord> getImmediateSubMethods(OnMethod onMethod) {
-    MethodRecord node = findMethodByName(onMethod.clazz, onMethod.method);
-    if (node == null) {
-      return ImmutableSet.of();
-    }
-    if (node.children == null) {
-      return ImmutableSet.of();
-    }
-    return node.children.stream()
-        .map(nodes::get)
-        .filter(Objects::nonNull)
-        .collect(ImmutableSet.toImmutableSet());
+    return read(
+        () -> {
+          MethodRecord node = findMethodByName(onMethod.clazz, onMethod.method);
+          if (node == null) {
+            return ImmutableSet.of();
+          }
+          if (node.children == null) {
+            return ImmutableSet.of();
+          }
+          return node.children.stream()
+              .map(nodes::get)
+              .filter(Objects::nonNull)
+              .collect(ImmutableSet.toImmutableSet());
+        });
   }
 
   /**
@@ -188,9 +281,11 @@ public class MethodRegistry extends Registry<MethodRecord> {
    * @return ImmutableSet of all constructors declared in the target module for the given class.
    */
   public ImmutableSet<OnMethod> getConstructorsForClass(String clazz) {
-    return classConstructorMap.get(clazz).stream()
-        .map(node -> node.location)
-        .collect(ImmutableSet.toImmutableSet());
+    return read(
+        () ->
+            classConstructorMap.get(clazz).stream()
+                .map(node -> node.location)
+                .collect(ImmutableSet.toImmutableSet()));
   }
 
   /**
@@ -204,6 +299,6 @@ public class MethodRegistry extends Registry<MethodRecord> {
     if (location == null || location.clazz.equals("null")) {
       return false;
     }
-    return this.declaredClasses.contains(location.clazz);
+    return read(() -> this.declaredClasses.contains(location.clazz));
   }
 }
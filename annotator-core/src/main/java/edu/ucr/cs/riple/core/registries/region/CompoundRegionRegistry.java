@@ -45,13 +45,30 @@ public class CompoundRegionRegistry implements RegionRegistry {
    * stored here and passed to other registries.
    */
   private final MethodRegionRegistry methodRegionRegistry;
+  /** Field region registry, stored to be refreshed after a new scanner run. */
+  private final FieldRegionRegistry fieldRegionRegistry;
 
   public CompoundRegionRegistry(ModuleInfo moduleInfo) {
+    this(moduleInfo, new MethodRegionRegistry(moduleInfo), new FieldRegionRegistry(moduleInfo));
+  }
+
+  /**
+   * Creates a compound registry from already loaded method and field region registries.
+   *
+   * @param moduleInfo Module where this registry belongs to.
+   * @param methodRegionRegistry Loaded method region registry of the module.
+   * @param fieldRegionRegistry Loaded field region registry of the module.
+   */
+  public CompoundRegionRegistry(
+      ModuleInfo moduleInfo,
+      MethodRegionRegistry methodRegionRegistry,
+      FieldRegionRegistry fieldRegionRegistry) {
     this.moduleInfo = moduleInfo;
-    this.methodRegionRegistry = new MethodRegionRegistry(moduleInfo);
+    this.methodRegionRegistry = methodRegionRegistry;
+    this.fieldRegionRegistry = fieldRegionRegistry;
     this.registries =
         ImmutableSet.of(
-            new FieldRegionRegistry(moduleInfo),
+            fieldRegionRegistry,
             methodRegionRegistry,
             new ParameterRegionRegistry(moduleInfo, methodRegionRegistry));
   }
@@ -81,6 +98,25 @@ public class CompoundRegionRegistry implements RegionRegistry {
     return fromRegistriesBuilder.build();
   }
 
+  /**
+   * Checks if any method or field of the given class is used in a region of the module.
+   *
+   * @param clazz Flat name of the class.
+   * @return True if a member of the class is used.
+   */
+  public boolean usesMembersOf(String clazz) {
+    return methodRegionRegistry.usesMembersOf(clazz) || fieldRegionRegistry.usesMembersOf(clazz);
+  }
+
+  /**
+   * Reloads all region registries after a new scanner run, see {@link
+   * edu.ucr.cs.riple.core.registries.Registry#refresh()}.
+   */
+  public void refresh() {
+    methodRegionRegistry.refresh();
+    fieldRegionRegistry.refresh();
+  }
+
   /**
    * Returns the method region registry created by this instance.
    *
@@ -89,4 +125,13 @@ public class CompoundRegionRegistry implements RegionRegistry {
   public MethodRegionRegistry getMethodRegionRegistry() {
     return methodRegionRegistry;
   }
+
+  /**
+   * Returns the field region registry created by this instance.
+   *
+   * @return Field region registry instance.
+   */
+  public FieldRegionRegistry getFieldRegionRegistry() {
+    return fieldRegionRegistry;
+  }
 }
@@ -25,13 +25,19 @@
 package edu.ucr.cs.riple.core.registries.region;
 
 import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
 import edu.ucr.cs.riple.core.module.ModuleInfo;
 import edu.ucr.cs.riple.core.registries.Registry;
+import edu.ucr.cs.riple.core.registries.RegistrySnapshot;
+import edu.ucr.cs.riple.core.registries.field.FieldRegistry;
+import edu.ucr.cs.riple.core.registries.method.MethodRegistry;
 import edu.ucr.cs.riple.core.util.Utility;
 import edu.ucr.cs.riple.injector.location.Location;
 import edu.ucr.cs.riple.injector.location.OnField;
 import edu.ucr.cs.riple.scanner.Serializer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * Region registry for Fields. This region registry can identify impacted regions for fixes on
@@ -39,17 +45,42 @@ import java.util.stream.Collectors;
  */
 public class FieldRegionRegistry extends Registry<RegionRecord> implements RegionRegistry {
 
-  /** ModuleInfo of the module which usages of fields are stored. */
-  private final ModuleInfo moduleInfo;
+  /** Field registry of the module which usages of fields are stored. */
+  private final Supplier<FieldRegistry> fieldRegistry;
+  /** Method registry of the module which usages of fields are stored. */
+  private final Supplier<MethodRegistry> methodRegistry;
 
   public FieldRegionRegistry(ModuleInfo moduleInfo) {
+    this(
+        moduleInfo.getModuleConfigurations(),
+        moduleInfo::getFieldRegistry,
+        moduleInfo::getMethodRegistry,
+        null);
+  }
+
+  /**
+   * Creates a field region registry for the given modules.
+   *
+   * @param configurations Modules which usages of fields are stored.
+   * @param fieldRegistry Supplier of the field registry of the modules.
+   * @param methodRegistry Supplier of the method registry of the modules. Suppliers are only called
+   *     on queries, therefore the registries can be loaded concurrently with this registry.
+   * @param snapshot Snapshot of registries, or null if no snapshot is available.
+   */
+  public FieldRegionRegistry(
+      ImmutableSet<ModuleConfiguration> configurations,
+      Supplier<FieldRegistry> fieldRegistry,
+      Supplier<MethodRegistry> methodRegistry,
+      @Nullable RegistrySnapshot snapshot) {
     super(
-        moduleInfo.getModuleConfigurations().stream()
+        configurations.stream()
             .map(
                 configuration ->
                     configuration.dir.resolve(Serializer.FIELD_IMPACTED_REGION_FILE_NAME))
-            .collect(ImmutableSet.toImmutableSet()));
-    this.moduleInfo = moduleInfo;
+            .collect(ImmutableSet.toImmutableSet()),
+        snapshot);
+    this.fieldRegistry = fieldRegistry;
+    this.methodRegistry = methodRegistry;
   }
 
   @Override
@@ -57,6 +88,11 @@ public class FieldRegionRegistry extends Registry<RegionRecord> implements Regio
     return Utility::deserializeImpactedRegionRecord;
   }
 
+  @Override
+  protected String[] toRow(RegionRecord record) {
+    return Utility.serializeImpactedRegionRecord(record);
+  }
+
   @Override
   public ImmutableSet<Region> getImpactedRegions(Location location) {
     if (!location.isOnField()) {
@@ -72,10 +108,10 @@ public class FieldRegionRegistry extends Registry<RegionRecord> implements Regio
             .map(fieldName -> new Region(field.clazz, fieldName))
             .collect(Collectors.toSet()));
     // Check if field is initialized at declaration.
-    if (moduleInfo.getFieldRegistry().isUninitializedField(field)) {
+    if (fieldRegistry.get().isUninitializedField(field)) {
       // If not, add all constructors for the class.
       builder.addAll(
-          moduleInfo.getMethodRegistry().getConstructorsForClass(field.clazz).stream()
+          methodRegistry.get().getConstructorsForClass(field.clazz).stream()
               .map(onMethod -> new Region(onMethod.clazz, onMethod.method))
               .collect(Collectors.toSet()));
     }
@@ -96,4 +132,17 @@ public class FieldRegionRegistry extends Registry<RegionRecord> implements Regio
         .map(regionRecord -> regionRecord.region)
         .collect(ImmutableSet.toImmutableSet());
   }
+
+  /**
+   * Checks if any field of the given class is used in a region of the module.
+   *
+   * @param clazz Flat name of the class.
+   * @return True if a field of the class is used.
+   */
+  public boolean usesMembersOf(String clazz) {
+    return findRecordsWithHashHint(
+            candidate -> candidate.calleeClass.equals(clazz), RegionRecord.hash(clazz))
+        .findAny()
+        .isPresent();
+  }
 }
@@ -25,13 +25,18 @@
 package edu.ucr.cs.riple.core.registries.region;
 
 import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
 import edu.ucr.cs.riple.core.module.ModuleInfo;
 import edu.ucr.cs.riple.core.registries.Registry;
+import edu.ucr.cs.riple.core.registries.RegistrySnapshot;
 import edu.ucr.cs.riple.core.registries.method.MethodRecord;
+import edu.ucr.cs.riple.core.registries.method.MethodRegistry;
 import edu.ucr.cs.riple.core.util.Utility;
 import edu.ucr.cs.riple.injector.location.Location;
 import edu.ucr.cs.riple.injector.location.OnMethod;
 import edu.ucr.cs.riple.scanner.Serializer;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
 /**
  * Region registry for Methods. This region registry can identify impacted regions for fixes on
@@ -39,15 +44,31 @@ import edu.ucr.cs.riple.scanner.Serializer;
  */
 public class MethodRegionRegistry extends Registry<RegionRecord> implements RegionRegistry {
 
-  /** ModuleInfo of the module which usage of methods are stored. */
-  private final ModuleInfo moduleInfo;
+  /** Method registry of the module which usage of methods are stored. */
+  private final Supplier<MethodRegistry> methodRegistry;
 
   public MethodRegionRegistry(ModuleInfo moduleInfo) {
+    this(moduleInfo.getModuleConfigurations(), moduleInfo::getMethodRegistry, null);
+  }
+
+  /**
+   * Creates a method region registry for the given modules.
+   *
+   * @param configurations Modules which usage of methods are stored.
+   * @param methodRegistry Supplier of the method registry of the modules. It is only called on
+   *     queries, therefore the method registry can be loaded concurrently with this registry.
+   * @param snapshot Snapshot of registries, or null if no snapshot is available.
+   */
+  public MethodRegionRegistry(
+      ImmutableSet<ModuleConfiguration> configurations,
+      Supplier<MethodRegistry> methodRegistry,
+      @Nullable RegistrySnapshot snapshot) {
     super(
-        moduleInfo.getModuleConfigurations().stream()
+        configurations.stream()
             .map(info -> info.dir.resolve(Serializer.METHOD_IMPACTED_REGION_FILE_NAME))
-            .collect(ImmutableSet.toImmutableSet()));
-    this.moduleInfo = moduleInfo;
+            .collect(ImmutableSet.toImmutableSet()),
+        snapshot);
+    this.methodRegistry = methodRegistry;
   }
 
   @Override
@@ -55,6 +76,11 @@ public class MethodRegionRegistry extends Registry<RegionRecord> implements Regi
     return Utility::deserializeImpactedRegionRecord;
   }
 
+  @Override
+  protected String[] toRow(RegionRecord record) {
+    return Utility.serializeImpactedRegionRecord(record);
+  }
+
   @Override
   public ImmutableSet<Region> getImpactedRegions(Location location) {
     if (!location.isOnMethod()) {
@@ -67,7 +93,7 @@ public class MethodRegionRegistry extends Registry<RegionRecord> implements Regi
     // Add method itself.
     builder.add(new Region(onMethod.clazz, onMethod.method));
     // Add immediate super method.
-    MethodRecord parent = moduleInfo.getMethodRegistry().getImmediateSuperMethod(onMethod);
+    MethodRecord parent = methodRegistry.get().getImmediateSuperMethod(onMethod);
     if (parent != null && parent.isNonTop()) {
       builder.add(new Region(parent.location.clazz, parent.location.method));
     }
@@ -89,4 +115,17 @@ public class MethodRegionRegistry extends Registry<RegionRecord> implements Regi
         .map(node -> node.region)
         .collect(ImmutableSet.toImmutableSet());
   }
+
+  /**
+   * Checks if any method of the given class is used in a region of the module.
+   *
+   * @param clazz Flat name of the class.
+   * @return True if a method of the class is used.
+   */
+  public boolean usesMembersOf(String clazz) {
+    return findRecordsWithHashHint(
+            candidate -> candidate.calleeClass.equals(clazz), RegionRecord.hash(clazz))
+        .findAny()
+        .isPresent();
+  }
 }
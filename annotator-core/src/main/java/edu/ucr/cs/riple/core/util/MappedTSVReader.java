@@ -0,0 +1,265 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reader of files in TSV format which memory maps the file and tokenizes it in a single pass. Rows
+ * are exposed as a reusable {@link Row} holding the bounds of each field in the mapped buffer, and
+ * fields are only decoded when requested, therefore no intermediate line strings or arrays are
+ * created per row.
+ */
+public final class MappedTSVReader {
+
+  /** Field separator. */
+  private static final byte TAB = '\t';
+  /** Row separator. */
+  private static final byte NEWLINE = '\n';
+  /** Carriage return, removed if it precedes a row separator. */
+  private static final byte CARRIAGE_RETURN = '\r';
+
+  private MappedTSVReader() {}
+
+  /**
+   * Calls the consumer on every row of the given file. The passed {@link Row} instance is reused
+   * for all rows and must not be retained by the consumer.
+   *
+   * @param path Path to the file.
+   * @param skipHeader If true, the first row is skipped.
+   * @param consumer Consumer of the rows.
+   * @throws IOException if the file cannot be read.
+   */
+  public static void forEachRow(Path path, boolean skipHeader, Consumer<Row> consumer)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to be mapped: " + path);
+      }
+      Row row = new Row(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+      int limit = (int) size;
+      int position = 0;
+      boolean skip = skipHeader;
+      while (position < limit) {
+        position = row.tokenize(position, limit);
+        if (skip) {
+          skip = false;
+        } else {
+          consumer.accept(row);
+        }
+      }
+    }
+  }
+
+  /** A row of the file, holding the bounds of its fields in the mapped buffer. */
+  public static final class Row {
+
+    /** Mapped content of the file. */
+    private final ByteBuffer buffer;
+    /** Charset used to decode fields. */
+    private final Charset charset;
+    /** Start index of each field in the buffer. */
+    private int[] starts;
+    /** End index (exclusive) of each field in the buffer. */
+    private int[] ends;
+    /** Number of fields in the current row. */
+    private int size;
+    /** Reusable buffer to copy bytes of a field before decoding. */
+    private byte[] scratch;
+
+    private Row(ByteBuffer buffer) {
+      this.buffer = buffer;
+      this.charset = Charset.defaultCharset();
+      this.starts = new int[16];
+      this.ends = new int[16];
+      this.scratch = new byte[256];
+    }
+
+    /**
+     * Tokenizes the row starting at the given position. Similar to {@link String#split(String)},
+     * trailing empty fields are not included.
+     *
+     * @param position Start index of the row.
+     * @param limit End index of the content.
+     * @return Start index of the next row.
+     */
+    private int tokenize(int position, int limit) {
+      size = 0;
+      int start = position;
+      for (int i = position; i < limit; i++) {
+        byte b = buffer.get(i);
+        if (b == TAB) {
+          addField(start, i);
+          start = i + 1;
+        } else if (b == NEWLINE) {
+          addField(start, trimCarriageReturn(start, i));
+          trimTrailingEmptyFields();
+          return i + 1;
+        }
+      }
+      // Last row without a final row separator.
+      addField(start, trimCarriageReturn(start, limit));
+      trimTrailingEmptyFields();
+      return limit;
+    }
+
+    /**
+     * Returns the end index of the last field of a row excluding a trailing carriage return.
+     *
+     * @param start Start index of the field.
+     * @param end End index (exclusive) of the field, including the carriage return if present.
+     * @return End index (exclusive) of the field.
+     */
+    private int trimCarriageReturn(int start, int end) {
+      return end > start && buffer.get(end - 1) == CARRIAGE_RETURN ? end - 1 : end;
+    }
+
+    /**
+     * Adds a field with the given bounds to the current row.
+     *
+     * @param start Start index of the field.
+     * @param end End index (exclusive) of the field.
+     */
+    private void addField(int start, int end) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        ends = Arrays.copyOf(ends, size * 2);
+      }
+      starts[size] = start;
+      ends[size] = end;
+      size++;
+    }
+
+    /** Removes trailing empty fields of the current row. */
+    private void trimTrailingEmptyFields() {
+      while (size > 0 && starts[size - 1] == ends[size - 1]) {
+        size--;
+      }
+    }
+
+    /**
+     * Returns the number of fields in this row.
+     *
+     * @return Number of fields.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Decodes the field at the given index.
+     *
+     * @param index Index of the field.
+     * @return Decoded field.
+     */
+    public String get(int index) {
+      checkIndex(index);
+      int length = ends[index] - starts[index];
+      if (length > scratch.length) {
+        scratch = new byte[Math.max(length, scratch.length * 2)];
+      }
+      for (int i = 0; i < length; i++) {
+        scratch[i] = buffer.get(starts[index] + i);
+      }
+      return new String(scratch, 0, length, charset);
+    }
+
+    /**
+     * Parses the field at the given index as a decimal integer without decoding it, similar to
+     * {@link Integer#parseInt(String)}.
+     *
+     * @param index Index of the field.
+     * @return Parsed integer.
+     * @throws NumberFormatException if the field is not a valid integer.
+     */
+    public int getInt(int index) {
+      checkIndex(index);
+      int start = starts[index];
+      int end = ends[index];
+      boolean negative = start < end && buffer.get(start) == '-';
+      boolean signed = negative || (start < end && buffer.get(start) == '+');
+      int i = signed ? start + 1 : start;
+      if (i == end) {
+        throw new NumberFormatException("Empty integer field at index: " + index);
+      }
+      long value = 0;
+      for (; i < end; i++) {
+        int digit = buffer.get(i) - '0';
+        if (digit < 0 || digit > 9) {
+          throw new NumberFormatException("Invalid integer field: " + get(index));
+        }
+        value = value * 10 + digit;
+        if (value > (long) Integer.MAX_VALUE + 1) {
+          throw new NumberFormatException("Integer out of range: " + get(index));
+        }
+      }
+      value = negative ? -value : value;
+      if (value > Integer.MAX_VALUE) {
+        throw new NumberFormatException("Integer out of range: " + get(index));
+      }
+      return (int) value;
+    }
+
+    /**
+     * Checks if the field at the given index is equal to the given ASCII value without decoding it.
+     *
+     * @param index Index of the field.
+     * @param value ASCII value.
+     * @return true, if the field is equal to the given value.
+     */
+    public boolean fieldEquals(int index, String value) {
+      checkIndex(index);
+      int start = starts[index];
+      if (ends[index] - start != value.length()) {
+        return false;
+      }
+      for (int i = 0; i < value.length(); i++) {
+        if (buffer.get(start + i) != value.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Checks if the given index is within the fields of this row.
+     *
+     * @param index Index of the field.
+     */
+    private void checkIndex(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+      }
+    }
+  }
+}
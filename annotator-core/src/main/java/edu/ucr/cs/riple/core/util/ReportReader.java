@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Reads reports written by {@link ReportWriter} page by page. Only the reports of the requested
+ * page are kept in memory, which makes it suitable for consumers of large report files.
+ */
+public class ReportReader implements Closeable {
+
+  /** Path to the reports file. */
+  private final Path path;
+  /** Reader of the reports file. */
+  private final BufferedReader reader;
+  /** Parser used to deserialize each line. */
+  private final JSONParser parser;
+  /** Index of the next report to be read. */
+  private long position;
+
+  /**
+   * Opens the given reports file for reading.
+   *
+   * @param path Path to the reports file.
+   */
+  public ReportReader(Path path) {
+    this.path = path;
+    this.parser = new JSONParser();
+    this.position = 0;
+    try {
+      this.reader = Files.newBufferedReader(path, Charset.defaultCharset());
+    } catch (IOException e) {
+      throw new RuntimeException("Could not open the Annotator reports file: " + path, e);
+    }
+  }
+
+  /**
+   * Reads the next page of reports.
+   *
+   * @param pageSize Maximum number of reports in the page.
+   * @return Next page of reports in the order written in the file, an empty list is returned when
+   *     all reports are read.
+   */
+  public ImmutableList<JSONObject> nextPage(int pageSize) {
+    Preconditions.checkArgument(pageSize > 0, "Page size must be positive: " + pageSize);
+    ImmutableList.Builder<JSONObject> page = ImmutableList.builder();
+    try {
+      String line;
+      int count = 0;
+      while (count < pageSize && (line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        page.add((JSONObject) parser.parse(line));
+        position++;
+        count++;
+      }
+    } catch (IOException | ParseException e) {
+      throw new RuntimeException(
+          "Exception while reading report at index " + position + " in: " + path, e);
+    }
+    return page.build();
+  }
+
+  /**
+   * Reads the page at the given index, pages are consecutive chunks of {@code pageSize} reports.
+   *
+   * @param path Path to the reports file.
+   * @param pageIndex Index of the page, starting from {@code 0}.
+   * @param pageSize Number of reports in each page.
+   * @return Reports in the requested page, an empty list if the page is beyond the end of file.
+   */
+  public static ImmutableList<JSONObject> readPage(Path path, int pageIndex, int pageSize) {
+    Preconditions.checkArgument(pageIndex >= 0, "Page index must not be negative: " + pageIndex);
+    try (ReportReader reader = new ReportReader(path)) {
+      reader.skip((long) pageIndex * pageSize);
+      return reader.nextPage(pageSize);
+    }
+  }
+
+  /**
+   * Skips the given number of reports without deserializing them.
+   *
+   * @param count Number of reports to skip.
+   */
+  private void skip(long count) {
+    try {
+      String line;
+      long skipped = 0;
+      while (skipped < count && (line = reader.readLine()) != null) {
+        if (!line.isBlank()) {
+          skipped++;
+          position++;
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Exception while reading reports file: " + path, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Could not close the Annotator reports file: " + path, e);
+    }
+  }
+}
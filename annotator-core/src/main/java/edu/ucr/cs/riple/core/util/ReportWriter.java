@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.util;
+
+import com.google.common.collect.ImmutableList;
+import edu.ucr.cs.riple.core.Config;
+import edu.ucr.cs.riple.core.Report;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONAware;
+import org.json.simple.JSONObject;
+
+/**
+ * Writes reports sorted by their overall effect in descending order. By default, reports are
+ * written to {@link #REPORTS_FILE_NAME} as a single json object with all reports under the {@code
+ * "REPORTS"} key. If {@link Config#writeNdjsonReports} is activated, reports are written to {@link
+ * #NDJSON_REPORTS_FILE_NAME} in newline-delimited json format, each line a single json object
+ * representing a {@link Report}, which can be read page by page via {@link ReportReader}. In both
+ * formats, reports are serialized and written one at a time, therefore the memory used by the
+ * writer does not grow with the number of reports.
+ */
+public class ReportWriter {
+
+  /** Name of the file containing the reports in the output directory. */
+  public static final String REPORTS_FILE_NAME = "reports.json";
+  /** Name of the file containing the reports in newline-delimited json format. */
+  public static final String NDJSON_REPORTS_FILE_NAME = "reports.ndjson";
+
+  /** Annotator configuration. */
+  private final Config config;
+  /** Path to the output file. */
+  private final Path path;
+
+  /**
+   * Creates a writer for the reports file in the output directory.
+   *
+   * @param config Annotator configuration.
+   */
+  public ReportWriter(Config config) {
+    this(config, config.globalDir.resolve(getFileName(config)));
+  }
+
+  /**
+   * Creates a writer for the given path.
+   *
+   * @param config Annotator configuration.
+   * @param path Path to the output file.
+   */
+  public ReportWriter(Config config, Path path) {
+    this.config = config;
+    this.path = path;
+  }
+
+  /**
+   * Returns the name of the reports file in the configured format.
+   *
+   * @param config Annotator configuration.
+   * @return {@link #NDJSON_REPORTS_FILE_NAME} if newline-delimited json reports are activated,
+   *     {@link #REPORTS_FILE_NAME} otherwise.
+   */
+  public static String getFileName(Config config) {
+    return config.writeNdjsonReports ? NDJSON_REPORTS_FILE_NAME : REPORTS_FILE_NAME;
+  }
+
+  /**
+   * Writes the given reports in the output file sorted by their overall effect in descending order.
+   * Any existing content of the file is overwritten.
+   *
+   * @param reports Collection of reports.
+   */
+  public void write(Collection<Report> reports) {
+    // Sorting is performed on the already constructed reports and not the serialized json objects,
+    // therefore only a single json object is alive at a time.
+    ImmutableList<Report> sorted =
+        ImmutableList.sortedCopyOf(
+            Comparator.comparingInt((Report report) -> report.getOverallEffect(config)).reversed(),
+            reports);
+    writeSerialized(sorted.stream().map(this::serialize).iterator());
+  }
+
+  /**
+   * Writes the given serialized reports in the output file in the given order. Reports are consumed
+   * from the iterator one at a time. Any existing content of the file is overwritten.
+   *
+   * @param reports Iterator over reports serialized via {@link #serialize(Report)}.
+   */
+  public void writeSerialized(Iterator<String> reports) {
+    try (BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset())) {
+      if (config.writeNdjsonReports) {
+        while (reports.hasNext()) {
+          writer.write(reports.next());
+          writer.newLine();
+        }
+      } else {
+        // Same output as serializing a single json object holding all reports in a json array.
+        writer.write("{\"REPORTS\":[");
+        boolean first = true;
+        while (reports.hasNext()) {
+          if (!first) {
+            writer.write(",");
+          }
+          writer.write(reports.next());
+          first = false;
+        }
+        writer.write("]}");
+      }
+      writer.flush();
+    } catch (IOException e) {
+      throw new RuntimeException("Could not create the Annotator reports file: " + path, e);
+    }
+  }
+
+  /**
+   * Serializes a report to a single line json string.
+   *
+   * @param report Report to serialize.
+   * @return Json string of the report.
+   */
+  @SuppressWarnings("unchecked")
+  public String serialize(Report report) {
+    JSONObject reportJson = toJsonValues(report.root.getJson());
+    reportJson.put("LOCAL EFFECT", report.localEffect);
+    reportJson.put("OVERALL EFFECT", report.getOverallEffect(config));
+    reportJson.put("Upper Bound EFFECT", report.getUpperBoundEffectOnDownstreamDependencies());
+    reportJson.put("Lower Bound EFFECT", report.getLowerBoundEffectOnDownstreamDependencies());
+    reportJson.put("FINISHED", !report.requiresFurtherProcess(config));
+    reportJson.put("QUARANTINED", report.quarantined);
+    JSONArray followUps = new JSONArray();
+    if (config.chain && report.localEffect < 1) {
+      for (Fix fix : report.tree) {
+        followUps.add(toJsonValues(fix.getJson()));
+      }
+    }
+    reportJson.put("TREE", followUps);
+    return reportJson.toJSONString().replace("\\/", "/").replace("\\\\\\", "\\");
+  }
+
+  /**
+   * Replaces values of the given location json which are not json values, such as paths and
+   * enclosing methods, with their string representation. Otherwise, they are written unquoted and
+   * the report cannot be parsed back, e.g. by {@link ReportReader}.
+   *
+   * @param json Json representation of a location.
+   * @return The given json object.
+   */
+  @SuppressWarnings("unchecked")
+  private static JSONObject toJsonValues(JSONObject json) {
+    json.replaceAll(
+        (key, value) ->
+            value == null
+                    || value instanceof String
+                    || value instanceof Number
+                    || value instanceof Boolean
+                    || value instanceof JSONAware
+                ? value
+                : value.toString());
+    return json;
+  }
+}
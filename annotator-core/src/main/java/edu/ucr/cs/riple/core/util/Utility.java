@@ -37,35 +37,45 @@ import edu.ucr.cs.riple.core.registries.region.Region;
 import edu.ucr.cs.riple.core.registries.region.RegionRecord;
 import edu.ucr.cs.riple.scanner.AnnotatorScanner;
 import edu.ucr.cs.riple.scanner.ScannerConfigWriter;
+import edu.ucr.cs.riple.scanner.Serializer;
 import edu.ucr.cs.riple.scanner.generatedcode.SourceType;
-import java.io.BufferedWriter;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import me.tongfei.progressbar.ProgressBar;
 import me.tongfei.progressbar.ProgressBarStyle;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 
 /** Utility class. */
 public class Utility {
 
+  /** Name of the checker output file of each module. */
+  private static final String ERRORS_FILE_NAME = "errors.tsv";
+
   /**
    * Executes a shell command in a subprocess. If {@link Config#redirectBuildOutputToStdErr} is
    * activated, it will write the command's output in std error.
    *
    * @param config Annotator configuration.
    * @param command The shell command to run.
+   * @return Exit code of the command.
    */
-  public static void executeCommand(Config config, String command) {
+  public static int executeCommand(Config config, String command) {
     try {
       ProcessBuilder pb = new ProcessBuilder("/bin/sh", "-c", command);
       if (config.redirectBuildOutputToStdErr) {
@@ -76,53 +86,22 @@ public class Utility {
         pb.redirectError(ProcessBuilder.Redirect.DISCARD);
         pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
       }
-      pb.start().waitFor();
+      return pb.start().waitFor();
     } catch (Exception e) {
       throw new RuntimeException("Exception happened in executing command: " + command, e);
     }
   }
 
   /**
-   * Writes reports content in json format in reports.json file in the output directory.
+   * Writes reports content in the reports file in the output directory, see {@link ReportWriter}
+   * for the format. Reports are streamed to the file one at a time, sorted by their overall effect.
    *
    * @param context Annotator context.
    * @param reports Immutable set of reports.
    */
-  @SuppressWarnings("unchecked")
   public static void writeReports(Context context, ImmutableSet<Report> reports) {
-    Path reportsPath = context.config.globalDir.resolve("reports.json");
-    JSONObject result = new JSONObject();
-    JSONArray reportsJson = new JSONArray();
-    for (Report report : reports) {
-      JSONObject reportJson = report.root.getJson();
-      reportJson.put("LOCAL EFFECT", report.localEffect);
-      reportJson.put("OVERALL EFFECT", report.getOverallEffect(context.config));
-      reportJson.put("Upper Bound EFFECT", report.getUpperBoundEffectOnDownstreamDependencies());
-      reportJson.put("Lower Bound EFFECT", report.getLowerBoundEffectOnDownstreamDependencies());
-      reportJson.put("FINISHED", !report.requiresFurtherProcess(context.config));
-      JSONArray followUps = new JSONArray();
-      if (context.config.chain && report.localEffect < 1) {
-        followUps.addAll(report.tree.stream().map(Fix::getJson).collect(Collectors.toList()));
-      }
-      reportJson.put("TREE", followUps);
-      reportsJson.add(reportJson);
-    }
-    // Sort by overall effect.
-    reportsJson.sort(
-        (o1, o2) -> {
-          int first = (Integer) ((JSONObject) o1).get("OVERALL EFFECT");
-          int second = (Integer) ((JSONObject) o2).get("OVERALL EFFECT");
-          return Integer.compare(second, first);
-        });
-    result.put("REPORTS", reportsJson);
-    try (BufferedWriter writer =
-        Files.newBufferedWriter(reportsPath.toFile().toPath(), Charset.defaultCharset())) {
-      writer.write(result.toJSONString().replace("\\/", "/").replace("\\\\\\", "\\"));
-      writer.flush();
-    } catch (IOException e) {
-      throw new RuntimeException(
-          "Could not create the Annotator report json file: " + reportsPath, e);
-    }
+    Path reportsPath = context.outputDir.resolve(ReportWriter.getFileName(context.config));
+    new ReportWriter(context.config, reportsPath).write(reports);
   }
 
   /**
@@ -167,6 +146,9 @@ public class Utility {
         .addGeneratedCodeDetectors(config.generatedCodeDetectors)
         .setOutput(info.dir)
         .setNonnullAnnotations(config.getNonnullAnnotations())
+        .setShardedOutput(config.shardedScannerOutput)
+        .setIncrementalOutput(config.incrementalScannerOutput)
+        .setBinaryOutput(config.binaryScannerOutput)
         .writeAsXML(info.scannerConfig);
   }
 
@@ -194,10 +176,81 @@ public class Utility {
   public static void runScannerChecker(
       Context context, ImmutableSet<ModuleConfiguration> configurations, String buildCommand) {
     Utility.setScannerCheckerActivation(context.config, configurations, true);
+    // Remove shards of the previous run, otherwise their outputs are merged with the new ones.
+    configurations.forEach(
+        info -> {
+          deleteDirectory(info.dir.resolve(Serializer.SHARDS_DIRECTORY_NAME));
+          if (context.config.incrementalScannerOutput) {
+            deleteUnitsOfRemovedSourceFiles(info.dir.resolve(Serializer.UNITS_DIRECTORY_NAME));
+          } else {
+            deleteDirectory(info.dir.resolve(Serializer.UNITS_DIRECTORY_NAME));
+          }
+        });
     Utility.build(context, buildCommand);
     Utility.setScannerCheckerActivation(context.config, configurations, false);
   }
 
+  /**
+   * Deletes directories of incremental scanner outputs which their compilation unit no longer
+   * exists. Outputs of other units are kept, as they are only rewritten if their compilation unit
+   * is recompiled.
+   *
+   * @param units Path to the directory containing all unit directories.
+   */
+  private static void deleteUnitsOfRemovedSourceFiles(Path units) {
+    if (!Files.isDirectory(units)) {
+      return;
+    }
+    try (Stream<Path> unitDirectories = Files.list(units)) {
+      unitDirectories
+          .filter(unit -> !unitSourceFileExists(unit))
+          .forEach(Utility::deleteDirectory);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not list unit directories at: " + units, e);
+    }
+  }
+
+  /**
+   * Checks if the compilation unit of the given unit directory still exists.
+   *
+   * @param unit Path to the unit directory.
+   * @return true, if the compilation unit exists.
+   */
+  private static boolean unitSourceFileExists(Path unit) {
+    Path source = unit.resolve(Serializer.UNIT_SOURCE_FILE_NAME);
+    try {
+      String path = new String(Files.readAllBytes(source), Charset.defaultCharset());
+      return Files.exists(Paths.get(path));
+    } catch (IOException | InvalidPathException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Deletes the given directory with all its contents if exists.
+   *
+   * @param directory Path to the directory.
+   */
+  public static void deleteDirectory(Path directory) {
+    if (!Files.exists(directory)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths
+          .sorted(Comparator.reverseOrder())
+          .forEach(
+              path -> {
+                try {
+                  Files.delete(path);
+                } catch (IOException e) {
+                  throw new RuntimeException("Could not delete: " + path, e);
+                }
+              });
+    } catch (IOException e) {
+      throw new RuntimeException("Could not delete directory: " + directory, e);
+    }
+  }
+
   /**
    * Deserializes a {@link RegionRecord} corresponding to values stored in a string array.
    *
@@ -213,41 +266,168 @@ public class Utility {
         new Region(values[0], values[1], SourceType.valueOf(values[4])), values[2], values[3]);
   }
 
+  /**
+   * Serializes a {@link RegionRecord} to a string array, which {@link
+   * #deserializeImpactedRegionRecord(String[])} deserializes to an equal instance.
+   *
+   * @param record Region record.
+   * @return String array of values corresponding to the given record.
+   */
+  public static String[] serializeImpactedRegionRecord(RegionRecord record) {
+    return new String[] {
+      record.region.clazz,
+      record.region.member,
+      record.calleeMember,
+      record.calleeClass,
+      record.region.sourceType.name()
+    };
+  }
+
   /**
    * Builds all downstream dependencies.
    *
    * @param context Annotator context.
+   * @return true, if the build completed, see {@link #buildTarget(Context)}.
    */
-  public static void buildDownstreamDependencies(Context context) {
+  public static boolean buildDownstreamDependencies(Context context) {
     context.checker.prepareConfigFilesForBuild(context.downstreamConfigurations);
-    build(context, context.config.downstreamDependenciesBuildCommand);
+    return buildAndCheckCompletion(
+        context,
+        context.config.downstreamDependenciesBuildCommand,
+        context.downstreamConfigurations);
   }
 
   /**
    * Builds target with control on field initialization serialization.
    *
    * @param context Annotator context.
+   * @return true, if the build completed. Builds reporting checker errors exit with a non-zero
+   *     code, therefore a build exiting with a non-zero code is considered complete if some module
+   *     has checker errors written by this build and no module shows signs of a crash. Otherwise,
+   *     e.g. when injected annotations lead to uncompilable code in a module or the build runs out
+   *     of memory, the build is incomplete, see {@link #isCompleted(int, ImmutableSet, Map)}.
    */
-  public static void buildTarget(Context context) {
-    context.checker.prepareConfigFilesForBuild(context.targetModuleInfo.getModuleConfigurations());
-    build(context, context.config.buildCommand);
+  public static boolean buildTarget(Context context) {
+    ImmutableSet<ModuleConfiguration> modules = context.targetModuleInfo.getModuleConfigurations();
+    context.checker.prepareConfigFilesForBuild(modules);
+    return buildAndCheckCompletion(context, context.buildCommand, modules);
   }
 
   /**
-   * Builds module(s).
+   * Builds the given modules and checks if the build completed, see {@link #buildTarget(Context)}.
    *
    * @param context Annotator context.
-   * @param command Command to run to build module(s).
+   * @param command Command to run to build the modules.
+   * @param modules Modules built by the command.
+   * @return true, if the build completed.
    */
-  public static void build(Context context, String command) {
+  private static boolean buildAndCheckCompletion(
+      Context context, String command, ImmutableSet<ModuleConfiguration> modules) {
+    Map<Path, FileTime> before = new HashMap<>();
+    modules.forEach(module -> before.put(module.dir, errorsModificationTime(module)));
+    return isCompleted(build(context, command), modules, before);
+  }
+
+  /**
+   * Checks if a build of the given modules completed, see {@link #buildTarget(Context)}. A build
+   * exiting with a non-zero code is complete if at least one module has checker errors written by
+   * this build. Modules which checker errors are not rewritten, e.g. modules skipped after the
+   * failure of another module or not recompiled as their inputs did not change, do not make the
+   * build incomplete, unless their checker errors file shows signs of a crash: it does not exist or
+   * it is truncated before the end of its header. Package-private for testing.
+   *
+   * @param exitCode Exit code of the build command.
+   * @param modules Modules built by the command.
+   * @param before Last modification time of the checker errors of each module directory before
+   *     the build, {@code null} values if not existing.
+   * @return true, if the build completed.
+   */
+  static boolean isCompleted(
+      int exitCode, ImmutableSet<ModuleConfiguration> modules, Map<Path, FileTime> before) {
+    if (exitCode == 0) {
+      return true;
+    }
+    boolean reported = false;
+    for (ModuleConfiguration module : modules) {
+      Path errors = module.dir.resolve(ERRORS_FILE_NAME);
+      FileTime modified = errorsModificationTime(module);
+      if (modified == null) {
+        return false;
+      }
+      try (BufferedReader reader = Files.newBufferedReader(errors, Charset.defaultCharset())) {
+        // The first line is the header, which is terminated unless the file is truncated.
+        int c;
+        do {
+          c = reader.read();
+        } while (c != -1 && c != '\n');
+        if (c == -1) {
+          return false;
+        }
+        if (!Objects.equals(modified, before.get(module.dir)) && reader.readLine() != null) {
+          reported = true;
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Could not read errors at: " + errors, e);
+      }
+    }
+    return reported;
+  }
+
+  /**
+   * Returns the last modification time of the checker errors file of the given module.
+   *
+   * @param module Module configuration.
+   * @return Last modification time, {@code null} if the file does not exist.
+   */
+  private static FileTime errorsModificationTime(ModuleConfiguration module) {
+    Path errors = module.dir.resolve(ERRORS_FILE_NAME);
     try {
-      long timer = context.log.startTimer();
-      Utility.executeCommand(context.config, command);
-      context.log.stopTimerAndCaptureBuildTime(timer);
-      context.log.incrementBuildRequest();
-    } catch (Exception e) {
-      throw new RuntimeException("Could not run command: " + command, e);
+      return Files.exists(errors) ? Files.getLastModifiedTime(errors) : null;
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read modification time of: " + errors, e);
+    }
+  }
+
+  /**
+   * Builds target, unless the current source state of target has been built before and its checker
+   * outputs are restored from {@link edu.ucr.cs.riple.core.cache.BuildResultCache}.
+   *
+   * @param context Annotator context.
+   * @return true, if the build completed or its outputs are restored, see {@link
+   *     #buildTarget(Context)}. Outputs of incomplete builds are not stored.
+   */
+  public static boolean buildTargetWithCache(Context context) {
+    if (context.buildResultCache.restore()) {
+      return true;
+    }
+    boolean completed = buildTarget(context);
+    if (completed) {
+      context.buildResultCache.store();
     }
+    return completed;
+  }
+
+  /**
+   * Builds module(s) on a worker of the shared {@link edu.ucr.cs.riple.core.BuildScheduler}. Time
+   * spent waiting for a worker is not captured as build time.
+   *
+   * @param context Annotator context.
+   * @param command Command to run to build module(s).
+   * @return Exit code of the build command.
+   */
+  public static int build(Context context, String command) {
+    return context.buildScheduler.build(
+        () -> {
+          try {
+            long timer = context.log.startTimer();
+            int exitCode = Utility.executeCommand(context.config, command);
+            context.log.stopTimerAndCaptureBuildTime(timer);
+            context.log.incrementBuildRequest();
+            return exitCode;
+          } catch (Exception e) {
+            throw new RuntimeException("Could not run command: " + command, e);
+          }
+        });
   }
 
   /**
@@ -279,7 +459,7 @@ public class Utility {
    * @param context Annotator context.
    */
   public static void writeLog(Context context) {
-    Path path = context.config.globalDir.resolve("log.txt");
+    Path path = context.outputDir.resolve("log.txt");
     try {
       Files.write(path, Collections.singleton(context.log.toString()), Charset.defaultCharset());
     } catch (IOException exception) {
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package edu.ucr.cs.riple.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAway;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BuildSchedulerTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Path testDir;
+
+  @Before
+  public void init() throws IOException {
+    testDir = temporaryFolder.getRoot().toPath();
+    Files.write(testDir.resolve("paths.tsv"), List.of("nullaway.xml\tscanner.xml"));
+  }
+
+  @Test
+  public void dependenciesAreOrderedFirstTest() {
+    // c depends on a, a depends on b, d is independent.
+    ImmutableSetMultimap<String, String> uses = ImmutableSetMultimap.of("c", "a", "a", "b");
+    ImmutableMap<String, ImmutableSet<String>> ordered =
+        BuildScheduler.orderByDependencies(List.of("c", "a", "d", "b"), uses::containsEntry);
+    assertEquals(ImmutableList.of("d", "b", "a", "c"), ordered.keySet().asList());
+    assertEquals(ImmutableSet.of("a"), ordered.get("c"));
+    assertEquals(ImmutableSet.of("b"), ordered.get("a"));
+    assertEquals(ImmutableSet.of(), ordered.get("b"));
+    assertEquals(ImmutableSet.of(), ordered.get("d"));
+  }
+
+  @Test
+  public void independentTargetsKeepTheirOrderTest() {
+    ImmutableMap<String, ImmutableSet<String>> ordered =
+        BuildScheduler.orderByDependencies(List.of("b", "a", "c"), (first, second) -> false);
+    assertEquals(ImmutableList.of("b", "a", "c"), ordered.keySet().asList());
+  }
+
+  @Test
+  public void cyclicDependenciesAreRejectedTest() {
+    ImmutableSetMultimap<String, String> uses =
+        ImmutableSetMultimap.of("a", "b", "b", "c", "c", "a");
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> BuildScheduler.orderByDependencies(List.of("a", "b", "c", "d"), uses::containsEntry));
+  }
+
+  @Test
+  public void downstreamReportsAreSharedTest() {
+    BuildScheduler scheduler = new BuildScheduler(makeConfig());
+    OnMethod foo = new OnMethod("Foo.java", "test.Foo", "foo()");
+    OnMethod bar = new OnMethod("Bar.java", "test.Bar", "bar()");
+    Fix fix = new Fix(new AddMarkerAnnotation(foo, "javax.annotation.Nullable"), "null", false);
+    Report report = new Report(fix, 0);
+    assertNull(scheduler.getDownstreamReport(foo));
+    scheduler.putDownstreamReports(ImmutableSet.of(report));
+    assertSame(report, scheduler.getDownstreamReport(foo));
+    assertNull(scheduler.getDownstreamReport(bar));
+  }
+
+  @Test
+  public void removedDownstreamReportsAreNotSharedTest() {
+    BuildScheduler scheduler = new BuildScheduler(makeConfig());
+    OnMethod foo = new OnMethod("Foo.java", "test.Foo", "foo()");
+    OnMethod bar = new OnMethod("Bar.java", "test.Bar", "bar()");
+    Report fooReport =
+        new Report(
+            new Fix(new AddMarkerAnnotation(foo, "javax.annotation.Nullable"), "null", false), 0);
+    Report barReport =
+        new Report(
+            new Fix(new AddMarkerAnnotation(bar, "javax.annotation.Nullable"), "null", false), 0);
+    scheduler.putDownstreamReports(ImmutableSet.of(fooReport, barReport));
+    scheduler.removeDownstreamReports(location -> location.equals(foo));
+    assertNull(scheduler.getDownstreamReport(foo));
+    assertSame(barReport, scheduler.getDownstreamReport(bar));
+  }
+
+  /**
+   * Creates a config with two build workers.
+   *
+   * @return Config instance.
+   */
+  private Config makeConfig() {
+    return new Config(
+        new String[] {
+          "-bc",
+          "./gradlew compileJava",
+          "-cp",
+          testDir.resolve("paths.tsv").toString(),
+          "-i",
+          "edu.ucr.Initializer",
+          "-d",
+          testDir.toString(),
+          "-cn",
+          NullAway.NAME,
+          "-bw",
+          "2"
+        });
+  }
+}
@@ -71,6 +71,64 @@ public class CoreTest extends AnnotatorBaseCoreTest {
         .start();
   }
 
+  @Test
+  public void timeBudgetedRunInBatches() {
+    // More fixes than the first batch of a time budgeted run, remaining fixes are ranked and
+    // evaluated in the next batch on the rebuilt state of the target module.
+    String[] lines = new String[15];
+    lines[0] = "package test;";
+    lines[1] = "public class Main {";
+    TReport[] expected = new TReport[12];
+    for (int i = 0; i < 12; i++) {
+      lines[i + 2] = "   Object run" + i + "() { return null; }";
+      expected[i] = new TReport(new OnMethod("Main.java", "test.Main", "run" + i + "()"), -1);
+    }
+    lines[14] = "}";
+    coreTestHelper
+        .onTarget()
+        .withSourceLines("Main.java", lines)
+        .withExpectedReports(expected)
+        .withTimeBudget(3600)
+        .start();
+  }
+
+  @Test
+  public void shardedRunOnTwoPackages() {
+    // A.get() is called from package test.b and is evaluated in the merge shard, after fixes of
+    // both package shards are injected and the target module is rebuilt.
+    coreTestHelper
+        .onTarget()
+        .withSourceLines(
+            "A.java",
+            "package test.a;",
+            "public class A {",
+            "   public Object get() {",
+            "     return null;",
+            "   }",
+            "   Object run() {",
+            "     return null;",
+            "   }",
+            "}")
+        .withSourceLines(
+            "B.java",
+            "package test.b;",
+            "import test.a.A;",
+            "public class B {",
+            "   Object run() {",
+            "     return null;",
+            "   }",
+            "   void use(A a) {",
+            "     Object o = a.get();",
+            "   }",
+            "}")
+        .withExpectedReports(
+            new TReport(new OnMethod("A.java", "test.a.A", "run()"), -1),
+            new TReport(new OnMethod("B.java", "test.b.B", "run()"), -1),
+            new TReport(new OnMethod("A.java", "test.a.A", "get()"), -1))
+        .shardByPackage()
+        .start();
+  }
+
   @Test
   public void param() {
     coreTestHelper
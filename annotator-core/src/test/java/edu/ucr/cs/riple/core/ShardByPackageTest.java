@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.registries.region.Region;
+import edu.ucr.cs.riple.core.registries.region.RegionRegistry;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.Location;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ShardByPackageTest {
+
+  /** Impacted regions of each location, locations without an entry impact no region. */
+  private Map<Location, ImmutableSet<Region>> regions;
+  /** Region registry backed by {@link #regions}. */
+  private RegionRegistry registry;
+
+  @Before
+  public void init() {
+    regions = new HashMap<>();
+    registry =
+        new RegionRegistry() {
+          @Override
+          public ImmutableSet<Region> getImpactedRegions(Location location) {
+            return regions.getOrDefault(location, ImmutableSet.of());
+          }
+
+          @Override
+          public ImmutableSet<Region> getImpactedRegionsByUse(Location location) {
+            return getImpactedRegions(location);
+          }
+        };
+  }
+
+  @Test
+  public void fixesArePartitionedByPackageInOrderTest() {
+    Fix b = fix("test.b.B", "run()", new Region("test.b.B", "run()"));
+    Fix a1 = fix("test.a.A", "run()", new Region("test.a.A", "run()"));
+    Fix a2 = fix("test.a.Other", "run()", new Region("test.a.A", "call()"));
+    Fix nested = fix("test.a.sub.C", "run()");
+    Fix unnamed = fix("Main", "run()", new Region("Main", "run()"));
+    ImmutableList<ImmutableSet<Fix>> shards =
+        Annotator.partitionByPackage(ImmutableSet.of(b, a1, a2, nested, unnamed), registry);
+    // Shards of the default package, test.a, test.a.sub and test.b, no merge shard.
+    assertEquals(
+        ImmutableList.of(
+            ImmutableSet.of(unnamed),
+            ImmutableSet.of(a1, a2),
+            ImmutableSet.of(nested),
+            ImmutableSet.of(b)),
+        shards);
+  }
+
+  @Test
+  public void fixesImpactingOtherPackagesAreMovedToMergeShardTest() {
+    Fix local = fix("test.a.A", "run()", new Region("test.a.A", "run()"));
+    Fix crossing =
+        fix("test.a.A", "get()", new Region("test.a.A", "run()"), new Region("test.b.B", "use()"));
+    Fix subPackage = fix("test.a.A", "call()", new Region("test.a.sub.C", "use()"));
+    Fix other = fix("test.b.B", "run()", new Region("test.b.B", "run()"));
+    ImmutableList<ImmutableSet<Fix>> shards =
+        Annotator.partitionByPackage(
+            ImmutableSet.of(crossing, local, subPackage, other), registry);
+    assertEquals(
+        ImmutableList.of(
+            ImmutableSet.of(local), ImmutableSet.of(other), ImmutableSet.of(crossing, subPackage)),
+        shards);
+  }
+
+  @Test
+  public void allFixesImpactingOtherPackagesTest() {
+    Fix first = fix("test.a.A", "run()", new Region("test.b.B", "use()"));
+    Fix second = fix("test.b.B", "run()", new Region("test.a.A", "use()"));
+    ImmutableList<ImmutableSet<Fix>> shards =
+        Annotator.partitionByPackage(ImmutableSet.of(first, second), registry);
+    // Only the merge shard remains.
+    assertEquals(ImmutableList.of(ImmutableSet.of(first, second)), shards);
+  }
+
+  @Test
+  public void noFixesTest() {
+    assertTrue(Annotator.partitionByPackage(ImmutableSet.of(), registry).isEmpty());
+  }
+
+  /**
+   * Creates a fix on the given method impacting the given regions.
+   *
+   * @param clazz Flat name of the enclosing class.
+   * @param method Signature of the method.
+   * @param impacted Regions impacted by the fix.
+   * @return Fix instance.
+   */
+  private Fix fix(String clazz, String method, Region... impacted) {
+    Location location = new OnMethod("Foo.java", clazz, method);
+    regions.put(location, ImmutableSet.copyOf(impacted));
+    return new Fix(new AddMarkerAnnotation(location, "javax.annotation.Nullable"), "null", true);
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAway;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.util.ReportWriter;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.Location;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ShardStoreTest {
+
+  /** Pattern of the method targeted by the fix of a serialized report. */
+  private static final Pattern METHOD = Pattern.compile("\"METHOD\":\"([^\"]*)\"");
+  /** Pattern of the overall effect of a serialized report. */
+  private static final Pattern OVERALL_EFFECT = Pattern.compile("\"OVERALL EFFECT\":(-?\\d+)");
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Path testDir;
+  private Config config;
+
+  @Before
+  public void init() throws IOException {
+    testDir = temporaryFolder.getRoot().toPath();
+    Files.write(testDir.resolve("paths.tsv"), List.of("nullaway.xml\tscanner.xml"));
+    config =
+        new Config(
+            new String[] {
+              "-bc",
+              "./gradlew compileJava",
+              "-cp",
+              testDir.resolve("paths.tsv").toString(),
+              "-i",
+              "edu.ucr.Initializer",
+              "-d",
+              testDir.toString(),
+              "-cn",
+              NullAway.NAME,
+              "-ndr",
+              "-sbp"
+            });
+  }
+
+  @Test
+  public void mergesShardsWithReportsInMemoryTest() throws IOException {
+    ShardStore store = new ShardStore(config, testDir, false);
+    store.persist(Set.of(report("a()", -2), report("b()", 0)));
+    // Fix on b() is reported again in a later shard, the latest report is kept.
+    store.persist(Set.of(report("c()", -5), report("b()", 3)));
+    // Reports in memory take precedence over persisted reports.
+    store.writeReports(Set.of(report("d()", 1), report("a()", -1)));
+    List<String> written = Files.readAllLines(reportsFile());
+    assertEquals(List.of("b()", "d()", "a()", "c()"), valuesOf(written, METHOD));
+    assertEquals(List.of("3", "1", "-1", "-5"), valuesOf(written, OVERALL_EFFECT));
+  }
+
+  @Test
+  public void mergedReportsMatchWritingAllReportsTest() throws IOException {
+    ShardStore store = new ShardStore(config, testDir, false);
+    store.persist(Set.of(report("a()", 2), report("b()", -1)));
+    store.persist(Set.of(report("c()", 0)));
+    store.writeReports(Set.of());
+    List<String> merged = Files.readAllLines(reportsFile());
+    new ReportWriter(config, reportsFile())
+        .write(List.of(report("a()", 2), report("b()", -1), report("c()", 0)));
+    assertEquals(Files.readAllLines(reportsFile()), merged);
+  }
+
+  @Test
+  public void resumesPersistedShardsTest() throws IOException {
+    ShardStore store = new ShardStore(config, testDir, false);
+    store.persist(Set.of(report("a()", -2), report("b()", 0)));
+    store.persist(Set.of(report("b()", -1)));
+    // Leftover of a shard which was being written when the previous run was interrupted.
+    Files.write(
+        testDir.resolve(ShardStore.DIRECTORY_NAME).resolve("shard-000002.tsv.tmp"),
+        List.of("{\"KIND\":\"METHOD\""));
+    ShardStore resumed = new ShardStore(config, testDir, true);
+    assertEquals(
+        ImmutableSet.of(location("a()"), location("b()")), resumed.getPersistedLocations());
+    assertEquals(
+        ImmutableMap.of(location("a()"), -2, location("b()"), -1), resumed.readPersistedEffects());
+    // New shards are written after the loaded ones and take precedence.
+    resumed.persist(Set.of(report("a()", 4)));
+    assertEquals(
+        ImmutableMap.of(location("a()"), 4, location("b()"), -1), resumed.readPersistedEffects());
+    resumed.writeReports(Set.of());
+    assertEquals(List.of("a()", "b()"), valuesOf(Files.readAllLines(reportsFile()), METHOD));
+    // Without resuming, persisted shards are deleted.
+    ShardStore fresh = new ShardStore(config, testDir, false);
+    assertTrue(fresh.getPersistedLocations().isEmpty());
+    try (Stream<Path> files = Files.list(testDir.resolve(ShardStore.DIRECTORY_NAME))) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  public void releasedReportsRemainProcessedTest() {
+    ReportCache cache = new ReportCache(config);
+    Report first = report("a()", -1);
+    Report second = report("b()", 0);
+    cache.update(ImmutableSet.of(first, second));
+    cache.release(Set.of(first));
+    assertEquals(ImmutableSet.of(second), cache.reports());
+    assertTrue(cache.processedFix(first.root));
+    assertTrue(cache.processedFix(second.root));
+    // Evaluating a released fix again does not count as a new fix.
+    cache.update(ImmutableSet.of(report("a()", -1)));
+    assertFalse(cache.isUpdated());
+    assertEquals(2, cache.reports().size());
+    cache.invalidate(location -> location.equals(location("a()")));
+    assertFalse(cache.processedFix(first.root));
+    // Locations persisted by a previous run are processed.
+    cache.markReleased(Set.of(location("c()")));
+    assertTrue(cache.processedFix(report("c()", 0).root));
+  }
+
+  /**
+   * Returns the path to the reports file.
+   *
+   * @return Path to the reports file in the test directory.
+   */
+  private Path reportsFile() {
+    return testDir.resolve(ReportWriter.getFileName(config));
+  }
+
+  /**
+   * Returns the value matched by the given pattern in each serialized report.
+   *
+   * @param reports Serialized reports, one per line.
+   * @param pattern Pattern capturing the value in its first group.
+   * @return Values in the order of reports.
+   */
+  private static List<String> valuesOf(List<String> reports, Pattern pattern) {
+    return reports.stream()
+        .map(
+            report -> {
+              Matcher matcher = pattern.matcher(report);
+              assertTrue("Value not found in: " + report, matcher.find());
+              return matcher.group(1);
+            })
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Creates a report of a fix on the given method.
+   *
+   * @param method Signature of the method.
+   * @param effect Local effect of the fix.
+   * @return Report instance.
+   */
+  private static Report report(String method, int effect) {
+    return new Report(
+        new Fix(
+            new AddMarkerAnnotation(location(method), "javax.annotation.Nullable"), "null", true),
+        effect);
+  }
+
+  /**
+   * Creates a location of the given method.
+   *
+   * @param method Signature of the method.
+   * @return Location instance.
+   */
+  private static Location location(String method) {
+    return new OnMethod("Foo.java", "test.Foo", method);
+  }
+}
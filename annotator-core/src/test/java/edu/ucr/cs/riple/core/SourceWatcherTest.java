@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.injector.location.OnClass;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SourceWatcherTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  /** Source root of the watched tree. */
+  private Path root;
+
+  @Before
+  public void init() throws IOException {
+    root = temporaryFolder.getRoot().toPath().toRealPath().resolve("src").resolve("main");
+    Files.createDirectories(root.resolve("com").resolve("example").resolve("util"));
+  }
+
+  @Test
+  public void sourceRootStripsPackageDirectoriesTest() {
+    Path file = root.resolve("com").resolve("example").resolve("util").resolve("Foo.java");
+    String clazz = "com.example.util.Foo";
+    assertEquals(root, SourceWatcher.sourceRoot(clazz, new OnClass(file, clazz)));
+    String inner = "com.example.util.Foo$Bar";
+    assertEquals(root, SourceWatcher.sourceRoot(inner, new OnClass(file, inner)));
+    Path unnamed = root.resolve("Baz.java");
+    assertEquals(root, SourceWatcher.sourceRoot("Baz", new OnClass(unnamed, "Baz")));
+    assertNull(SourceWatcher.sourceRoot("com.example.util.Foo", null));
+  }
+
+  @Test
+  public void editsInNestedDirectoriesAreRecordedTest() throws Exception {
+    Path file = root.resolve("com").resolve("example").resolve("util").resolve("Foo.java");
+    Files.write(file, List.of("class Foo {}"));
+    try (SourceWatcher watcher = new SourceWatcher(ImmutableSet.of(root))) {
+      watcher.start();
+      Files.write(file, List.of("class Foo { int x; }"));
+      Files.write(file.resolveSibling("notes.txt"), List.of("not a source file"));
+      assertTrue(eventually(() -> watcher.getTouchedFiles().contains(file)));
+      assertEquals(ImmutableSet.of(file), watcher.getTouchedFiles());
+      watcher.clear();
+      assertEquals(ImmutableSet.of(), watcher.getTouchedFiles());
+    }
+  }
+
+  @Test
+  public void createdDirectoriesAreWatchedTest() throws Exception {
+    try (SourceWatcher watcher = new SourceWatcher(ImmutableSet.of(root))) {
+      watcher.start();
+      Path created = Files.createDirectories(root.resolve("com").resolve("other").resolve("pkg"));
+      // Written right away, possibly before the new directories are registered.
+      Path first = Files.write(created.resolve("First.java"), List.of("class First {}"));
+      assertTrue(eventually(() -> watcher.getTouchedFiles().contains(first)));
+      // Written once the new directories are registered.
+      Path second = Files.write(created.resolve("Second.java"), List.of("class Second {}"));
+      assertTrue(eventually(() -> watcher.getTouchedFiles().contains(second)));
+    }
+  }
+
+  /**
+   * Polls the given condition until it holds, the watch service might report events with delay.
+   *
+   * @param condition Condition to check.
+   * @return true, if the condition holds within the time limit.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 30_000;
+    while (System.currentTimeMillis() < deadline) {
+      if (condition.getAsBoolean()) {
+        return true;
+      }
+      Thread.sleep(50);
+    }
+    return condition.getAsBoolean();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAway;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TimeBudgetTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Path testDir;
+
+  @Before
+  public void init() throws IOException {
+    testDir = temporaryFolder.getRoot().toPath();
+    Files.write(testDir.resolve("paths.tsv"), List.of("nullaway.xml\tscanner.xml"));
+  }
+
+  @Test
+  public void unlimitedBudgetTest() {
+    TimeBudget budget = new TimeBudget(makeConfig(-1));
+    assertFalse(budget.isLimited());
+    assertFalse(budget.isExhausted());
+    assertTrue(budget.canAffordNextStep());
+    assertEquals(50, budget.getAffordableStepSize(10, 50));
+  }
+
+  @Test
+  public void firstStepIsBoundedTest() {
+    TimeBudget budget = new TimeBudget(makeConfig(3600));
+    assertTrue(budget.isLimited());
+    assertEquals(10, budget.getAffordableStepSize(10, 50));
+    assertEquals(5, budget.getAffordableStepSize(10, 5));
+  }
+
+  @Test
+  public void stepsAreSizedByRemainingBudgetTest() {
+    TimeBudget budget = new TimeBudget(makeConfig(2));
+    // A step of 10 units which took one second, each unit takes 100 milliseconds.
+    budget.finishStep(budget.startStep() - 1000, 10);
+    int size = budget.getAffordableStepSize(10, 50);
+    assertTrue("Unexpected step size: " + size, size > 10 && size <= 20);
+    assertTrue(budget.canAffordNextStep());
+    // Slower units shrink the next step.
+    budget.finishStep(budget.startStep() - 2500, 2);
+    assertEquals(1, budget.getAffordableStepSize(10, 50));
+    // Remaining budget is less than the longest step.
+    assertFalse(budget.canAffordNextStep());
+  }
+
+  @Test
+  public void exhaustedBudgetTest() throws InterruptedException {
+    TimeBudget budget = new TimeBudget(makeConfig(1));
+    assertFalse(budget.isExhausted());
+    Thread.sleep(1100);
+    assertTrue(budget.isExhausted());
+    assertEquals(0, budget.getAffordableStepSize(10, 50));
+    // Restarting the budget keeps the estimates of previous steps.
+    budget.restart();
+    assertFalse(budget.isExhausted());
+    assertEquals(10, budget.getAffordableStepSize(10, 50));
+  }
+
+  /**
+   * Creates a config with the given time budget.
+   *
+   * @param seconds Time budget in seconds.
+   * @return Config instance.
+   */
+  private Config makeConfig(long seconds) {
+    return new Config(
+        new String[] {
+          "-bc",
+          "./gradlew compileJava",
+          "-cp",
+          testDir.resolve("paths.tsv").toString(),
+          "-i",
+          "edu.ucr.Initializer",
+          "-d",
+          testDir.toString(),
+          "-cn",
+          NullAway.NAME,
+          "-tb",
+          String.valueOf(seconds)
+        });
+  }
+}
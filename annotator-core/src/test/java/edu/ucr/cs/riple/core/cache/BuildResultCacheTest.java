@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.Config;
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAway;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.changes.RemoveMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BuildResultCacheTest {
+
+  /** Original content of the source file. */
+  private static final String ORIGINAL =
+      "package test;\npublic class A {\n  @Nullable Object foo() { return null; }\n}\n";
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Path testDir;
+  private Path source;
+  private ModuleConfiguration module;
+
+  @Before
+  public void init() throws IOException {
+    testDir = temporaryFolder.getRoot().toPath();
+    Files.write(testDir.resolve("paths.tsv"), List.of("nullaway.xml\tscanner.xml"));
+    source = testDir.resolve("A.java");
+    Files.writeString(source, ORIGINAL);
+    module =
+        new ModuleConfiguration(
+            7, testDir, testDir.resolve("nullaway.xml"), testDir.resolve("scanner.xml"));
+    Files.writeString(module.checkerConfig, "<serialization/>");
+    Files.writeString(module.dir.resolve("serialization_version.txt"), "3");
+  }
+
+  @Test
+  public void missesThenHitsSameStateTest() throws IOException {
+    BuildResultCache cache = makeCache("./gradlew compileJava");
+    assertFalse(cache.restore());
+    build("first");
+    cache.store();
+    build("overwritten");
+    assertTrue(cache.restore());
+    assertEquals("first", Files.readString(module.dir.resolve("errors.tsv")));
+    // Entries persist across runs on the same sources.
+    assertTrue(makeCache("./gradlew compileJava").restore());
+  }
+
+  @Test
+  public void injectionAndRemovalTest() throws IOException {
+    BuildResultCache cache = makeCache("./gradlew compileJava");
+    build("base");
+    cache.store();
+    AddMarkerAnnotation change =
+        new AddMarkerAnnotation(
+            new OnMethod(source.toString(), "test.A", "bar()"), "javax.annotation.Nullable");
+    Files.writeString(source, ORIGINAL.replace("Object foo", "@Nullable Object foo"));
+    cache.onChangesInjected(Set.of(change));
+    assertFalse(cache.restore());
+    build("injected");
+    cache.store();
+    // Reverting the injection leads back to the base state.
+    Files.writeString(source, ORIGINAL);
+    cache.onChangesRemoved(Set.of(change));
+    assertTrue(cache.restore());
+    assertEquals("base", Files.readString(module.dir.resolve("errors.tsv")));
+  }
+
+  @Test
+  public void removingPreexistingAnnotationIsNewStateTest() throws IOException {
+    BuildResultCache cache = makeCache("./gradlew compileJava");
+    build("base");
+    cache.store();
+    // Removing an annotation which exists in the original sources must not collide with the base
+    // state.
+    Files.writeString(source, ORIGINAL.replace("@Nullable ", ""));
+    cache.onChangesRemoved(
+        Set.of(
+            new RemoveMarkerAnnotation(
+                new OnMethod(source.toString(), "test.A", "foo()"), "javax.annotation.Nullable")));
+    assertFalse(cache.restore());
+  }
+
+  @Test
+  public void configurationIsPartOfKeyTest() throws IOException {
+    makeCache("./gradlew compileJava");
+    build("base");
+    makeCache("./gradlew compileJava").store();
+    assertFalse(makeCache("./gradlew build").restore());
+    Files.writeString(module.checkerConfig, "<serialization><suggest/></serialization>");
+    assertFalse(makeCache("./gradlew compileJava").restore());
+    Files.writeString(module.checkerConfig, "<serialization/>");
+    Files.writeString(module.dir.resolve("serialization_version.txt"), "4");
+    assertFalse(makeCache("./gradlew compileJava").restore());
+  }
+
+  @Test
+  public void restoresAllOutputsTest() throws IOException {
+    BuildResultCache cache = makeCache("./gradlew compileJava");
+    build("base");
+    Files.writeString(module.dir.resolve("field_init.tsv"), "init");
+    cache.store();
+    build("other");
+    Files.delete(module.dir.resolve("field_init.tsv"));
+    assertTrue(cache.restore());
+    assertEquals("init", Files.readString(module.dir.resolve("field_init.tsv")));
+    // Outputs not produced by the stored build are deleted on restore.
+    Files.writeString(source, ORIGINAL + "\n");
+    cache.onChangesInjected(
+        Set.of(
+            new AddMarkerAnnotation(
+                new OnMethod(source.toString(), "test.A", "foo()"), "javax.annotation.Nullable")));
+    Files.delete(module.dir.resolve("field_init.tsv"));
+    cache.store();
+    Files.writeString(module.dir.resolve("field_init.tsv"), "stale");
+    assertTrue(cache.restore());
+    assertFalse(Files.exists(module.dir.resolve("field_init.tsv")));
+  }
+
+  @Test
+  public void deletesEntriesOfOtherFormatVersionsTest() throws IOException {
+    Path stale =
+        testDir.resolve(BuildResultCache.BUILD_RESULT_CACHE_DIR_NAME).resolve("v1").resolve("x");
+    Files.createDirectories(stale);
+    BuildResultCache cache = makeCache("./gradlew compileJava");
+    assertFalse(Files.exists(stale.getParent()));
+    build("base");
+    cache.store();
+    assertTrue(
+        Files.isDirectory(
+            testDir
+                .resolve(BuildResultCache.BUILD_RESULT_CACHE_DIR_NAME)
+                .resolve("v" + BuildResultCache.FORMAT_VERSION)));
+  }
+
+  /**
+   * Simulates a build of the target module by writing its checker errors.
+   *
+   * @param errors Content of the errors file.
+   */
+  private void build(String errors) throws IOException {
+    Files.writeString(module.dir.resolve("errors.tsv"), errors);
+  }
+
+  /**
+   * Creates an enabled build result cache on the current state of the source file.
+   *
+   * @param buildCommand Build command of the target module.
+   * @return Build result cache instance.
+   */
+  private BuildResultCache makeCache(String buildCommand) {
+    List<String> args =
+        new ArrayList<>(
+            List.of(
+                "-bc",
+                buildCommand,
+                "-cp",
+                testDir.resolve("paths.tsv").toString(),
+                "-i",
+                "edu.ucr.Initializer",
+                "-d",
+                testDir.toString(),
+                "-cn",
+                NullAway.NAME,
+                "-ebrc"));
+    Config config = new Config(args.toArray(new String[0]));
+    return new BuildResultCache(
+        config, buildCommand, ImmutableSet.of(module), ImmutableSet.of(source));
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.cache.downstream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.BuildScheduler;
+import edu.ucr.cs.riple.core.Config;
+import edu.ucr.cs.riple.core.Context;
+import edu.ucr.cs.riple.core.Report;
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAway;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class DownstreamImpactCacheImplTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /** Fix on a public method of the target module. */
+  private static final Fix FIX =
+      new Fix(
+          new AddMarkerAnnotation(
+              new OnMethod("Foo.java", "test.Foo", "bar()"), "javax.annotation.Nullable"),
+          "null",
+          false);
+
+  /** Fix on another public method of the target module, declared in another file. */
+  private static final Fix OTHER_FIX =
+      new Fix(
+          new AddMarkerAnnotation(
+              new OnMethod("Bar.java", "test.Bar", "baz()"), "javax.annotation.Nullable"),
+          "null",
+          false);
+
+  @Test
+  public void accessorsAwaitAnalysisTest() throws InterruptedException {
+    DownstreamImpactCacheImpl cache = new DownstreamImpactCacheImpl(Mockito.mock(Context.class));
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean daemon = new AtomicBoolean(false);
+    cache.startAnalysis(
+        () -> {
+          daemon.set(Thread.currentThread().isDaemon());
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    // Each accessor must block while the analysis is pending.
+    Runnable[] accessors = {
+      () -> cache.fetchImpact(FIX),
+      () -> cache.isUnknown(FIX),
+      () -> cache.getTriggeredErrors(FIX),
+      () -> cache.getTriggeredErrorsForCollection(Set.of(FIX)),
+      () -> cache.getTriggeredFixesFromDownstreamForCollection(Set.of(FIX)),
+      () -> cache.computeLowerBoundOfNumberOfErrors(Set.of(FIX)),
+      () -> cache.computeUpperBoundOfNumberOfErrors(Set.of(FIX)),
+      () -> cache.triggersUnresolvableErrorsOnDownstream(FIX),
+      () -> cache.updateImpactsAfterInjection(Set.of(FIX)),
+      cache::size,
+    };
+    CountDownLatch completed = new CountDownLatch(accessors.length);
+    for (Runnable accessor : accessors) {
+      new Thread(
+              () -> {
+                accessor.run();
+                completed.countDown();
+              })
+          .start();
+    }
+    assertFalse(completed.await(200, TimeUnit.MILLISECONDS));
+    assertEquals(accessors.length, completed.getCount());
+    release.countDown();
+    assertTrue(completed.await(5, TimeUnit.SECONDS));
+    assertTrue(daemon.get());
+  }
+
+  @Test
+  public void analysisIsStartedOnceTest() {
+    DownstreamImpactCacheImpl cache = new DownstreamImpactCacheImpl(Mockito.mock(Context.class));
+    CountDownLatch runs = new CountDownLatch(2);
+    cache.startAnalysis(runs::countDown);
+    cache.startAnalysis(runs::countDown);
+    cache.awaitAnalysis();
+    assertEquals(1, runs.getCount());
+  }
+
+  @Test
+  public void analysisFailureIsPropagatedTest() {
+    DownstreamImpactCacheImpl cache = new DownstreamImpactCacheImpl(Mockito.mock(Context.class));
+    cache.startAnalysis(
+        () -> {
+          throw new IllegalStateException("build failed");
+        });
+    RuntimeException exception = assertThrows(RuntimeException.class, () -> cache.size());
+    assertTrue(exception.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  public void awaitWithoutAnalysisReturnsTest() {
+    DownstreamImpactCacheImpl cache = new DownstreamImpactCacheImpl(Mockito.mock(Context.class));
+    cache.awaitAnalysis();
+    assertEquals(0, cache.size());
+    assertTrue(cache.isUnknown(FIX));
+  }
+
+  @Test
+  public void invalidateRemovesMatchingImpactsTest() throws IOException {
+    BuildScheduler scheduler = new BuildScheduler(makeConfig());
+    DownstreamImpactCacheImpl cache =
+        new DownstreamImpactCacheImpl(Mockito.mock(Context.class), scheduler);
+    Report report = new Report(FIX, 0);
+    Report otherReport = new Report(OTHER_FIX, 0);
+    scheduler.putDownstreamReports(ImmutableSet.of(report, otherReport));
+    cache.storeReports(ImmutableSet.of(report, otherReport));
+    assertFalse(cache.isUnknown(FIX));
+    cache.invalidate(location -> location.path.equals(Path.of("Foo.java")));
+    assertTrue(cache.isUnknown(FIX));
+    assertFalse(cache.isUnknown(OTHER_FIX));
+    // Reports shared with other target modules must be computed again as well.
+    assertNull(scheduler.getDownstreamReport(FIX.toLocation()));
+    assertSame(otherReport, scheduler.getDownstreamReport(OTHER_FIX.toLocation()));
+  }
+
+  @Test
+  public void invalidateAllowsNewAnalysisTest() throws IOException {
+    DownstreamImpactCacheImpl cache =
+        new DownstreamImpactCacheImpl(
+            Mockito.mock(Context.class), new BuildScheduler(makeConfig()));
+    CountDownLatch runs = new CountDownLatch(2);
+    cache.startAnalysis(runs::countDown);
+    cache.invalidate(location -> true);
+    cache.startAnalysis(runs::countDown);
+    cache.awaitAnalysis();
+    assertEquals(0, runs.getCount());
+  }
+
+  /**
+   * Creates a config with a single build worker.
+   *
+   * @return Config instance.
+   * @throws IOException if the paths file could not be written.
+   */
+  private Config makeConfig() throws IOException {
+    Path testDir = temporaryFolder.getRoot().toPath();
+    Files.write(testDir.resolve("paths.tsv"), List.of("nullaway.xml\tscanner.xml"));
+    return new Config(
+        new String[] {
+          "-bc",
+          "./gradlew compileJava",
+          "-cp",
+          testDir.resolve("paths.tsv").toString(),
+          "-i",
+          "edu.ucr.Initializer",
+          "-d",
+          testDir.toString(),
+          "-cn",
+          NullAway.NAME
+        });
+  }
+}
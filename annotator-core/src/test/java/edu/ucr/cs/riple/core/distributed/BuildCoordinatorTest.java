@@ -0,0 +1,240 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package edu.ucr.cs.riple.core.distributed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BuildCoordinatorTest {
+
+  /** Key of the index of a request, echoed back by stub workers. */
+  private static final String INDEX = "INDEX";
+  /** Key of the process id of the stub worker in responses. */
+  private static final String WORKER = "WORKER";
+  /** Key of the time a stub worker spends on a request in milliseconds. */
+  private static final String SLEEP = "SLEEP";
+  /** Token shared by the coordinator and stub workers. */
+  private static final String TOKEN = "test-token";
+
+  /** Worker processes started by the test. */
+  private final List<Process> processes = new ArrayList<>();
+
+  @After
+  public void cleanup() {
+    processes.forEach(Process::destroyForcibly);
+  }
+
+  @Test
+  public void requestsAreSpreadOverWorkerProcessesTest() throws IOException {
+    ImmutableList<String> workers =
+        ImmutableList.of(startWorker("serve"), startWorker("serve"), startWorker("serve"));
+    Map<Integer, JSONObject> responses = dispatch(new BuildCoordinator(workers, TOKEN), 12, 300);
+    Set<Object> servedBy = new HashSet<>();
+    responses.values().forEach(response -> servedBy.add(response.get(WORKER)));
+    assertEquals(3, servedBy.size());
+  }
+
+  @Test
+  public void deadWorkerIsRetiredTest() throws IOException {
+    String dead = startWorker("serve");
+    processes.get(0).destroyForcibly();
+    ImmutableList<String> workers =
+        ImmutableList.of(dead, startWorker("serve"), startWorker("serve"));
+    // Without retiring, the dead worker is handed out again and again until a request fails on it
+    // as many times as allowed.
+    Map<Integer, JSONObject> responses = dispatch(new BuildCoordinator(workers, TOKEN), 30, 20);
+    assertEquals(30, responses.size());
+  }
+
+  @Test
+  public void stuckWorkerTimesOutAndIsRetiredTest() throws IOException {
+    ImmutableList<String> workers = ImmutableList.of(startWorker("hang"), startWorker("serve"));
+    Map<Integer, JSONObject> responses =
+        dispatch(new BuildCoordinator(workers, TOKEN, 1_000), 4, 20);
+    assertEquals(4, responses.size());
+  }
+
+  @Test
+  public void allWorkersUnreachableTest() throws IOException {
+    ImmutableList<String> workers = ImmutableList.of(startWorker("serve"), startWorker("serve"));
+    processes.forEach(Process::destroyForcibly);
+    for (Process process : processes) {
+      try {
+        process.waitFor();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+    }
+    RuntimeException exception =
+        assertThrows(
+            RuntimeException.class, () -> dispatch(new BuildCoordinator(workers, TOKEN), 3, 0));
+    assertTrue(exception.getMessage().contains("unreachable"));
+  }
+
+  @Test
+  public void requestsWithWrongTokenAreRejectedTest() throws IOException {
+    ImmutableList<String> workers = ImmutableList.of(startWorker("serve"), startWorker("serve"));
+    RuntimeException exception =
+        assertThrows(
+            RuntimeException.class,
+            () -> dispatch(new BuildCoordinator(workers, "wrong-token"), 2, 0));
+    assertTrue(exception.getMessage().contains(WorkerProtocol.UNAUTHORIZED));
+  }
+
+  /**
+   * Dispatches the given number of requests and checks that each one is handled exactly once.
+   *
+   * @param coordinator Coordinator to dispatch with.
+   * @param count Number of requests.
+   * @param sleep Time each request takes on a worker in milliseconds.
+   * @return Responses keyed by the index of their request.
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<Integer, JSONObject> dispatch(
+      BuildCoordinator coordinator, int count, long sleep) {
+    List<JSONObject> requests = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      JSONObject request = new JSONObject();
+      request.put(INDEX, (long) i);
+      request.put(SLEEP, sleep);
+      requests.add(request);
+    }
+    Map<Integer, JSONObject> responses = new HashMap<>();
+    coordinator.dispatch(
+        requests,
+        (index, response) -> {
+          assertEquals((long) index, response.get(INDEX));
+          assertEquals(null, responses.put(index, response));
+        });
+    assertEquals(count, responses.size());
+    return responses;
+  }
+
+  /**
+   * Starts a stub worker process on localhost.
+   *
+   * @param mode Mode of the worker, see {@link StubWorker#main(String[])}.
+   * @return Address of the worker in {@code host:port} format.
+   * @throws IOException if the process could not be started.
+   */
+  private String startWorker(String mode) throws IOException {
+    Process process =
+        new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp",
+                System.getProperty("java.class.path"),
+                StubWorker.class.getName(),
+                mode,
+                TOKEN)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    processes.add(process);
+    BufferedReader output =
+        new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    String port = output.readLine();
+    if (port == null) {
+      throw new IOException("Worker process exited before listening.");
+    }
+    return "127.0.0.1:" + port;
+  }
+
+  /**
+   * Worker process speaking {@link WorkerProtocol} without building anything. It echoes the index
+   * of each request with its own process id after sleeping for the requested time.
+   */
+  public static class StubWorker {
+
+    /**
+     * Starts the worker on a free port of localhost and prints the port.
+     *
+     * @param args Expects the mode, {@code serve} to respond to requests, {@code hang} to accept
+     *     requests without ever responding, followed by the token of the worker.
+     * @throws Exception if the worker fails.
+     */
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+      boolean hang = args[0].equals("hang");
+      List<Socket> stuck = new ArrayList<>();
+      try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+        System.out.println(server.getLocalPort());
+        System.out.flush();
+        while (true) {
+          Socket socket = server.accept();
+          BufferedReader reader =
+              new BufferedReader(
+                  new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+          BufferedWriter writer =
+              new BufferedWriter(
+                  new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+          if (!WorkerProtocol.authenticate(reader, args[1])) {
+            try (socket) {
+              WorkerProtocol.skip(reader);
+              WorkerProtocol.write(
+                  writer, WorkerProtocol.createFailure(WorkerProtocol.UNAUTHORIZED));
+            }
+            continue;
+          }
+          JSONObject request = WorkerProtocol.read(reader);
+          if (hang) {
+            stuck.add(socket);
+            continue;
+          }
+          try (socket) {
+            Thread.sleep((Long) request.get(SLEEP));
+            JSONObject response = new JSONObject();
+            response.put(INDEX, request.get(INDEX));
+            response.put(WORKER, ProcessHandle.current().pid());
+            WorkerProtocol.write(writer, response);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.distributed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.injector.changes.AddAnnotation;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class WorkerProtocolTest {
+
+  /** Source root of the coordinator. */
+  private static final Path COORDINATOR_ROOT = Paths.get("/w/proj");
+  /** Source root of the worker. */
+  private static final Path WORKER_ROOT = Paths.get("/remote/checkout");
+  /** Header of errors files. */
+  private static final String HEADER =
+      String.join(
+          "\t",
+          "message_type",
+          "message",
+          "enc_class",
+          "enc_member",
+          "offset",
+          "path",
+          "target_kind",
+          "target_class",
+          "target_method",
+          "target_param",
+          "target_index",
+          "target_path");
+
+  @Test
+  public void rebaseMapsPathsUnderSourceRootTest() {
+    assertEquals(
+        Paths.get("/remote/checkout/src/Foo.java"),
+        WorkerProtocol.rebase(
+            Paths.get("/w/proj/src/Foo.java"), COORDINATOR_ROOT, WORKER_ROOT));
+    assertEquals(
+        Paths.get("/remote/checkout/src/Foo.java"),
+        WorkerProtocol.rebase(
+            Paths.get("/w/proj/lib/../src/./Foo.java"), COORDINATOR_ROOT, WORKER_ROOT));
+  }
+
+  @Test
+  public void rebaseRejectsPathsOutsideSourceRootTest() {
+    for (String path :
+        List.of("/etc/passwd", "/w/proj/../../etc/passwd", "/w/project-lib/Foo.java", "/w")) {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> WorkerProtocol.rebase(Paths.get(path), COORDINATOR_ROOT, WORKER_ROOT));
+    }
+  }
+
+  @Test
+  public void requestWithPathOutsideSourceRootIsRejectedTest() {
+    JSONObject inside =
+        WorkerProtocol.createRequest(
+            COORDINATOR_ROOT, Set.of(), Set.of(annotation("/w/proj/src/Foo.java")));
+    ImmutableSet<AddAnnotation> changes =
+        WorkerProtocol.getAnnotations(inside, WorkerProtocol.CHANGES, WORKER_ROOT);
+    assertEquals(
+        Paths.get("/remote/checkout/src/Foo.java"),
+        changes.iterator().next().getLocation().path);
+    JSONObject traversal =
+        WorkerProtocol.createRequest(
+            COORDINATOR_ROOT, Set.of(annotation("/w/proj/../../root/.bashrc")), Set.of());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> WorkerProtocol.getAnnotations(traversal, WorkerProtocol.BASE, WORKER_ROOT));
+  }
+
+  @Test
+  public void errorsRebaseOnlyPathColumnsTest() {
+    String errors =
+        String.join(
+            "\n",
+            HEADER,
+            row(
+                "Returning nullable from /remote/checkout/src/Foo.java",
+                "/remote/checkout/src/Foo.java",
+                "/remote/checkout/src/Bar.java"),
+            // Sibling directory sharing the root as a prefix is not rebased.
+            row("message", "/remote/checkout-lib/Lib.java", "null"),
+            // Serialized as an uri.
+            row("message", "file:///remote/checkout/src/Foo.java", "/opt/jdk/Object.java"),
+            "");
+    String expected =
+        String.join(
+            "\n",
+            HEADER,
+            row(
+                "Returning nullable from /remote/checkout/src/Foo.java",
+                "/w/proj/src/Foo.java",
+                "/w/proj/src/Bar.java"),
+            row("message", "/remote/checkout-lib/Lib.java", "null"),
+            row("message", "/w/proj/src/Foo.java", "/opt/jdk/Object.java"),
+            "");
+    assertEquals(expected, WorkerProtocol.rebaseErrors(errors, WORKER_ROOT, COORDINATOR_ROOT));
+    assertEquals("", WorkerProtocol.rebaseErrors("", WORKER_ROOT, COORDINATOR_ROOT));
+    assertEquals(HEADER, WorkerProtocol.rebaseErrors(HEADER, WORKER_ROOT, COORDINATOR_ROOT));
+  }
+
+  @Test
+  public void responseErrorsAreRebasedToCoordinatorTest() {
+    JSONObject request = WorkerProtocol.createRequest(COORDINATOR_ROOT, Set.of(), Set.of());
+    String errors =
+        HEADER + "\n" + row("message", "/remote/checkout/src/Foo.java", "null") + "\n";
+    JSONObject response =
+        WorkerProtocol.createResponse(
+            request, WORKER_ROOT, true, 10, List.of(errors), Set.of(), Set.of());
+    assertEquals(
+        List.of(HEADER + "\n" + row("message", "/w/proj/src/Foo.java", "null") + "\n"),
+        List.copyOf(WorkerProtocol.getErrors(response)));
+  }
+
+  @Test
+  public void authenticateTest() throws IOException {
+    assertTrue(WorkerProtocol.authenticate(reader("secret\n{}\n"), "secret"));
+    assertFalse(WorkerProtocol.authenticate(reader("guess\n{}\n"), "secret"));
+    assertFalse(WorkerProtocol.authenticate(reader("\n{}\n"), "secret"));
+    assertThrows(IOException.class, () -> WorkerProtocol.authenticate(reader(""), "secret"));
+    // Skipped request is consumed without being parsed.
+    BufferedReader reader = reader("guess\nnot json\nnext\n");
+    assertFalse(WorkerProtocol.authenticate(reader, "secret"));
+    WorkerProtocol.skip(reader);
+    assertEquals("next", reader.readLine());
+  }
+
+  /**
+   * Creates a row of an errors file.
+   *
+   * @param message Error message.
+   * @param path Path of the file containing the error.
+   * @param targetPath Path of the file containing the target of the fix, or {@code null}.
+   * @return Row of the errors file.
+   */
+  private static String row(String message, String path, String targetPath) {
+    return String.join(
+        "\t",
+        "RETURN_NULLABLE",
+        message,
+        "test.Foo",
+        "run()",
+        "42",
+        path,
+        targetPath.equals("null") ? "null" : "METHOD",
+        "test.Foo",
+        "run()",
+        "null",
+        "null",
+        targetPath);
+  }
+
+  /**
+   * Creates an annotation on a method declared in the given file.
+   *
+   * @param path Path to the file.
+   * @return Annotation instance.
+   */
+  private static AddAnnotation annotation(String path) {
+    return new AddMarkerAnnotation(
+        new OnMethod(path, "test.Foo", "run()"), "javax.annotation.Nullable");
+  }
+
+  /**
+   * Creates a reader of the given content.
+   *
+   * @param content Content to read.
+   * @return Reader instance.
+   */
+  private static BufferedReader reader(String content) {
+    return new BufferedReader(new StringReader(content));
+  }
+}
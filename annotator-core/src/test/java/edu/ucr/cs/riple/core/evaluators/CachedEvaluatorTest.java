@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.evaluators;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.Report;
+import edu.ucr.cs.riple.core.cache.Impact;
+import edu.ucr.cs.riple.core.cache.TargetModuleCache;
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAwayError;
+import edu.ucr.cs.riple.core.registries.index.Error;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.registries.region.Region;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CachedEvaluatorTest {
+
+  @Test
+  public void parallelAggregationMatchesSequentialTest() {
+    Random random = new Random(42);
+    List<Fix> fixes =
+        IntStream.range(0, 100).mapToObj(CachedEvaluatorTest::fix).collect(Collectors.toList());
+    // Errors of the base, resolved by fixes of reports.
+    List<Error> baseErrors = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      baseErrors.add(error(sample(random, fixes, 1 + random.nextInt(3))));
+    }
+    ToIntFunction<Set<Fix>> resolvedErrors =
+        tree -> (int) baseErrors.stream().filter(error -> error.isResolvableWith(tree)).count();
+    TargetModuleCache cache = new TargetModuleCache();
+    Set<Impact> impacts = new HashSet<>();
+    for (Fix fix : fixes) {
+      Set<Error> triggered = new HashSet<>();
+      for (int i = random.nextInt(5); i > 0; i--) {
+        triggered.add(error(sample(random, fixes, random.nextInt(3))));
+      }
+      impacts.add(new Impact(fix, triggered, sample(random, fixes, random.nextInt(3))));
+    }
+    cache.updateCacheState(impacts);
+    Set<Fix> quarantined = sample(random, fixes, 5);
+
+    Map<Report, Set<Fix>> parallel = new HashMap<>();
+    Map<Report, Set<Fix>> sequential = new HashMap<>();
+    for (int i = 0; i < fixes.size(); i++) {
+      Set<Fix> tree = sample(random, fixes, random.nextInt(4));
+      Set<Fix> processed = sample(random, fixes, random.nextInt(4));
+      parallel.put(report(fixes.get(i), tree), processed);
+      sequential.put(report(fixes.get(i), tree), processed);
+    }
+    CachedEvaluator.aggregateReports(parallel, cache, resolvedErrors, quarantined);
+    sequential.forEach(
+        (report, processed) ->
+            CachedEvaluator.aggregateReport(report, processed, cache, resolvedErrors, quarantined));
+
+    Map<Fix, Report> expected =
+        sequential.keySet().stream().collect(Collectors.toMap(report -> report.root, r -> r));
+    for (Report actual : parallel.keySet()) {
+      Report report = expected.get(actual.root);
+      String root = actual.root.toString();
+      assertEquals(root, report.tree, actual.tree);
+      assertEquals(root, report.localEffect, actual.localEffect);
+      assertEquals(root, report.triggeredErrors, actual.triggeredErrors);
+      assertEquals(
+          root,
+          report.triggeredFixesFromDownstreamErrors,
+          actual.triggeredFixesFromDownstreamErrors);
+      assertEquals(root, report.quarantined, actual.quarantined);
+      assertEquals(root, report.hasBeenProcessedOnce, actual.hasBeenProcessedOnce);
+    }
+    assertEquals(fixes.size(), parallel.size());
+  }
+
+  /**
+   * Creates a report on the given root with the given tree.
+   *
+   * @param root Root of the report.
+   * @param tree Fixes of the tree in addition to the root.
+   * @return Report instance.
+   */
+  private static Report report(Fix root, Set<Fix> tree) {
+    Report report = new Report(root, 0);
+    report.tree.addAll(tree);
+    return report;
+  }
+
+  /**
+   * Selects a random subset of the given fixes.
+   *
+   * @param random Random instance.
+   * @param fixes Fixes to select from.
+   * @param size Maximum size of the subset.
+   * @return Selected fixes.
+   */
+  private static Set<Fix> sample(Random random, List<Fix> fixes, int size) {
+    return random.ints(size, 0, fixes.size()).mapToObj(fixes::get).collect(Collectors.toSet());
+  }
+
+  /**
+   * Creates a fix annotating a unique method.
+   *
+   * @param id Id of the method.
+   * @return Fix instance.
+   */
+  private static Fix fix(int id) {
+    return new Fix(
+        new AddMarkerAnnotation(
+            new OnMethod("Foo.java", "test.Foo", "m" + id + "()"), "javax.annotation.Nullable"),
+        "RETURN_NULLABLE",
+        true);
+  }
+
+  /**
+   * Creates an error resolvable with all the given fixes.
+   *
+   * @param fixes Resolving fixes.
+   * @return Error instance.
+   */
+  private static Error error(Set<Fix> fixes) {
+    return new NullAwayError(
+        "RETURN_NULLABLE",
+        "message",
+        new Region("test.Foo", "run()"),
+        0,
+        ImmutableSet.copyOf(fixes));
+  }
+}
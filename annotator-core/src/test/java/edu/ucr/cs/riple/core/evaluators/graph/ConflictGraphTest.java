@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.evaluators.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.registries.region.Region;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ConflictGraphTest {
+
+  private ConflictGraph graph;
+  /** Counter for unique methods of nodes. */
+  private int methods;
+
+  @Before
+  public void init() {
+    graph = new ConflictGraph();
+    methods = 0;
+  }
+
+  @Test
+  public void nonConflictingNodesSharePackedGroupTest() {
+    Node a = addNode("r1");
+    Node b = addNode("r2");
+    Node c = addNode("r3");
+    graph.findOptimisticGroups();
+    assertGroups(Set.of(Set.of(a, b, c)));
+  }
+
+  @Test
+  public void conflictingPairIsPackedTest() {
+    Node a = addNode("r1");
+    Node b = addNode("r1", "r2");
+    graph.findOptimisticGroups();
+    assertGroups(Set.of(Set.of(a, b)));
+    assertEquals(Map.of(region("r1"), Set.of(a, b)), ConflictGraph.getSharedRegions(Set.of(a, b)));
+  }
+
+  @Test
+  public void nodeConflictingWithSeveralNodesIsNotPackedTest() {
+    Node a = addNode("r1");
+    Node b = addNode("r2");
+    // Conflicts with both a and b.
+    Node c = addNode("r1", "r2");
+    graph.findOptimisticGroups();
+    assertGroups(Set.of(Set.of(a, b), Set.of(c)));
+  }
+
+  @Test
+  public void pairedNodeIsNotPairedAgainTest() {
+    Node a = addNode("r1");
+    Node b = addNode("r1", "r2");
+    // Conflicts only with b, which is already paired with a.
+    Node c = addNode("r2");
+    Node d = addNode("r3");
+    graph.findOptimisticGroups();
+    assertGroups(Set.of(Set.of(a, b, d), Set.of(c)));
+  }
+
+  @Test
+  public void eachNodeHasAtMostOneConflictInItsGroupTest() {
+    for (int i = 0; i < 20; i++) {
+      addNode("r" + (i % 7), "r" + (i % 5));
+    }
+    graph.findOptimisticGroups();
+    assertEquals(20, graph.getGroups().stream().mapToInt(Set::size).sum());
+    for (Set<Node> group : graph.getGroups()) {
+      for (Node node : group) {
+        long conflicts =
+            group.stream()
+                .filter(other -> other != node && node.hasConflictInRegions(other))
+                .count();
+        assertTrue(conflicts <= 1);
+      }
+    }
+  }
+
+  /**
+   * Asserts the groups of the graph.
+   *
+   * @param expected Expected groups.
+   */
+  private void assertGroups(Set<Set<Node>> expected) {
+    assertEquals(expected, graph.getGroups().stream().collect(Collectors.toSet()));
+  }
+
+  /**
+   * Adds a node with a fix on a unique method to the graph, impacting the given regions.
+   *
+   * @param regions Members of impacted regions.
+   * @return The added node.
+   */
+  private Node addNode(String... regions) {
+    Node node =
+        graph.addNodeToVertices(
+            new Fix(
+                new AddMarkerAnnotation(
+                    new OnMethod("Foo.java", "test.Foo", "m" + methods++ + "()"),
+                    "javax.annotation.Nullable"),
+                "null",
+                false));
+    for (String member : regions) {
+      node.regions.add(region(member));
+    }
+    return node;
+  }
+
+  /**
+   * Creates a region in the same class for all nodes.
+   *
+   * @param member Member of the region.
+   * @return Region instance.
+   */
+  private static Region region(String member) {
+    return new Region("test.Bar", member);
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.evaluators.graph.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.ucr.cs.riple.core.evaluators.graph.Node;
+import edu.ucr.cs.riple.core.log.BuildCostModel;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.registries.region.Region;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GroupSchedulerTest {
+
+  /** Maximum estimated build time of a group used in tests. */
+  private static final long MAX_BUILD_TIME = 1000;
+  /** Model estimating 100 milliseconds per touched file and per impacted region. */
+  private BuildCostModel model;
+  /** Counter for unique methods of nodes. */
+  private int methods;
+
+  @Before
+  public void init() {
+    model = new BuildCostModel();
+    for (int files = 1; files <= 4; files++) {
+      for (int regions = 1; regions <= 6; regions++) {
+        model.record(new BuildCostModel.Features(files, regions), 100L * (files + regions));
+      }
+    }
+    methods = 0;
+  }
+
+  @Test
+  public void longGroupIsSplitTest() {
+    // Each node touches one file and impacts two regions, estimated at 300 milliseconds.
+    Set<Node> group = new HashSet<>();
+    for (int i = 0; i < 6; i++) {
+      group.add(makeNode("r" + i + "a", "r" + i + "b"));
+    }
+    GroupScheduler scheduler = new GroupScheduler(model, MAX_BUILD_TIME);
+    List<Set<Node>> scheduled = scheduler.schedule(List.of(group), false);
+    assertValid(scheduled, group);
+    assertEquals(2, scheduled.size());
+  }
+
+  @Test
+  public void smallGroupsAreMergedTest() {
+    List<Set<Node>> groups =
+        List.of(
+            Set.of(makeNode("a", "b")),
+            Set.of(makeNode("c", "d")),
+            Set.of(makeNode("e", "f")),
+            Set.of(makeNode("g", "h")));
+    GroupScheduler scheduler = new GroupScheduler(model, MAX_BUILD_TIME);
+    List<Set<Node>> scheduled = scheduler.schedule(groups, false);
+    assertValid(scheduled, union(groups));
+    // Three nodes fit within the limit.
+    assertEquals(2, scheduled.size());
+  }
+
+  @Test
+  public void conflictingGroupsAreNotMergedTest() {
+    List<Set<Node>> groups = List.of(Set.of(makeNode("a", "b")), Set.of(makeNode("b", "c")));
+    GroupScheduler scheduler = new GroupScheduler(model, MAX_BUILD_TIME);
+    List<Set<Node>> scheduled = scheduler.schedule(groups, false);
+    assertValid(scheduled, union(groups));
+    assertEquals(2, scheduled.size());
+  }
+
+  @Test
+  public void splitNodesJoinNonConflictingGroupsTest() {
+    // A long group and a small group sharing a region with one of the nodes of the long group.
+    Node shared = makeNode("x", "y");
+    Set<Node> large = new HashSet<>(Set.of(shared));
+    for (int i = 0; i < 4; i++) {
+      large.add(makeNode("r" + i + "a", "r" + i + "b"));
+    }
+    Set<Node> small = Set.of(makeNode("y", "z"));
+    List<Set<Node>> groups = List.of(large, small);
+    GroupScheduler scheduler = new GroupScheduler(model, MAX_BUILD_TIME);
+    List<Set<Node>> scheduled = scheduler.schedule(groups, false);
+    assertValid(scheduled, union(groups));
+  }
+
+  @Test
+  public void groupsAreKeptWithoutEstimatesTest() {
+    List<Set<Node>> groups =
+        List.of(Set.of(makeNode("a")), Set.of(makeNode("b", "c", "d")), Set.of(makeNode("e", "f")));
+    GroupScheduler scheduler = new GroupScheduler(new BuildCostModel(), MAX_BUILD_TIME);
+    assertEquals(groups, scheduler.schedule(groups, false));
+    // Without estimates, groups are ordered by the number of impacted regions.
+    assertEquals(
+        List.of(groups.get(1), groups.get(2), groups.get(0)), scheduler.schedule(groups, true));
+  }
+
+  @Test
+  public void groupsAreKeptWithoutLimitTest() {
+    Set<Node> group = new HashSet<>();
+    for (int i = 0; i < 6; i++) {
+      group.add(makeNode("r" + i));
+    }
+    GroupScheduler scheduler = new GroupScheduler(model, 0);
+    assertEquals(List.of(group), scheduler.schedule(List.of(group), false));
+  }
+
+  /**
+   * Asserts that the given groups cover exactly the given nodes, each group is non-conflicting and
+   * groups of more than one node are estimated within the limit.
+   *
+   * @param groups Scheduled groups.
+   * @param nodes All nodes.
+   */
+  private void assertValid(List<Set<Node>> groups, Set<Node> nodes) {
+    assertEquals(nodes, union(groups));
+    assertEquals(nodes.size(), groups.stream().mapToInt(Set::size).sum());
+    for (Set<Node> group : groups) {
+      assertFalse(group.isEmpty());
+      for (Node node : group) {
+        for (Node other : group) {
+          assertTrue(node == other || !node.hasConflictInRegions(other));
+        }
+      }
+      if (group.size() > 1) {
+        assertTrue(model.estimate(BuildCostModel.Features.of(group)) <= MAX_BUILD_TIME);
+      }
+    }
+  }
+
+  /**
+   * Creates a node with a fix on a method in its own file, impacting the given regions.
+   *
+   * @param regions Members of impacted regions, all in the same class.
+   * @return Node instance.
+   */
+  private Node makeNode(String... regions) {
+    int id = methods++;
+    Node node =
+        new Node(
+            new Fix(
+                new AddMarkerAnnotation(
+                    new OnMethod("Foo" + id + ".java", "test.Foo" + id, "m()"),
+                    "javax.annotation.Nullable"),
+                "null",
+                false));
+    for (String region : regions) {
+      node.regions.add(new Region("test.Bar", region));
+    }
+    return node;
+  }
+
+  /**
+   * Returns the union of the given groups.
+   *
+   * @param groups Groups of nodes.
+   * @return Union of groups.
+   */
+  private static Set<Node> union(List<Set<Node>> groups) {
+    return groups.stream().flatMap(Set::stream).collect(Collectors.toSet());
+  }
+}
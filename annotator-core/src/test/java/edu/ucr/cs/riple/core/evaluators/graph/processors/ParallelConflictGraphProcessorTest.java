@@ -0,0 +1,460 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.evaluators.graph.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.Context;
+import edu.ucr.cs.riple.core.cache.TargetModuleCache;
+import edu.ucr.cs.riple.core.cache.downstream.DownstreamImpactCache;
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAwayError;
+import edu.ucr.cs.riple.core.evaluators.graph.ConflictGraph;
+import edu.ucr.cs.riple.core.evaluators.graph.Node;
+import edu.ucr.cs.riple.core.evaluators.suppliers.Supplier;
+import edu.ucr.cs.riple.core.injectors.AnnotationInjector;
+import edu.ucr.cs.riple.core.log.BuildCostModel;
+import edu.ucr.cs.riple.core.module.ModuleInfo;
+import edu.ucr.cs.riple.core.registries.index.Error;
+import edu.ucr.cs.riple.core.registries.index.ErrorStore;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.core.registries.region.Region;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class ParallelConflictGraphProcessorTest {
+
+  @Test
+  public void failingNodeIsIsolatedTest() {
+    List<Node> nodes = makeNodes(8);
+    Node failing = nodes.get(5);
+    SimulatedProcessor processor = new SimulatedProcessor(Set.of(failing), Set.of());
+    assertEquals(Set.of(), processor.processGroup(new HashSet<>(nodes)));
+    assertQuarantined(nodes, Set.of(failing));
+    // The group and two halves at each level down to a single node, which is not built again.
+    assertEquals(1 + 2 * 3, processor.builds.size());
+  }
+
+  @Test
+  public void severalFailingNodesAreIsolatedTest() {
+    List<Node> nodes = makeNodes(16);
+    Set<Node> failing = Set.of(nodes.get(0), nodes.get(7), nodes.get(12));
+    SimulatedProcessor processor = new SimulatedProcessor(failing, Set.of());
+    processor.processGroup(new HashSet<>(nodes));
+    assertQuarantined(nodes, failing);
+    // At most two builds per level for each failing node, O(k log n).
+    assertTrue(processor.builds.size() <= 1 + 2 * failing.size() * 4);
+    // Each completed build holds no failing node, and each other node is built once completed.
+    List<Node> completed =
+        processor.builds.stream()
+            .filter(group -> group.stream().noneMatch(failing::contains))
+            .flatMap(Set::stream)
+            .collect(Collectors.toList());
+    assertEquals(nodes.size() - failing.size(), completed.size());
+    assertEquals(nodes.size() - failing.size(), new HashSet<>(completed).size());
+  }
+
+  @Test
+  public void ambiguousNodesOfHalvesAreReturnedTest() {
+    List<Node> nodes = makeNodes(4);
+    Node failing = nodes.get(0);
+    Node ambiguous = nodes.get(3);
+    SimulatedProcessor processor = new SimulatedProcessor(Set.of(failing), Set.of(ambiguous));
+    assertEquals(Set.of(ambiguous), processor.processGroup(new HashSet<>(nodes)));
+    assertQuarantined(nodes, Set.of(failing));
+  }
+
+  @Test
+  public void completedGroupIsNotBisectedTest() {
+    List<Node> nodes = makeNodes(4);
+    SimulatedProcessor processor = new SimulatedProcessor(Set.of(), Set.of());
+    processor.processGroup(new HashSet<>(nodes));
+    assertEquals(1, processor.builds.size());
+    assertQuarantined(nodes, Set.of());
+  }
+
+  @Test
+  public void repairBuildsEachAmbiguousNodeOnceTest() {
+    List<Node> nodes = makeNodes(3);
+    nodes.get(0).regions.add(region("shared"));
+    nodes.get(1).regions.add(region("shared"));
+    nodes.get(2).regions.add(region("other"));
+    SimulatedProcessor processor = new SimulatedProcessor(Set.of(), Set.of());
+    processor.repair(new HashSet<>(nodes));
+    assertEquals(2, processor.builds.size());
+    assertEquals(
+        new HashSet<>(nodes),
+        processor.builds.stream().flatMap(Set::stream).collect(Collectors.toSet()));
+    for (Set<Node> group : processor.builds) {
+      assertTrue(ConflictGraph.getSharedRegions(group).isEmpty());
+    }
+  }
+
+  @Test
+  public void repairGroupsAreSizedTest() {
+    // Estimates 100 milliseconds per touched file and per impacted region.
+    BuildCostModel model = new BuildCostModel();
+    for (int files = 1; files <= 4; files++) {
+      for (int regions = 1; regions <= 6; regions++) {
+        model.record(new BuildCostModel.Features(files, regions), 100L * (files + regions));
+      }
+    }
+    List<Node> nodes = makeNodes(6);
+    for (int i = 0; i < nodes.size(); i++) {
+      nodes.get(i).regions.add(region("a" + i));
+      nodes.get(i).regions.add(region("b" + i));
+    }
+    SimulatedProcessor processor =
+        new SimulatedProcessor(Set.of(), Set.of(), new GroupScheduler(model, 1000));
+    processor.repair(new HashSet<>(nodes));
+    // All nodes touch the same file and impact two regions each, the single non-conflicting group
+    // of all nodes is estimated at 1300 milliseconds and is split.
+    assertEquals(2, processor.builds.size());
+    for (Set<Node> group : processor.builds) {
+      assertTrue(model.estimate(BuildCostModel.Features.of(group)) <= 1000);
+    }
+  }
+
+  @Test
+  public void resolvedErrorsAreAttributedToResolversTest() {
+    List<Node> nodes = makeNodes(2);
+    Node first = nodes.get(0);
+    Node second = nodes.get(1);
+    Set<Node> sharing = Set.of(first, second);
+    List<Error> resolved =
+        List.of(makeError(first.root), makeError(first.root), makeError(second.root));
+    assertEquals(
+        OptionalInt.of(-2),
+        ParallelConflictGraphProcessor.attributeSharedRegion(first, sharing, List.of(), resolved));
+    assertEquals(
+        OptionalInt.of(-1),
+        ParallelConflictGraphProcessor.attributeSharedRegion(second, sharing, List.of(), resolved));
+  }
+
+  @Test
+  public void triggeredErrorsAreAmbiguousTest() {
+    List<Node> nodes = makeNodes(2);
+    Node first = nodes.get(0);
+    Set<Node> sharing = Set.of(first, nodes.get(1));
+    List<Error> triggered = List.of(makeError(null));
+    assertEquals(
+        OptionalInt.empty(),
+        ParallelConflictGraphProcessor.attributeSharedRegion(first, sharing, triggered, List.of()));
+  }
+
+  @Test
+  public void errorsWithoutSingleResolverAreAmbiguousTest() {
+    List<Node> nodes = makeNodes(2);
+    Node first = nodes.get(0);
+    Node second = nodes.get(1);
+    Set<Node> sharing = Set.of(first, second);
+    // Resolved by a fix which is not in any tree, e.g. by a fix of a node outside the region.
+    List<Error> unresolvable = List.of(makeError(null));
+    assertEquals(
+        OptionalInt.empty(),
+        ParallelConflictGraphProcessor.attributeSharedRegion(
+            first, sharing, List.of(), unresolvable));
+    // Resolvable by both trees.
+    second.tree.add(first.root);
+    List<Error> shared = List.of(makeError(first.root));
+    assertEquals(
+        OptionalInt.empty(),
+        ParallelConflictGraphProcessor.attributeSharedRegion(first, sharing, List.of(), shared));
+  }
+
+  @Test
+  public void deferralSavesBuildsOverLevelBarriersTest() {
+    // Two conflicting reports which need a single level and four reports which need three levels.
+    List<Set<Region>> regions =
+        List.of(
+            Set.of(region("shared")),
+            Set.of(region("shared")),
+            Set.of(region("a")),
+            Set.of(region("b")),
+            Set.of(region("c")),
+            Set.of(region("d")));
+    int[] levels = {1, 1, 3, 3, 3, 3};
+    int[] deferrals = new int[regions.size()];
+    // Barriers build both groups of the first level, deferring the small group lets it join the
+    // builds of the second level.
+    assertEquals(4, barrierBuilds(regions, levels));
+    assertEquals(3, worklistBuilds(regions, levels, deferrals));
+    assertEquals(1, IntStream.of(deferrals).sum());
+  }
+
+  @Test
+  public void deferralsArePerGroupCappedTest() {
+    // A report which conflicts with four other reports, all need six levels. The report is alone
+    // in a small group at each batch.
+    List<Set<Region>> regions =
+        List.of(
+            Set.of(region("a"), region("b"), region("c"), region("d")),
+            Set.of(region("a")),
+            Set.of(region("b")),
+            Set.of(region("c")),
+            Set.of(region("d")));
+    int[] levels = {6, 6, 6, 6, 6};
+    int[] deferrals = new int[regions.size()];
+    int builds = worklistBuilds(regions, levels, deferrals);
+    assertEquals(ConflictGraph.MAX_DEFERRALS, deferrals[0]);
+    assertEquals(ConflictGraph.MAX_DEFERRALS, IntStream.of(deferrals).sum());
+    assertTrue(builds <= barrierBuilds(regions, levels));
+  }
+
+  /**
+   * Simulates evaluation with a barrier between levels, reports at each level are grouped and
+   * built before any report moves to the next level.
+   *
+   * @param regions Regions impacted by the fix of each report, same at all levels.
+   * @param levels Number of levels each report is evaluated at.
+   * @return Number of builds.
+   */
+  private static int barrierBuilds(List<Set<Region>> regions, int[] levels) {
+    List<Node> roots = makeNodes(regions.size());
+    ConflictGraph graph = new ConflictGraph();
+    int builds = 0;
+    int depth = IntStream.of(levels).max().orElse(0);
+    for (int level = 0; level < depth; level++) {
+      graph.clear();
+      for (int i = 0; i < roots.size(); i++) {
+        if (level < levels[i]) {
+          graph.addNodeToVertices(roots.get(i).root).regions.addAll(regions.get(i));
+        }
+      }
+      graph.findGroups();
+      builds += graph.getGroups().size();
+    }
+    return builds;
+  }
+
+  /**
+   * Simulates the worklist evaluation of {@link
+   * edu.ucr.cs.riple.core.evaluators.AbstractEvaluator}, reports at different levels are grouped
+   * together and small groups are deferred to the next batch.
+   *
+   * @param regions Regions impacted by the fix of each report, same at all levels.
+   * @param levels Number of levels each report is evaluated at.
+   * @param deferrals Filled with the number of times each report is deferred.
+   * @return Number of builds.
+   */
+  private static int worklistBuilds(List<Set<Region>> regions, int[] levels, int[] deferrals) {
+    List<Node> roots = makeNodes(regions.size());
+    ConflictGraph graph = new ConflictGraph();
+    graph.resetDeferrals();
+    int[] done = new int[roots.size()];
+    int depth = IntStream.of(levels).max().orElse(0);
+    int builds = 0;
+    while (IntStream.range(0, roots.size()).anyMatch(i -> done[i] < levels[i])) {
+      graph.clear();
+      Map<Node, Integer> reports = new HashMap<>();
+      for (int i = 0; i < roots.size(); i++) {
+        if (done[i] < levels[i]) {
+          Node node = graph.addNodeToVertices(roots.get(i).root);
+          node.regions.addAll(regions.get(i));
+          reports.put(node, i);
+        }
+      }
+      graph.setDeferralAllowed(reports.values().stream().anyMatch(i -> done[i] + 1 < depth));
+      graph.findGroups();
+      // Largest groups first, as the first group is never deferred.
+      List<Set<Node>> groups = new ArrayList<>(graph.getGroups());
+      groups.sort(Comparator.comparingInt(group -> -group.size()));
+      if (graph.isDeferralAllowed()) {
+        groups = ParallelConflictGraphProcessor.deferSmallGroups(graph, groups);
+      }
+      builds += groups.size();
+      reports.forEach(
+          (node, i) -> {
+            if (graph.isDeferred(node)) {
+              deferrals[i]++;
+            } else {
+              done[i]++;
+            }
+          });
+    }
+    return builds;
+  }
+
+  /**
+   * Creates an error in the shared region.
+   *
+   * @param resolvingFix Fix resolving the error, {@code null} if not resolvable.
+   * @return Error instance.
+   */
+  private static Error makeError(Fix resolvingFix) {
+    return new NullAwayError(
+        "DEREFERENCE_NULLABLE",
+        "dereferenced expression is @Nullable",
+        region("shared"),
+        0,
+        resolvingFix == null ? ImmutableSet.of() : ImmutableSet.of(resolvingFix));
+  }
+
+  /**
+   * Creates a region in the same class for all nodes.
+   *
+   * @param member Member of the region.
+   * @return Region instance.
+   */
+  private static Region region(String member) {
+    return new Region("test.Bar", member);
+  }
+
+  /**
+   * Asserts that exactly the given nodes are quarantined.
+   *
+   * @param nodes All nodes.
+   * @param quarantined Nodes expected to be quarantined.
+   */
+  private static void assertQuarantined(List<Node> nodes, Set<Node> quarantined) {
+    for (Node node : nodes) {
+      if (quarantined.contains(node)) {
+        assertTrue(node.quarantined);
+      } else {
+        assertFalse(node.quarantined);
+      }
+    }
+  }
+
+  /**
+   * Creates nodes on distinct methods.
+   *
+   * @param count Number of nodes.
+   * @return List of nodes.
+   */
+  private static List<Node> makeNodes(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(
+            i ->
+                new Node(
+                    new Fix(
+                        new AddMarkerAnnotation(
+                            new OnMethod("Foo.java", "test.Foo", "m" + i + "()"),
+                            "javax.annotation.Nullable"),
+                        "null",
+                        false)))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Processor simulating builds, a build of a group does not complete if the group contains a
+   * failing node and is bisected as in {@link ParallelConflictGraphProcessor#processGroup(Set)}.
+   */
+  private static class SimulatedProcessor extends ParallelConflictGraphProcessor {
+
+    /** Nodes which fixes make the build fail. */
+    private final Set<Node> failing;
+    /** Nodes which status cannot be attributed in a completed build. */
+    private final Set<Node> ambiguous;
+    /** Groups built so far, in order. */
+    private final List<Set<Node>> builds;
+
+    SimulatedProcessor(Set<Node> failing, Set<Node> ambiguous) {
+      this(failing, ambiguous, new GroupScheduler(new BuildCostModel(), 0));
+    }
+
+    SimulatedProcessor(Set<Node> failing, Set<Node> ambiguous, GroupScheduler scheduler) {
+      super(Mockito.mock(Context.class), () -> true, new EmptySupplier(), null, scheduler);
+      this.failing = failing;
+      this.ambiguous = ambiguous;
+      this.builds = new ArrayList<>();
+    }
+
+    @Override
+    protected Set<Node> processGroup(Set<Node> group) {
+      builds.add(group);
+      if (group.stream().anyMatch(failing::contains)) {
+        return bisect(group);
+      }
+      return group.stream().filter(ambiguous::contains).collect(Collectors.toSet());
+    }
+  }
+
+  /** Supplier without any module, simulated processors do not access it. */
+  private static class EmptySupplier implements Supplier {
+
+    @Override
+    public ErrorStore getErrorStore() {
+      return null;
+    }
+
+    @Override
+    public AnnotationInjector getInjector() {
+      return null;
+    }
+
+    @Override
+    public int depth() {
+      return 0;
+    }
+
+    @Override
+    public Context getContext() {
+      return null;
+    }
+
+    @Override
+    public DownstreamImpactCache getDownstreamImpactCache() {
+      return null;
+    }
+
+    @Override
+    public ConflictGraphProcessor getGraphProcessor() {
+      return null;
+    }
+
+    @Override
+    public TargetModuleCache getTargetModuleCache() {
+      return null;
+    }
+
+    @Override
+    public ModuleInfo getModuleInfo() {
+      return null;
+    }
+
+    @Override
+    public boolean isInterruptible() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BuildCostModelTest {
+
+  @Test
+  public void estimateRequiresMinimumSamplesTest() {
+    BuildCostModel model = new BuildCostModel();
+    model.record(features(1, 2), 300);
+    model.record(features(2, 2), 400);
+    assertEquals(-1, model.estimate(features(1, 1)));
+    model.record(features(2, 4), 600);
+    assertEquals(3, model.getSamples());
+    assertTrue(model.estimate(features(1, 1)) >= 0);
+  }
+
+  @Test
+  public void solveRecoversLinearCostTest() {
+    BuildCostModel model = new BuildCostModel();
+    for (int files = 1; files <= 4; files++) {
+      for (int regions = 1; regions <= 6; regions++) {
+        model.record(features(files, regions), cost(200, 5, 1000, files, regions));
+      }
+    }
+    assertEquals(cost(200, 5, 1000, 10, 40), model.estimate(features(10, 40)), 10);
+    assertEquals(cost(200, 5, 1000, 0, 0), model.estimate(features(0, 0)), 10);
+  }
+
+  @Test
+  public void collinearFeaturesAreSolvedTest() {
+    // Each group touches as many files as it impacts regions, the regularization keeps the normal
+    // equations solvable and the estimates on the observed line exact.
+    BuildCostModel model = new BuildCostModel();
+    for (int size = 1; size <= 8; size++) {
+      model.record(features(size, size), 100L * size + 500);
+    }
+    assertEquals(100 * 5 + 500, model.estimate(features(5, 5)), 5);
+    assertEquals(100 * 12 + 500, model.estimate(features(12, 12)), 10);
+  }
+
+  @Test
+  public void recordedBuildsUpdateEstimatesTest() {
+    BuildCostModel model = new BuildCostModel();
+    for (int files = 1; files <= 4; files++) {
+      model.record(features(files, files * 2), cost(100, 0, 0, files, 0));
+    }
+    long before = model.estimate(features(3, 6));
+    for (int files = 1; files <= 4; files++) {
+      model.record(features(files, 1), cost(100, 0, 5000, files, 0));
+    }
+    assertNotEquals(before, model.estimate(features(3, 6)));
+  }
+
+  /**
+   * Creates features with the given values.
+   *
+   * @param files Number of touched files.
+   * @param regions Number of impacted regions.
+   * @return Features instance.
+   */
+  private static BuildCostModel.Features features(int files, int regions) {
+    return new BuildCostModel.Features(files, regions);
+  }
+
+  /**
+   * Computes a linear cost of a build.
+   *
+   * @param perFile Cost per touched file.
+   * @param perRegion Cost per impacted region.
+   * @param base Base cost of a build.
+   * @param files Number of touched files.
+   * @param regions Number of impacted regions.
+   * @return Cost of the build.
+   */
+  private static long cost(long perFile, long perRegion, long base, int files, int regions) {
+    return perFile * files + perRegion * regions + base;
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.registries.Registry;
+import edu.ucr.cs.riple.core.registries.field.FieldRegistry;
+import edu.ucr.cs.riple.core.registries.index.NonnullStore;
+import edu.ucr.cs.riple.core.registries.method.MethodRegistry;
+import edu.ucr.cs.riple.core.registries.region.Region;
+import edu.ucr.cs.riple.injector.location.OnField;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import edu.ucr.cs.riple.scanner.Serializer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ModuleRegistriesTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private ImmutableSet<ModuleConfiguration> modules;
+  private Path source;
+
+  @Before
+  public void init() throws IOException {
+    Path testDir = temporaryFolder.getRoot().toPath();
+    ModuleConfiguration module =
+        new ModuleConfiguration(
+            0, testDir, testDir.resolve("nullaway.xml"), testDir.resolve("scanner.xml"));
+    modules = ImmutableSet.of(module);
+    source =
+        Files.writeString(
+            Files.createDirectories(testDir.resolve("src").resolve("test")).resolve("A.java"),
+            String.join(
+                "\n",
+                "package test;",
+                "class A {",
+                "   Object f;",
+                "   Object g = new Object();",
+                "   A() {}",
+                "   Object foo() { return f; }",
+                "}",
+                "class B extends A {",
+                "   Object foo() { return g; }",
+                "}"));
+    Files.write(
+        module.dir.resolve(Serializer.METHOD_RECORD_FILE_NAME),
+        List.of(
+            "id\tclass\tmethod\tparent\tflags\tannot\tvisibility\tnon-primitive-return\tpath",
+            methodRow("1", "test.A", "A()", "0"),
+            methodRow("2", "test.A", "foo()", "0"),
+            methodRow("3", "test.B", "foo()", "2")));
+    Files.write(
+        module.dir.resolve(Serializer.CLASS_RECORD_FILE_NAME),
+        List.of("class\tpath", "test.A\t" + source, "test.B\t" + source));
+    Files.write(
+        module.dir.resolve(Serializer.NON_NULL_ELEMENTS_FILE_NAME),
+        List.of(
+            "kind\tclass\tmethod\tparam\tindex\tpath",
+            String.join("\t", "METHOD", "test.B", "foo()", "null", "null", source.toString())));
+    Files.write(
+        module.dir.resolve(Serializer.METHOD_IMPACTED_REGION_FILE_NAME),
+        List.of(
+            "class\tmember\tcallee member\tcallee class\tsource type",
+            String.join("\t", "test.C", "run()", "foo()", "test.A", "SOURCE")));
+    Files.write(
+        module.dir.resolve(Serializer.FIELD_IMPACTED_REGION_FILE_NAME),
+        List.of(
+            "class\tmember\tcallee member\tcallee class\tsource type",
+            String.join("\t", "test.A", "foo()", "f", "test.A", "SOURCE"),
+            String.join("\t", "test.B", "foo()", "g", "test.A", "SOURCE")));
+  }
+
+  @Test
+  public void concurrentLoadingMatchesSequentialTest() {
+    ModuleRegistries loaded =
+        new ModuleRegistries(modules, () -> new MethodRegistry(modules), null);
+    MethodRegistry methodRegistry = new MethodRegistry(modules);
+    assertEquals(rowsOf(new NonnullStore(modules)), rowsOf(loaded.nonnullStore));
+    assertEquals(rowsOf(new FieldRegistry(modules)), rowsOf(loaded.fieldRegistry));
+    assertEquals(rowsOf(methodRegistry), rowsOf(loaded.methodRegistry));
+    assertTrue(
+        loaded.nonnullStore.hasExplicitNonnullAnnotation(
+            new OnMethod(source, "test.B", "foo()")));
+    // Region registries query the loaded method and field registries, overridden method is
+    // impacted.
+    assertEquals(
+        Set.of(new Region("test.B", "foo()"), new Region("test.A", "foo()")),
+        loaded.methodRegionRegistry.getImpactedRegions(new OnMethod(source, "test.B", "foo()")));
+    assertEquals(
+        Set.of(new Region("test.C", "run()"), new Region("test.A", "foo()")),
+        loaded.methodRegionRegistry.getImpactedRegions(new OnMethod(source, "test.A", "foo()")));
+    // Uninitialized field impacts constructors of its class.
+    assertEquals(
+        Set.of(
+            new Region("test.A", "foo()"), new Region("test.A", "f"), new Region("test.A", "A()")),
+        loaded.fieldRegionRegistry.getImpactedRegions(
+            new OnField(source, "test.A", Set.of("f"))));
+    assertEquals(
+        Set.of(new Region("test.B", "foo()"), new Region("test.A", "g")),
+        loaded.fieldRegionRegistry.getImpactedRegions(
+            new OnField(source, "test.A", Set.of("g"))));
+  }
+
+  @Test
+  public void sharedMethodRegistryIsReusedTest() {
+    MethodRegistry shared = new MethodRegistry(modules);
+    ModuleRegistries loaded = new ModuleRegistries(modules, () -> shared, null);
+    assertSame(shared, loaded.methodRegistry);
+  }
+
+  @Test
+  public void loadingDoesNotUseCommonPoolTest() throws Exception {
+    // Occupy all workers of the common pool, registries must still be loaded.
+    int parallelism = ForkJoinPool.commonPool().getParallelism();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch occupied = new CountDownLatch(parallelism);
+    List<Future<?>> blockers = new ArrayList<>();
+    for (int i = 0; i < parallelism; i++) {
+      blockers.add(
+          ForkJoinPool.commonPool()
+              .submit(
+                  () -> {
+                    occupied.countDown();
+                    release.await();
+                    return null;
+                  }));
+    }
+    ExecutorService caller = Executors.newSingleThreadExecutor();
+    try {
+      assertTrue(occupied.await(10, TimeUnit.SECONDS));
+      Future<ModuleRegistries> loaded =
+          caller.submit(
+              () -> new ModuleRegistries(modules, () -> new MethodRegistry(modules), null));
+      assertFalse(loaded.get(30, TimeUnit.SECONDS).fieldRegistry.toRows().isEmpty());
+    } finally {
+      release.countDown();
+      caller.shutdownNow();
+    }
+    for (Future<?> blocker : blockers) {
+      blocker.get(10, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void loadingFailureIsRethrownTest() {
+    IllegalStateException thrown =
+        assertThrows(
+            IllegalStateException.class,
+            () ->
+                new ModuleRegistries(
+                    modules,
+                    () -> {
+                      throw new IllegalStateException("method records are corrupted");
+                    },
+                    null));
+    assertEquals("method records are corrupted", thrown.getMessage());
+  }
+
+  /**
+   * Creates a method record row for a public method.
+   *
+   * @param id Id of the method.
+   * @param clazz Enclosing class of the method.
+   * @param method Signature of the method.
+   * @param parent Id of the overridden method, {@code 0} if none.
+   * @return Tab separated row.
+   */
+  private String methodRow(String id, String clazz, String method, String parent) {
+    return String.join(
+        "\t", id, clazz, method, parent, "[]", "", "public", "true", source.toString());
+  }
+
+  /**
+   * Returns the rows of all records in the given registry.
+   *
+   * @param registry Registry to get its rows.
+   * @return Rows of all records.
+   */
+  private static Set<List<String>> rowsOf(Registry<?> registry) {
+    return registry.toRows().stream().map(Arrays::asList).collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package edu.ucr.cs.riple.core.registries;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import edu.ucr.cs.riple.scanner.BinaryTableWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BinaryTableReaderTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Path table;
+
+  @Before
+  public void init() {
+    table = temporaryFolder.getRoot().toPath().resolve("method_records.tsv");
+  }
+
+  @Test
+  public void roundTripTest() throws IOException {
+    List<String[]> rows =
+        List.of(
+            new String[] {"1", "test.A", "foo()", "", "/path/A.java"},
+            new String[] {"2", "test.A", "bar(java.lang.Object)", "", "/path/A.java"},
+            // Columns containing tabs, non ascii characters and trailing empty columns.
+            new String[] {"3", "test.\u00c4", "a\tb", "\u00fc", ""},
+            new String[] {});
+    BinaryTableWriter writer = new BinaryTableWriter();
+    writer.initialize(table);
+    rows.forEach(row -> writer.append(table, row));
+    assertRows(rows, read());
+  }
+
+  @Test
+  public void interleavedWritersTest() throws IOException {
+    BinaryTableWriter first = new BinaryTableWriter();
+    BinaryTableWriter second = new BinaryTableWriter();
+    first.initialize(table);
+    // Both writers define their own string tables with the same ids.
+    first.append(table, "test.A", "foo()");
+    second.append(table, "test.B", "bar()");
+    first.append(table, "test.A", "baz()");
+    second.append(table, "test.B", "foo()");
+    assertRows(
+        List.of(
+            new String[] {"test.A", "foo()"},
+            new String[] {"test.B", "bar()"},
+            new String[] {"test.A", "baz()"},
+            new String[] {"test.B", "foo()"}),
+        read());
+  }
+
+  @Test
+  public void reinitializeTest() throws IOException {
+    BinaryTableWriter writer = new BinaryTableWriter();
+    writer.initialize(table);
+    writer.append(table, "test.A", "foo()");
+    writer.initialize(table);
+    // Strings defined before the table is cleared are defined again.
+    writer.append(table, "test.A", "bar()");
+    assertRows(List.<String[]>of(new String[] {"test.A", "bar()"}), read());
+  }
+
+  @Test
+  public void incompleteFrameIsIgnoredTest() throws IOException {
+    BinaryTableWriter writer = new BinaryTableWriter();
+    writer.initialize(table);
+    writer.append(table, "test.A", "foo()");
+    Path binary = BinaryTableWriter.binaryPathOf(table);
+    byte[] complete = Files.readAllBytes(binary);
+    writer.append(table, "test.B", "bar()");
+    byte[] all = Files.readAllBytes(binary);
+    Files.write(binary, Arrays.copyOf(all, complete.length + (all.length - complete.length) / 2));
+    assertRows(List.<String[]>of(new String[] {"test.A", "foo()"}), read());
+  }
+
+  @Test
+  public void unsupportedFormatTest() throws IOException {
+    Path binary = BinaryTableWriter.binaryPathOf(table);
+    try (DataOutputStream os = new DataOutputStream(Files.newOutputStream(binary))) {
+      os.writeInt(BinaryTableWriter.MAGIC);
+      os.writeInt(BinaryTableWriter.VERSION - 1);
+    }
+    assertThrows(IOException.class, this::read);
+    Files.write(binary, new byte[] {1, 2, 3});
+    assertThrows(IOException.class, this::read);
+  }
+
+  /**
+   * Reads all rows of the binary table.
+   *
+   * @return Rows of the table.
+   */
+  private List<String[]> read() throws IOException {
+    List<String[]> rows = new ArrayList<>();
+    BinaryTableReader.read(BinaryTableWriter.binaryPathOf(table), rows::add);
+    return rows;
+  }
+
+  /**
+   * Asserts the given rows are equal.
+   *
+   * @param expected Expected rows.
+   * @param actual Actual rows.
+   */
+  private static void assertRows(List<String[]> expected, List<String[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals(expected.get(i), actual.get(i));
+    }
+  }
+}
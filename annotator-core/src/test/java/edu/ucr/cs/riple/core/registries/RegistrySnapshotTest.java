@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package edu.ucr.cs.riple.core.registries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
+import edu.ucr.cs.riple.core.registries.field.FieldRegistry;
+import edu.ucr.cs.riple.core.registries.method.MethodRegistry;
+import edu.ucr.cs.riple.scanner.Serializer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RegistrySnapshotTest {
+
+  /** Configuration of the scanner build used in tests. */
+  private static final String CONFIGURATION = "./gradlew compileJava";
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private ModuleConfiguration module;
+  private Path snapshot;
+  private Path sourceA;
+  private Path sourceB;
+
+  @Before
+  public void init() throws IOException {
+    Path testDir = temporaryFolder.getRoot().toPath();
+    module =
+        new ModuleConfiguration(
+            7, testDir, testDir.resolve("nullaway.xml"), testDir.resolve("scanner.xml"));
+    snapshot = testDir.resolve(RegistrySnapshot.DIRECTORY_NAME).resolve("7.bin");
+    Path src = Files.createDirectories(testDir.resolve("src").resolve("test"));
+    sourceA = Files.writeString(src.resolve("A.java"), "package test;\nclass A {}\n");
+    Files.createDirectories(testDir.resolve("src").resolve("other"));
+    sourceB =
+        Files.writeString(
+            testDir.resolve("src").resolve("other").resolve("B.java"),
+            "package other;\nclass B {}\n");
+    Files.write(
+        module.dir.resolve(Serializer.METHOD_RECORD_FILE_NAME),
+        List.of(
+            "id\tclass\tmethod\tparent\tflags\tannot\tvisibility\tnon-primitive-return\tpath",
+            row("1", "test.A", "0", sourceA),
+            row("2", "other.B", "1", sourceB)));
+  }
+
+  @Test
+  public void roundTripTest() throws IOException {
+    MethodRegistry registry = writeSnapshot();
+    RegistrySnapshot loaded = RegistrySnapshot.load(snapshot, CONFIGURATION);
+    assertNotNull(loaded);
+    assertNotNull(loaded.getRows(MethodRegistry.class));
+    assertNull(loaded.getRows(FieldRegistry.class));
+    // Restored registries do not read scanner outputs.
+    Files.delete(module.dir.resolve(Serializer.METHOD_RECORD_FILE_NAME));
+    MethodRegistry restored = new MethodRegistry(ImmutableSet.of(module), loaded);
+    assertEquals(rowsOf(registry), rowsOf(restored));
+    assertEquals(
+        restored.findMethodByName("test.A", "foo()"),
+        restored.getImmediateSuperMethod(restored.findMethodByName("other.B", "foo()").location));
+  }
+
+  @Test
+  public void editedSourceInvalidatesTest() throws IOException {
+    writeSnapshot();
+    String original = Files.readString(sourceA);
+    Files.writeString(sourceA, "package test;\nclass A { Object f; }\n");
+    assertNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+    // Snapshots are keyed by content, reverting the edit makes the snapshot valid again.
+    Files.writeString(sourceA, original);
+    assertNotNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+  }
+
+  @Test
+  public void deletedSourceInvalidatesTest() throws IOException {
+    writeSnapshot();
+    Files.delete(sourceB);
+    assertNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+  }
+
+  @Test
+  public void addedSourceInvalidatesTest() throws IOException {
+    writeSnapshot();
+    Path added = Files.writeString(sourceA.resolveSibling("C.java"), "package test;\nclass C {}\n");
+    assertNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+    Files.delete(added);
+    assertNotNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+    // New package next to the known ones.
+    Files.createDirectories(sourceA.getParent().resolveSibling("added"));
+    assertNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+  }
+
+  @Test
+  public void configurationAndFormatInvalidateTest() throws IOException {
+    writeSnapshot();
+    assertNotNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+    assertNull(RegistrySnapshot.load(snapshot, CONFIGURATION + " --offline"));
+    byte[] content = Files.readAllBytes(snapshot);
+    // Unsupported version.
+    content[7]++;
+    Files.write(snapshot, content);
+    assertNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+    // Truncated snapshot.
+    content[7]--;
+    Files.write(snapshot, Arrays.copyOf(content, content.length - 3));
+    assertNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+    Files.delete(snapshot);
+    assertNull(RegistrySnapshot.load(snapshot, CONFIGURATION));
+  }
+
+  /**
+   * Loads the method registry of the module and writes its snapshot.
+   *
+   * @return The loaded registry.
+   */
+  private MethodRegistry writeSnapshot() {
+    MethodRegistry registry = new MethodRegistry(ImmutableSet.of(module));
+    RegistrySnapshot.write(
+        snapshot, CONFIGURATION, ImmutableSet.of(sourceA, sourceB), ImmutableList.of(registry));
+    return registry;
+  }
+
+  /**
+   * Creates a method record row for a public method {@code foo()}.
+   *
+   * @param id Id of the method.
+   * @param clazz Enclosing class of the method.
+   * @param parent Id of the overridden method, {@code 0} if none.
+   * @param path Path to the source file of the enclosing class.
+   * @return Tab separated row.
+   */
+  private static String row(String id, String clazz, String parent, Path path) {
+    return String.join(
+        "\t", id, clazz, "foo()", parent, "[]", "", "public", "true", path.toString());
+  }
+
+  /**
+   * Returns the rows of all records in the given registry.
+   *
+   * @param registry Registry to get its rows.
+   * @return Rows of all records.
+   */
+  private static Set<List<String>> rowsOf(Registry<?> registry) {
+    return registry.toRows().stream().map(Arrays::asList).collect(Collectors.toSet());
+  }
+}
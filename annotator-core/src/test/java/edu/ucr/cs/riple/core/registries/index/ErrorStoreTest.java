@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.registries.index;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAwayError;
+import edu.ucr.cs.riple.core.registries.region.Region;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ErrorStoreTest {
+
+  @Test
+  public void multiFixAndDuplicateErrorsTest() {
+    Fix a = fix(0);
+    Fix b = fix(1);
+    Fix c = fix(2);
+    List<Error> errors =
+        List.of(
+            error(a),
+            // Duplicate errors are counted once per occurrence.
+            error(a),
+            error(a, b),
+            error(b, a),
+            error(b, c),
+            error());
+    Map<Fix, List<Error>> index = ErrorStore.indexByResolvingFix(errors);
+    for (Collection<Fix> fixes :
+        List.of(
+            List.of(a),
+            List.of(b),
+            List.of(a, b),
+            List.of(b, c),
+            List.of(a, b, c),
+            // Fixes repeated in the collection.
+            List.of(a, a, b),
+            List.<Fix>of())) {
+      assertEquals(
+          fixes.toString(), fullScan(errors, fixes), ErrorStore.countResolvedErrors(index, fixes));
+    }
+    assertEquals(4, ErrorStore.countResolvedErrors(index, List.of(a, b)));
+  }
+
+  @Test
+  public void indexedCountMatchesFullScanTest() {
+    Random random = new Random(42);
+    List<Fix> fixes =
+        IntStream.range(0, 20).mapToObj(ErrorStoreTest::fix).collect(Collectors.toList());
+    List<Error> errors = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      Error error = error(sample(random, fixes, random.nextInt(4)).toArray(new Fix[0]));
+      errors.add(error);
+      if (random.nextInt(10) == 0) {
+        errors.add(error);
+      }
+    }
+    Map<Fix, List<Error>> index = ErrorStore.indexByResolvingFix(errors);
+    for (int i = 0; i < 200; i++) {
+      Set<Fix> collection = sample(random, fixes, random.nextInt(fixes.size()));
+      assertEquals(
+          collection.toString(),
+          fullScan(errors, collection),
+          ErrorStore.countResolvedErrors(index, collection));
+    }
+  }
+
+  /**
+   * Counts the errors resolved by the given fixes by checking every error.
+   *
+   * @param errors All errors.
+   * @param fixes The given fixes.
+   * @return Number of resolved errors.
+   */
+  private static int fullScan(List<Error> errors, Collection<Fix> fixes) {
+    return (int) errors.stream().filter(error -> error.isResolvableWith(fixes)).count();
+  }
+
+  /**
+   * Selects a random subset of the given fixes.
+   *
+   * @param random Random instance.
+   * @param fixes Fixes to select from.
+   * @param size Maximum size of the subset.
+   * @return Selected fixes.
+   */
+  private static Set<Fix> sample(Random random, List<Fix> fixes, int size) {
+    return random.ints(size, 0, fixes.size()).mapToObj(fixes::get).collect(Collectors.toSet());
+  }
+
+  /**
+   * Creates a fix annotating a unique method.
+   *
+   * @param id Id of the method.
+   * @return Fix instance.
+   */
+  private static Fix fix(int id) {
+    return new Fix(
+        new AddMarkerAnnotation(
+            new OnMethod("Foo.java", "test.Foo", "m" + id + "()"), "javax.annotation.Nullable"),
+        "RETURN_NULLABLE",
+        true);
+  }
+
+  /**
+   * Creates an error resolvable with all the given fixes.
+   *
+   * @param fixes Resolving fixes.
+   * @return Error instance.
+   */
+  private static Error error(Fix... fixes) {
+    return new NullAwayError(
+        "RETURN_NULLABLE",
+        "message",
+        new Region("test.Foo", "run()"),
+        0,
+        ImmutableSet.copyOf(fixes));
+  }
+}
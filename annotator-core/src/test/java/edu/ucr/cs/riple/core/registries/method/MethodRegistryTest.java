@@ -0,0 +1,237 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package edu.ucr.cs.riple.core.registries.method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import edu.ucr.cs.riple.scanner.Serializer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MethodRegistryTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private ModuleConfiguration module;
+
+  @Before
+  public void init() {
+    Path testDir = temporaryFolder.getRoot().toPath();
+    module =
+        new ModuleConfiguration(
+            7, testDir, testDir.resolve("nullaway.xml"), testDir.resolve("scanner.xml"));
+  }
+
+  @Test
+  public void duplicateRecordsAcrossShardsAreMergedTest() throws IOException {
+    // Class A is compiled by both compiler instances.
+    writeShard("0", row("0:1", "test.A", "foo()", "0", "null", "null"));
+    writeShard(
+        "1",
+        row("1:1", "test.A", "foo()", "0", "null", "null"),
+        row("1:2", "test.A", "bar()", "0", "null", "null"));
+    MethodRegistry registry = new MethodRegistry(ImmutableSet.of(module));
+    // Each method is stored once.
+    assertEquals(2, registry.toRows().size());
+    assertEquals(2, registry.getPublicMethodsWithNonPrimitivesReturn().size());
+  }
+
+  @Test
+  public void renumberedIdsAcrossShardsTest() throws IOException {
+    // Ids are only unique within a shard, "0:1" and "1:1" are different methods. The parent of
+    // B#foo() is declared in the other shard.
+    writeShard("0", row("0:1", "test.A", "foo()", "0", "null", "null"));
+    writeShard(
+        "1",
+        row("1:1", "test.B", "foo()", "1:7", "test.A", "foo()"),
+        row("1:2", "test.C", "foo()", "1:1", "test.B", "foo()"));
+    MethodRegistry registry = new MethodRegistry(ImmutableSet.of(module));
+    MethodRecord a = registry.findMethodByName("test.A", "foo()");
+    MethodRecord b = registry.findMethodByName("test.B", "foo()");
+    MethodRecord c = registry.findMethodByName("test.C", "foo()");
+    assertNotNull(a);
+    assertNotNull(b);
+    assertNotNull(c);
+    assertNotEquals(a.id, b.id);
+    assertEquals(a.id, b.parent);
+    assertEquals(b.id, c.parent);
+    assertEquals(a, registry.getImmediateSuperMethod(onMethod("test.B")));
+    assertEquals(ImmutableSet.of(b), registry.getImmediateSubMethods(onMethod("test.A")));
+    assertEquals(ImmutableSet.of(c), registry.getImmediateSubMethods(onMethod("test.B")));
+  }
+
+  @Test
+  public void incrementalRefreshTest() throws IOException {
+    writeUnit("0", row("0:1", "test.A", "foo()", "0", "null", "null"));
+    writeUnit("1", row("1:1", "test.B", "foo()", "1:7", "test.A", "foo()"));
+    MethodRegistry registry = new MethodRegistry(ImmutableSet.of(module));
+    assertNotNull(registry.findMethodByName("test.A", "foo()"));
+    // Class A is edited, foo() is renamed to bar() and B#foo() no longer overrides it.
+    Path unit = writeUnit("0", row("0:1", "test.A", "bar()", "0", "null", "null"));
+    Files.setLastModifiedTime(unit, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+    registry.refresh();
+    assertNull(registry.findMethodByName("test.A", "foo()"));
+    assertNotNull(registry.findMethodByName("test.A", "bar()"));
+    // Unit of class B is not read again, its records are rebuilt from the retained rows.
+    assertNotNull(registry.findMethodByName("test.B", "foo()"));
+    assertNull(registry.getImmediateSuperMethod(onMethod("test.B")));
+  }
+
+  @Test
+  public void queriesDuringRefreshTest() throws Exception {
+    writeUnit("0", row("0:1", "test.A", "foo()", "0", "null", "null"));
+    writeUnit("1", row("1:1", "test.B", "foo()", "1:7", "test.A", "foo()"));
+    MethodRegistry registry = new MethodRegistry(ImmutableSet.of(module));
+    AtomicBoolean done = new AtomicBoolean(false);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<Integer> queries =
+        executor.submit(
+            () -> {
+              int count = 0;
+              while (!done.get()) {
+                // Must never observe a partially rebuilt registry.
+                assertNotNull(registry.getImmediateSuperMethod(onMethod("test.B")));
+                assertEquals(1, registry.getImmediateSubMethods(onMethod("test.A")).size());
+                count++;
+              }
+              return count;
+            });
+    try {
+      for (int i = 0; i < 200; i++) {
+        registry.refresh();
+      }
+    } finally {
+      done.set(true);
+      executor.shutdown();
+    }
+    assertTrue(queries.get() > 0);
+  }
+
+  /**
+   * Writes the method records file of the given unit of incremental outputs.
+   *
+   * @param unit Id of the unit.
+   * @param rows Rows of the file excluding the header.
+   * @return Path to the written file.
+   */
+  private Path writeUnit(String unit, String... rows) throws IOException {
+    return write(module.dir.resolve(Serializer.UNITS_DIRECTORY_NAME).resolve(unit), rows);
+  }
+
+  /**
+   * Writes the method records file of the given shard.
+   *
+   * @param shard Id of the shard.
+   * @param rows Rows of the file excluding the header.
+   */
+  private void writeShard(String shard, String... rows) throws IOException {
+    write(module.dir.resolve(Serializer.SHARDS_DIRECTORY_NAME).resolve(shard), rows);
+  }
+
+  /**
+   * Writes the method records file in the given directory.
+   *
+   * @param dir Directory of the shard or unit.
+   * @param rows Rows of the file excluding the header.
+   * @return Path to the written file.
+   */
+  private Path write(Path dir, String... rows) throws IOException {
+    Files.createDirectories(dir);
+    List<String> lines = new ArrayList<>();
+    lines.add(
+        String.join(
+            "\t",
+            "id",
+            "class",
+            "method",
+            "parent",
+            "flags",
+            "annot",
+            "visibility",
+            "non-primitive-return",
+            "path",
+            "parent-class",
+            "parent-method"));
+    lines.addAll(List.of(rows));
+    return Files.write(dir.resolve(Serializer.METHOD_RECORD_FILE_NAME), lines);
+  }
+
+  /**
+   * Creates a row of a sharded method records file of a public method.
+   *
+   * @return Tab separated row.
+   */
+  private String row(
+      String id,
+      String clazz,
+      String method,
+      String parent,
+      String parentClass,
+      String parentMethod) {
+    return String.join(
+        "\t",
+        id,
+        clazz,
+        method,
+        parent,
+        "[]",
+        "",
+        "public",
+        "true",
+        module.dir.resolve(clazz.replace("test.", "") + ".java").toString(),
+        parentClass,
+        parentMethod);
+  }
+
+  /**
+   * Creates the location of method {@code foo()} in the given class.
+   *
+   * @param clazz Flat name of the class.
+   * @return Location of the method.
+   */
+  private OnMethod onMethod(String clazz) {
+    return new OnMethod(module.dir.resolve(clazz.replace("test.", "") + ".java"), clazz, "foo()");
+  }
+}
@@ -34,6 +34,7 @@ import edu.ucr.cs.riple.core.checkers.nullaway.NullAway;
 import edu.ucr.cs.riple.core.log.Log;
 import edu.ucr.cs.riple.core.module.ModuleConfiguration;
 import edu.ucr.cs.riple.injector.Helper;
+import edu.ucr.cs.riple.injector.location.Location;
 import edu.ucr.cs.riple.scanner.generatedcode.SourceType;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -72,6 +73,10 @@ public class CoreTestHelper {
   private boolean disableBailout = false;
   /** Suppress remaining errors mode activation. Deactivated by default */
   private boolean suppressRemainingErrors = false;
+  /** Time budget of the run in seconds, unlimited by default. */
+  private long timeBudgetInSeconds = -1;
+  /** Sharding by package activation. Deactivated by default */
+  private boolean shardByPackage = false;
   /** Downstream dependency analysis activation. Deactivated by default */
   private boolean downstreamDependencyAnalysisActivated = false;
   /** Inference activation. Activated by default */
@@ -188,6 +193,27 @@ public class CoreTestHelper {
     return this;
   }
 
+  /**
+   * Sets the time budget of the run.
+   *
+   * @param seconds Time budget in seconds.
+   * @return This instance of {@link CoreTestHelper}.
+   */
+  public CoreTestHelper withTimeBudget(long seconds) {
+    this.timeBudgetInSeconds = seconds;
+    return this;
+  }
+
+  /**
+   * Activates sharding suggested fixes by package.
+   *
+   * @return This instance of {@link CoreTestHelper}.
+   */
+  public CoreTestHelper shardByPackage() {
+    this.shardByPackage = true;
+    return this;
+  }
+
   public CoreTestHelper deactivateInference() {
     this.deactivateInference = true;
     this.suppressRemainingErrors = true;
@@ -227,7 +253,22 @@ public class CoreTestHelper {
     if (predicate == null) {
       predicate = DEFAULT_PREDICATE.create(config);
     }
-    compare(new ArrayList<>(annotator.cache.reports()));
+    List<Report> reports = new ArrayList<>(annotator.cache.reports());
+    if (annotator.shardStore != null) {
+      // Reports of finished shards are released from memory, their persisted effects are compared.
+      Set<Location> inMemory =
+          reports.stream().map(report -> report.root.toLocation()).collect(Collectors.toSet());
+      annotator
+          .shardStore
+          .readPersistedEffects()
+          .forEach(
+              (location, effect) -> {
+                if (!inMemory.contains(location)) {
+                  reports.add(new TReport(location, effect));
+                }
+              });
+    }
+    compare(reports);
     checkBuildsStatus();
     checkExpectedOutput();
   }
@@ -399,6 +440,8 @@ public class CoreTestHelper {
     builder.mode = mode;
     builder.inferenceActivated = !deactivateInference;
     builder.suppressRemainingErrors = suppressRemainingErrors;
+    builder.timeBudgetInSeconds = timeBudgetInSeconds;
+    builder.shardByPackage = shardByPackage;
     builder.useCacheImpact = true;
     builder.sourceTypes.add(SourceType.LOMBOK);
     builder.cache = true;
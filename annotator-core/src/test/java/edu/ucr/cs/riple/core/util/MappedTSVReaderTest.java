@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package edu.ucr.cs.riple.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MappedTSVReaderTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void crlfTest() throws IOException {
+    assertEquals(
+        List.of(List.of("a", "b"), List.of("c", "d")), read("h\r\na\tb\r\nc\td\r\n", true));
+    // Carriage return of the last row without a final newline.
+    assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), read("a\tb\r\nc\td\r", false));
+  }
+
+  @Test
+  public void trailingEmptyFieldsTest() throws IOException {
+    // Trailing empty fields are dropped as in String.split, other empty fields are retained.
+    assertEquals(
+        List.of(List.of("a", "", "b"), List.of("c"), List.of("", "d")),
+        read("a\t\tb\t\t\nc\t\r\n\td\n", false));
+    assertSameAsSplit("a\t\tb\t\t\nc\t\r\n\td\n");
+  }
+
+  @Test
+  public void missingFinalNewlineTest() throws IOException {
+    assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), read("h\na\tb\nc\td", true));
+    assertSameAsSplit("a\tb\nc\td");
+  }
+
+  @Test
+  public void emptyFileTest() throws IOException {
+    assertEquals(List.of(), read("", true));
+    assertEquals(List.of(), read("", false));
+    // Only the header.
+    assertEquals(List.of(), read("h1\th2\n", true));
+  }
+
+  @Test
+  public void getIntTest() throws IOException {
+    List<String> values = List.of("0", "42", "-42", "+42", "2147483647", "-2147483648", "007");
+    Path path = write(String.join("\t", values) + "\n");
+    MappedTSVReader.forEachRow(
+        path,
+        false,
+        row -> {
+          for (int i = 0; i < values.size(); i++) {
+            assertEquals(Integer.parseInt(values.get(i)), row.getInt(i));
+          }
+        });
+  }
+
+  @Test
+  public void getIntOverflowTest() throws IOException {
+    List<String> values =
+        List.of("2147483648", "-2147483649", "99999999999999999999", "", "-", "1a", "4 2");
+    // Same values are rejected by Integer.parseInt.
+    values.forEach(
+        value -> assertThrows(NumberFormatException.class, () -> Integer.parseInt(value)));
+    Path path = write("x\t" + String.join("\t", values) + "\n");
+    List<Integer> failures = new ArrayList<>();
+    MappedTSVReader.forEachRow(
+        path,
+        false,
+        row -> {
+          for (int i = 1; i <= values.size(); i++) {
+            try {
+              row.getInt(i);
+            } catch (NumberFormatException e) {
+              failures.add(i);
+            }
+          }
+        });
+    assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), failures);
+  }
+
+  @Test
+  public void fieldAccessTest() throws IOException {
+    Path path = write("null\tvalue\n");
+    MappedTSVReader.forEachRow(
+        path,
+        false,
+        row -> {
+          assertTrue(row.fieldEquals(0, "null"));
+          assertFalse(row.fieldEquals(1, "null"));
+          assertEquals("value", row.get(1));
+          assertThrows(IndexOutOfBoundsException.class, () -> row.get(2));
+        });
+  }
+
+  /**
+   * Asserts rows read from the given content are equal to rows read with {@link
+   * java.io.BufferedReader#readLine()} and {@link String#split(String)}.
+   *
+   * @param content Content of the file.
+   */
+  private void assertSameAsSplit(String content) throws IOException {
+    List<List<String>> expected = new ArrayList<>();
+    Files.readAllLines(write(content), Charset.defaultCharset())
+        .forEach(line -> expected.add(Arrays.asList(line.split("\t"))));
+    assertEquals(expected, read(content, false));
+  }
+
+  /**
+   * Reads all rows of a file with the given content.
+   *
+   * @param content Content of the file.
+   * @param skipHeader If true, the first row is skipped.
+   * @return Fields of all rows.
+   */
+  private List<List<String>> read(String content, boolean skipHeader) throws IOException {
+    List<List<String>> rows = new ArrayList<>();
+    MappedTSVReader.forEachRow(
+        write(content),
+        skipHeader,
+        row -> {
+          List<String> fields = new ArrayList<>();
+          for (int i = 0; i < row.size(); i++) {
+            fields.add(row.get(i));
+          }
+          rows.add(fields);
+        });
+    return rows;
+  }
+
+  /**
+   * Writes the given content to a new file.
+   *
+   * @param content Content of the file.
+   * @return Path to the file.
+   */
+  private Path write(String content) throws IOException {
+    Path path = temporaryFolder.newFile().toPath();
+    Files.write(path, content.getBytes(Charset.defaultCharset()));
+    return path;
+  }
+}
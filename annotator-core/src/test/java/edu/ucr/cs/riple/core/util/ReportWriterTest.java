@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import edu.ucr.cs.riple.core.Config;
+import edu.ucr.cs.riple.core.Report;
+import edu.ucr.cs.riple.core.checkers.nullaway.NullAway;
+import edu.ucr.cs.riple.core.registries.index.Fix;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import edu.ucr.cs.riple.injector.location.OnParameter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ReportWriterTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Path testDir;
+  private List<Report> reports;
+
+  @Before
+  public void init() throws IOException {
+    testDir = temporaryFolder.getRoot().toPath();
+    Files.write(testDir.resolve("paths.tsv"), List.of("nullaway.xml\tscanner.xml"));
+    reports = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      // Effects are not in order, the writer must sort them.
+      reports.add(
+          new Report(
+              new Fix(
+                  new AddMarkerAnnotation(
+                      new OnMethod("Foo.java", "test.Foo", "m" + i + "()"),
+                      "javax.annotation.Nullable"),
+                  "null",
+                  true),
+              (i * 3) % 5 - 2));
+    }
+  }
+
+  @Test
+  public void writesSingleJsonObjectByDefaultTest() throws IOException, ParseException {
+    Config config = makeConfig(false);
+    assertEquals(ReportWriter.REPORTS_FILE_NAME, ReportWriter.getFileName(config));
+    new ReportWriter(config).write(reports);
+    Path path = testDir.resolve("reports.json");
+    assertTrue(Files.exists(path));
+    assertFalse(Files.exists(testDir.resolve(ReportWriter.NDJSON_REPORTS_FILE_NAME)));
+    JSONObject result =
+        (JSONObject)
+            new JSONParser().parse(Files.newBufferedReader(path, Charset.defaultCharset()));
+    JSONArray reportsJson = (JSONArray) result.get("REPORTS");
+    List<JSONObject> written = new ArrayList<>();
+    reportsJson.forEach(report -> written.add((JSONObject) report));
+    assertEquals(reports.size(), written.size());
+    assertSortedByOverallEffect(written);
+  }
+
+  @Test
+  public void writesNewlineDelimitedJsonWhenActivatedTest() throws IOException {
+    Config config = makeConfig(true);
+    assertEquals(ReportWriter.NDJSON_REPORTS_FILE_NAME, ReportWriter.getFileName(config));
+    new ReportWriter(config).write(reports);
+    Path path = testDir.resolve("reports.ndjson");
+    assertFalse(Files.exists(testDir.resolve(ReportWriter.REPORTS_FILE_NAME)));
+    // Each report is written on its own line.
+    assertEquals(reports.size(), Files.readAllLines(path, Charset.defaultCharset()).size());
+    List<JSONObject> written = new ArrayList<>();
+    try (ReportReader reader = new ReportReader(path)) {
+      ImmutableList<JSONObject> page;
+      while (!(page = reader.nextPage(2)).isEmpty()) {
+        assertTrue(page.size() <= 2);
+        written.addAll(page);
+      }
+    }
+    assertEquals(reports.size(), written.size());
+    assertSortedByOverallEffect(written);
+    assertEquals(written.subList(2, 4), ReportReader.readPage(path, 1, 2));
+    assertTrue(ReportReader.readPage(path, 3, 2).isEmpty());
+  }
+
+  @Test
+  public void bothFormatsContainSameReportsTest() throws IOException, ParseException {
+    new ReportWriter(makeConfig(false)).write(reports);
+    new ReportWriter(makeConfig(true)).write(reports);
+    JSONObject result =
+        (JSONObject)
+            new JSONParser()
+                .parse(
+                    Files.newBufferedReader(
+                        testDir.resolve(ReportWriter.REPORTS_FILE_NAME),
+                        Charset.defaultCharset()));
+    List<Object> single = new ArrayList<>((JSONArray) result.get("REPORTS"));
+    List<Object> streamed =
+        new ArrayList<>(
+            ReportReader.readPage(
+                testDir.resolve(ReportWriter.NDJSON_REPORTS_FILE_NAME), 0, reports.size()));
+    assertEquals(single, streamed);
+  }
+
+  @Test
+  public void writesEmptyReportsTest() throws IOException {
+    new ReportWriter(makeConfig(false)).write(List.of());
+    assertEquals(
+        "{\"REPORTS\":[]}",
+        Files.readString(testDir.resolve(ReportWriter.REPORTS_FILE_NAME)).trim());
+    new ReportWriter(makeConfig(true)).write(List.of());
+    assertTrue(
+        ReportReader.readPage(testDir.resolve(ReportWriter.NDJSON_REPORTS_FILE_NAME), 0, 10)
+            .isEmpty());
+  }
+
+  @Test
+  public void writtenLocationsAreReadableTest() {
+    // Paths and enclosing methods of locations are written as json strings.
+    OnParameter parameter = new OnParameter("/root/src/Foo.java", "test.Foo", "run(int)", 0);
+    Report report =
+        new Report(
+            new Fix(new AddMarkerAnnotation(parameter, "javax.annotation.Nullable"), "null", true),
+            -1);
+    new ReportWriter(makeConfig(true)).write(List.of(report));
+    ImmutableList<JSONObject> written =
+        ReportReader.readPage(testDir.resolve(ReportWriter.NDJSON_REPORTS_FILE_NAME), 0, 10);
+    assertEquals(1, written.size());
+    assertEquals("/root/src/Foo.java", written.get(0).get("PATH"));
+    assertEquals(parameter.enclosingMethod.toString(), written.get(0).get("METHOD"));
+    assertEquals(0L, ((Number) written.get(0).get("INDEX")).longValue());
+  }
+
+  /**
+   * Asserts that the given serialized reports are sorted by their overall effect in descending
+   * order.
+   *
+   * @param written Serialized reports.
+   */
+  private static void assertSortedByOverallEffect(List<JSONObject> written) {
+    List<Long> effects =
+        written.stream()
+            .map(report -> ((Number) report.get("OVERALL EFFECT")).longValue())
+            .collect(Collectors.toList());
+    for (int i = 1; i < effects.size(); i++) {
+      assertTrue(effects.get(i - 1) >= effects.get(i));
+    }
+  }
+
+  /**
+   * Creates a config writing reports in the test directory.
+   *
+   * @param ndjson Whether reports are written in newline-delimited json format.
+   * @return Config instance.
+   */
+  private Config makeConfig(boolean ndjson) {
+    List<String> args =
+        new ArrayList<>(
+            List.of(
+                "-bc",
+                "./gradlew compileJava",
+                "-cp",
+                testDir.resolve("paths.tsv").toString(),
+                "-i",
+                "edu.ucr.Initializer",
+                "-d",
+                testDir.toString(),
+                "-cn",
+                NullAway.NAME));
+    if (ndjson) {
+      args.add("-ndr");
+    }
+    return new Config(args.toArray(new String[0]));
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.core.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.core.module.ModuleConfiguration;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class UtilityTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  /** Two modules built by the same command. */
+  private ImmutableSet<ModuleConfiguration> modules;
+  /** Modification time of the checker errors of each module before the build. */
+  private Map<Path, FileTime> before;
+
+  @Before
+  public void init() throws IOException {
+    Path testDir = temporaryFolder.getRoot().toPath();
+    modules = ImmutableSet.of(makeModule(testDir, 0), makeModule(testDir, 1));
+    before = new HashMap<>();
+    // Outputs of a previous build, with errors in every module.
+    for (ModuleConfiguration module : modules) {
+      Path errors = writeErrors(module, 1, FileTime.fromMillis(1_000));
+      before.put(module.dir, Files.getLastModifiedTime(errors));
+    }
+  }
+
+  @Test
+  public void successfulBuildIsCompletedTest() {
+    assertTrue(Utility.isCompleted(0, modules, before));
+  }
+
+  @Test
+  public void buildReportingErrorsIsCompletedTest() throws IOException {
+    writeErrors(modules.asList().get(0), 0, FileTime.fromMillis(2_000));
+    writeErrors(modules.asList().get(1), 2, FileTime.fromMillis(2_000));
+    assertTrue(Utility.isCompleted(1, modules, before));
+  }
+
+  @Test
+  public void staleModuleIsCompletedTest() throws IOException {
+    // The first module reports errors, while the second module is not recompiled and still holds
+    // the errors of the previous build.
+    writeErrors(modules.asList().get(0), 2, FileTime.fromMillis(2_000));
+    assertTrue(Utility.isCompleted(1, modules, before));
+  }
+
+  @Test
+  public void staleModulesOnlyIsIncompleteTest() {
+    assertFalse(Utility.isCompleted(1, modules, before));
+  }
+
+  @Test
+  public void moduleWithTruncatedErrorsFileIsIncompleteTest() throws IOException {
+    writeErrors(modules.asList().get(0), 2, FileTime.fromMillis(2_000));
+    Path errors = modules.asList().get(1).dir.resolve("errors.tsv");
+    Files.writeString(errors, "head");
+    assertFalse(Utility.isCompleted(1, modules, before));
+    Files.writeString(errors, "");
+    assertFalse(Utility.isCompleted(1, modules, before));
+  }
+
+  @Test
+  public void moduleWithoutErrorsFileIsIncompleteTest() throws IOException {
+    writeErrors(modules.asList().get(0), 2, FileTime.fromMillis(2_000));
+    Files.delete(modules.asList().get(1).dir.resolve("errors.tsv"));
+    assertFalse(Utility.isCompleted(1, modules, before));
+  }
+
+  @Test
+  public void failedBuildWithoutErrorsIsIncompleteTest() throws IOException {
+    for (ModuleConfiguration module : modules) {
+      writeErrors(module, 0, FileTime.fromMillis(2_000));
+    }
+    assertFalse(Utility.isCompleted(1, modules, before));
+  }
+
+  /**
+   * Creates a module configuration with its own config files.
+   *
+   * @param testDir Test directory.
+   * @param id Id of the module.
+   * @return Module configuration.
+   */
+  private static ModuleConfiguration makeModule(Path testDir, int id) {
+    return new ModuleConfiguration(
+        id,
+        testDir,
+        testDir.resolve("checker" + id + ".xml"),
+        testDir.resolve("scanner" + id + ".xml"));
+  }
+
+  /**
+   * Writes the checker errors file of the given module with the given number of errors.
+   *
+   * @param module Module configuration.
+   * @param errors Number of errors written after the header.
+   * @param modified Modification time set on the file.
+   * @return Path to the errors file.
+   * @throws IOException if the file could not be written.
+   */
+  private static Path writeErrors(ModuleConfiguration module, int errors, FileTime modified)
+      throws IOException {
+    Path path = module.dir.resolve("errors.tsv");
+    StringBuilder content = new StringBuilder("header\n");
+    for (int i = 0; i < errors; i++) {
+      content.append("error\t").append(i).append('\n');
+    }
+    Files.writeString(path, content);
+    Files.setLastModifiedTime(path, modified);
+    return path;
+  }
+}
@@ -34,6 +34,7 @@ import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.LambdaExpressionTree;
@@ -68,6 +69,7 @@ public class AnnotatorScanner extends BugChecker
         BugChecker.VariableTreeMatcher,
         BugChecker.NewClassTreeMatcher,
         BugChecker.ClassTreeMatcher,
+        BugChecker.CompilationUnitTreeMatcher,
         BugChecker.LambdaExpressionTreeMatcher,
         BugChecker.MemberReferenceTreeMatcher {
 
@@ -85,6 +87,19 @@ public class AnnotatorScanner extends BugChecker
     this.context = new ScannerContext(new ErrorProneCLIFlagsConfig(flags));
   }
 
+  @Override
+  public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+    Config config = context.getConfig();
+    if (!config.isActive()) {
+      return Description.NO_MATCH;
+    }
+    // Compilation unit matchers are invoked before matchers of the enclosed trees.
+    config
+        .getSerializer()
+        .startCompilationUnit(Serializer.pathToSourceFileFromURI(tree.getSourceFile().toUri()));
+    return Description.NO_MATCH;
+  }
+
   @Override
   public Description matchClass(ClassTree classTree, VisitorState visitorState) {
     if (!context.getConfig().isActive()) {
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.scanner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writer of scanner outputs in a compact binary encoding, used instead of the tab separated rows
+ * when binary outputs are requested. The file starts with {@link #MAGIC} and {@link #VERSION},
+ * followed by frames where each frame holds a single row:
+ *
+ * <pre>
+ *   int frameLength, long writerId,
+ *   int definitionsCount, (int stringId, int byteLength, byte[] utf8)*,
+ *   int columnsCount, (int stringId)*
+ * </pre>
+ *
+ * Strings are defined once per writer at their first use and rows refer to them by id, therefore
+ * every row is stored as fixed width ids and repeated values (e.g. class names and paths) are
+ * decoded once by the reader. Each frame is appended with a single write, and string ids are
+ * scoped by the id of the writer, so frames of concurrent writers can interleave in a file. Writer
+ * ids are made of the id of the writing process and the index of the writer within that process,
+ * hence writers which are alive at the same time never share an id.
+ */
+public class BinaryTableWriter {
+
+  /** Magic number at the beginning of every binary table. */
+  public static final int MAGIC = 0x4e415442;
+  /** Version of the binary encoding. */
+  public static final int VERSION = 2;
+  /** Extension appended to the name of the tab separated table to get the binary table name. */
+  public static final String FILE_EXTENSION = ".bin";
+  /** Number of writers created in this process, used to assign writer ids. */
+  private static final AtomicInteger WRITERS_COUNT = new AtomicInteger();
+  /** Id of this writer, used to scope its string ids. */
+  private final long writerId;
+  /** Ids of strings defined by this writer, per table. */
+  private final Map<Path, Map<String, Integer>> stringTables;
+
+  public BinaryTableWriter() {
+    this.writerId =
+        (ProcessHandle.current().pid() << Integer.SIZE)
+            | (WRITERS_COUNT.getAndIncrement() & 0xffffffffL);
+    this.stringTables = new HashMap<>();
+  }
+
+  /**
+   * Returns the path to the binary table corresponding to the given tab separated table.
+   *
+   * @param tablePath Path to the tab separated table.
+   * @return Path to the binary table.
+   */
+  public static Path binaryPathOf(Path tablePath) {
+    return tablePath.resolveSibling(tablePath.getFileName() + FILE_EXTENSION);
+  }
+
+  /**
+   * Clears the binary table corresponding to the given tab separated table and writes the magic
+   * number and version.
+   *
+   * @param tablePath Path to the tab separated table.
+   */
+  public void initialize(Path tablePath) {
+    Path path = binaryPathOf(tablePath);
+    stringTables.remove(tablePath);
+    try (DataOutputStream os = new DataOutputStream(Files.newOutputStream(path))) {
+      os.writeInt(MAGIC);
+      os.writeInt(VERSION);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not initialize binary table at: " + path, e);
+    }
+  }
+
+  /**
+   * Appends a row with the given columns to the binary table corresponding to the given tab
+   * separated table.
+   *
+   * @param tablePath Path to the tab separated table.
+   * @param columns Columns of the row to append.
+   */
+  public void append(Path tablePath, String... columns) {
+    Path path = binaryPathOf(tablePath);
+    Map<String, Integer> ids = stringTables.computeIfAbsent(tablePath, key -> new HashMap<>());
+    List<String> definitions = new ArrayList<>();
+    int[] columnIds = new int[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      Integer id = ids.get(columns[i]);
+      if (id == null) {
+        id = ids.size();
+        ids.put(columns[i], id);
+        definitions.add(columns[i]);
+      }
+      columnIds[i] = id;
+    }
+    try {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(body);
+      out.writeLong(writerId);
+      out.writeInt(definitions.size());
+      int firstDefinitionId = ids.size() - definitions.size();
+      for (int i = 0; i < definitions.size(); i++) {
+        byte[] bytes = definitions.get(i).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(firstDefinitionId + i);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      out.writeInt(columnIds.length);
+      for (int id : columnIds) {
+        out.writeInt(id);
+      }
+      ByteArrayOutputStream frame = new ByteArrayOutputStream(body.size() + Integer.BYTES);
+      new DataOutputStream(frame).writeInt(body.size());
+      body.writeTo(frame);
+      try (OutputStream os = new FileOutputStream(path.toFile(), true)) {
+        os.write(frame.toByteArray());
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Error happened for writing at binary table: " + path, e);
+    }
+  }
+}
@@ -38,6 +38,34 @@ public interface Config {
    */
   boolean isActive();
 
+  /**
+   * If true, each compiler instance writes its outputs in a separate shard directory under {@link
+   * Serializer#SHARDS_DIRECTORY_NAME} in the output directory, and ids are prefixed with the shard
+   * id to be globally unique. Used when several compilations run concurrently with the same output
+   * directory.
+   *
+   * @return true, if outputs are sharded, false otherwise.
+   */
+  boolean isOutputSharded();
+
+  /**
+   * If true, outputs of each compilation unit are written in a separate directory under {@link
+   * Serializer#UNITS_DIRECTORY_NAME} in the output directory, which is replaced only when the
+   * compilation unit is recompiled. Used to update outputs incrementally when only a subset of
+   * source files are recompiled.
+   *
+   * @return true, if outputs are incremental, false otherwise.
+   */
+  boolean isOutputIncremental();
+
+  /**
+   * If true, rows are written in a compact binary encoding next to each table, see {@link
+   * BinaryTableWriter}, and tab separated tables only contain their header.
+   *
+   * @return true, if outputs are binary, false otherwise.
+   */
+  boolean isOutputBinary();
+
   /**
    * Checks if the passed name is a {@code @Nonnull} annotation.
    *
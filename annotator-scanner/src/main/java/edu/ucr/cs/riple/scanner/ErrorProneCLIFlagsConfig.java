@@ -50,6 +50,12 @@ public class ErrorProneCLIFlagsConfig implements Config {
   @Nonnull private final Path outputDirectory;
   /** Controls serialization services activation. */
   private final boolean serializationIsActive;
+  /** Controls sharding of outputs. */
+  private final boolean outputIsSharded;
+  /** Controls incremental outputs per compilation unit. */
+  private final boolean outputIsIncremental;
+  /** Controls binary encoding of outputs. */
+  private final boolean outputIsBinary;
   /** Serializing instance for writing outputs at the desired paths. */
   private final Serializer serializer;
   /** Source type resolver for serialized regions. */
@@ -85,6 +91,16 @@ public class ErrorProneCLIFlagsConfig implements Config {
     this.serializationIsActive =
         XMLUtil.getValueFromAttribute(document, "/scanner/serialization", "active", Boolean.class)
             .orElse(false);
+    this.outputIsSharded =
+        XMLUtil.getValueFromAttribute(document, "/scanner/serialization", "sharded", Boolean.class)
+            .orElse(false);
+    this.outputIsIncremental =
+        XMLUtil.getValueFromAttribute(
+                document, "/scanner/serialization", "incremental", Boolean.class)
+            .orElse(false);
+    this.outputIsBinary =
+        XMLUtil.getValueFromAttribute(document, "/scanner/serialization", "binary", Boolean.class)
+            .orElse(false);
     this.symbolSourceResolver = new SymbolSourceResolver(extractRequestedSourceTypes(document));
     this.nonnullAnnotations =
         XMLUtil.getArrayValueFromTag(document, "/scanner/annotations/nonnull", String.class)
@@ -113,6 +129,21 @@ public class ErrorProneCLIFlagsConfig implements Config {
     return serializationIsActive;
   }
 
+  @Override
+  public boolean isOutputSharded() {
+    return outputIsSharded;
+  }
+
+  @Override
+  public boolean isOutputIncremental() {
+    return outputIsIncremental;
+  }
+
+  @Override
+  public boolean isOutputBinary() {
+    return outputIsBinary;
+  }
+
   @Override
   public boolean isNonnullAnnotation(String annotName) {
     return nonnullAnnotations.contains(annotName);
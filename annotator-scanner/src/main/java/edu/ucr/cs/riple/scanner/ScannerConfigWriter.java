@@ -51,6 +51,12 @@ public class ScannerConfigWriter {
   private Path outputDirectory;
   /** Controls serialization services activation. */
   private boolean serializationActivation;
+  /** Controls sharding of outputs. */
+  private boolean shardedOutput;
+  /** Controls incremental outputs per compilation unit. */
+  private boolean incrementalOutput;
+  /** Controls binary encoding of outputs. */
+  private boolean binaryOutput;
   /** Set of activated generated code detectors. */
   private final Set<SourceType> activatedGeneratedCodeDetectors;
 
@@ -59,6 +65,9 @@ public class ScannerConfigWriter {
 
   public ScannerConfigWriter() {
     this.serializationActivation = false;
+    this.shardedOutput = false;
+    this.incrementalOutput = false;
+    this.binaryOutput = false;
     this.activatedGeneratedCodeDetectors = new HashSet<>();
     this.nonnullAnnotations = ImmutableSet.of();
   }
@@ -73,6 +82,21 @@ public class ScannerConfigWriter {
     return this;
   }
 
+  public ScannerConfigWriter setShardedOutput(boolean sharded) {
+    this.shardedOutput = sharded;
+    return this;
+  }
+
+  public ScannerConfigWriter setIncrementalOutput(boolean incremental) {
+    this.incrementalOutput = incremental;
+    return this;
+  }
+
+  public ScannerConfigWriter setBinaryOutput(boolean binary) {
+    this.binaryOutput = binary;
+    return this;
+  }
+
   public ScannerConfigWriter addGeneratedCodeDetectors(ImmutableSet<SourceType> sourceType) {
     this.activatedGeneratedCodeDetectors.addAll(sourceType);
     return this;
@@ -107,6 +131,9 @@ public class ScannerConfigWriter {
       // Serialization Activation
       Element methodElement = doc.createElement("serialization");
       methodElement.setAttribute("active", String.valueOf(serializationActivation));
+      methodElement.setAttribute("sharded", String.valueOf(shardedOutput));
+      methodElement.setAttribute("incremental", String.valueOf(incrementalOutput));
+      methodElement.setAttribute("binary", String.valueOf(binaryOutput));
       rootElement.appendChild(methodElement);
 
       // UUID
@@ -24,10 +24,11 @@
 
 package edu.ucr.cs.riple.scanner;
 
-import com.google.common.collect.Multimap;
-import com.google.common.collect.MultimapBuilder;
+import com.sun.tools.javac.code.Symbol;
 import edu.ucr.cs.riple.scanner.out.MethodRecord;
-import java.util.stream.Stream;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * Container class to store the state of the checker.
@@ -39,10 +40,10 @@ import java.util.stream.Stream;
 public class ScannerContext {
 
   /**
-   * MultiMap of visited methods. It stores the set of visited methods paired with their computed
-   * hash value.
+   * Map of visited methods keyed by their symbols. Symbols are unique within a compilation and do
+   * not override {@link Object#equals(Object)}, therefore they are compared by identity.
    */
-  private final Multimap<Integer, MethodRecord> visitedMethods;
+  private final Map<Symbol.MethodSymbol, MethodRecord> visitedMethods;
   /**
    * Last given id to the most recent newly visited method. Used to assign unique ids for each
    * method.
@@ -53,7 +54,7 @@ public class ScannerContext {
 
   public ScannerContext(Config config) {
     this.methodId = 0;
-    this.visitedMethods = MultimapBuilder.hashKeys().arrayListValues().build();
+    this.visitedMethods = new IdentityHashMap<>();
     this.config = config;
   }
 
@@ -72,7 +73,7 @@ public class ScannerContext {
    * @param methodRecord method info instance.
    */
   public void visitMethod(MethodRecord methodRecord) {
-    this.visitedMethods.put(methodRecord.hashCode(), methodRecord);
+    this.visitedMethods.put(methodRecord.getSymbol(), methodRecord);
   }
 
   /**
@@ -85,12 +86,13 @@ public class ScannerContext {
   }
 
   /**
-   * Retrieves stream of {@link MethodRecord} that has the given hash value.
+   * Retrieves the {@link MethodRecord} of the given method symbol if visited.
    *
-   * @param hashHint Given hash value to filter elements based on.
-   * @return Stream of {@link MethodRecord}.
+   * @param method Method symbol.
+   * @return The corresponding {@link MethodRecord}, or null if the method is not visited.
    */
-  public Stream<MethodRecord> getVisitedMethodsWithHashHint(int hashHint) {
-    return this.visitedMethods.get(hashHint).stream();
+  @Nullable
+  public MethodRecord getVisitedMethod(Symbol.MethodSymbol method) {
+    return this.visitedMethods.get(method);
   }
 }
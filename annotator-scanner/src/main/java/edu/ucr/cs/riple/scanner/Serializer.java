@@ -38,9 +38,14 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import javax.annotation.Nullable;
 
 /**
@@ -50,15 +55,37 @@ import javax.annotation.Nullable;
 public class Serializer {
 
   /** Path to write impacted regions for changes on fields. */
-  private final Path fieldImpactedRegionPath;
+  private Path fieldImpactedRegionPath;
   /** Path to write impacted regions for changes on methods */
-  private final Path methodImpactedRegionPath;
+  private Path methodImpactedRegionPath;
   /** Path to write method records. */
-  private final Path methodRecordPath;
+  private Path methodRecordPath;
   /** Path to write class info data. */
-  private final Path classRecordsPath;
+  private Path classRecordsPath;
   /** Path to write location of elements with explicit {@code @Nonnull} annotation. */
-  private final Path nonnullElementsPath;
+  private Path nonnullElementsPath;
+  /** Output directory, outputs are written here or in a shard or unit directory under it. */
+  private final Path outputDirectory;
+  /** If true, outputs of each compilation unit are written in a separate directory. */
+  private final boolean incremental;
+  /**
+   * Id of the compilation unit which outputs are currently written, used to prefix ids to make them
+   * globally unique, null if outputs are not incremental.
+   */
+  @Nullable private String unitId;
+  /** Writer of binary tables, null if outputs are written as tab separated rows. */
+  @Nullable private final BinaryTableWriter binaryWriter;
+  /**
+   * Memoized serialized symbols. The same symbols (e.g. enclosing methods of call sites and called
+   * methods) are serialized repeatedly, symbols are unique within a compilation and are compared
+   * by identity.
+   */
+  private final Map<Symbol, String> serializedSymbols;
+  /**
+   * Id of the shard claimed by this serializer if outputs are sharded, used to prefix ids to make
+   * them globally unique, null if outputs are not sharded.
+   */
+  @Nullable private final String shardId;
   /** File name where all field usage data has been stored. */
   public static final String FIELD_IMPACTED_REGION_FILE_NAME = "field_impacted_region_map.tsv";
   /** File name where all impacted regions for changes on methods are serialized. */
@@ -69,17 +96,96 @@ public class Serializer {
   public static final String CLASS_RECORD_FILE_NAME = "class_records.tsv";
   /** File name where location of elements explicitly annotated as {@code @Nonnull}. */
   public static final String NON_NULL_ELEMENTS_FILE_NAME = "nonnull_elements.tsv";
+  /**
+   * Name of the directory in the output directory containing shards, each compiler instance writes
+   * its outputs in a separate sub directory if outputs are sharded.
+   */
+  public static final String SHARDS_DIRECTORY_NAME = "shards";
+  /**
+   * Name of the directory in the output directory containing outputs of each compilation unit in a
+   * separate sub directory if outputs are incremental.
+   */
+  public static final String UNITS_DIRECTORY_NAME = "units";
+  /** File name in each unit directory where the path to the compilation unit is stored. */
+  public static final String UNIT_SOURCE_FILE_NAME = "source.txt";
 
   public Serializer(Config config) {
     Path outputDirectory = config.getOutputDirectory();
-    this.fieldImpactedRegionPath = outputDirectory.resolve(FIELD_IMPACTED_REGION_FILE_NAME);
-    this.methodImpactedRegionPath = outputDirectory.resolve(METHOD_IMPACTED_REGION_FILE_NAME);
-    this.methodRecordPath = outputDirectory.resolve(METHOD_RECORD_FILE_NAME);
-    this.classRecordsPath = outputDirectory.resolve(CLASS_RECORD_FILE_NAME);
-    this.nonnullElementsPath = outputDirectory.resolve(NON_NULL_ELEMENTS_FILE_NAME);
+    this.incremental = config.isActive() && config.isOutputIncremental();
+    // Unit directories are already distinct per compiler instance, no need for sharding.
+    if (config.isActive() && config.isOutputSharded() && !incremental) {
+      outputDirectory = claimShardDirectory(outputDirectory);
+      this.shardId = outputDirectory.getFileName().toString();
+    } else {
+      this.shardId = null;
+    }
+    this.outputDirectory = config.getOutputDirectory();
+    this.binaryWriter =
+        config.isActive() && config.isOutputBinary() ? new BinaryTableWriter() : null;
+    setOutputPaths(outputDirectory);
+    this.serializedSymbols = new IdentityHashMap<>();
     initializeOutputFiles(config);
   }
 
+  /**
+   * Starts writing outputs of the given compilation unit. If outputs are incremental, outputs of
+   * the compilation unit from the previous run are replaced, and outputs of other compilation units
+   * are kept untouched. Otherwise, this method has no effect.
+   *
+   * @param sourceFile Path to the compilation unit.
+   */
+  public void startCompilationUnit(@Nullable Path sourceFile) {
+    if (!incremental) {
+      return;
+    }
+    String source = String.valueOf(sourceFile);
+    this.unitId = unitIdOf(source);
+    Path unitDirectory = outputDirectory.resolve(UNITS_DIRECTORY_NAME).resolve(unitId);
+    try {
+      Files.createDirectories(unitDirectory);
+      Files.write(
+          unitDirectory.resolve(UNIT_SOURCE_FILE_NAME), source.getBytes(Charset.defaultCharset()));
+    } catch (IOException e) {
+      throw new RuntimeException("Could not initialize unit directory at: " + unitDirectory, e);
+    }
+    setOutputPaths(unitDirectory);
+    initializeTables();
+  }
+
+  /**
+   * Sets paths to all output files in the given directory.
+   *
+   * @param directory Directory where outputs are written.
+   */
+  private void setOutputPaths(Path directory) {
+    this.fieldImpactedRegionPath = directory.resolve(FIELD_IMPACTED_REGION_FILE_NAME);
+    this.methodImpactedRegionPath = directory.resolve(METHOD_IMPACTED_REGION_FILE_NAME);
+    this.methodRecordPath = directory.resolve(METHOD_RECORD_FILE_NAME);
+    this.classRecordsPath = directory.resolve(CLASS_RECORD_FILE_NAME);
+    this.nonnullElementsPath = directory.resolve(NON_NULL_ELEMENTS_FILE_NAME);
+  }
+
+  /**
+   * Computes the id of the compilation unit with the given path, which is the name of its unit
+   * directory.
+   *
+   * @param source Path to the compilation unit.
+   * @return Hex encoded SHA-256 digest of the path.
+   */
+  private static String unitIdOf(String source) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(source.getBytes(Charset.defaultCharset()));
+      StringBuilder sb = new StringBuilder();
+      for (byte b : digest) {
+        sb.append(String.format("%02x", b));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("SHA-256 is not supported", e);
+    }
+  }
+
   /**
    * Appends the string representation of the {@link ImpactedRegion} which is a region (field,
    * method or a static initialization block) that is impacted by a change on a method.
@@ -87,7 +193,7 @@ public class Serializer {
    * @param impactedRegion ImpactedRegion instance which will be serialized to output.
    */
   public void serializeImpactedRegionForMethod(ImpactedRegion impactedRegion) {
-    appendToFile(impactedRegion.toString(), this.methodImpactedRegionPath);
+    appendToFile(impactedRegion.toColumns(), this.methodImpactedRegionPath);
   }
 
   /**
@@ -97,7 +203,7 @@ public class Serializer {
    * @param fieldAccessRegion Region where the field access occurred.
    */
   public void serializeFieldAccessRecord(ImpactedRegion fieldAccessRegion) {
-    appendToFile(fieldAccessRegion.toString(), this.fieldImpactedRegionPath);
+    appendToFile(fieldAccessRegion.toColumns(), this.fieldImpactedRegionPath);
   }
 
   /**
@@ -107,7 +213,7 @@ public class Serializer {
    * @param classRecord ClassInfo instance.
    */
   public void serializeClassRecord(ClassRecord classRecord) {
-    appendToFile(classRecord.toString(), this.classRecordsPath);
+    appendToFile(classRecord.toColumns(), this.classRecordsPath);
   }
 
   /**
@@ -116,7 +222,8 @@ public class Serializer {
    * @param methodRecord MethodInfo instance.
    */
   public void serializeMethodRecord(MethodRecord methodRecord) {
-    appendToFile(methodRecord.toString(), this.methodRecordPath);
+    appendToFile(
+        methodRecord.toColumns(shardId != null ? shardId : unitId, this), this.methodRecordPath);
   }
 
   /**
@@ -126,11 +233,14 @@ public class Serializer {
    */
   public void serializeNonnullSym(Symbol symbol) {
     appendToFile(
-        SymbolLocation.createLocationFromSymbol(symbol).tabSeparatedToString(),
+        SymbolLocation.createLocationFromSymbol(symbol).toColumns(this),
         this.nonnullElementsPath);
   }
 
-  /** Cleared the content of the file if exists and writes the header in the first line. */
+  /**
+   * Cleared the content of the file if exists and writes the header in the first line. The binary
+   * table of the file is initialized if outputs are binary, and removed otherwise.
+   */
   private void initializeFile(Path path, String header) {
     try {
       Files.deleteIfExists(path);
@@ -144,6 +254,16 @@ public class Serializer {
     } catch (IOException e) {
       throw new RuntimeException("Could not finish resetting File at Path: " + path, e);
     }
+    if (binaryWriter != null) {
+      binaryWriter.initialize(path);
+      return;
+    }
+    // Remove binary rows of a previous run, otherwise they are loaded with the new rows.
+    try {
+      Files.deleteIfExists(BinaryTableWriter.binaryPathOf(path));
+    } catch (IOException e) {
+      throw new RuntimeException("Could not clear binary table of: " + path, e);
+    }
   }
 
   /** Initializes every file which will be re-generated in the new run of NullAway. */
@@ -151,24 +271,54 @@ public class Serializer {
     try {
       Files.createDirectories(config.getOutputDirectory());
       if (config.isActive()) {
-        initializeFile(methodImpactedRegionPath, ImpactedRegion.header());
-        initializeFile(fieldImpactedRegionPath, ImpactedRegion.header());
-        initializeFile(methodRecordPath, MethodRecord.header());
-        initializeFile(classRecordsPath, ClassRecord.header());
-        initializeFile(nonnullElementsPath, SymbolLocation.header());
+        initializeTables();
       }
     } catch (IOException e) {
       throw new RuntimeException("Could not finish resetting serializer", e);
     }
   }
 
+  /** Clears all output tables at the current output paths and writes their headers. */
+  private void initializeTables() {
+    initializeFile(methodImpactedRegionPath, ImpactedRegion.header());
+    initializeFile(fieldImpactedRegionPath, ImpactedRegion.header());
+    initializeFile(methodRecordPath, MethodRecord.header(shardId != null || incremental));
+    initializeFile(classRecordsPath, ClassRecord.header());
+    initializeFile(nonnullElementsPath, SymbolLocation.header());
+  }
+
   /**
-   * Serializes the given {@link Symbol} to a string.
+   * Claims a new shard directory under {@link #SHARDS_DIRECTORY_NAME} in the output directory.
+   * Shards are numbered and claimed by creating their directory which is atomic, therefore
+   * concurrent compiler instances, even in different processes, claim distinct shards.
+   *
+   * @param outputDirectory Output directory.
+   * @return Path to the claimed shard directory.
+   */
+  private static Path claimShardDirectory(Path outputDirectory) {
+    Path shards = outputDirectory.resolve(SHARDS_DIRECTORY_NAME);
+    try {
+      Files.createDirectories(shards);
+      for (int i = 0; ; i++) {
+        try {
+          return Files.createDirectory(shards.resolve(String.valueOf(i)));
+        } catch (FileAlreadyExistsException ignored) {
+          // Already claimed by another compiler instance.
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not claim a shard directory at: " + shards, e);
+    }
+  }
+
+  /**
+   * Serializes the given {@link Symbol} to a string. Callers should use {@link
+   * #serializeSymbolMemoized(Symbol)} instead.
    *
    * @param symbol The symbol to serialize.
    * @return The serialized symbol.
    */
-  public static String serializeSymbol(@Nullable Symbol symbol) {
+  private static String serializeSymbol(@Nullable Symbol symbol) {
     if (symbol == null) {
       return "null";
     }
@@ -184,6 +334,25 @@ public class Serializer {
     }
   }
 
+  /**
+   * Serializes the given {@link Symbol} to a string, see {@link #serializeSymbol(Symbol)}. The
+   * result is memoized per symbol.
+   *
+   * @param symbol The symbol to serialize.
+   * @return The serialized symbol.
+   */
+  public String serializeSymbolMemoized(@Nullable Symbol symbol) {
+    if (symbol == null) {
+      return "null";
+    }
+    String serialized = serializedSymbols.get(symbol);
+    if (serialized == null) {
+      serialized = serializeSymbol(symbol);
+      serializedSymbols.put(symbol, serialized);
+    }
+    return serialized;
+  }
+
   /**
    * Serializes the signature of the given {@link Symbol.MethodSymbol} to a string.
    *
@@ -256,19 +425,23 @@ public class Serializer {
   }
 
   /**
-   * Appends the given string as a row in the file which tha path is given.
+   * Appends a row with the given columns in the file which tha path is given.
    *
-   * @param row Row to append.
+   * @param columns Columns of the row to append, no row is appended if null.
    * @param path Path to target file.
    */
-  private void appendToFile(String row, Path path) {
+  private void appendToFile(@Nullable String[] columns, Path path) {
     // Since there is no method available in API of either javac or errorprone to inform NullAway
     // that the analysis is finished, we cannot open a single stream and flush it within a finalize
     // method. Must open and close a new stream everytime we are appending a new line to a file.
-    if (row == null || row.equals("")) {
+    if (columns == null) {
+      return;
+    }
+    if (binaryWriter != null) {
+      binaryWriter.append(path, columns);
       return;
     }
-    row = row + "\n";
+    String row = String.join("\t", columns) + "\n";
     try (OutputStream os = new FileOutputStream(path.toFile(), true)) {
       os.write(row.getBytes(Charset.defaultCharset()), 0, row.length());
       os.flush();
@@ -41,14 +41,14 @@ public class FieldLocation extends AbstractSymbolLocation {
   }
 
   @Override
-  public String tabSeparatedToString() {
-    return String.join(
-        "\t",
-        type.toString(),
-        Serializer.serializeSymbol(enclosingClass),
-        "null",
-        Serializer.serializeSymbol(variableSymbol),
-        "null",
-        path != null ? path.toString() : "null");
+  public String[] toColumns(Serializer serializer) {
+    return new String[] {
+      type.toString(),
+      serializer.serializeSymbolMemoized(enclosingClass),
+      "null",
+      serializer.serializeSymbolMemoized(variableSymbol),
+      "null",
+      path != null ? path.toString() : "null"
+    };
   }
 }
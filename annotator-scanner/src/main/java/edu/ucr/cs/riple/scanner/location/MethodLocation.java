@@ -41,14 +41,14 @@ public class MethodLocation extends AbstractSymbolLocation {
   }
 
   @Override
-  public String tabSeparatedToString() {
-    return String.join(
-        "\t",
-        type.toString(),
-        Serializer.serializeSymbol(enclosingClass),
-        Serializer.serializeSymbol(enclosingMethod),
-        "null",
-        "null",
-        path != null ? path.toString() : "null");
+  public String[] toColumns(Serializer serializer) {
+    return new String[] {
+      type.toString(),
+      serializer.serializeSymbolMemoized(enclosingClass),
+      serializer.serializeSymbolMemoized(enclosingMethod),
+      "null",
+      "null",
+      path != null ? path.toString() : "null"
+    };
   }
 }
@@ -62,14 +62,14 @@ public class MethodParameterLocation extends AbstractSymbolLocation {
   }
 
   @Override
-  public String tabSeparatedToString() {
-    return String.join(
-        "\t",
-        type.toString(),
-        Serializer.serializeSymbol(enclosingClass),
-        Serializer.serializeSymbol(enclosingMethod),
-        Serializer.serializeSymbol(paramSymbol),
-        String.valueOf(index),
-        path != null ? path.toString() : "null");
+  public String[] toColumns(Serializer serializer) {
+    return new String[] {
+      type.toString(),
+      serializer.serializeSymbolMemoized(enclosingClass),
+      serializer.serializeSymbolMemoized(enclosingMethod),
+      serializer.serializeSymbolMemoized(paramSymbol),
+      String.valueOf(index),
+      path != null ? path.toString() : "null"
+    };
   }
 }
@@ -23,6 +23,7 @@
 package edu.ucr.cs.riple.scanner.location;
 
 import com.sun.tools.javac.code.Symbol;
+import edu.ucr.cs.riple.scanner.Serializer;
 
 /**
  * Provides method for symbol locations. This class is copied from <a
@@ -31,13 +32,14 @@ import com.sun.tools.javac.code.Symbol;
 public interface SymbolLocation {
 
   /**
-   * returns string representation of contents of the instance. It must have the format below: kind
-   * of the element, symbol of the containing class, symbol of the enclosing method, symbol of the
-   * variable, index of the element and uri to containing file.
+   * returns the columns of the row representing contents of the instance. It must have the format
+   * below: kind of the element, symbol of the containing class, symbol of the enclosing method,
+   * symbol of the variable, index of the element and uri to containing file.
    *
-   * @return string representation of contents in a line seperated by tabs.
+   * @param serializer Serializer used to serialize symbols.
+   * @return columns of the row representing contents.
    */
-  String tabSeparatedToString();
+  String[] toColumns(Serializer serializer);
 
   /**
    * Creates header of an output file containing all {@link SymbolLocation} written in string which
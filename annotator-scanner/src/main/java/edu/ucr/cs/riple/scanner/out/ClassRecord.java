@@ -46,8 +46,17 @@ public class ClassRecord {
     return "class" + '\t' + "path";
   }
 
+  /**
+   * Returns the columns of the row this record is serialized to.
+   *
+   * @return Columns of the row.
+   */
+  public String[] toColumns() {
+    return new String[] {clazz.flatName().toString(), (path == null) ? "null" : path.toString()};
+  }
+
   @Override
   public String toString() {
-    return clazz.flatName() + "\t" + ((path == null) ? "null" : path);
+    return String.join("\t", toColumns());
   }
 }
@@ -45,6 +45,8 @@ public class ImpactedRegion {
   @Nullable private final Symbol regionMember;
   /** Source type of the impacted region. */
   private final SourceType source;
+  /** Serializer used to serialize symbols of this region. */
+  private final Serializer serializer;
 
   /**
    * Construct an ImpactedRegion
@@ -68,21 +70,33 @@ public class ImpactedRegion {
       this.regionMember = null;
     }
     this.source = config.getSymbolSourceResolver().getSourceForSymbolAtPath(path);
+    this.serializer = config.getSerializer();
   }
 
-  @Override
-  public String toString() {
+  /**
+   * Returns the columns of the row this region is serialized to.
+   *
+   * @return Columns of the row, null if the region is not enclosed by a class.
+   */
+  @Nullable
+  public String[] toColumns() {
     if (regionClass == null) {
-      return "";
+      return null;
     }
     Symbol enclosingClass = memberSymbol.enclClass();
-    return String.join(
-        "\t",
-        Serializer.serializeSymbol(regionClass),
-        Serializer.serializeSymbol(regionMember),
-        Serializer.serializeSymbol(memberSymbol),
-        Serializer.serializeSymbol(enclosingClass),
-        source.name());
+    return new String[] {
+      serializer.serializeSymbolMemoized(regionClass),
+      serializer.serializeSymbolMemoized(regionMember),
+      serializer.serializeSymbolMemoized(memberSymbol),
+      serializer.serializeSymbolMemoized(enclosingClass),
+      source.name()
+    };
+  }
+
+  @Override
+  public String toString() {
+    String[] columns = toColumns();
+    return columns == null ? "" : String.join("\t", columns);
   }
 
   /**
@@ -34,13 +34,14 @@ import edu.ucr.cs.riple.scanner.Serializer;
 import edu.ucr.cs.riple.scanner.SymbolUtil;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Modifier;
 
@@ -67,8 +68,12 @@ public class MethodRecord {
   private Boolean[] parameterAnnotationFlags;
   /** ID of the closest super method. */
   private int parentID;
+  /** Record of the closest super method, null if the method does not override any method. */
+  @Nullable private MethodRecord parent;
   /** Delimiter used to separate annotations in the serialized output. */
   public static final String ANNOTATION_DELIMITER = ",";
+  /** Delimiter used to separate shard id from the local id of a method in sharded outputs. */
+  public static final String SHARD_ID_DELIMITER = ":";
 
   private MethodRecord(Symbol.MethodSymbol method, ScannerContext context) {
     this.id = context.getNextMethodId();
@@ -87,15 +92,17 @@ public class MethodRecord {
    * @return The corresponding {@link MethodRecord} instance.
    */
   public static MethodRecord findOrCreate(Symbol.MethodSymbol method, ScannerContext context) {
-    Symbol.ClassSymbol clazz = method.enclClass();
-    Optional<MethodRecord> optionalMethodInfo =
-        context
-            .getVisitedMethodsWithHashHint(hash(method))
-            .filter(
-                methodRecord ->
-                    methodRecord.symbol.equals(method) && methodRecord.clazz.equals(clazz))
-            .findAny();
-    return optionalMethodInfo.orElseGet(() -> new MethodRecord(method, context));
+    MethodRecord methodRecord = context.getVisitedMethod(method);
+    return methodRecord != null ? methodRecord : new MethodRecord(method, context);
+  }
+
+  /**
+   * Getter for the method symbol.
+   *
+   * @return Symbol of the method.
+   */
+  public Symbol.MethodSymbol getSymbol() {
+    return symbol;
   }
 
   @Override
@@ -126,31 +133,59 @@ public class MethodRecord {
         SymbolUtil.getClosestOverriddenMethod(symbol, state.getTypes());
     if (superMethod == null || superMethod.toString().equals("null")) {
       this.parentID = 0;
+      this.parent = null;
       return;
     }
     MethodRecord superMethodRecord = findOrCreate(superMethod, context);
     this.parentID = superMethodRecord.id;
+    this.parent = superMethodRecord;
   }
 
-  @Override
-  public String toString() {
+  /**
+   * Serializes this record to a row of the method records file. If outputs are sharded, ids are
+   * prefixed with the shard id and since the closest super method can be declared in a source file
+   * compiled by another compiler instance, its class and signature are appended to the row.
+   *
+   * @param shardId Id of the shard, null if outputs are not sharded.
+   * @param serializer Serializer used to serialize symbols.
+   * @return Columns of the serialized row.
+   */
+  public String[] toColumns(@Nullable String shardId, Serializer serializer) {
     Preconditions.checkArgument(symbol != null, "Should not be null at this point.");
     Path path = Serializer.pathToSourceFileFromURI(uri);
-    return String.join(
-        "\t",
-        String.valueOf(id),
-        (clazz != null ? clazz.flatName() : "null"),
-        Serializer.serializeSymbol(symbol),
-        String.valueOf(parentID),
-        Arrays.toString(parameterAnnotationFlags),
-        annotations.stream()
-            // only interested in the annotation type for now.
-            .map(annot -> annot.getAnnotationType().toString())
-            .collect(Collectors.joining(ANNOTATION_DELIMITER)),
-        getVisibilityOfMethod(),
-        String.valueOf(!symbol.getReturnType().isPrimitiveOrVoid()),
-        // for build systems that might return null for bytecodes.
-        (path != null ? path.toString() : "null"));
+    List<String> columns =
+        new ArrayList<>(
+            List.of(
+                prefixId(shardId, id),
+                (clazz != null ? clazz.flatName().toString() : "null"),
+                serializer.serializeSymbolMemoized(symbol),
+                parentID == 0 ? "0" : prefixId(shardId, parentID),
+                Arrays.toString(parameterAnnotationFlags),
+                annotations.stream()
+                    // only interested in the annotation type for now.
+                    .map(annot -> annot.getAnnotationType().toString())
+                    .collect(Collectors.joining(ANNOTATION_DELIMITER)),
+                getVisibilityOfMethod(),
+                String.valueOf(!symbol.getReturnType().isPrimitiveOrVoid()),
+                // for build systems that might return null for bytecodes.
+                (path != null ? path.toString() : "null")));
+    if (shardId != null) {
+      columns.add(
+          (parent != null && parent.clazz != null) ? parent.clazz.flatName().toString() : "null");
+      columns.add(parent != null ? serializer.serializeSymbolMemoized(parent.symbol) : "null");
+    }
+    return columns.toArray(new String[0]);
+  }
+
+  /**
+   * Prefixes the given id with the shard id if outputs are sharded.
+   *
+   * @param shardId Id of the shard, null if outputs are not sharded.
+   * @param id Id to prefix.
+   * @return Prefixed id.
+   */
+  private static String prefixId(@Nullable String shardId, int id) {
+    return shardId == null ? String.valueOf(id) : shardId + SHARD_ID_DELIMITER + id;
   }
 
   /**
@@ -159,17 +194,29 @@ public class MethodRecord {
    * @return Header of target file.
    */
   public static String header() {
-    return String.join(
-        "\t",
-        "id",
-        "class",
-        "method",
-        "parent",
-        "flags",
-        "annotations",
-        "visibility",
-        "non-primitive-return",
-        "path");
+    return header(false);
+  }
+
+  /**
+   * Returns header of the file where all these instances will be serialized.
+   *
+   * @param sharded If true, returns the header of sharded outputs.
+   * @return Header of target file.
+   */
+  public static String header(boolean sharded) {
+    String header =
+        String.join(
+            "\t",
+            "id",
+            "class",
+            "method",
+            "parent",
+            "flags",
+            "annotations",
+            "visibility",
+            "non-primitive-return",
+            "path");
+    return sharded ? String.join("\t", header, "parent-class", "parent-method") : header;
   }
 
   /**
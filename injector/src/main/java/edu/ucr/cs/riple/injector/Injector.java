@@ -23,11 +23,15 @@
 package edu.ucr.cs.riple.injector;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ParserConfiguration;
-import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
 import edu.ucr.cs.riple.injector.changes.ASTChange;
 import edu.ucr.cs.riple.injector.changes.AddAnnotation;
 import edu.ucr.cs.riple.injector.changes.AnnotationChange;
@@ -37,15 +41,90 @@ import edu.ucr.cs.riple.injector.modifications.Modification;
 import edu.ucr.cs.riple.injector.offsets.FileOffsetStore;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 
-/** Injector main class which can add / remove annotations. */
-public class Injector {
+/**
+ * Injector main class which can add / remove annotations. An injector configured with more than one
+ * thread processes files on its own thread pool, which is created on first use and reused by all
+ * subsequent calls. Threads of the pool are daemon threads and are released when idle, and the
+ * pool is shut down once the injector is {@link #close() closed}.
+ */
+public class Injector implements AutoCloseable {
+
+  /**
+   * Parser instance of each thread. {@link JavaParser} instances are not thread safe, and the
+   * configuration of {@link com.github.javaparser.StaticJavaParser} is shared within the process,
+   * therefore each thread uses its own parser configured for Java 17.
+   */
+  private static final ThreadLocal<JavaParser> PARSER =
+      ThreadLocal.withInitial(
+          () ->
+              new JavaParser(
+                  new ParserConfiguration()
+                      .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17)));
+
+  /** Time in seconds an idle thread of the pool is kept alive. */
+  private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+  /** Number of threads used to process files in parallel. */
+  private final int numberOfThreads;
+  /** Thread pool processing files in parallel, {@code null} until first used. */
+  @Nullable private ThreadPoolExecutor executor;
+  /** True once this injector is closed. */
+  private boolean closed;
+  /**
+   * History of written files, used to restore the last modified time of files rolled back to their
+   * previous state. If null, last modified time of files is not preserved.
+   */
+  @Nullable private final ModificationTimeHistory history;
+
+  /** Creates an injector which processes files sequentially. */
+  public Injector() {
+    this(1);
+  }
+
+  /**
+   * Creates an injector which processes files on a pool with the given number of threads.
+   *
+   * @param numberOfThreads Number of threads, must be positive.
+   */
+  public Injector(int numberOfThreads) {
+    this(numberOfThreads, false);
+  }
+
+  /**
+   * Creates an injector which processes files on a pool with the given number of threads.
+   *
+   * @param numberOfThreads Number of threads, must be positive.
+   * @param preserveModificationTimeOnRollback If true, when a write returns a file to its exact
+   *     content before the previous write (e.g. removal of injected annotations), the last modified
+   *     time of the file before the previous write is restored.
+   */
+  public Injector(int numberOfThreads, boolean preserveModificationTimeOnRollback) {
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException(
+          "Number of threads must be positive, received: " + numberOfThreads);
+    }
+    this.numberOfThreads = numberOfThreads;
+    this.history = preserveModificationTimeOnRollback ? new ModificationTimeHistory() : null;
+  }
 
   /**
    * Starts applying the requested changes.
@@ -54,48 +133,214 @@ public class Injector {
    * @return Offset changes of source file.
    */
   public <T extends ASTChange> Set<FileOffsetStore> start(Set<T> changes) {
+    return apply(prepare(changes));
+  }
+
+  /**
+   * Computes the text modifications and import declarations required to apply the requested
+   * changes without modifying any source file. The result can be applied later via {@link
+   * #apply(PreparedChanges)}. Preparation may run while source files are rewritten by another
+   * call, changes of a file which cannot be read or parsed are computed at application instead.
+   *
+   * @param changes Set of changes.
+   * @return Prepared changes.
+   */
+  public <T extends ASTChange> PreparedChanges prepare(Set<T> changes) {
     // Start method does not support addition and deletion on same element. Should be split into
     // call for addition and deletion separately.
+    // Files are sorted by path to process and merge the results in a deterministic order.
     Map<Path, List<ASTChange>> map =
-        changes.stream().collect(groupingBy(change -> change.getLocation().path));
-    Set<FileOffsetStore> offsets = new HashSet<>();
-    map.forEach(
-        (path, changeList) -> {
-          CompilationUnit tree = parse(path);
-          if (tree == null) {
-            return;
-          }
-          ChangeVisitor visitor = new ChangeVisitor(tree);
-          Set<Modification> modifications = new HashSet<>();
-          Set<ImportDeclaration> imports = new HashSet<>();
-          for (ASTChange change : changeList) {
-            try {
-              Modification modification = visitor.computeModification(change);
-              if (modification != null) {
-                modifications.add(modification);
-                if (change instanceof AddAnnotation) {
-                  String annotationFullName = ((AnnotationChange) change).annotationName.fullName;
-                  if (Helper.getPackageName(annotationFullName) != null) {
-                    ImportDeclaration importDeclaration =
-                        StaticJavaParser.parseImport("import " + annotationFullName + ";");
-                    if (treeRequiresImportDeclaration(
-                        tree, importDeclaration, annotationFullName)) {
-                      imports.add(importDeclaration);
-                    }
-                  }
-                }
+        new TreeMap<>(changes.stream().collect(groupingBy(change -> change.getLocation().path)));
+    List<PreparedChanges.FileChanges> files =
+        processPerFile(
+            new ArrayList<>(map.entrySet()),
+            entry -> prepareFileChanges(entry.getKey(), entry.getValue()));
+    return new PreparedChanges(files);
+  }
+
+  /**
+   * Computes the changes of a single source file for {@link #prepare(Set)}. The file may be
+   * partially written at the time it is read, if it cannot be read or parsed, its changes are
+   * computed on its content at application.
+   *
+   * @param path Path to the source file.
+   * @param changeList Changes on the source file.
+   * @return Computed changes on the source file, null if the file does not exist.
+   */
+  @Nullable
+  private PreparedChanges.FileChanges prepareFileChanges(Path path, List<ASTChange> changeList) {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(path);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      // e.g. content is truncated within a multibyte character.
+      return PreparedChanges.FileChanges.computedAtApplication(path, changeList);
+    }
+    try {
+      return computeFileChanges(path, changeList, lines);
+    } catch (ParseProblemException e) {
+      return PreparedChanges.FileChanges.computedAtApplication(path, changeList);
+    }
+  }
+
+  /**
+   * Applies prepared changes to source files. If a source file has been modified since the changes
+   * were prepared, its changes are recomputed on the current content before being applied.
+   *
+   * @param prepared Prepared changes.
+   * @return Offset changes of source file.
+   */
+  public Set<FileOffsetStore> apply(PreparedChanges prepared) {
+    List<FileOffsetStore> offsets = processPerFile(prepared.files, this::applyFileChanges);
+    // Merged in the order of files which is sorted by path.
+    return new LinkedHashSet<>(offsets);
+  }
+
+  /**
+   * Applies prepared changes to a single source file.
+   *
+   * @param fileChanges Prepared changes of the source file.
+   * @return Offset changes of the source file, null if the file does not exist.
+   * @throws ParseProblemException if the file is modified after preparation and its current content
+   *     cannot be parsed.
+   */
+  @Nullable
+  private FileOffsetStore applyFileChanges(PreparedChanges.FileChanges fileChanges) {
+    List<String> lines = readLines(fileChanges.path);
+    if (lines == null) {
+      return null;
+    }
+    if (!lines.equals(fileChanges.lines)) {
+      // File has been modified after preparation or could not be prepared, computed positions are
+      // no longer valid.
+      fileChanges = computeFileChanges(fileChanges.path, fileChanges.changes, lines);
+    }
+    Printer printer = new Printer(fileChanges.path, lines, history);
+    printer.applyModifications(fileChanges.modifications);
+    printer.addImports(fileChanges.tree, fileChanges.imports);
+    return printer.write();
+  }
+
+  /**
+   * Runs the given task on each input, in parallel if this injector is configured with more than
+   * one thread. Each input must correspond to a distinct source file, so tasks never touch the same
+   * file concurrently.
+   *
+   * @param inputs Inputs, one per source file.
+   * @param task Task to run on each input, may return null to indicate no result.
+   * @return Non-null results in the order of inputs.
+   * @param <I> Type of inputs.
+   * @param <O> Type of results.
+   */
+  private <I, O> List<O> processPerFile(List<I> inputs, Function<I, O> task) {
+    if (numberOfThreads == 1 || inputs.size() < 2) {
+      return inputs.stream().map(task).filter(Objects::nonNull).collect(toList());
+    }
+    ExecutorService executor = getExecutor();
+    List<Future<O>> futures = new ArrayList<>();
+    try {
+      for (I input : inputs) {
+        futures.add(executor.submit(() -> task.apply(input)));
+      }
+      List<O> results = new ArrayList<>();
+      for (Future<O> future : futures) {
+        O result = future.get();
+        if (result != null) {
+          results.add(result);
+        }
+      }
+      return results;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Error happened on processing files in parallel", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while processing files in parallel", e);
+    } finally {
+      // Remaining tasks of a failed call must not run concurrently with the next call.
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  /**
+   * Returns the thread pool of this injector, creates it on the first call.
+   *
+   * @return Thread pool of this injector.
+   */
+  private synchronized ExecutorService getExecutor() {
+    if (closed) {
+      throw new IllegalStateException("Injector is closed.");
+    }
+    if (executor == null) {
+      executor =
+          new ThreadPoolExecutor(
+              numberOfThreads,
+              numberOfThreads,
+              IDLE_THREAD_KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread = new Thread(runnable, "injector-worker");
+                thread.setDaemon(true);
+                return thread;
+              });
+      // Injectors which are not closed do not keep idle threads.
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return executor;
+  }
+
+  /** Shuts down the thread pool of this injector. The injector cannot be used afterwards. */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Computes the text modifications and import declarations required to apply the changes on the
+   * given content of a source file.
+   *
+   * @param path Path to the source file.
+   * @param changeList Changes on the source file.
+   * @param lines Content of the source file.
+   * @return Computed changes on the source file.
+   * @throws ParseProblemException if the content cannot be parsed.
+   */
+  private PreparedChanges.FileChanges computeFileChanges(
+      Path path, List<ASTChange> changeList, List<String> lines) {
+    CompilationUnit tree = parse(lines);
+    ChangeVisitor visitor = new ChangeVisitor(tree);
+    Set<Modification> modifications = new HashSet<>();
+    Set<ImportDeclaration> imports = new HashSet<>();
+    for (ASTChange change : changeList) {
+      try {
+        Modification modification = visitor.computeModification(change);
+        if (modification != null) {
+          modifications.add(modification);
+          if (change instanceof AddAnnotation) {
+            String annotationFullName = ((AnnotationChange) change).annotationName.fullName;
+            if (Helper.getPackageName(annotationFullName) != null) {
+              ImportDeclaration importDeclaration =
+                  getResult(PARSER.get().parseImport("import " + annotationFullName + ";"));
+              if (treeRequiresImportDeclaration(tree, importDeclaration, annotationFullName)) {
+                imports.add(importDeclaration);
               }
-            } catch (Exception ex) {
-              System.err.println("Encountered Exception: " + ex);
             }
           }
-          Printer printer = new Printer(path);
-          printer.applyModifications(modifications);
-          printer.addImports(tree, imports);
-          FileOffsetStore offsetStore = printer.write();
-          offsets.add(offsetStore);
-        });
-    return offsets;
+        }
+      } catch (Exception ex) {
+        System.err.println("Encountered Exception: " + ex);
+      }
+    }
+    return new PreparedChanges.FileChanges(path, changeList, lines, tree, modifications, imports);
   }
 
   /**
@@ -147,16 +392,55 @@ public class Injector {
    */
   @Nullable
   public static CompilationUnit parse(Path path) {
-    // Set parser configuration to Java 17.
-    ParserConfiguration parserConfiguration = new ParserConfiguration();
-    parserConfiguration.setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17);
-    StaticJavaParser.setConfiguration(parserConfiguration);
     try {
-      return StaticJavaParser.parse(path);
+      return getResult(PARSER.get().parse(path));
     } catch (FileNotFoundException e) {
       return null;
     } catch (IOException e) {
       throw new RuntimeException("Error happened on parsing file at: " + path, e);
     }
   }
+
+  /**
+   * Parses the given content of a source file into a compilation unit tree.
+   *
+   * @param lines Lines of the source file.
+   * @return Compilation unit tree.
+   */
+  private static CompilationUnit parse(List<String> lines) {
+    return getResult(PARSER.get().parse(String.join("\n", lines)));
+  }
+
+  /**
+   * Returns the parsed node of a parse result, throws {@link ParseProblemException} if parsing was
+   * not successful, consistent with {@link com.github.javaparser.StaticJavaParser}.
+   *
+   * @param result Parse result.
+   * @return Parsed node.
+   * @param <N> Type of the parsed node.
+   */
+  private static <N extends Node> N getResult(ParseResult<N> result) {
+    if (result.isSuccessful() && result.getResult().isPresent()) {
+      return result.getResult().get();
+    }
+    throw new ParseProblemException(result.getProblems());
+  }
+
+  /**
+   * Reads all lines of the given file. If the file does not exist, returns null. Can happen when
+   * the file is generated by the compiler.
+   *
+   * @param path Path to the file.
+   * @return Lines of the file, if the file does not exist, returns null.
+   */
+  @Nullable
+  private static List<String> readLines(Path path) {
+    try {
+      return Files.readAllLines(path);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      throw new RuntimeException("Error happened on reading file at: " + path, e);
+    }
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.injector;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the state of source files before their latest write, to restore their last modified time
+ * when a later write returns them to that exact state (e.g. removal of previously injected
+ * annotations). Build tools relying on file timestamps will then treat the rolled back files as
+ * unchanged.
+ *
+ * <p>Note: Restoring the timestamp hides the intermediate state from timestamp based build tools,
+ * which is only safe if outputs of a build of the intermediate state are not reused.
+ */
+class ModificationTimeHistory {
+
+  /** Hash of the content and last modified time of each file before its latest write. */
+  private final Map<Path, FileState> previousStates;
+
+  ModificationTimeHistory() {
+    this.previousStates = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Writes the content to the file. If the content is identical to the content of the file before
+   * its previous write, the last modified time of the file at that point is restored.
+   *
+   * @param path Path to the file.
+   * @param content Content to write.
+   * @throws IOException if an I/O error occurs.
+   */
+  void write(Path path, byte[] content) throws IOException {
+    FileState previous =
+        new FileState(hash(Files.readAllBytes(path)), Files.getLastModifiedTime(path));
+    Files.write(path, content);
+    FileState beforeLastWrite = previousStates.get(path);
+    if (beforeLastWrite != null && beforeLastWrite.hash.equals(hash(content))) {
+      Files.setLastModifiedTime(path, beforeLastWrite.lastModifiedTime);
+      previousStates.remove(path);
+      return;
+    }
+    previousStates.put(path, previous);
+  }
+
+  /**
+   * Computes the hash of the given content.
+   *
+   * @param content Content of a file.
+   * @return Hash of the content.
+   */
+  private static HashCode hash(byte[] content) {
+    return Hashing.sha256().hashBytes(content);
+  }
+
+  /** State of a file at a point in time. */
+  private static class FileState {
+
+    /** Hash of the content. */
+    private final HashCode hash;
+    /** Last modified time. */
+    private final FileTime lastModifiedTime;
+
+    private FileState(HashCode hash, FileTime lastModifiedTime) {
+      this.hash = hash;
+      this.lastModifiedTime = lastModifiedTime;
+    }
+  }
+}
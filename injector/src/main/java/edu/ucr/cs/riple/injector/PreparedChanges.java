@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.injector;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.injector.changes.ASTChange;
+import edu.ucr.cs.riple.injector.modifications.Modification;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Result of {@link Injector#prepare(Set)}. Holds the text modifications and import declarations
+ * computed for a set of changes, without any of them being applied to source files. Computation is
+ * performed on a snapshot of each source file, and the result is only valid while the file content
+ * matches the snapshot.
+ */
+public class PreparedChanges {
+
+  /** Computed changes per source file. */
+  final ImmutableList<FileChanges> files;
+
+  PreparedChanges(List<FileChanges> files) {
+    this.files = ImmutableList.copyOf(files);
+  }
+
+  /** Computed changes on a single source file. */
+  static class FileChanges {
+
+    /** Path to the source file. */
+    final Path path;
+    /** Requested changes on the source file. */
+    final ImmutableList<ASTChange> changes;
+    /**
+     * Content of the source file which modifications are computed on, null if the file could not
+     * be read or parsed at preparation and modifications are computed at application.
+     */
+    @Nullable final ImmutableList<String> lines;
+    /** Compilation unit tree of the content, null if {@link #lines} is null. */
+    @Nullable final CompilationUnit tree;
+    /** Computed text modifications. */
+    final ImmutableSet<Modification> modifications;
+    /** Import declarations required to be added. */
+    final ImmutableSet<ImportDeclaration> imports;
+
+    FileChanges(
+        Path path,
+        List<ASTChange> changes,
+        List<String> lines,
+        CompilationUnit tree,
+        Set<Modification> modifications,
+        Set<ImportDeclaration> imports) {
+      this.path = path;
+      this.changes = ImmutableList.copyOf(changes);
+      this.lines = ImmutableList.copyOf(lines);
+      this.tree = tree;
+      this.modifications = ImmutableSet.copyOf(modifications);
+      this.imports = ImmutableSet.copyOf(imports);
+    }
+
+    /**
+     * Creates changes of a source file which could not be read or parsed at preparation, e.g.
+     * while the file is being rewritten. Modifications are computed on the content at application.
+     *
+     * @param path Path to the source file.
+     * @param changes Requested changes on the source file.
+     */
+    private FileChanges(Path path, List<ASTChange> changes) {
+      this.path = path;
+      this.changes = ImmutableList.copyOf(changes);
+      this.lines = null;
+      this.tree = null;
+      this.modifications = ImmutableSet.of();
+      this.imports = ImmutableSet.of();
+    }
+
+    /**
+     * Creates changes of a source file which are computed at application.
+     *
+     * @param path Path to the source file.
+     * @param changes Requested changes on the source file.
+     * @return Changes of the source file.
+     */
+    static FileChanges computedAtApplication(Path path, List<ASTChange> changes) {
+      return new FileChanges(path, changes);
+    }
+  }
+}
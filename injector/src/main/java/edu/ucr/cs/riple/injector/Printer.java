@@ -30,14 +30,17 @@ import com.github.javaparser.ast.ImportDeclaration;
 import edu.ucr.cs.riple.injector.modifications.Modification;
 import edu.ucr.cs.riple.injector.offsets.FileOffsetStore;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import javax.annotation.Nullable;
 
 /**
  * Applies the text modification instances to source file. Text modifications are applied according
@@ -49,8 +52,15 @@ public class Printer {
   private final Path path;
   /** Lines of source file. */
   private final List<String> lines;
+  /** Lines of source file before any modification, used to skip writing unchanged files. */
+  private final List<String> originalLines;
   /** Offset store for recording changes in source code. */
   private final FileOffsetStore offsetStore;
+  /**
+   * History used to restore last modified time of files rolled back to a previous state, if null,
+   * last modified time is not preserved.
+   */
+  @Nullable private final ModificationTimeHistory history;
 
   public Printer(Path path) {
     this.path = path;
@@ -59,7 +69,35 @@ public class Printer {
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
+    this.originalLines = new ArrayList<>(lines);
+    this.offsetStore = new FileOffsetStore(lines, path);
+    this.history = null;
+  }
+
+  /**
+   * Creates a printer for the given source file with its already read content.
+   *
+   * @param path Path to source file.
+   * @param lines Lines of source file, will be modified by this printer.
+   */
+  public Printer(Path path, List<String> lines) {
+    this(path, lines, null);
+  }
+
+  /**
+   * Creates a printer for the given source file with its already read content.
+   *
+   * @param path Path to source file.
+   * @param lines Lines of source file, will be modified by this printer.
+   * @param history History to restore last modified time of the file if it is rolled back to its
+   *     state before the previous write, if null, last modified time is not preserved.
+   */
+  Printer(Path path, List<String> lines, @Nullable ModificationTimeHistory history) {
+    this.path = path;
+    this.lines = lines;
+    this.originalLines = new ArrayList<>(lines);
     this.offsetStore = new FileOffsetStore(lines, path);
+    this.history = history;
   }
 
   /**
@@ -157,13 +195,24 @@ public class Printer {
   }
 
   /**
-   * Writes the updated lines into the source file.
+   * Writes the updated lines into the source file. If the lines are unchanged (e.g. all
+   * modifications were no-ops), the file is not touched to keep its last modified time.
    *
    * @return offset store corresponding to file changes.
    */
   public FileOffsetStore write() {
+    if (lines.equals(originalLines)) {
+      return offsetStore;
+    }
     try {
-      Files.write(path, lines);
+      if (history == null) {
+        Files.write(path, lines);
+      } else {
+        // Same encoding and line separators as Files.write(Path, Iterable).
+        StringBuilder content = new StringBuilder();
+        lines.forEach(line -> content.append(line).append(System.lineSeparator()));
+        history.write(path, content.toString().getBytes(StandardCharsets.UTF_8));
+      }
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
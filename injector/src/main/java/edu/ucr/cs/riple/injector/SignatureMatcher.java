@@ -26,6 +26,7 @@ package edu.ucr.cs.riple.injector;
 
 import com.github.javaparser.ast.body.CallableDeclaration;
 import com.github.javaparser.ast.type.Type;
+import com.google.common.collect.ImmutableList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -36,6 +37,8 @@ public class SignatureMatcher {
   private final String callableName;
   /** List of parameters detected from signature in string. */
   private final List<String> parameterTypes;
+  /** Normalized form of the signature, see {@link #getNormalizedSignature()}. */
+  private final ImmutableList<String> normalizedSignature;
 
   /**
    * Constructor to make a matcher instance.
@@ -45,6 +48,48 @@ public class SignatureMatcher {
   public SignatureMatcher(String signature) {
     this.callableName = Helper.extractCallableName(signature);
     this.parameterTypes = extractParameterTypesFromSignature(signature);
+    this.normalizedSignature = normalize(callableName, parameterTypes);
+  }
+
+  /**
+   * Returns the normalized form of the signature, a list containing the callable name followed by
+   * the simple names of parameter types. This matcher matches a callable declaration if and only
+   * if their normalized signatures are equal, therefore it can be used as a key to look up callable
+   * declarations.
+   *
+   * @return Normalized signature.
+   */
+  public ImmutableList<String> getNormalizedSignature() {
+    return normalizedSignature;
+  }
+
+  /**
+   * Returns the normalized form of the signature of the given callable declaration. See {@link
+   * #getNormalizedSignature()}.
+   *
+   * @param callableDec callable declaration node.
+   * @return Normalized signature.
+   */
+  public static ImmutableList<String> normalizedSignatureOf(CallableDeclaration<?> callableDec) {
+    return normalize(
+        callableDec.getName().toString(),
+        extractParameterTypesFromCallableDeclaration(callableDec));
+  }
+
+  /**
+   * Creates the normalized signature from the callable name and parameter types.
+   *
+   * @param callableName Simple name of the callable.
+   * @param parameterTypes Parameter types.
+   * @return Normalized signature.
+   */
+  private static ImmutableList<String> normalize(String callableName, List<String> parameterTypes) {
+    ImmutableList.Builder<String> builder = ImmutableList.builder();
+    builder.add(callableName);
+    // Two types match if they are equal or their simple names are equal, since equal types have
+    // equal simple names, comparing simple names is sufficient.
+    parameterTypes.forEach(type -> builder.add(Helper.simpleName(type)));
+    return builder.build();
   }
 
   /**
@@ -159,6 +159,24 @@ public class AddSingleElementAnnotation extends AnnotationChange implements AddA
     return new Insertion(annotationExpr.toString(), range.begin);
   }
 
+  /**
+   * Returns the argument of the annotation.
+   *
+   * @return Argument of the annotation.
+   */
+  public String getArgument() {
+    return argument;
+  }
+
+  /**
+   * Returns true, if the annotation is repeatable.
+   *
+   * @return true, if the annotation is repeatable.
+   */
+  public boolean isRepeatable() {
+    return repeatable;
+  }
+
   @Override
   public RemoveAnnotation getReverse() {
     throw new UnsupportedOperationException(
@@ -27,8 +27,10 @@ import static edu.ucr.cs.riple.injector.location.OnClass.isAnonymousClassFlatNam
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.AnnotationMemberDeclaration;
 import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.expr.VariableDeclarationExpr;
@@ -43,7 +45,6 @@ import edu.ucr.cs.riple.injector.location.OnMethod;
 import edu.ucr.cs.riple.injector.location.OnParameter;
 import edu.ucr.cs.riple.injector.modifications.Modification;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
 
 /**
@@ -53,102 +54,59 @@ import javax.annotation.Nullable;
 public class ChangeVisitor
     implements LocationVisitor<Modification, Pair<NodeList<BodyDeclaration<?>>, ASTChange>> {
 
-  /** Compilation unit which the changes will be applied. */
-  private final CompilationUnit cu;
+  /** Index of declarations in the compilation unit which the changes will be applied. */
+  private final DeclarationIndex index;
 
   public ChangeVisitor(CompilationUnit cu) {
-    this.cu = cu;
+    this.index = new DeclarationIndex(cu);
   }
 
   @Override
   @Nullable
   public Modification visitMethod(
       OnMethod onMethod, Pair<NodeList<BodyDeclaration<?>>, ASTChange> pair) {
-    final AtomicReference<Modification> ans = new AtomicReference<>();
-    final NodeList<BodyDeclaration<?>> members = pair.a;
+    final DeclarationIndex.MemberIndex members = index.getMemberIndex(pair.a);
     final ASTChange change = pair.b;
-    members.forEach(
-        bodyDeclaration ->
-            bodyDeclaration.ifCallableDeclaration(
-                callableDeclaration -> {
-                  if (ans.get() != null) {
-                    // already found the member.
-                    return;
-                  }
-                  if (onMethod.matchesCallableDeclaration(callableDeclaration)) {
-                    ans.set(change.computeTextModificationOn(callableDeclaration));
-                  }
-                }));
-    if (ans.get() == null) {
-      members.forEach(
-          bodyDeclaration ->
-              bodyDeclaration.ifAnnotationMemberDeclaration(
-                  annotationMemberDeclaration -> {
-                    if (annotationMemberDeclaration
-                        .getNameAsString()
-                        .equals(Helper.extractCallableName(onMethod.method))) {
-                      ans.set(change.computeTextModificationOn(annotationMemberDeclaration));
-                    }
-                  }));
+    CallableDeclaration<?> callableDeclaration = members.getCallable(onMethod.matcher);
+    if (callableDeclaration != null) {
+      return change.computeTextModificationOn(callableDeclaration);
+    }
+    AnnotationMemberDeclaration annotationMemberDeclaration =
+        members.getAnnotationMember(Helper.extractCallableName(onMethod.method));
+    if (annotationMemberDeclaration != null) {
+      return change.computeTextModificationOn(annotationMemberDeclaration);
     }
-    return ans.get();
+    return null;
   }
 
   @Override
   @Nullable
   public Modification visitField(
       OnField onField, Pair<NodeList<BodyDeclaration<?>>, ASTChange> pair) {
-    final AtomicReference<Modification> ans = new AtomicReference<>();
-    final NodeList<BodyDeclaration<?>> members = pair.a;
-    final ASTChange change = pair.b;
-    members.forEach(
-        bodyDeclaration ->
-            bodyDeclaration.ifFieldDeclaration(
-                fieldDeclaration -> {
-                  if (ans.get() != null) {
-                    // already found the member.
-                    return;
-                  }
-                  NodeList<VariableDeclarator> vars =
-                      fieldDeclaration.asFieldDeclaration().getVariables();
-                  for (VariableDeclarator v : vars) {
-                    if (onField.variables.contains(v.getName().toString())) {
-                      ans.set(change.computeTextModificationOn(fieldDeclaration));
-                      break;
-                    }
-                  }
-                }));
-    return ans.get();
+    FieldDeclaration fieldDeclaration = index.getMemberIndex(pair.a).getField(onField.variables);
+    return fieldDeclaration == null ? null : pair.b.computeTextModificationOn(fieldDeclaration);
   }
 
   @Override
   @Nullable
   public Modification visitParameter(
       OnParameter onParameter, Pair<NodeList<BodyDeclaration<?>>, ASTChange> pair) {
-    final AtomicReference<Modification> ans = new AtomicReference<>();
-    final NodeList<BodyDeclaration<?>> members = pair.a;
     final ASTChange change = pair.b;
-    members.forEach(
-        bodyDeclaration ->
-            bodyDeclaration.ifCallableDeclaration(
-                callableDeclaration -> {
-                  if (ans.get() != null) {
-                    // already found the member.
-                    return;
-                  }
-                  if (onParameter.enclosingMethod.matchesCallableDeclaration(callableDeclaration)) {
-                    NodeList<?> params = callableDeclaration.getParameters();
-                    if (onParameter.index < params.size()) {
-                      if (params.get(onParameter.index) != null) {
-                        Node param = params.get(onParameter.index);
-                        if (param instanceof Parameter) {
-                          ans.set(change.computeTextModificationOn((Parameter) param));
-                        }
-                      }
-                    }
-                  }
-                }));
-    return ans.get();
+    CallableDeclaration<?> callableDeclaration =
+        index.getMemberIndex(pair.a).getCallable(onParameter.enclosingMethod.matcher);
+    if (callableDeclaration == null) {
+      return null;
+    }
+    NodeList<?> params = callableDeclaration.getParameters();
+    if (onParameter.index < params.size()) {
+      if (params.get(onParameter.index) != null) {
+        Node param = params.get(onParameter.index);
+        if (param instanceof Parameter) {
+          return change.computeTextModificationOn((Parameter) param);
+        }
+      }
+    }
+    return null;
   }
 
   @Override
@@ -173,23 +131,21 @@ public class ChangeVisitor
       OnLocalVariable onLocalVariable, Pair<NodeList<BodyDeclaration<?>>, ASTChange> pair) {
     final NodeList<BodyDeclaration<?>> members = pair.a;
     final ASTChange change = pair.b;
-    for (BodyDeclaration<?> member : members) {
-      if (member instanceof CallableDeclaration<?>) {
-        CallableDeclaration<?> callableDeclaration = (CallableDeclaration<?>) member;
-        if (onLocalVariable.encMethod.matchesCallableDeclaration(callableDeclaration)) {
-          // Find variable declaration in the callable declaration with the variable name.
-          VariableDeclarationExpr variableDeclarationExpr =
-              Helper.locateVariableDeclarationExpr(callableDeclaration, onLocalVariable.varName);
-          if (variableDeclarationExpr == null) {
-            return null;
-          }
-          for (VariableDeclarator variableDeclarator : variableDeclarationExpr.getVariables()) {
-            if (variableDeclarator.getName().toString().equals(onLocalVariable.varName)) {
-              // Located the variable.
-              return change.computeTextModificationOn(variableDeclarationExpr);
-            }
-          }
-        }
+    CallableDeclaration<?> callableDeclaration =
+        index.getMemberIndex(members).getCallable(onLocalVariable.encMethod.matcher);
+    if (callableDeclaration == null) {
+      return null;
+    }
+    // Find variable declaration in the callable declaration with the variable name.
+    VariableDeclarationExpr variableDeclarationExpr =
+        Helper.locateVariableDeclarationExpr(callableDeclaration, onLocalVariable.varName);
+    if (variableDeclarationExpr == null) {
+      return null;
+    }
+    for (VariableDeclarator variableDeclarator : variableDeclarationExpr.getVariables()) {
+      if (variableDeclarator.getName().toString().equals(onLocalVariable.varName)) {
+        // Located the variable.
+        return change.computeTextModificationOn(variableDeclarationExpr);
       }
     }
     return null;
@@ -206,7 +162,7 @@ public class ChangeVisitor
   public Modification computeModification(ASTChange change) {
     NodeList<BodyDeclaration<?>> members;
     try {
-      members = Helper.getTypeDeclarationMembersByFlatName(cu, change.getLocation().clazz);
+      members = index.getMembersByFlatName(change.getLocation().clazz);
       if (members == null) {
         return null;
       }
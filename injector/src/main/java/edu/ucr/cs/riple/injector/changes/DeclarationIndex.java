@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.injector.changes;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.AnnotationMemberDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.google.common.collect.ImmutableList;
+import edu.ucr.cs.riple.injector.Helper;
+import edu.ucr.cs.riple.injector.SignatureMatcher;
+import edu.ucr.cs.riple.injector.exceptions.TargetClassNotFound;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Index of declarations in a compilation unit. Type declarations are located once per flat name,
+ * and members of each located type declaration are indexed in a single pass, therefore lookups of
+ * many changes on the same compilation unit do not traverse the tree repeatedly. The compilation
+ * unit must not be modified while the index is in use.
+ */
+class DeclarationIndex {
+
+  /** Compilation unit which is indexed. */
+  private final CompilationUnit cu;
+  /** Members of located type declarations by their flat name. */
+  private final Map<String, NodeList<BodyDeclaration<?>>> membersByFlatName;
+  /** Index of members by the list of members, lists are compared by identity. */
+  private final Map<NodeList<BodyDeclaration<?>>, MemberIndex> memberIndices;
+
+  DeclarationIndex(CompilationUnit cu) {
+    this.cu = cu;
+    this.membersByFlatName = new HashMap<>();
+    this.memberIndices = new IdentityHashMap<>();
+  }
+
+  /**
+   * Returns members of the type declaration with the given flat name. See {@link
+   * Helper#getTypeDeclarationMembersByFlatName(CompilationUnit, String)}.
+   *
+   * @param flatName Flat name of the type declaration.
+   * @return Members of the type declaration, or null if the declaration does not have members.
+   * @throws TargetClassNotFound if the target class is not found.
+   */
+  @Nullable
+  NodeList<BodyDeclaration<?>> getMembersByFlatName(String flatName) throws TargetClassNotFound {
+    if (membersByFlatName.containsKey(flatName)) {
+      return membersByFlatName.get(flatName);
+    }
+    NodeList<BodyDeclaration<?>> members = Helper.getTypeDeclarationMembersByFlatName(cu, flatName);
+    membersByFlatName.put(flatName, members);
+    return members;
+  }
+
+  /**
+   * Returns the index of the given members, the index is created on first request.
+   *
+   * @param members Members of a type declaration.
+   * @return Index of the members.
+   */
+  MemberIndex getMemberIndex(NodeList<BodyDeclaration<?>> members) {
+    return memberIndices.computeIfAbsent(members, MemberIndex::new);
+  }
+
+  /** Index of members of a type declaration. */
+  static class MemberIndex {
+
+    /** First callable declaration by its normalized signature. */
+    private final Map<ImmutableList<String>, CallableDeclaration<?>> callables;
+    /** Last annotation member declaration by its name. */
+    private final Map<String, AnnotationMemberDeclaration> annotationMembers;
+    /** First field declaration by the name of its declared variables. */
+    private final Map<String, FieldDeclaration> fields;
+    /** Position of field declarations in the list of members, by their declared variables. */
+    private final Map<String, Integer> fieldPositions;
+
+    private MemberIndex(NodeList<BodyDeclaration<?>> members) {
+      this.callables = new HashMap<>();
+      this.annotationMembers = new HashMap<>();
+      this.fields = new HashMap<>();
+      this.fieldPositions = new HashMap<>();
+      for (int i = 0; i < members.size(); i++) {
+        BodyDeclaration<?> member = members.get(i);
+        if (member instanceof CallableDeclaration<?>) {
+          CallableDeclaration<?> callable = (CallableDeclaration<?>) member;
+          callables.putIfAbsent(SignatureMatcher.normalizedSignatureOf(callable), callable);
+        }
+        if (member instanceof AnnotationMemberDeclaration) {
+          AnnotationMemberDeclaration annotationMember = (AnnotationMemberDeclaration) member;
+          annotationMembers.put(annotationMember.getNameAsString(), annotationMember);
+        }
+        if (member instanceof FieldDeclaration) {
+          FieldDeclaration field = (FieldDeclaration) member;
+          for (VariableDeclarator v : field.getVariables()) {
+            String name = v.getName().toString();
+            fields.putIfAbsent(name, field);
+            fieldPositions.putIfAbsent(name, i);
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns the first callable declaration matching the given matcher.
+     *
+     * @param matcher Matcher of the callable signature.
+     * @return The callable declaration, or null if not found.
+     */
+    @Nullable
+    CallableDeclaration<?> getCallable(SignatureMatcher matcher) {
+      return callables.get(matcher.getNormalizedSignature());
+    }
+
+    /**
+     * Returns the last annotation member declaration with the given name.
+     *
+     * @param name Name of the annotation member.
+     * @return The annotation member declaration, or null if not found.
+     */
+    @Nullable
+    AnnotationMemberDeclaration getAnnotationMember(String name) {
+      return annotationMembers.get(name);
+    }
+
+    /**
+     * Returns the first field declaration declaring any of the given variables.
+     *
+     * @param variables Names of variables.
+     * @return The field declaration, or null if not found.
+     */
+    @Nullable
+    FieldDeclaration getField(Set<String> variables) {
+      String first = null;
+      for (String variable : variables) {
+        Integer position = fieldPositions.get(variable);
+        if (position != null && (first == null || position < fieldPositions.get(first))) {
+          first = variable;
+        }
+      }
+      return first == null ? null : fields.get(first);
+    }
+  }
+}
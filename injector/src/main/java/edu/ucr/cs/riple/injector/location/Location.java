@@ -29,9 +29,13 @@ import com.google.common.collect.Sets;
 import edu.ucr.cs.riple.injector.Helper;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
 import javax.annotation.Nullable;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
 
 /** Represents a location of an element in the source code. */
 public abstract class Location {
@@ -84,18 +88,68 @@ public abstract class Location {
     if (values[0] == null || values[0].equals("null")) {
       return null;
     }
-    LocationKind type = LocationKind.getKind(values[0]);
-    Path path = Helper.deserializePath(values[5]);
-    String clazz = values[1];
+    return createLocation(
+        values[0], Helper.deserializePath(values[5]), values[1], values[2], values[3], values[4]);
+  }
+
+  /**
+   * Creates a {@link Location} instance from the given values, in the same order as {@link
+   * #createLocationFromArrayInfo(String[])}. Allows callers to create locations without an
+   * intermediate array and to reuse deserialized paths.
+   *
+   * @param kind Location kind, must not be {@code "null"}.
+   * @param path Path to file containing the target element.
+   * @param clazz Class flat name.
+   * @param method Method signature.
+   * @param variable Parameter / Variable name.
+   * @param index Index in the argument list (Applicable to only parameter types).
+   * @return Corresponding {@link Location} instance.
+   */
+  public static Location createLocation(
+      String kind, Path path, String clazz, String method, String variable, String index) {
+    LocationKind type = LocationKind.getKind(kind);
     switch (type) {
       case FIELD:
-        return new OnField(path, clazz, Sets.newHashSet(values[3]));
+        return new OnField(path, clazz, Sets.newHashSet(variable));
+      case METHOD:
+        return new OnMethod(path, clazz, method);
+      case PARAMETER:
+        return new OnParameter(path, clazz, method, Integer.parseInt(index));
+    }
+    throw new RuntimeException("Cannot reach this statement, kind: " + kind);
+  }
+
+  /**
+   * Creates a {@link Location} instance from its JSON representation produced by {@link
+   * LocationToPortableJsonVisitor}.
+   *
+   * @param json JSON representation of the location.
+   * @return Corresponding {@link Location} instance.
+   */
+  public static Location createLocationFromJson(JSONObject json) {
+    String kind = (String) json.get(LocationToJsonVisitor.KEYS.KIND.name());
+    Preconditions.checkNotNull(kind, "Location kind is missing in: " + json);
+    String serializedPath = (String) json.get(LocationToJsonVisitor.KEYS.PATH.name());
+    Path path = serializedPath == null ? null : Helper.deserializePath(serializedPath);
+    String clazz = (String) json.get(LocationToJsonVisitor.KEYS.CLASS.name());
+    String method = (String) json.get(LocationToJsonVisitor.KEYS.METHOD.name());
+    Object variables = json.get(LocationToJsonVisitor.KEYS.VARIABLES.name());
+    switch (LocationKind.getKind(kind)) {
+      case CLASS:
+        return new OnClass(path, clazz);
+      case FIELD:
+        Set<String> names = new HashSet<>();
+        ((JSONArray) variables).forEach(name -> names.add((String) name));
+        return new OnField(path, clazz, names);
       case METHOD:
-        return new OnMethod(path, clazz, values[2]);
+        return new OnMethod(path, clazz, method);
       case PARAMETER:
-        return new OnParameter(path, clazz, values[2], Integer.parseInt(values[4]));
+        Number index = (Number) json.get(LocationToJsonVisitor.KEYS.INDEX.name());
+        return new OnParameter(path, clazz, method, index.intValue());
+      case LOCAL_VARIABLE:
+        return new OnLocalVariable(path, clazz, method, (String) variables);
     }
-    throw new RuntimeException("Cannot reach this statement, values: " + Arrays.toString(values));
+    throw new RuntimeException("Cannot reach this statement, kind: " + kind);
   }
 
   /**
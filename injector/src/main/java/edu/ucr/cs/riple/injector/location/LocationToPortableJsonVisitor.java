@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package edu.ucr.cs.riple.injector.location;
+
+import edu.ucr.cs.riple.injector.location.LocationToJsonVisitor.KEYS;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * A visitor that converts a location to a JSON object which can be written and converted back to
+ * the location via {@link Location#createLocationFromJson(JSONObject)}. Keys are the names of
+ * {@link KEYS} and values are strings, numbers or arrays of strings. Unlike {@link
+ * LocationToJsonVisitor}, which produces the representation of fixes in reports, the enclosing
+ * method of parameters and local variables is written as its signature.
+ */
+public class LocationToPortableJsonVisitor implements LocationVisitor<JSONObject, Void> {
+
+  @SuppressWarnings("unchecked")
+  private JSONObject defaultAction(Location location) {
+    JSONObject res = new JSONObject();
+    res.put(KEYS.CLASS.name(), location.clazz);
+    res.put(KEYS.KIND.name(), location.getKind().toString());
+    res.put(KEYS.PATH.name(), location.path == null ? null : location.path.toString());
+    return res;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public JSONObject visitMethod(OnMethod onMethod, Void unused) {
+    JSONObject res = defaultAction(onMethod);
+    res.put(KEYS.METHOD.name(), onMethod.method);
+    return res;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public JSONObject visitField(OnField onField, Void unused) {
+    JSONObject res = defaultAction(onField);
+    JSONArray fields = new JSONArray();
+    fields.addAll(onField.variables);
+    res.put(KEYS.VARIABLES.name(), fields);
+    return res;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public JSONObject visitParameter(OnParameter onParameter, Void unused) {
+    JSONObject res = defaultAction(onParameter);
+    res.put(KEYS.METHOD.name(), onParameter.enclosingMethod.method);
+    res.put(KEYS.INDEX.name(), onParameter.index);
+    return res;
+  }
+
+  @Override
+  public JSONObject visitClass(OnClass onClass, Void unused) {
+    return defaultAction(onClass);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public JSONObject visitLocalVariable(OnLocalVariable onLocalVariable, Void unused) {
+    JSONObject res = defaultAction(onLocalVariable);
+    res.put(KEYS.METHOD.name(), onLocalVariable.encMethod.method);
+    res.put(KEYS.VARIABLES.name(), onLocalVariable.varName);
+    return res;
+  }
+}
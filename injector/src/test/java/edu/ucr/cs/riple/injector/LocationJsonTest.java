@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package edu.ucr.cs.riple.injector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.ImmutableSet;
+import edu.ucr.cs.riple.injector.location.Location;
+import edu.ucr.cs.riple.injector.location.LocationToJsonVisitor;
+import edu.ucr.cs.riple.injector.location.LocationToPortableJsonVisitor;
+import edu.ucr.cs.riple.injector.location.OnClass;
+import edu.ucr.cs.riple.injector.location.OnField;
+import edu.ucr.cs.riple.injector.location.OnLocalVariable;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import edu.ucr.cs.riple.injector.location.OnParameter;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LocationJsonTest {
+
+  @Test
+  public void roundTripAllKinds() {
+    checkRoundTrip(new OnClass("/root/src/Foo.java", "test.Foo"));
+    checkRoundTrip(new OnMethod("/root/src/Foo.java", "test.Foo", "run(java.lang.Object,int)"));
+    checkRoundTrip(new OnParameter("/root/src/Foo.java", "test.Foo", "run(java.lang.Object)", 0));
+    checkRoundTrip(new OnField("/root/src/Foo.java", "test.Foo", ImmutableSet.of("a", "b")));
+    checkRoundTrip(new OnLocalVariable("/root/src/Foo.java", "test.Foo", "run()", "local"));
+  }
+
+  @Test
+  public void roundTripWithoutSerialization() {
+    Location location = new OnParameter("/root/src/Foo.java", "test.Foo", "run(int,int)", 1);
+    assertEquals(
+        location,
+        Location.createLocationFromJson(
+            location.accept(new LocationToPortableJsonVisitor(), null)));
+  }
+
+  @Test
+  public void portableJsonWritesSignatureOfEnclosingMethod() {
+    OnParameter parameter = new OnParameter("/root/src/Foo.java", "test.Foo", "run(int)", 0);
+    JSONObject json = parameter.accept(new LocationToPortableJsonVisitor(), null);
+    assertEquals("run(int)", json.get(LocationToJsonVisitor.KEYS.METHOD.name()));
+    assertEquals(0, json.get(LocationToJsonVisitor.KEYS.INDEX.name()));
+    OnLocalVariable local = new OnLocalVariable("/root/src/Foo.java", "test.Foo", "run()", "x");
+    json = local.accept(new LocationToPortableJsonVisitor(), null);
+    assertEquals("run()", json.get(LocationToJsonVisitor.KEYS.METHOD.name()));
+    assertEquals("x", json.get(LocationToJsonVisitor.KEYS.VARIABLES.name()));
+  }
+
+  @Test
+  public void reportJsonIsUnchanged() {
+    // Representation of fixes in reports keeps the enclosing method object and the enum keys.
+    OnParameter parameter = new OnParameter("/root/src/Foo.java", "test.Foo", "run(int)", 0);
+    JSONObject json = parameter.accept(new LocationToJsonVisitor(), null);
+    assertSame(parameter.enclosingMethod, json.get(LocationToJsonVisitor.KEYS.METHOD));
+    assertEquals(0, json.get(LocationToJsonVisitor.KEYS.INDEX));
+    assertEquals("test.Foo", json.get(LocationToJsonVisitor.KEYS.CLASS));
+    assertEquals(parameter.path, json.get(LocationToJsonVisitor.KEYS.PATH));
+    OnLocalVariable local = new OnLocalVariable("/root/src/Foo.java", "test.Foo", "run()", "x");
+    json = local.accept(new LocationToJsonVisitor(), null);
+    assertSame(local.encMethod, json.get(LocationToJsonVisitor.KEYS.METHOD));
+  }
+
+  private static void checkRoundTrip(Location location) {
+    String serialized =
+        location.accept(new LocationToPortableJsonVisitor(), null).toJSONString();
+    try {
+      JSONObject parsed = (JSONObject) new JSONParser().parse(serialized);
+      assertEquals(location, Location.createLocationFromJson(parsed));
+    } catch (ParseException e) {
+      throw new RuntimeException("Could not parse serialized location: " + serialized, e);
+    }
+  }
+}
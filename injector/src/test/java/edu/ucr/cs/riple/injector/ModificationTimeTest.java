@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.injector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.changes.RemoveMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ModificationTimeTest extends BaseInjectorTest {
+
+  /** Last modified time set on test inputs, far in the past to be distinguishable. */
+  private static final FileTime INITIAL_TIME = FileTime.fromMillis(1_000_000_000L);
+
+  @Test
+  public void unchangedFileIsNotWritten() throws IOException {
+    Path path =
+        writeInput(
+            "package test;",
+            "import javax.annotation.Nullable;",
+            "public class Foo {",
+            "   @Nullable Object run() {}",
+            "}");
+    new Injector()
+        .addAnnotations(
+            Set.of(
+                new AddMarkerAnnotation(
+                    new OnMethod(path, "test.Foo", "run()"), "javax.annotation.Nullable")));
+    assertEquals(INITIAL_TIME, Files.getLastModifiedTime(path));
+  }
+
+  @Test
+  public void rollbackRestoresModificationTime() throws IOException {
+    Path path =
+        writeInput(
+            "package test;",
+            "import javax.annotation.Nullable;",
+            "public class Foo {",
+            "   Object run() {}",
+            "}");
+    OnMethod location = new OnMethod(path, "test.Foo", "run()");
+    Injector injector = new Injector(1, true);
+    injector.addAnnotations(
+        Set.of(new AddMarkerAnnotation(location, "javax.annotation.Nullable")));
+    assertNotEquals(INITIAL_TIME, Files.getLastModifiedTime(path));
+    injector.removeAnnotations(
+        Set.of(new RemoveMarkerAnnotation(location, "javax.annotation.Nullable")));
+    assertEquals(INITIAL_TIME, Files.getLastModifiedTime(path));
+  }
+
+  @Test
+  public void rollbackDoesNotRestoreModificationTimeIfNotRequested() throws IOException {
+    Path path =
+        writeInput(
+            "package test;",
+            "import javax.annotation.Nullable;",
+            "public class Foo {",
+            "   Object run() {}",
+            "}");
+    OnMethod location = new OnMethod(path, "test.Foo", "run()");
+    Injector injector = new Injector();
+    injector.addAnnotations(
+        Set.of(new AddMarkerAnnotation(location, "javax.annotation.Nullable")));
+    injector.removeAnnotations(
+        Set.of(new RemoveMarkerAnnotation(location, "javax.annotation.Nullable")));
+    assertNotEquals(INITIAL_TIME, Files.getLastModifiedTime(path));
+  }
+
+  /**
+   * Writes the given lines to "Foo.java" in the output directory and sets its last modified time
+   * to {@link #INITIAL_TIME}.
+   *
+   * @param lines Lines of the input file.
+   * @return Path to the input file.
+   */
+  private Path writeInput(String... lines) throws IOException {
+    Path path = outDirPath.resolve("Foo.java");
+    Files.write(path, List.of(lines));
+    Files.setLastModifiedTime(path, INITIAL_TIME);
+    return path;
+  }
+}
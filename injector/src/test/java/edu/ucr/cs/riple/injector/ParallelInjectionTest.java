@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.injector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import edu.ucr.cs.riple.injector.changes.AddAnnotation;
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.changes.RemoveAnnotation;
+import edu.ucr.cs.riple.injector.changes.RemoveMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import edu.ucr.cs.riple.injector.offsets.FileOffsetStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ParallelInjectionTest extends BaseInjectorTest {
+
+  @Test
+  public void injectOnMultipleFilesInParallel() throws IOException {
+    Set<AddAnnotation> changes = new HashSet<>();
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      String name = "Foo" + (char) ('A' + i);
+      Path path = outDirPath.resolve(name + ".java");
+      Files.write(
+          path, List.of("package test;", "public class " + name + " {", "   Object run() {}", "}"));
+      changes.add(
+          new AddMarkerAnnotation(
+              new OnMethod(path, "test." + name, "run()"), "javax.annotation.Nullable"));
+      paths.add(path);
+    }
+    Set<FileOffsetStore> offsets;
+    try (Injector injector = new Injector(4)) {
+      offsets = injector.addAnnotations(changes);
+    }
+    // Offset stores are merged in the order of paths.
+    assertEquals(
+        paths, offsets.stream().map(FileOffsetStore::getPath).collect(Collectors.toList()));
+    for (int i = 0; i < paths.size(); i++) {
+      String name = "Foo" + (char) ('A' + i);
+      assertEquals(
+          List.of(
+              "package test;",
+              "import javax.annotation.Nullable;",
+              "public class " + name + " {",
+              "   @Nullable Object run() {}",
+              "}"),
+          Files.readAllLines(paths.get(i)));
+    }
+  }
+
+  @Test
+  public void threadPoolIsReusedAcrossCalls() throws IOException {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      String name = "Bar" + (char) ('A' + i);
+      Path path = outDirPath.resolve(name + ".java");
+      Files.write(
+          path, List.of("package test;", "public class " + name + " {", "   Object run() {}", "}"));
+      paths.add(path);
+    }
+    Injector injector = new Injector(4);
+    for (int round = 0; round < 5; round++) {
+      Set<AddAnnotation> changes = new HashSet<>();
+      for (Path path : paths) {
+        String name = path.getFileName().toString().replace(".java", "");
+        changes.add(
+            new AddMarkerAnnotation(
+                new OnMethod(path, "test." + name, "run()"), "javax.annotation.Nullable"));
+      }
+      Set<RemoveAnnotation> removals = new HashSet<>();
+      changes.forEach(
+          change ->
+              removals.add(
+                  new RemoveMarkerAnnotation(change.getLocation(), "javax.annotation.Nullable")));
+      injector.addAnnotations(changes);
+      injector.removeAnnotations(removals);
+      // Threads of previous calls are reused, not created again.
+      assertTrue(countInjectorThreads() <= 4);
+    }
+    injector.close();
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            injector.addAnnotations(
+                Set.of(
+                    new AddMarkerAnnotation(
+                        new OnMethod(paths.get(0), "test.BarA", "run()"),
+                        "javax.annotation.Nullable"),
+                    new AddMarkerAnnotation(
+                        new OnMethod(paths.get(1), "test.BarB", "run()"),
+                        "javax.annotation.Nullable"))));
+  }
+
+  /**
+   * Counts live threads of injector thread pools.
+   *
+   * @return Number of live injector threads.
+   */
+  private static long countInjectorThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .filter(thread -> thread.getName().equals("injector-worker") && thread.isAlive())
+        .count();
+  }
+}
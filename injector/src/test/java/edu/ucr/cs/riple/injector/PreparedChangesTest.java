@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.injector;
+
+import static org.junit.Assert.assertEquals;
+
+import edu.ucr.cs.riple.injector.changes.AddMarkerAnnotation;
+import edu.ucr.cs.riple.injector.changes.RemoveMarkerAnnotation;
+import edu.ucr.cs.riple.injector.location.OnMethod;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PreparedChangesTest extends BaseInjectorTest {
+
+  @Test
+  public void applyOnUnchangedFile() throws IOException {
+    Path path = outDirPath.resolve("Foo.java");
+    Files.write(path, List.of("package test;", "public class Foo {", "   Object run() {}", "}"));
+    Injector injector = new Injector();
+    PreparedChanges prepared =
+        injector.prepare(
+            Set.of(
+                new AddMarkerAnnotation(
+                    new OnMethod(path, "test.Foo", "run()"), "javax.annotation.Nullable")));
+    // Preparation must not modify the file.
+    assertEquals(
+        List.of("package test;", "public class Foo {", "   Object run() {}", "}"),
+        Files.readAllLines(path));
+    injector.apply(prepared);
+    assertEquals(
+        List.of(
+            "package test;",
+            "import javax.annotation.Nullable;",
+            "public class Foo {",
+            "   @Nullable Object run() {}",
+            "}"),
+        Files.readAllLines(path));
+  }
+
+  @Test
+  public void applyOnFileModifiedAfterPreparation() throws IOException {
+    Path path = outDirPath.resolve("Foo.java");
+    Files.write(path, List.of("package test;", "public class Foo {", "   Object run() {}", "}"));
+    Injector injector = new Injector();
+    PreparedChanges prepared =
+        injector.prepare(
+            Set.of(
+                new AddMarkerAnnotation(
+                    new OnMethod(path, "test.Foo", "run()"), "javax.annotation.Nullable")));
+    // Positions computed at preparation are no longer valid and must be recomputed.
+    Files.write(
+        path,
+        List.of("package test;", "public class Foo {", "   int f;", "   Object run() {}", "}"));
+    injector.apply(prepared);
+    assertEquals(
+        List.of(
+            "package test;",
+            "import javax.annotation.Nullable;",
+            "public class Foo {",
+            "   int f;",
+            "   @Nullable Object run() {}",
+            "}"),
+        Files.readAllLines(path));
+  }
+
+  @Test
+  public void prepareOnPartiallyWrittenFile() throws IOException {
+    Path path = outDirPath.resolve("Foo.java");
+    // Content read while the file is being rewritten, cannot be parsed.
+    Files.write(path, List.of("package test;", "public class Foo {", "   Object run("));
+    Injector injector = new Injector();
+    PreparedChanges prepared =
+        injector.prepare(
+            Set.of(
+                new AddMarkerAnnotation(
+                    new OnMethod(path, "test.Foo", "run()"), "javax.annotation.Nullable")));
+    Files.write(path, List.of("package test;", "public class Foo {", "   Object run() {}", "}"));
+    injector.apply(prepared);
+    assertEquals(
+        List.of(
+            "package test;",
+            "import javax.annotation.Nullable;",
+            "public class Foo {",
+            "   @Nullable Object run() {}",
+            "}"),
+        Files.readAllLines(path));
+  }
+
+  @Test
+  public void prepareOverlappingRemovalOnSameFile() throws Exception {
+    Path path = outDirPath.resolve("Foo.java");
+    List<String> annotated =
+        List.of(
+            "package test;",
+            "import javax.annotation.Nullable;",
+            "public class Foo {",
+            "   @Nullable Object first() {}",
+            "   Object second() {}",
+            "}");
+    Injector remover = new Injector();
+    Injector preparer = new Injector();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      for (int i = 0; i < 50; i++) {
+        Files.write(path, annotated);
+        // Removal of annotations of a group rewrites the file while annotations of the next group
+        // are prepared on the same file.
+        Future<?> removal =
+            executor.submit(
+                () ->
+                    remover.removeAnnotations(
+                        Set.of(
+                            new RemoveMarkerAnnotation(
+                                new OnMethod(path, "test.Foo", "first()"),
+                                "javax.annotation.Nullable"))));
+        PreparedChanges prepared =
+            preparer.prepare(
+                Set.of(
+                    new AddMarkerAnnotation(
+                        new OnMethod(path, "test.Foo", "second()"), "javax.annotation.Nullable")));
+        removal.get();
+        preparer.apply(prepared);
+        assertEquals(
+            List.of(
+                "package test;",
+                "import javax.annotation.Nullable;",
+                "public class Foo {",
+                "   Object first() {}",
+                "   @Nullable Object second() {}",
+                "}"),
+            Files.readAllLines(path));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
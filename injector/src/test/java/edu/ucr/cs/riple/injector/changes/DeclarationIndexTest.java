@@ -0,0 +1,307 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Nima Karimipour
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package edu.ucr.cs.riple.injector.changes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.AnnotationMemberDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import edu.ucr.cs.riple.injector.Helper;
+import edu.ucr.cs.riple.injector.SignatureMatcher;
+import edu.ucr.cs.riple.injector.exceptions.TargetClassNotFound;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DeclarationIndexTest {
+
+  /** Compilation unit with overloads, constructors, nested and anonymous classes. */
+  private static final CompilationUnit TREE =
+      StaticJavaParser.parse(
+          String.join(
+              "\n",
+              "package test;",
+              "import java.util.List;",
+              "public class Foo {",
+              "   int a, b;",
+              "   Object c;",
+              "   String b2, c;",
+              "   Foo() {}",
+              "   Foo(int i) {}",
+              "   Foo(String s, Object... rest) {}",
+              "   void run() {}",
+              "   void run(int i) {}",
+              "   void run(Integer i) {}",
+              "   void run(long i, int j) {}",
+              "   void run(int i, long j) {}",
+              "   void run(List<String> l) {}",
+              "   void run(java.util.Map<String, Integer> m) {}",
+              "   void run(int[] a) {}",
+              "   void run(int... a) {}",
+              "   void run(String[][] a) {}",
+              "   void run(a.b.Bar b) {}",
+              "   void run(c.d.Bar b) {}",
+              "   <T> void generic(T t, List<? extends T> list) {}",
+              "   class Inner {",
+              "      Inner(Foo f) {}",
+              "      void run(int i) {}",
+              "      void run(Inner i) {}",
+              "   }",
+              "   static class Nested {",
+              "      static class Deeper {",
+              "         void run(long l) {}",
+              "      }",
+              "   }",
+              "   Object anon = new Object() {",
+              "      void run(int i) {}",
+              "      public String toString() { return \"\"; }",
+              "   };",
+              "   void local() {",
+              "      Runnable r = new Runnable() {",
+              "         public void run() {}",
+              "      };",
+              "   }",
+              "}",
+              "@interface Ann {",
+              "   String value();",
+              "   int value();",
+              "   int other();",
+              "}"));
+
+  /** Flat names of all type declarations in {@link #TREE}. */
+  private static final List<String> FLAT_NAMES =
+      List.of(
+          "test.Foo",
+          "test.Foo$Inner",
+          "test.Foo$Nested",
+          "test.Foo$Nested$Deeper",
+          "test.Foo$1",
+          "test.Foo$2",
+          "test.Ann");
+
+  /** Signatures queried on each type declaration, as serialized by the checker and otherwise. */
+  private static final List<String> SIGNATURES =
+      List.of(
+          "run()",
+          "run(int)",
+          "run(java.lang.Integer)",
+          "run(Integer)",
+          "run(long,int)",
+          "run(int,long)",
+          "run(long)",
+          "run(java.util.List<java.lang.String>)",
+          "run(java.util.List)",
+          "run(java.util.Map<java.lang.String,java.lang.Integer>)",
+          "run(int[])",
+          "run(int...)",
+          "run(java.lang.String[][])",
+          "run(a.b.Bar)",
+          "run(c.d.Bar)",
+          "run(x.y.Bar)",
+          "run(test.Foo.Inner)",
+          "run(test.Foo$Inner)",
+          "Foo()",
+          "Foo(int)",
+          "Foo(java.lang.String,java.lang.Object[])",
+          "Foo(java.lang.String,java.lang.Object...)",
+          "Inner(test.Foo)",
+          "generic(T,java.util.List<? extends T>)",
+          "generic(java.lang.Object,java.util.List)",
+          "toString()",
+          "value()",
+          "other()",
+          "missing()");
+
+  @Test
+  public void callableLookupMatchesScanTest() throws TargetClassNotFound {
+    DeclarationIndex index = new DeclarationIndex(TREE);
+    int found = 0;
+    for (String flatName : FLAT_NAMES) {
+      NodeList<BodyDeclaration<?>> members = index.getMembersByFlatName(flatName);
+      assertNotNull(flatName, members);
+      DeclarationIndex.MemberIndex memberIndex = index.getMemberIndex(members);
+      for (String signature : SIGNATURES) {
+        SignatureMatcher matcher = new SignatureMatcher(signature);
+        CallableDeclaration<?> expected = scanCallable(members, matcher);
+        assertSame(flatName + "#" + signature, expected, memberIndex.getCallable(matcher));
+        if (expected != null) {
+          found++;
+        }
+      }
+    }
+    // Lookups which find a declaration, not only lookups which find none, are compared.
+    assertEquals(22, found);
+  }
+
+  @Test
+  public void overloadsResolveToFirstDeclarationTest() throws TargetClassNotFound {
+    DeclarationIndex index = new DeclarationIndex(TREE);
+    DeclarationIndex.MemberIndex memberIndex =
+        index.getMemberIndex(index.getMembersByFlatName("test.Foo"));
+    // Array and varargs parameters of the same element type share a signature.
+    assertEquals(
+        "void run(int[] a)",
+        declarationOf(memberIndex.getCallable(new SignatureMatcher("run(int[])"))));
+    // Parameters with equal simple names resolve to the first declaration.
+    assertEquals(
+        "void run(a.b.Bar b)",
+        declarationOf(memberIndex.getCallable(new SignatureMatcher("run(c.d.Bar)"))));
+    // Parameter order is part of the signature.
+    assertEquals(
+        "void run(int i, long j)",
+        declarationOf(memberIndex.getCallable(new SignatureMatcher("run(int,long)"))));
+    assertEquals(
+        "Foo(String s, Object... rest)",
+        declarationOf(
+            memberIndex.getCallable(
+                new SignatureMatcher("Foo(java.lang.String,java.lang.Object[])"))));
+    assertNull(memberIndex.getCallable(new SignatureMatcher("run(int...)")));
+  }
+
+  @Test
+  public void fieldLookupMatchesScanTest() throws TargetClassNotFound {
+    DeclarationIndex index = new DeclarationIndex(TREE);
+    NodeList<BodyDeclaration<?>> members = index.getMembersByFlatName("test.Foo");
+    DeclarationIndex.MemberIndex memberIndex = index.getMemberIndex(members);
+    List<Set<String>> queries =
+        List.of(
+            Set.of("a"),
+            Set.of("b"),
+            Set.of("c"),
+            Set.of("b2"),
+            Set.of("b2", "a"),
+            Set.of("c", "b2"),
+            Set.of("anon"),
+            Set.of("missing"),
+            Set.of("missing", "c"));
+    for (Set<String> variables : queries) {
+      assertSame(
+          variables.toString(), scanField(members, variables), memberIndex.getField(variables));
+    }
+  }
+
+  @Test
+  public void annotationMemberLookupMatchesScanTest() throws TargetClassNotFound {
+    DeclarationIndex index = new DeclarationIndex(TREE);
+    NodeList<BodyDeclaration<?>> members = index.getMembersByFlatName("test.Ann");
+    DeclarationIndex.MemberIndex memberIndex = index.getMemberIndex(members);
+    for (String name : List.of("value", "other", "missing")) {
+      assertSame(name, scanAnnotationMember(members, name), memberIndex.getAnnotationMember(name));
+    }
+  }
+
+  @Test
+  public void membersAreLocatedOnceTest() throws TargetClassNotFound {
+    DeclarationIndex index = new DeclarationIndex(TREE);
+    for (String flatName : FLAT_NAMES) {
+      NodeList<BodyDeclaration<?>> members = index.getMembersByFlatName(flatName);
+      assertSame(members, index.getMembersByFlatName(flatName));
+      assertSame(index.getMemberIndex(members), index.getMemberIndex(members));
+      assertEquals(members, Helper.getTypeDeclarationMembersByFlatName(TREE, flatName));
+    }
+  }
+
+  /**
+   * Returns the declaration of the given callable without modifiers and throws clause.
+   *
+   * @param callable Callable declaration.
+   * @return Declaration as string.
+   */
+  private static String declarationOf(CallableDeclaration<?> callable) {
+    return callable.getDeclarationAsString(false, false, true);
+  }
+
+  /**
+   * Looks up a callable declaration by a linear scan of members, as done before members were
+   * indexed.
+   *
+   * @param members Members of a type declaration.
+   * @param matcher Matcher of the callable signature.
+   * @return First matching callable declaration, or null if not found.
+   */
+  private static CallableDeclaration<?> scanCallable(
+      NodeList<BodyDeclaration<?>> members, SignatureMatcher matcher) {
+    for (BodyDeclaration<?> member : members) {
+      if (member instanceof CallableDeclaration<?>
+          && matcher.matchesCallableDeclaration((CallableDeclaration<?>) member)) {
+        return (CallableDeclaration<?>) member;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Looks up a field declaration by a linear scan of members, as done before members were indexed.
+   *
+   * @param members Members of a type declaration.
+   * @param variables Names of variables.
+   * @return First field declaration declaring any of the variables, or null if not found.
+   */
+  private static FieldDeclaration scanField(
+      NodeList<BodyDeclaration<?>> members, Set<String> variables) {
+    for (BodyDeclaration<?> member : members) {
+      if (member instanceof FieldDeclaration) {
+        for (VariableDeclarator v : ((FieldDeclaration) member).getVariables()) {
+          if (variables.contains(v.getName().toString())) {
+            return (FieldDeclaration) member;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Looks up an annotation member declaration by a linear scan of members, as done before members
+   * were indexed.
+   *
+   * @param members Members of a type declaration.
+   * @param name Name of the annotation member.
+   * @return Last annotation member declaration with the name, or null if not found.
+   */
+  private static AnnotationMemberDeclaration scanAnnotationMember(
+      NodeList<BodyDeclaration<?>> members, String name) {
+    AnnotationMemberDeclaration ans = null;
+    for (BodyDeclaration<?> member : members) {
+      if (member instanceof AnnotationMemberDeclaration
+          && ((AnnotationMemberDeclaration) member).getNameAsString().equals(name)) {
+        ans = (AnnotationMemberDeclaration) member;
+      }
+    }
+    return ans;
+  }
+}